@@ -0,0 +1,53 @@
+package com.nempeth.korven.config;
+
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.nempeth.korven.security.BusinessAccessResolver;
+import com.nempeth.korven.security.PrincipalCache;
+import com.nempeth.korven.service.AnalyticsCache;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.caffeine.CaffeineCacheManager;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.time.Duration;
+
+/**
+ * Cachés en memoria de la aplicación. Todas registran estadísticas, que Actuator publica
+ * como métricas {@code cache.gets}, {@code cache.puts} y {@code cache.evictions}.
+ */
+@Configuration
+public class CacheConfig {
+
+    @Bean
+    public CacheManager cacheManager(@Value("${app.analytics.cache.max-entries:10000}") long analyticsMaxEntries,
+                                     @Value("${app.analytics.cache.current-year-ttl:10m}") Duration currentYearTtl,
+                                     @Value("${app.security.principal-cache.max-entries:10000}") long principalMaxEntries,
+                                     @Value("${app.security.principal-cache.ttl:5m}") Duration principalTtl,
+                                     @Value("${app.security.business-access-cache.max-entries:10000}") long accessMaxEntries,
+                                     @Value("${app.security.business-access-cache.ttl:5m}") Duration accessTtl) {
+        CaffeineCacheManager cacheManager = new CaffeineCacheManager();
+        // Los años cerrados no cambian con las ventas nuevas: solo se desalojan por tamaño
+        cacheManager.registerCustomCache(AnalyticsCache.CLOSED_YEARS, Caffeine.newBuilder()
+                .maximumSize(analyticsMaxEntries)
+                .recordStats()
+                .build());
+        cacheManager.registerCustomCache(AnalyticsCache.CURRENT_YEAR, Caffeine.newBuilder()
+                .maximumSize(analyticsMaxEntries)
+                .expireAfterWrite(currentYearTtl)
+                .recordStats()
+                .build());
+        // Los cambios de usuario invalidan al confirmar; el vencimiento acota lo que se escape a eso
+        cacheManager.registerCustomCache(PrincipalCache.NAME, Caffeine.newBuilder()
+                .maximumSize(principalMaxEntries)
+                .expireAfterWrite(principalTtl)
+                .recordStats()
+                .build());
+        cacheManager.registerCustomCache(BusinessAccessResolver.CACHE_NAME, Caffeine.newBuilder()
+                .maximumSize(accessMaxEntries)
+                .expireAfterWrite(accessTtl)
+                .recordStats()
+                .build());
+        return cacheManager;
+    }
+}
@@ -0,0 +1,28 @@
+package com.nempeth.korven.config;
+
+import com.nempeth.korven.utils.Ids;
+import com.nempeth.korven.utils.UuidV7Generator;
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Configuration;
+
+import java.util.UUID;
+
+@Slf4j
+@Configuration
+public class IdGeneratorConfig {
+
+    @Value("${app.ids.strategy:v7}")
+    private String strategy;
+
+    @PostConstruct
+    public void configureIdGenerator() {
+        switch (strategy.toLowerCase()) {
+            case "v7" -> Ids.use(new UuidV7Generator());
+            case "random" -> Ids.use(UUID::randomUUID);
+            default -> throw new IllegalStateException("Estrategia de ids desconocida: " + strategy);
+        }
+        log.info("Entity id strategy: {}", strategy);
+    }
+}
@@ -0,0 +1,13 @@
+package com.nempeth.korven.config;
+
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.annotation.EnableScheduling;
+
+/**
+ * Habilita las tareas periódicas ({@code @Scheduled}) de los servicios, que corren en el
+ * scheduler de Spring Boot ({@code spring.task.scheduling.*}).
+ */
+@Configuration
+@EnableScheduling
+public class SchedulingConfig {
+}
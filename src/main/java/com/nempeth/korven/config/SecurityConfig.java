@@ -1,5 +1,6 @@
 package com.nempeth.korven.config;
 
+import com.nempeth.korven.security.AuthRateLimitFilter;
 import com.nempeth.korven.security.JwtAuthFilter;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
@@ -30,6 +31,7 @@ import java.util.List;
 public class SecurityConfig {
 
     private final JwtAuthFilter jwtAuthFilter;
+    private final AuthRateLimitFilter authRateLimitFilter;
 
     @PostConstruct
     public void logCorsConfiguration() {
@@ -49,7 +51,9 @@ public class SecurityConfig {
                         .requestMatchers(HttpMethod.GET, "/auth/password/validate").permitAll()
                         .anyRequest().authenticated()
                 )
-                .addFilterBefore(jwtAuthFilter, UsernamePasswordAuthenticationFilter.class);
+                .addFilterBefore(jwtAuthFilter, UsernamePasswordAuthenticationFilter.class)
+                // Los intentos por IP se cortan antes de tocar el token o la base
+                .addFilterBefore(authRateLimitFilter, JwtAuthFilter.class);
 
         return http.build();
     }
@@ -63,7 +67,7 @@ public class SecurityConfig {
                 "http://localhost:5173"));
         cors.setAllowedMethods(List.of("GET", "POST", "PUT", "DELETE", "PATCH", "OPTIONS"));
         cors.setAllowedHeaders(List.of("*"));
-        cors.setExposedHeaders(List.of("Authorization"));
+        cors.setExposedHeaders(List.of("Authorization", "Retry-After"));
         cors.setAllowCredentials(true);
         
         UrlBasedCorsConfigurationSource source = new UrlBasedCorsConfigurationSource();
@@ -0,0 +1,24 @@
+package com.nempeth.korven.config;
+
+import com.nempeth.korven.security.BusinessAccessArgumentResolver;
+import lombok.RequiredArgsConstructor;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.web.method.support.HandlerMethodArgumentResolver;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+import java.util.List;
+
+/**
+ * Registra los argumentos propios de los controladores, como {@code @BusinessMember BusinessAccess}.
+ */
+@Configuration
+@RequiredArgsConstructor
+public class WebConfig implements WebMvcConfigurer {
+
+    private final BusinessAccessArgumentResolver businessAccessArgumentResolver;
+
+    @Override
+    public void addArgumentResolvers(List<HandlerMethodArgumentResolver> resolvers) {
+        resolvers.add(businessAccessArgumentResolver);
+    }
+}
@@ -0,0 +1,11 @@
+package com.nempeth.korven.constants;
+
+/**
+ * Clase de un producto en el análisis de Pareto por ingresos: A concentra el primer 80% de los
+ * ingresos, B el siguiente 15% y C el resto.
+ */
+public enum AbcClass {
+    A,
+    B,
+    C
+}
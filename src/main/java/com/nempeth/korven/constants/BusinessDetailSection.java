@@ -0,0 +1,35 @@
+package com.nempeth.korven.constants;
+
+import java.util.EnumSet;
+import java.util.Set;
+
+/**
+ * Secciones opcionales del detalle de un negocio, pedidas con {@code include=members,categories,...}.
+ */
+public enum BusinessDetailSection {
+    MEMBERS,
+    CATEGORIES,
+    PRODUCTS,
+    STATS;
+
+    /** Sin {@code include} se devuelven todas las secciones, como antes del parámetro. */
+    public static Set<BusinessDetailSection> parse(String include) {
+        if (include == null || include.isBlank()) {
+            return EnumSet.allOf(BusinessDetailSection.class);
+        }
+        Set<BusinessDetailSection> sections = EnumSet.noneOf(BusinessDetailSection.class);
+        for (String value : include.split(",")) {
+            sections.add(from(value.trim()));
+        }
+        return sections;
+    }
+
+    public static BusinessDetailSection from(String value) {
+        for (BusinessDetailSection section : values()) {
+            if (section.name().equalsIgnoreCase(value)) {
+                return section;
+            }
+        }
+        throw new IllegalArgumentException("Sección inválida: " + value);
+    }
+}
@@ -0,0 +1,27 @@
+package com.nempeth.korven.constants;
+
+/**
+ * Métrica por la que se ordena el ranking de productos. Los importes se comparan en centavos.
+ */
+public enum ProductMetric {
+    REVENUE,
+    UNITS,
+    PROFIT;
+
+    public long select(long revenueCents, long costCents, long units) {
+        return switch (this) {
+            case REVENUE -> revenueCents;
+            case UNITS -> units;
+            case PROFIT -> revenueCents - costCents;
+        };
+    }
+
+    public static ProductMetric from(String value) {
+        for (ProductMetric metric : values()) {
+            if (metric.name().equalsIgnoreCase(value)) {
+                return metric;
+            }
+        }
+        throw new IllegalArgumentException("Métrica inválida");
+    }
+}
@@ -0,0 +1,47 @@
+package com.nempeth.korven.constants;
+
+import java.time.DayOfWeek;
+import java.time.ZonedDateTime;
+import java.time.temporal.ChronoUnit;
+import java.time.temporal.TemporalAdjusters;
+
+/**
+ * Intervalos de las series temporales de analíticas. Los límites se calculan en la zona horaria
+ * pedida, respetando los cambios de horario.
+ */
+public enum TimeGranularity {
+    HOUR,
+    DAY,
+    WEEK,
+    MONTH;
+
+    /** Inicio del intervalo que contiene a {@code time}. */
+    public ZonedDateTime truncate(ZonedDateTime time) {
+        return switch (this) {
+            case HOUR -> time.truncatedTo(ChronoUnit.HOURS);
+            case DAY -> time.toLocalDate().atStartOfDay(time.getZone());
+            case WEEK -> time.toLocalDate().with(TemporalAdjusters.previousOrSame(DayOfWeek.MONDAY))
+                    .atStartOfDay(time.getZone());
+            case MONTH -> time.toLocalDate().withDayOfMonth(1).atStartOfDay(time.getZone());
+        };
+    }
+
+    /** Inicio del intervalo siguiente; {@code start} debe ser el inicio de un intervalo. */
+    public ZonedDateTime next(ZonedDateTime start) {
+        return switch (this) {
+            case HOUR -> start.plusHours(1);
+            case DAY -> start.toLocalDate().plusDays(1).atStartOfDay(start.getZone());
+            case WEEK -> start.toLocalDate().plusWeeks(1).atStartOfDay(start.getZone());
+            case MONTH -> start.toLocalDate().plusMonths(1).atStartOfDay(start.getZone());
+        };
+    }
+
+    public static TimeGranularity from(String value) {
+        for (TimeGranularity granularity : values()) {
+            if (granularity.name().equalsIgnoreCase(value)) {
+                return granularity;
+            }
+        }
+        throw new IllegalArgumentException("Granularidad inválida");
+    }
+}
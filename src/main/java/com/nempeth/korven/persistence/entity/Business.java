@@ -1,5 +1,6 @@
 package com.nempeth.korven.persistence.entity;
 
+import com.nempeth.korven.utils.Ids;
 import jakarta.persistence.*;
 import lombok.*;
 
@@ -29,6 +30,6 @@ public class Business {
 
     @PrePersist
     public void prePersist() {
-        if (id == null) id = UUID.randomUUID();
+        if (id == null) id = Ids.next();
     }
 }
\ No newline at end of file
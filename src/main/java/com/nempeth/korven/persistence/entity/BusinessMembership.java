@@ -2,6 +2,7 @@ package com.nempeth.korven.persistence.entity;
 
 import com.nempeth.korven.constants.MembershipRole;
 import com.nempeth.korven.constants.MembershipStatus;
+import com.nempeth.korven.utils.Ids;
 import jakarta.persistence.*;
 import lombok.*;
 
@@ -42,6 +43,6 @@ public class BusinessMembership {
 
     @PrePersist
     public void prePersist() {
-        if (id == null) id = UUID.randomUUID();
+        if (id == null) id = Ids.next();
     }
 }
\ No newline at end of file
@@ -0,0 +1,44 @@
+package com.nempeth.korven.persistence.entity;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.math.BigDecimal;
+import java.util.UUID;
+
+/**
+ * Contadores del detalle de un negocio. Los servicios que modifican miembros, categorías, productos
+ * y ventas los ajustan en la misma transacción (ver {@code BusinessStatsService}).
+ */
+@Entity
+@Table(name = "business_stats")
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class BusinessStats {
+    @Id
+    @Column(name = "business_id", nullable = false, updatable = false)
+    private UUID businessId;
+
+    @MapsId
+    @OneToOne(fetch = FetchType.LAZY, optional = false)
+    @JoinColumn(name = "business_id", foreignKey = @ForeignKey(name = "fk_business_stats_business"))
+    private Business business;
+
+    @Column(name = "active_members", nullable = false)
+    private Long activeMembers;
+
+    @Column(name = "categories", nullable = false)
+    private Long categories;
+
+    @Column(name = "products", nullable = false)
+    private Long products;
+
+    @Column(name = "sales", nullable = false)
+    private Long sales;
+
+    @Column(name = "revenue", nullable = false, precision = 16, scale = 2)
+    private BigDecimal revenue;
+}
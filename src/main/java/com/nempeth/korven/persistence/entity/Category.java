@@ -1,6 +1,7 @@
 package com.nempeth.korven.persistence.entity;
 
 import com.nempeth.korven.constants.CategoryType;
+import com.nempeth.korven.utils.Ids;
 import jakarta.persistence.*;
 import lombok.*;
 
@@ -42,6 +43,6 @@ public class Category {
 
     @PrePersist
     public void prePersist() {
-        if (id == null) id = UUID.randomUUID();
+        if (id == null) id = Ids.next();
     }
 }
\ No newline at end of file
@@ -1,5 +1,6 @@
 package com.nempeth.korven.persistence.entity;
 
+import com.nempeth.korven.utils.Ids;
 import jakarta.persistence.*;
 import lombok.*;
 
@@ -46,6 +47,6 @@ public class Product {
 
     @PrePersist
     public void prePersist() {
-        if (id == null) id = UUID.randomUUID();
+        if (id == null) id = Ids.next();
     }
 }
@@ -0,0 +1,24 @@
+package com.nempeth.korven.persistence.entity;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+/**
+ * Cantidad de ventas de un negocio que incluyen a la vez a dos productos ({@code productA <= productB}).
+ * Las filas con {@code productA = productB} cuentan las ventas de cada producto y la fila con ambos
+ * productos en el UUID nulo, el total de ventas. La mantiene {@code BasketAnalysisService}.
+ */
+@Entity
+@Table(name = "product_cooccurrence")
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class ProductCooccurrence {
+    @EmbeddedId
+    private ProductCooccurrenceId id;
+
+    @Column(name = "sale_count", nullable = false)
+    private Long saleCount;
+}
@@ -0,0 +1,25 @@
+package com.nempeth.korven.persistence.entity;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Embeddable;
+import lombok.*;
+
+import java.io.Serializable;
+import java.util.UUID;
+
+@Embeddable
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@EqualsAndHashCode
+public class ProductCooccurrenceId implements Serializable {
+    @Column(name = "business_id", nullable = false)
+    private UUID businessId;
+
+    @Column(name = "product_a", nullable = false)
+    private UUID productA;
+
+    @Column(name = "product_b", nullable = false)
+    private UUID productB;
+}
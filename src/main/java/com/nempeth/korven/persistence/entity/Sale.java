@@ -1,5 +1,6 @@
 package com.nempeth.korven.persistence.entity;
 
+import com.nempeth.korven.utils.Ids;
 import jakarta.persistence.*;
 import lombok.*;
 
@@ -10,8 +11,12 @@ import java.util.UUID;
 
 @Entity
 @Table(name = "sale",
-       indexes = @Index(name = "ix_sale_business_time", 
-                       columnList = "business_id, occurred_at DESC"))
+       indexes = {
+               @Index(name = "ix_sale_business_time",
+                      columnList = "business_id, occurred_at DESC"),
+               @Index(name = "ix_sale_business_user_time",
+                      columnList = "business_id, created_by_user_id, occurred_at")
+       })
 @Getter
 @Setter
 @NoArgsConstructor
@@ -44,7 +49,7 @@ public class Sale {
 
     @PrePersist
     public void prePersist() {
-        if (id == null) id = UUID.randomUUID();
+        if (id == null) id = Ids.next();
         if (occurredAt == null) occurredAt = OffsetDateTime.now();
     }
 }
\ No newline at end of file
@@ -0,0 +1,45 @@
+package com.nempeth.korven.persistence.entity;
+
+import com.nempeth.korven.utils.Ids;
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.time.OffsetDateTime;
+import java.util.UUID;
+
+@Entity
+@Table(name = "sale_idempotency",
+       uniqueConstraints = @UniqueConstraint(name = "uq_sale_idempotency_business_key",
+                                           columnNames = {"business_id", "idempotency_key"}))
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class SaleIdempotency {
+    @Id
+    @Column(name = "id", nullable = false, updatable = false)
+    private UUID id;
+
+    @ManyToOne(fetch = FetchType.LAZY, optional = false)
+    @JoinColumn(name = "business_id", nullable = false,
+                foreignKey = @ForeignKey(name = "fk_sale_idempotency_business"))
+    private Business business;
+
+    @Column(name = "idempotency_key", nullable = false, length = 255)
+    private String idempotencyKey;
+
+    @ManyToOne(fetch = FetchType.LAZY, optional = false)
+    @JoinColumn(name = "sale_id", nullable = false,
+                foreignKey = @ForeignKey(name = "fk_sale_idempotency_sale"))
+    private Sale sale;
+
+    @Column(name = "created_at", nullable = false, columnDefinition = "timestamptz")
+    private OffsetDateTime createdAt;
+
+    @PrePersist
+    public void prePersist() {
+        if (id == null) id = Ids.next();
+        if (createdAt == null) createdAt = OffsetDateTime.now();
+    }
+}
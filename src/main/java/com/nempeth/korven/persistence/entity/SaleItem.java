@@ -1,5 +1,6 @@
 package com.nempeth.korven.persistence.entity;
 
+import com.nempeth.korven.utils.Ids;
 import jakarta.persistence.*;
 import lombok.*;
 
@@ -7,7 +8,8 @@ import java.math.BigDecimal;
 import java.util.UUID;
 
 @Entity
-@Table(name = "sale_item")
+@Table(name = "sale_item",
+       indexes = @Index(name = "ix_sale_item_sale", columnList = "sale_id"))
 @Getter
 @Setter
 @NoArgsConstructor
@@ -23,9 +25,10 @@ public class SaleItem {
                 foreignKey = @ForeignKey(name = "fk_sale_item_sale"))
     private Sale sale;
 
+    // Sin clave foránea (changelog 1.1): los productos se pueden borrar aunque tengan ventas
     @ManyToOne(fetch = FetchType.LAZY, optional = false)
     @JoinColumn(name = "product_id", nullable = false,
-                foreignKey = @ForeignKey(name = "fk_sale_item_product"))
+                foreignKey = @ForeignKey(value = ConstraintMode.NO_CONSTRAINT))
     private Product product;
 
     @Column(name = "product_name_at_sale", nullable = false, columnDefinition = "text")
@@ -48,6 +51,6 @@ public class SaleItem {
 
     @PrePersist
     public void prePersist() {
-        if (id == null) id = UUID.randomUUID();
+        if (id == null) id = Ids.next();
     }
 }
\ No newline at end of file
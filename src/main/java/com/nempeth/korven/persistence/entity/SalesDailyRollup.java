@@ -0,0 +1,34 @@
+package com.nempeth.korven.persistence.entity;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.math.BigDecimal;
+
+/**
+ * Totales diarios por categoría de las ventas de un negocio. Se mantienen en la misma transacción
+ * que registra cada venta (ver {@code SalesRollupService}) y son la fuente de las consultas mensuales.
+ */
+@Entity
+@Table(name = "sales_daily_rollup")
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class SalesDailyRollup {
+    @EmbeddedId
+    private SalesDailyRollupId id;
+
+    @Column(name = "revenue", nullable = false, precision = 14, scale = 2)
+    private BigDecimal revenue;
+
+    @Column(name = "cost", nullable = false, precision = 14, scale = 2)
+    private BigDecimal cost;
+
+    @Column(name = "units", nullable = false)
+    private Long units;
+
+    @Column(name = "sale_count", nullable = false)
+    private Long saleCount;
+}
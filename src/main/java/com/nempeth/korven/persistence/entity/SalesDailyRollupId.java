@@ -0,0 +1,26 @@
+package com.nempeth.korven.persistence.entity;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Embeddable;
+import lombok.*;
+
+import java.io.Serializable;
+import java.time.LocalDate;
+import java.util.UUID;
+
+@Embeddable
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@EqualsAndHashCode
+public class SalesDailyRollupId implements Serializable {
+    @Column(name = "business_id", nullable = false)
+    private UUID businessId;
+
+    @Column(name = "sale_date", nullable = false)
+    private LocalDate saleDate;
+
+    @Column(name = "category_name", nullable = false)
+    private String categoryName;
+}
@@ -1,5 +1,7 @@
 package com.nempeth.korven.persistence.entity;
 
+import com.nempeth.korven.utils.EmailUtils;
+import com.nempeth.korven.utils.Ids;
 import jakarta.persistence.*;
 import lombok.*;
 
@@ -40,6 +42,12 @@ public class User {
 
     @PrePersist
     public void prePersist() {
-        if (id == null) id = UUID.randomUUID();
+        if (id == null) id = Ids.next();
+        email = EmailUtils.normalize(email);
+    }
+
+    @PreUpdate
+    public void preUpdate() {
+        email = EmailUtils.normalize(email);
     }
 }
@@ -2,7 +2,11 @@ package com.nempeth.korven.persistence.repository;
 
 import com.nempeth.korven.constants.MembershipStatus;
 import com.nempeth.korven.persistence.entity.BusinessMembership;
+import com.nempeth.korven.rest.dto.BusinessMemberDetailResponse;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 
 import java.util.List;
 import java.util.Optional;
@@ -20,4 +24,24 @@ public interface BusinessMembershipRepository extends JpaRepository<BusinessMemb
     List<BusinessMembership> findByBusinessId(UUID businessId);
     
     boolean existsByBusinessIdAndUserId(UUID businessId, UUID userId);
+
+    long countByBusinessIdAndStatus(UUID businessId, MembershipStatus status);
+
+    // Keyset por id de usuario: after = UUID nulo para la primera página
+    @Query("""
+        SELECT new com.nempeth.korven.rest.dto.BusinessMemberDetailResponse(u.id, u.email, u.name, u.lastName, m.role, m.status)
+        FROM BusinessMembership m
+        JOIN m.user u
+        WHERE m.business.id = :businessId
+        AND m.status = :status
+        AND u.id > :after
+        ORDER BY u.id
+        """)
+    List<BusinessMemberDetailResponse> findMemberDetails(@Param("businessId") UUID businessId,
+                                                         @Param("status") MembershipStatus status,
+                                                         @Param("after") UUID after,
+                                                         Limit limit);
+
+    @Query("SELECT m FROM BusinessMembership m JOIN FETCH m.user WHERE m.business.id = :businessId")
+    List<BusinessMembership> findWithUserByBusinessId(@Param("businessId") UUID businessId);
 }
\ No newline at end of file
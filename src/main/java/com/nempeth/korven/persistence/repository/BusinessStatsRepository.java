@@ -0,0 +1,38 @@
+package com.nempeth.korven.persistence.repository;
+
+import com.nempeth.korven.persistence.entity.BusinessStats;
+import jakarta.persistence.LockModeType;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.math.BigDecimal;
+import java.util.Optional;
+import java.util.UUID;
+
+public interface BusinessStatsRepository extends JpaRepository<BusinessStats, UUID> {
+
+    // Un único UPDATE relativo: las transacciones concurrentes se serializan sobre la fila sin perder incrementos
+    @Modifying(flushAutomatically = true)
+    @Query("""
+        UPDATE BusinessStats s SET
+            s.activeMembers = s.activeMembers + :members,
+            s.categories = s.categories + :categories,
+            s.products = s.products + :products,
+            s.sales = s.sales + :sales,
+            s.revenue = s.revenue + :revenue
+        WHERE s.businessId = :businessId
+        """)
+    int addDeltas(@Param("businessId") UUID businessId,
+                  @Param("members") long members,
+                  @Param("categories") long categories,
+                  @Param("products") long products,
+                  @Param("sales") long sales,
+                  @Param("revenue") BigDecimal revenue);
+
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT s FROM BusinessStats s WHERE s.businessId = :businessId")
+    Optional<BusinessStats> findForUpdate(@Param("businessId") UUID businessId);
+}
@@ -2,7 +2,11 @@ package com.nempeth.korven.persistence.repository;
 
 import com.nempeth.korven.constants.CategoryType;
 import com.nempeth.korven.persistence.entity.Category;
+import com.nempeth.korven.rest.dto.CategoryResponse;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 
 import java.util.List;
 import java.util.UUID;
@@ -13,4 +17,17 @@ public interface CategoryRepository extends JpaRepository<Category, UUID> {
     List<Category> findByBusinessIdAndType(UUID businessId, CategoryType type);
     
     boolean existsByBusinessIdAndNameIgnoreCase(UUID businessId, String name);
+
+    long countByBusinessId(UUID businessId);
+
+    @Query("""
+        SELECT new com.nempeth.korven.rest.dto.CategoryResponse(c.id, c.name, c.type, c.displayName, c.icon)
+        FROM Category c
+        WHERE c.business.id = :businessId
+        AND c.id > :after
+        ORDER BY c.id
+        """)
+    List<CategoryResponse> findCategoryDetails(@Param("businessId") UUID businessId,
+                                               @Param("after") UUID after,
+                                               Limit limit);
 }
\ No newline at end of file
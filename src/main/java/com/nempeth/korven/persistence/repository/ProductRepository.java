@@ -1,9 +1,14 @@
 package com.nempeth.korven.persistence.repository;
 
 import com.nempeth.korven.persistence.entity.Product;
+import com.nempeth.korven.rest.dto.ProductResponse;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 
 import java.util.List;
+import java.util.Collection;
 import java.util.Optional;
 import java.util.UUID;
 
@@ -15,5 +20,25 @@ public interface ProductRepository extends JpaRepository<Product, UUID> {
 
     Optional<Product> findByIdAndBusinessId(UUID id, UUID businessId);
 
+    @Query("SELECT p FROM Product p JOIN FETCH p.category WHERE p.business.id = :businessId AND p.id IN :ids")
+    List<Product> findByBusinessIdAndIdIn(@Param("businessId") UUID businessId, @Param("ids") Collection<UUID> ids);
+
     boolean existsByBusinessIdAndNameIgnoreCase(UUID businessId, String name);
+
+    long countByBusinessId(UUID businessId);
+
+    long countByCategoryId(UUID categoryId);
+
+    @Query("""
+        SELECT new com.nempeth.korven.rest.dto.ProductResponse(
+            p.id, p.name, p.description, p.price, c.id, c.name, c.type, c.displayName, c.icon)
+        FROM Product p
+        JOIN p.category c
+        WHERE p.business.id = :businessId
+        AND p.id > :after
+        ORDER BY p.id
+        """)
+    List<ProductResponse> findProductDetails(@Param("businessId") UUID businessId,
+                                             @Param("after") UUID after,
+                                             Limit limit);
 }
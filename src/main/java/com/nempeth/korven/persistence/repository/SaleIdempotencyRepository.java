@@ -0,0 +1,20 @@
+package com.nempeth.korven.persistence.repository;
+
+import com.nempeth.korven.persistence.entity.SaleIdempotency;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.util.Optional;
+import java.util.UUID;
+
+public interface SaleIdempotencyRepository extends JpaRepository<SaleIdempotency, UUID> {
+    @Query("""
+        SELECT i FROM SaleIdempotency i
+        JOIN FETCH i.sale s
+        LEFT JOIN FETCH s.createdByUser
+        WHERE i.business.id = :businessId AND i.idempotencyKey = :idempotencyKey
+        """)
+    Optional<SaleIdempotency> findByBusinessIdAndIdempotencyKey(@Param("businessId") UUID businessId,
+                                                                @Param("idempotencyKey") String idempotencyKey);
+}
@@ -2,12 +2,27 @@ package com.nempeth.korven.persistence.repository;
 
 import com.nempeth.korven.persistence.entity.SaleItem;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.UUID;
 
 public interface SaleItemRepository extends JpaRepository<SaleItem, UUID> {
     List<SaleItem> findBySaleId(UUID saleId);
+
+    List<SaleItem> findBySaleIdIn(Collection<UUID> saleIds);
     
     List<SaleItem> findByProductId(UUID productId);
+
+    // Nombre con el que se vendió cada producto, para los que ya no existen en el catálogo
+    @Query("""
+        SELECT si.product.id, MAX(si.productNameAtSale)
+        FROM SaleItem si
+        WHERE si.sale.business.id = :businessId AND si.product.id IN :productIds
+        GROUP BY si.product.id
+        """)
+    List<Object[]> findNamesAtSale(@Param("businessId") UUID businessId,
+                                   @Param("productIds") Collection<UUID> productIds);
 }
\ No newline at end of file
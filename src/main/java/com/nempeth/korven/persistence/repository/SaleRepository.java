@@ -1,13 +1,21 @@
 package com.nempeth.korven.persistence.repository;
 
 import com.nempeth.korven.persistence.entity.Sale;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.domain.ScrollPosition;
+import org.springframework.data.domain.Window;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 
+import java.math.BigDecimal;
 import java.time.OffsetDateTime;
 import java.util.List;
 import java.util.UUID;
+import java.util.stream.Stream;
 
 public interface SaleRepository extends JpaRepository<Sale, UUID> {
     List<Sale> findByBusinessIdOrderByOccurredAtDesc(UUID businessId);
@@ -28,59 +36,77 @@ public interface SaleRepository extends JpaRepository<Sale, UUID> {
         OffsetDateTime endDate
     );
     
-    @Query("SELECT s FROM Sale s WHERE s.business.id = :businessId AND s.occurredAt >= :startDate ORDER BY s.occurredAt DESC")
-    List<Sale> findRecentSalesForBusiness(@Param("businessId") UUID businessId, @Param("startDate") OffsetDateTime startDate);
+    // Paginación por keyset sobre (occurred_at, id): cada página arranca donde terminó la anterior
+    // usando ix_sale_business_time, sin OFFSET
+    Window<Sale> findByBusinessIdOrderByOccurredAtDescIdDesc(UUID businessId, ScrollPosition position, Limit limit);
 
+    Window<Sale> findByBusinessIdAndOccurredAtBetweenOrderByOccurredAtDescIdDesc(
+        UUID businessId,
+        OffsetDateTime startDate,
+        OffsetDateTime endDate,
+        ScrollPosition position,
+        Limit limit
+    );
+
+    Window<Sale> findByBusinessIdAndCreatedByUserIdOrderByOccurredAtDescIdDesc(
+        UUID businessId,
+        UUID userId,
+        ScrollPosition position,
+        Limit limit
+    );
+
+    Window<Sale> findByBusinessIdAndCreatedByUserIdAndOccurredAtBetweenOrderByOccurredAtDescIdDesc(
+        UUID businessId,
+        UUID userId,
+        OffsetDateTime startDate,
+        OffsetDateTime endDate,
+        ScrollPosition position,
+        Limit limit
+    );
+
+    long countByBusinessId(UUID businessId);
+
+    @Query("SELECT COALESCE(SUM(s.totalAmount), 0) FROM Sale s WHERE s.business.id = :businessId")
+    BigDecimal sumTotalAmountByBusinessId(@Param("businessId") UUID businessId);
+
+    // Cantidad e importe de las ventas de un usuario en cada negocio
     @Query("""
-    SELECT YEAR(s.occurredAt), MONTH(s.occurredAt), si.categoryName, SUM(si.lineTotal)
-    FROM Sale s 
-    JOIN s.saleItems si 
-        WHERE s.business.id = :businessId 
-        AND s.occurredAt BETWEEN :startDate AND :endDate
-    GROUP BY YEAR(s.occurredAt), MONTH(s.occurredAt), si.categoryName
-    ORDER BY YEAR(s.occurredAt), MONTH(s.occurredAt), si.categoryName
-        """)
-    List<Object[]> findMonthlyRevenueByCategory(@Param("businessId") UUID businessId, 
-                                               @Param("startDate") OffsetDateTime startDate, 
-                                               @Param("endDate") OffsetDateTime endDate);
-    
-    @Query("""
-        SELECT YEAR(s.occurredAt), MONTH(s.occurredAt), si.categoryName, 
-        SUM(si.lineTotal) - SUM(si.unitCost * si.quantity)
-        FROM Sale s 
-        JOIN s.saleItems si 
-        WHERE s.business.id = :businessId 
-        AND s.occurredAt BETWEEN :startDate AND :endDate
-        GROUP BY YEAR(s.occurredAt), MONTH(s.occurredAt), si.categoryName
-        ORDER BY YEAR(s.occurredAt), MONTH(s.occurredAt), si.categoryName
+        SELECT s.business.id, COUNT(s), SUM(s.totalAmount)
+        FROM Sale s
+        WHERE s.createdByUser.id = :userId
+        GROUP BY s.business.id
         """)
-    List<Object[]> findMonthlyProfitByCategory(@Param("businessId") UUID businessId, 
-                                              @Param("startDate") OffsetDateTime startDate, 
-                                              @Param("endDate") OffsetDateTime endDate);
-    
+    List<Object[]> findTotalsByBusinessForCreator(@Param("userId") UUID userId);
+
+    @Query("SELECT s FROM Sale s WHERE s.business.id = :businessId AND s.occurredAt >= :startDate ORDER BY s.occurredAt DESC")
+    List<Sale> findRecentSalesForBusiness(@Param("businessId") UUID businessId, @Param("startDate") OffsetDateTime startDate);
+
+    // Rango semiabierto sin funciones sobre occurred_at: recorre ix_sale_business_time en orden
+    // y los intervalos se arman en Java (ver AnalyticsService.getTimeSeries)
     @Query("""
-        SELECT YEAR(s.occurredAt), MONTH(s.occurredAt), SUM(s.totalAmount)
-        FROM Sale s 
-        WHERE s.business.id = :businessId 
-        AND s.occurredAt BETWEEN :startDate AND :endDate
-        GROUP BY YEAR(s.occurredAt), MONTH(s.occurredAt)
-        ORDER BY YEAR(s.occurredAt), MONTH(s.occurredAt)
+        SELECT s.occurredAt, s.totalAmount
+        FROM Sale s
+        WHERE s.business.id = :businessId
+        AND s.occurredAt >= :from
+        AND s.occurredAt < :to
+        ORDER BY s.occurredAt
         """)
-    List<Object[]> findMonthlyTotalRevenue(@Param("businessId") UUID businessId, 
-                                          @Param("startDate") OffsetDateTime startDate, 
-                                          @Param("endDate") OffsetDateTime endDate);
-    
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "1000"))
+    Stream<Object[]> streamAmountsByBusinessAndRange(@Param("businessId") UUID businessId,
+                                                     @Param("from") OffsetDateTime from,
+                                                     @Param("to") OffsetDateTime to);
+
+    // Recorre ix_sale_business_user_time agrupado por vendedor y trae los items por ix_sale_item_sale
     @Query("""
-        SELECT YEAR(s.occurredAt), MONTH(s.occurredAt), 
-               SUM(si.lineTotal) - SUM(si.unitCost * si.quantity)
-        FROM Sale s 
-        JOIN s.saleItems si 
-        WHERE s.business.id = :businessId 
-        AND s.occurredAt BETWEEN :startDate AND :endDate
-        GROUP BY YEAR(s.occurredAt), MONTH(s.occurredAt)
-        ORDER BY YEAR(s.occurredAt), MONTH(s.occurredAt)
+        SELECT s.createdByUser.id, COUNT(DISTINCT s.id), SUM(si.lineTotal), SUM(si.quantity)
+        FROM SaleItem si
+        JOIN si.sale s
+        WHERE s.business.id = :businessId
+        AND s.occurredAt >= :from
+        AND s.occurredAt < :to
+        GROUP BY s.createdByUser.id
         """)
-    List<Object[]> findMonthlyTotalProfit(@Param("businessId") UUID businessId, 
-                                         @Param("startDate") OffsetDateTime startDate, 
-                                         @Param("endDate") OffsetDateTime endDate);
-}
\ No newline at end of file
+    List<Object[]> findTotalsBySellerAndRange(@Param("businessId") UUID businessId,
+                                              @Param("from") OffsetDateTime from,
+                                              @Param("to") OffsetDateTime to);
+}
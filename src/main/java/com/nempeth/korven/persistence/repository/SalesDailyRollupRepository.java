@@ -0,0 +1,76 @@
+package com.nempeth.korven.persistence.repository;
+
+import com.nempeth.korven.persistence.entity.SalesDailyRollup;
+import com.nempeth.korven.persistence.entity.SalesDailyRollupId;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.UUID;
+
+// Las consultas mensuales leen a lo sumo una fila por día y categoría, sin recorrer sale ni sale_item
+public interface SalesDailyRollupRepository extends JpaRepository<SalesDailyRollup, SalesDailyRollupId> {
+
+    @Query("""
+        SELECT YEAR(r.id.saleDate), MONTH(r.id.saleDate), r.id.categoryName, SUM(r.revenue)
+        FROM SalesDailyRollup r
+        WHERE r.id.businessId = :businessId
+        AND r.id.saleDate BETWEEN :startDay AND :endDay
+        GROUP BY YEAR(r.id.saleDate), MONTH(r.id.saleDate), r.id.categoryName
+        ORDER BY YEAR(r.id.saleDate), MONTH(r.id.saleDate), r.id.categoryName
+        """)
+    List<Object[]> findMonthlyRevenueByCategory(@Param("businessId") UUID businessId,
+                                               @Param("startDay") LocalDate startDay,
+                                               @Param("endDay") LocalDate endDay);
+
+    @Query("""
+        SELECT YEAR(r.id.saleDate), MONTH(r.id.saleDate), r.id.categoryName, SUM(r.revenue) - SUM(r.cost)
+        FROM SalesDailyRollup r
+        WHERE r.id.businessId = :businessId
+        AND r.id.saleDate BETWEEN :startDay AND :endDay
+        GROUP BY YEAR(r.id.saleDate), MONTH(r.id.saleDate), r.id.categoryName
+        ORDER BY YEAR(r.id.saleDate), MONTH(r.id.saleDate), r.id.categoryName
+        """)
+    List<Object[]> findMonthlyProfitByCategory(@Param("businessId") UUID businessId,
+                                              @Param("startDay") LocalDate startDay,
+                                              @Param("endDay") LocalDate endDay);
+
+    @Query("""
+        SELECT YEAR(r.id.saleDate), MONTH(r.id.saleDate), SUM(r.revenue)
+        FROM SalesDailyRollup r
+        WHERE r.id.businessId = :businessId
+        AND r.id.saleDate BETWEEN :startDay AND :endDay
+        GROUP BY YEAR(r.id.saleDate), MONTH(r.id.saleDate)
+        ORDER BY YEAR(r.id.saleDate), MONTH(r.id.saleDate)
+        """)
+    List<Object[]> findMonthlyTotalRevenue(@Param("businessId") UUID businessId,
+                                          @Param("startDay") LocalDate startDay,
+                                          @Param("endDay") LocalDate endDay);
+
+    @Query("""
+        SELECT YEAR(r.id.saleDate), MONTH(r.id.saleDate), SUM(r.revenue) - SUM(r.cost)
+        FROM SalesDailyRollup r
+        WHERE r.id.businessId = :businessId
+        AND r.id.saleDate BETWEEN :startDay AND :endDay
+        GROUP BY YEAR(r.id.saleDate), MONTH(r.id.saleDate)
+        ORDER BY YEAR(r.id.saleDate), MONTH(r.id.saleDate)
+        """)
+    List<Object[]> findMonthlyTotalProfit(@Param("businessId") UUID businessId,
+                                         @Param("startDay") LocalDate startDay,
+                                         @Param("endDay") LocalDate endDay);
+
+    @Query("""
+        SELECT YEAR(r.id.saleDate), MONTH(r.id.saleDate), r.id.categoryName,
+               SUM(r.revenue), SUM(r.cost), SUM(r.units), SUM(r.saleCount)
+        FROM SalesDailyRollup r
+        WHERE r.id.businessId = :businessId
+        AND r.id.saleDate BETWEEN :startDay AND :endDay
+        GROUP BY YEAR(r.id.saleDate), MONTH(r.id.saleDate), r.id.categoryName
+        ORDER BY YEAR(r.id.saleDate), MONTH(r.id.saleDate), r.id.categoryName
+        """)
+    List<Object[]> findMonthlyTotalsByCategory(@Param("businessId") UUID businessId,
+                                              @Param("startDay") LocalDate startDay,
+                                              @Param("endDay") LocalDate endDay);
+}
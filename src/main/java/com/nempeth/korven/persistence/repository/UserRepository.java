@@ -1,15 +1,30 @@
 package com.nempeth.korven.persistence.repository;
 
 import com.nempeth.korven.persistence.entity.User;
+import com.nempeth.korven.utils.EmailUtils;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.util.Optional;
 import java.util.UUID;
 
 public interface UserRepository extends JpaRepository<User, UUID> {
-    @Query("SELECT u FROM User u WHERE LOWER(u.email) = LOWER(?1)")
-    Optional<User> findByEmailIgnoreCase(String email);
+    Optional<User> findByEmail(String email);
+
+    // Los emails se guardan normalizados: se normaliza el parámetro y la igualdad exacta usa el
+    // índice único, en lugar de LOWER(email) que obliga a recorrer la tabla
+    default Optional<User> findByEmailIgnoreCase(String email) {
+        return email == null ? Optional.empty() : findByEmail(EmailUtils.normalize(email));
+    }
 
     boolean existsByEmail(String email);
+
+    // Solo reemplaza el hash si nadie lo cambió desde que se leyó (rehash al iniciar sesión)
+    @Transactional
+    @Modifying
+    @Query("UPDATE User u SET u.passwordHash = :newHash WHERE u.id = :id AND u.passwordHash = :oldHash")
+    int replacePasswordHash(@Param("id") UUID id, @Param("oldHash") String oldHash, @Param("newHash") String newHash);
 }
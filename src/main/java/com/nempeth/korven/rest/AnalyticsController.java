@@ -1,12 +1,23 @@
 package com.nempeth.korven.rest;
 
+import com.nempeth.korven.constants.ProductMetric;
+import com.nempeth.korven.constants.TimeGranularity;
 import com.nempeth.korven.rest.dto.*;
+import com.nempeth.korven.security.BusinessAccess;
+import com.nempeth.korven.security.BusinessMember;
 import com.nempeth.korven.service.AnalyticsService;
+import com.nempeth.korven.service.BasketAnalysisService;
+import com.nempeth.korven.service.EmployeeAnalyticsService;
+import com.nempeth.korven.service.ProductAnalyticsService;
 import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.ResponseEntity;
-import org.springframework.security.core.Authentication;
 import org.springframework.web.bind.annotation.*;
 
+import java.time.DateTimeException;
+import java.time.LocalDate;
+import java.time.ZoneId;
 import java.util.List;
 import java.util.UUID;
 
@@ -16,14 +27,20 @@ import java.util.UUID;
 public class AnalyticsController {
 
     private final AnalyticsService analyticsService;
+    private final ProductAnalyticsService productAnalyticsService;
+    private final EmployeeAnalyticsService employeeAnalyticsService;
+    private final BasketAnalysisService basketAnalysisService;
+
+    @Value("${app.analytics.zone:America/Argentina/Buenos_Aires}")
+    private String defaultZone;
 
     @GetMapping("/revenue/by-category")
     public ResponseEntity<List<MonthlyCategoryRevenueResponse>> getMonthlyRevenueByCategory(
             @PathVariable UUID businessId,
             @RequestParam(required = false, defaultValue = "#{T(java.time.Year).now().getValue()}") Integer year,
-            Authentication auth) {
+            @BusinessMember BusinessAccess access) {
         
-        String userEmail = auth.getName();
+        String userEmail = access.email();
         List<MonthlyCategoryRevenueResponse> revenue = analyticsService.getMonthlyRevenueByCategory(
                 userEmail, businessId, year);
         return ResponseEntity.ok(revenue);
@@ -33,9 +50,9 @@ public class AnalyticsController {
     public ResponseEntity<List<MonthlyCategoryProfitResponse>> getMonthlyProfitByCategory(
             @PathVariable UUID businessId,
             @RequestParam(required = false, defaultValue = "#{T(java.time.Year).now().getValue()}") Integer year,
-            Authentication auth) {
+            @BusinessMember BusinessAccess access) {
         
-        String userEmail = auth.getName();
+        String userEmail = access.email();
         List<MonthlyCategoryProfitResponse> profit = analyticsService.getMonthlyProfitByCategory(
                 userEmail, businessId, year);
         return ResponseEntity.ok(profit);
@@ -45,9 +62,9 @@ public class AnalyticsController {
     public ResponseEntity<List<MonthlyRevenueResponse>> getMonthlyTotalRevenue(
             @PathVariable UUID businessId,
             @RequestParam(required = false, defaultValue = "#{T(java.time.Year).now().getValue()}") Integer year,
-            Authentication auth) {
+            @BusinessMember BusinessAccess access) {
         
-        String userEmail = auth.getName();
+        String userEmail = access.email();
         List<MonthlyRevenueResponse> revenue = analyticsService.getMonthlyTotalRevenue(
                 userEmail, businessId, year);
         return ResponseEntity.ok(revenue);
@@ -57,11 +74,112 @@ public class AnalyticsController {
     public ResponseEntity<List<MonthlyProfitResponse>> getMonthlyTotalProfit(
             @PathVariable UUID businessId,
             @RequestParam(required = false, defaultValue = "#{T(java.time.Year).now().getValue()}") Integer year,
-            Authentication auth) {
+            @BusinessMember BusinessAccess access) {
         
-        String userEmail = auth.getName();
+        String userEmail = access.email();
         List<MonthlyProfitResponse> profit = analyticsService.getMonthlyTotalProfit(
                 userEmail, businessId, year);
         return ResponseEntity.ok(profit);
     }
-}
\ No newline at end of file
+
+    @GetMapping("/dashboard")
+    public ResponseEntity<AnalyticsDashboardResponse> getDashboard(
+            @PathVariable UUID businessId,
+            @RequestParam(required = false, defaultValue = "#{T(java.time.Year).now().getValue()}") Integer year,
+            @BusinessMember BusinessAccess access) {
+
+        String userEmail = access.email();
+        AnalyticsDashboardResponse dashboard = analyticsService.getDashboard(userEmail, businessId, year);
+        return ResponseEntity.ok(dashboard);
+    }
+
+    @GetMapping("/timeseries")
+    public ResponseEntity<TimeSeriesResponse> getTimeSeries(
+            @PathVariable UUID businessId,
+            @RequestParam(defaultValue = "day") String granularity,
+            @RequestParam(required = false) String tz,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate startDate,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate endDate,
+            @BusinessMember BusinessAccess access) {
+
+        String userEmail = access.email();
+        TimeSeriesResponse series = analyticsService.getTimeSeries(
+                userEmail, businessId, TimeGranularity.from(granularity), resolveZone(tz), startDate, endDate);
+        return ResponseEntity.ok(series);
+    }
+
+    @GetMapping("/heatmap")
+    public ResponseEntity<SalesHeatmapResponse> getSalesHeatmap(
+            @PathVariable UUID businessId,
+            @RequestParam(required = false) String tz,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate startDate,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate endDate,
+            @BusinessMember BusinessAccess access) {
+
+        String userEmail = access.email();
+        SalesHeatmapResponse heatmap = analyticsService.getSalesHeatmap(
+                userEmail, businessId, resolveZone(tz), startDate, endDate);
+        return ResponseEntity.ok(heatmap);
+    }
+
+    @GetMapping("/products/top")
+    public ResponseEntity<List<ProductRankingResponse>> getTopProducts(
+            @PathVariable UUID businessId,
+            @RequestParam(defaultValue = "revenue") String metric,
+            @RequestParam(defaultValue = "10") int n,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to,
+            @BusinessMember BusinessAccess access) {
+
+        String userEmail = access.email();
+        List<ProductRankingResponse> products = productAnalyticsService.getTopProducts(
+                userEmail, businessId, ProductMetric.from(metric), n, from, to);
+        return ResponseEntity.ok(products);
+    }
+
+    @GetMapping("/products/abc")
+    public ResponseEntity<List<ProductAbcResponse>> getProductAbcAnalysis(
+            @PathVariable UUID businessId,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to,
+            @BusinessMember BusinessAccess access) {
+
+        String userEmail = access.email();
+        List<ProductAbcResponse> products = productAnalyticsService.getAbcAnalysis(userEmail, businessId, from, to);
+        return ResponseEntity.ok(products);
+    }
+
+    @GetMapping("/products/{productId}/associations")
+    public ResponseEntity<List<ProductAssociationResponse>> getProductAssociations(
+            @PathVariable UUID businessId,
+            @PathVariable UUID productId,
+            @RequestParam(defaultValue = "10") int k,
+            @BusinessMember BusinessAccess access) {
+
+        String userEmail = access.email();
+        List<ProductAssociationResponse> associations = basketAnalysisService.getAssociations(
+                userEmail, businessId, productId, k);
+        return ResponseEntity.ok(associations);
+    }
+
+    @GetMapping("/employees")
+    public ResponseEntity<List<EmployeePerformanceResponse>> getEmployeePerformance(
+            @PathVariable UUID businessId,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to,
+            @BusinessMember BusinessAccess access) {
+
+        String userEmail = access.email();
+        List<EmployeePerformanceResponse> employees = employeeAnalyticsService.getEmployeePerformance(
+                userEmail, businessId, from, to);
+        return ResponseEntity.ok(employees);
+    }
+
+    private ZoneId resolveZone(String tz) {
+        try {
+            return ZoneId.of(tz != null ? tz : defaultZone);
+        } catch (DateTimeException e) {
+            throw new IllegalArgumentException("Zona horaria inválida");
+        }
+    }
+}
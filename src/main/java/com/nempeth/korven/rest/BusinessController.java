@@ -1,10 +1,14 @@
 package com.nempeth.korven.rest;
 
+import com.nempeth.korven.constants.BusinessDetailSection;
 import com.nempeth.korven.rest.dto.BusinessResponse;
 import com.nempeth.korven.rest.dto.BusinessDetailResponse;
 import com.nempeth.korven.rest.dto.BusinessMemberDetailResponse;
 import com.nempeth.korven.rest.dto.CreateBusinessRequest;
 import com.nempeth.korven.rest.dto.JoinBusinessRequest;
+import com.nempeth.korven.security.BusinessAccess;
+import com.nempeth.korven.security.BusinessMember;
+import com.nempeth.korven.service.BusinessDetailQuery;
 import com.nempeth.korven.service.BusinessService;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
@@ -21,6 +25,8 @@ import java.util.UUID;
 @RequiredArgsConstructor
 public class BusinessController {
 
+    private static final int MAX_SECTION_PAGE_SIZE = 500;
+
     private final BusinessService businessService;
 
     @PostMapping
@@ -47,19 +53,27 @@ public class BusinessController {
         ));
     }
 
+    // include=members,categories,products,stats elige las secciones; limit pagina cada lista por separado
     @GetMapping("/{businessId}/detail")
     public ResponseEntity<BusinessDetailResponse> getBusinessDetail(@PathVariable UUID businessId,
-                                                                   Authentication auth) {
-        String userEmail = auth.getName();
-        BusinessDetailResponse businessDetail = businessService.getBusinessDetail(userEmail, businessId);
+                                                                   @RequestParam(required = false) String include,
+                                                                   @RequestParam(required = false) Integer limit,
+                                                                   @RequestParam(required = false) UUID membersAfter,
+                                                                   @RequestParam(required = false) UUID categoriesAfter,
+                                                                   @RequestParam(required = false) UUID productsAfter,
+                                                                   @BusinessMember BusinessAccess access) {
+        String userEmail = access.email();
+        BusinessDetailQuery query = new BusinessDetailQuery(BusinessDetailSection.parse(include),
+                resolveSectionLimit(limit), membersAfter, categoriesAfter, productsAfter);
+        BusinessDetailResponse businessDetail = businessService.getBusinessDetail(userEmail, businessId, query);
         
         return ResponseEntity.ok(businessDetail);
     }
 
     @GetMapping("/{businessId}/members")
     public ResponseEntity<List<BusinessMemberDetailResponse>> getBusinessMembers(@PathVariable UUID businessId,
-                                                                                Authentication auth) {
-        String userEmail = auth.getName();
+                                                                                @BusinessMember BusinessAccess access) {
+        String userEmail = access.email();
         List<BusinessMemberDetailResponse> members = businessService.getBusinessMembers(userEmail, businessId);
         
         return ResponseEntity.ok(members);
@@ -67,10 +81,20 @@ public class BusinessController {
 
     @GetMapping("/{businessId}/employees")
     public ResponseEntity<List<BusinessMemberDetailResponse>> getBusinessEmployees(@PathVariable UUID businessId,
-                                                                                  Authentication auth) {
-        String userEmail = auth.getName();
+                                                                                  @BusinessMember BusinessAccess access) {
+        String userEmail = access.email();
         List<BusinessMemberDetailResponse> employees = businessService.getBusinessEmployees(userEmail, businessId);
         
         return ResponseEntity.ok(employees);
     }
+
+    private static Integer resolveSectionLimit(Integer limit) {
+        if (limit == null) {
+            return null;
+        }
+        if (limit < 1) {
+            throw new IllegalArgumentException("El límite debe ser mayor a 0");
+        }
+        return Math.min(limit, MAX_SECTION_PAGE_SIZE);
+    }
 }
\ No newline at end of file
@@ -3,11 +3,12 @@ package com.nempeth.korven.rest;
 import com.nempeth.korven.rest.dto.CategoryResponse;
 import com.nempeth.korven.rest.dto.CreateCategoryRequest;
 import com.nempeth.korven.rest.dto.UpdateCategoryRequest;
+import com.nempeth.korven.security.BusinessAccess;
+import com.nempeth.korven.security.BusinessMember;
 import com.nempeth.korven.service.CategoryService;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 import org.springframework.http.ResponseEntity;
-import org.springframework.security.core.Authentication;
 import org.springframework.web.bind.annotation.*;
 
 import java.util.List;
@@ -23,16 +24,16 @@ public class CategoryController {
 
     @GetMapping
     public ResponseEntity<List<CategoryResponse>> getAllCategories(@PathVariable UUID businessId,
-                                                                  Authentication auth) {
-        String userEmail = auth.getName();
+                                                                  @BusinessMember BusinessAccess access) {
+        String userEmail = access.email();
         List<CategoryResponse> categories = categoryService.getCategoriesByBusiness(userEmail, businessId);
         return ResponseEntity.ok(categories);
     }
 
     @GetMapping("/custom")
     public ResponseEntity<List<CategoryResponse>> getCustomCategories(@PathVariable UUID businessId,
-                                                                     Authentication auth) {
-        String userEmail = auth.getName();
+                                                                     @BusinessMember BusinessAccess access) {
+        String userEmail = access.email();
         List<CategoryResponse> categories = categoryService.getCustomCategoriesByBusiness(userEmail, businessId);
         return ResponseEntity.ok(categories);
     }
@@ -40,8 +41,8 @@ public class CategoryController {
     @PostMapping
     public ResponseEntity<?> createCustomCategory(@PathVariable UUID businessId,
                                                  @Valid @RequestBody CreateCategoryRequest request,
-                                                 Authentication auth) {
-        String userEmail = auth.getName();
+                                                 @BusinessMember BusinessAccess access) {
+        String userEmail = access.email();
         CategoryResponse category = categoryService.createCustomCategory(userEmail, businessId, request);
         
         return ResponseEntity.ok(Map.of(
@@ -54,8 +55,8 @@ public class CategoryController {
     public ResponseEntity<?> updateCustomCategory(@PathVariable UUID businessId,
                                                  @PathVariable UUID categoryId,
                                                  @Valid @RequestBody UpdateCategoryRequest request,
-                                                 Authentication auth) {
-        String userEmail = auth.getName();
+                                                 @BusinessMember BusinessAccess access) {
+        String userEmail = access.email();
         CategoryResponse category = categoryService.updateCustomCategory(userEmail, businessId, categoryId, request);
         
         return ResponseEntity.ok(Map.of(
@@ -67,8 +68,8 @@ public class CategoryController {
     @DeleteMapping("/{categoryId}")
     public ResponseEntity<?> deleteCustomCategory(@PathVariable UUID businessId,
                                                  @PathVariable UUID categoryId,
-                                                 Authentication auth) {
-        String userEmail = auth.getName();
+                                                 @BusinessMember BusinessAccess access) {
+        String userEmail = access.email();
         categoryService.deleteCustomCategory(userEmail, businessId, categoryId);
         
         return ResponseEntity.ok(Map.of("message", "Categoría eliminada exitosamente"));
@@ -2,11 +2,12 @@ package com.nempeth.korven.rest;
 
 import com.nempeth.korven.rest.dto.ProductResponse;
 import com.nempeth.korven.rest.dto.ProductUpsertRequest;
+import com.nempeth.korven.security.BusinessAccess;
+import com.nempeth.korven.security.BusinessMember;
 import com.nempeth.korven.service.ProductService;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 import org.springframework.http.ResponseEntity;
-import org.springframework.security.core.Authentication;
 import org.springframework.web.bind.annotation.*;
 
 import java.util.List;
@@ -23,8 +24,8 @@ public class ProductController {
     @PostMapping
     public ResponseEntity<?> create(@PathVariable UUID businessId,
                                    @Valid @RequestBody ProductUpsertRequest req,
-                                   Authentication auth) {
-        String userEmail = auth.getName();
+                                   @BusinessMember BusinessAccess access) {
+        String userEmail = access.email();
         UUID productId = productService.create(userEmail, businessId, req);
         return ResponseEntity.ok(Map.of("productId", productId.toString()));
     }
@@ -32,8 +33,8 @@ public class ProductController {
     @GetMapping
     public ResponseEntity<List<ProductResponse>> list(@PathVariable UUID businessId,
                                                      @RequestParam(required = false) UUID categoryId,
-                                                     Authentication auth) {
-        String userEmail = auth.getName();
+                                                     @BusinessMember BusinessAccess access) {
+        String userEmail = access.email();
         List<ProductResponse> products;
         
         if (categoryId != null) {
@@ -49,8 +50,8 @@ public class ProductController {
     public ResponseEntity<?> update(@PathVariable UUID businessId,
                                    @PathVariable UUID productId,
                                    @Valid @RequestBody ProductUpsertRequest req,
-                                   Authentication auth) {
-        String userEmail = auth.getName();
+                                   @BusinessMember BusinessAccess access) {
+        String userEmail = access.email();
         productService.update(userEmail, businessId, productId, req);
         return ResponseEntity.ok(Map.of("message", "Producto actualizado"));
     }
@@ -58,8 +59,8 @@ public class ProductController {
     @DeleteMapping("/{productId}")
     public ResponseEntity<?> delete(@PathVariable UUID businessId,
                                    @PathVariable UUID productId,
-                                   Authentication auth) {
-        String userEmail = auth.getName();
+                                   @BusinessMember BusinessAccess access) {
+        String userEmail = access.email();
         productService.delete(userEmail, businessId, productId);
         return ResponseEntity.ok(Map.of("message", "Producto eliminado"));
     }
@@ -1,15 +1,29 @@
 package com.nempeth.korven.rest;
 
+import com.nempeth.korven.constants.ExportFormat;
 import com.nempeth.korven.rest.dto.CreateSaleRequest;
+import com.nempeth.korven.rest.dto.SaleBatchResponse;
+import com.nempeth.korven.rest.dto.SalePageResponse;
 import com.nempeth.korven.rest.dto.SaleResponse;
+import com.nempeth.korven.security.BusinessAccess;
+import com.nempeth.korven.security.BusinessMember;
+import com.nempeth.korven.service.SaleBatchService;
+import com.nempeth.korven.service.SaleCursor;
+import com.nempeth.korven.service.SaleExportService;
+import com.nempeth.korven.service.SaleIdempotencyService;
 import com.nempeth.korven.service.SaleService;
+import jakarta.servlet.http.HttpServletRequest;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
-import org.springframework.security.core.Authentication;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.io.IOException;
 import java.time.OffsetDateTime;
 import java.util.List;
 import java.util.Map;
@@ -20,14 +34,21 @@ import java.util.UUID;
 @RequiredArgsConstructor
 public class SaleController {
 
+    private static final int DEFAULT_PAGE_SIZE = 50;
+    private static final int MAX_PAGE_SIZE = 200;
+
     private final SaleService saleService;
+    private final SaleBatchService saleBatchService;
+    private final SaleIdempotencyService saleIdempotencyService;
+    private final SaleExportService saleExportService;
 
     @PostMapping
     public ResponseEntity<?> createSale(@PathVariable UUID businessId,
                                        @Valid @RequestBody CreateSaleRequest request,
-                                       Authentication auth) {
-        String userEmail = auth.getName();
-        UUID saleId = saleService.createSale(userEmail, businessId, request);
+                                       @RequestHeader(value = "Idempotency-Key", required = false) String idempotencyKey,
+                                       @BusinessMember BusinessAccess access) {
+        String userEmail = access.email();
+        UUID saleId = saleIdempotencyService.createSale(userEmail, businessId, idempotencyKey, request);
         
         return ResponseEntity.ok(Map.of(
                 "message", "Venta registrada exitosamente",
@@ -35,33 +56,83 @@ public class SaleController {
         ));
     }
 
+    @PostMapping("/batch")
+    public ResponseEntity<SaleBatchResponse> createSalesBatch(@PathVariable UUID businessId,
+                                                              HttpServletRequest request,
+                                                              @BusinessMember BusinessAccess access) throws IOException {
+        String userEmail = access.email();
+        // El cuerpo se procesa en streaming, sin enlazar la lista completa de ventas
+        SaleBatchResponse response = saleBatchService.createSalesBatch(userEmail, businessId, request.getInputStream());
+        return ResponseEntity.ok(response);
+    }
+
     @GetMapping
-    public ResponseEntity<List<SaleResponse>> getSales(@PathVariable UUID businessId,
-                                                      @RequestParam(required = false) 
-                                                      @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME)
-                                                      OffsetDateTime startDate,
-                                                      @RequestParam(required = false)
-                                                      @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME)
-                                                      OffsetDateTime endDate,
-                                                      Authentication auth) {
-        String userEmail = auth.getName();
-        List<SaleResponse> sales;
-        
-        if (startDate != null && endDate != null) {
-            sales = saleService.getSalesByBusinessAndDateRange(userEmail, businessId, startDate, endDate);
-        } else {
-            sales = saleService.getSalesByBusiness(userEmail, businessId);
+    public ResponseEntity<?> getSales(@PathVariable UUID businessId,
+                                      @RequestParam(required = false)
+                                      @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME)
+                                      OffsetDateTime startDate,
+                                      @RequestParam(required = false)
+                                      @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME)
+                                      OffsetDateTime endDate,
+                                      @RequestParam(required = false) Integer limit,
+                                      @RequestParam(required = false) String cursor,
+                                      @BusinessMember BusinessAccess access) {
+        String userEmail = access.email();
+        boolean dateRange = startDate != null && endDate != null;
+
+        // Sin limit ni cursor se mantiene el listado completo para los clientes existentes
+        if (limit == null && cursor == null) {
+            List<SaleResponse> sales = dateRange
+                    ? saleService.getSalesByBusinessAndDateRange(userEmail, businessId, startDate, endDate)
+                    : saleService.getSalesByBusiness(userEmail, businessId);
+            return ResponseEntity.ok(sales);
         }
-        
-        return ResponseEntity.ok(sales);
+
+        int pageSize = resolvePageSize(limit);
+        SaleCursor position = cursor != null ? SaleCursor.decode(cursor) : null;
+        SalePageResponse page = dateRange
+                ? saleService.getSalesByBusinessAndDateRange(userEmail, businessId, startDate, endDate, position, pageSize)
+                : saleService.getSalesByBusiness(userEmail, businessId, position, pageSize);
+        return ResponseEntity.ok(page);
+    }
+
+    @GetMapping("/export")
+    public ResponseEntity<StreamingResponseBody> exportSales(@PathVariable UUID businessId,
+                                                             @RequestParam(defaultValue = "csv") String format,
+                                                             @RequestParam
+                                                             @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME)
+                                                             OffsetDateTime startDate,
+                                                             @RequestParam
+                                                             @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME)
+                                                             OffsetDateTime endDate,
+                                                             @BusinessMember BusinessAccess access) {
+        String userEmail = access.email();
+        ExportFormat exportFormat = ExportFormat.from(format);
+        StreamingResponseBody body = saleExportService.export(userEmail, businessId, exportFormat, startDate, endDate);
+
+        String filename = "ventas-" + startDate.toLocalDate() + "-" + endDate.toLocalDate() + "." + exportFormat.getExtension();
+        return ResponseEntity.ok()
+                .contentType(MediaType.parseMediaType(exportFormat.getContentType()))
+                .header(HttpHeaders.CONTENT_DISPOSITION, ContentDisposition.attachment().filename(filename).build().toString())
+                .body(body);
     }
 
     @GetMapping("/{saleId}")
     public ResponseEntity<SaleResponse> getSaleById(@PathVariable UUID businessId,
                                                    @PathVariable UUID saleId,
-                                                   Authentication auth) {
-        String userEmail = auth.getName();
+                                                   @BusinessMember BusinessAccess access) {
+        String userEmail = access.email();
         SaleResponse sale = saleService.getSaleById(userEmail, businessId, saleId);
         return ResponseEntity.ok(sale);
     }
+
+    private static int resolvePageSize(Integer limit) {
+        if (limit == null) {
+            return DEFAULT_PAGE_SIZE;
+        }
+        if (limit < 1) {
+            throw new IllegalArgumentException("El límite debe ser mayor a 0");
+        }
+        return Math.min(limit, MAX_PAGE_SIZE);
+    }
 }
\ No newline at end of file
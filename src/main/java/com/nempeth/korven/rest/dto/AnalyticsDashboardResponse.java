@@ -0,0 +1,13 @@
+package com.nempeth.korven.rest.dto;
+
+import lombok.Builder;
+
+import java.util.List;
+
+@Builder
+public record AnalyticsDashboardResponse(
+        int year,
+        List<DashboardCategoryMonthResponse> byCategory,
+        List<DashboardMonthResponse> byMonth
+) {
+}
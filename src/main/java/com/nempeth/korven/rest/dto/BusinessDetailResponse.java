@@ -1,19 +1,31 @@
 package com.nempeth.korven.rest.dto;
 
+import com.fasterxml.jackson.annotation.JsonInclude;
 import lombok.Builder;
 
 import java.util.List;
 import java.util.UUID;
 
+/**
+ * Detalle de un negocio. Las secciones no pedidas en {@code include} se omiten del JSON; las
+ * paginadas informan en {@code *NextAfter} el id desde el que pedir la página siguiente.
+ */
 @Builder
+@JsonInclude(JsonInclude.Include.NON_NULL)
 public record BusinessDetailResponse(
         UUID id,
         String name,
         String joinCode,
         Boolean joinCodeEnabled,
         List<BusinessMemberDetailResponse> members,
+        UUID membersNextAfter,
         List<CategoryResponse> categories,
+        UUID categoriesNextAfter,
         List<ProductResponse> products,
-        BusinessStatsResponse stats
+        UUID productsNextAfter,
+        BusinessStatsResponse stats,
+        // Secciones que no respondieron a tiempo o fallaron: vienen en null
+        Boolean partial,
+        List<String> unavailableSections
 ) {
-}
\ No newline at end of file
+}
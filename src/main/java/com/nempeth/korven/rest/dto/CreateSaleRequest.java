@@ -1,5 +1,6 @@
 package com.nempeth.korven.rest.dto;
 
+import jakarta.validation.Valid;
 import jakarta.validation.constraints.NotEmpty;
 import jakarta.validation.constraints.NotNull;
 
@@ -7,6 +8,6 @@ import java.util.List;
 
 public record CreateSaleRequest(
         @NotEmpty(message = "La venta debe tener al menos un item")
-        List<CreateSaleItemRequest> items
+        List<@Valid CreateSaleItemRequest> items
 ) {
 }
\ No newline at end of file
@@ -0,0 +1,18 @@
+package com.nempeth.korven.rest.dto;
+
+import lombok.Builder;
+
+import java.math.BigDecimal;
+import java.time.YearMonth;
+
+@Builder
+public record DashboardCategoryMonthResponse(
+        YearMonth month,
+        String categoryName,
+        BigDecimal revenue,
+        BigDecimal cost,
+        BigDecimal profit,
+        long units,
+        long saleCount
+) {
+}
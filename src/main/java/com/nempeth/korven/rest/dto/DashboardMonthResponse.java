@@ -0,0 +1,16 @@
+package com.nempeth.korven.rest.dto;
+
+import lombok.Builder;
+
+import java.math.BigDecimal;
+import java.time.YearMonth;
+
+@Builder
+public record DashboardMonthResponse(
+        YearMonth month,
+        BigDecimal revenue,
+        BigDecimal cost,
+        BigDecimal profit,
+        long units
+) {
+}
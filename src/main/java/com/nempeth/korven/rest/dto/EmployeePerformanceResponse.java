@@ -0,0 +1,22 @@
+package com.nempeth.korven.rest.dto;
+
+import com.nempeth.korven.constants.MembershipRole;
+import com.nempeth.korven.constants.MembershipStatus;
+import lombok.Builder;
+
+import java.math.BigDecimal;
+import java.util.UUID;
+
+@Builder
+public record EmployeePerformanceResponse(
+        UUID userId,
+        String userName,
+        String userLastName,
+        MembershipRole role,
+        MembershipStatus status,
+        BigDecimal revenue,
+        long saleCount,
+        BigDecimal averageTicket,
+        BigDecimal itemsPerSale
+) {
+}
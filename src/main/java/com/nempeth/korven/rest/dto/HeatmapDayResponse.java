@@ -0,0 +1,15 @@
+package com.nempeth.korven.rest.dto;
+
+import lombok.Builder;
+
+import java.math.BigDecimal;
+import java.time.DayOfWeek;
+import java.util.List;
+
+@Builder
+public record HeatmapDayResponse(
+        DayOfWeek dayOfWeek,
+        List<BigDecimal> revenueByHour,
+        List<Long> saleCountByHour
+) {
+}
@@ -0,0 +1,18 @@
+package com.nempeth.korven.rest.dto;
+
+import com.nempeth.korven.constants.AbcClass;
+import lombok.Builder;
+
+import java.math.BigDecimal;
+import java.util.UUID;
+
+@Builder
+public record ProductAbcResponse(
+        UUID productId,
+        String productName,
+        BigDecimal revenue,
+        BigDecimal revenueShare,
+        BigDecimal cumulativeShare,
+        AbcClass abcClass
+) {
+}
@@ -0,0 +1,17 @@
+package com.nempeth.korven.rest.dto;
+
+import lombok.Builder;
+
+import java.math.BigDecimal;
+import java.util.UUID;
+
+@Builder
+public record ProductAssociationResponse(
+        UUID productId,
+        String productName,
+        long pairCount,
+        BigDecimal support,
+        BigDecimal confidence,
+        BigDecimal lift
+) {
+}
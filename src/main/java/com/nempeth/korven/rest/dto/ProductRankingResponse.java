@@ -0,0 +1,17 @@
+package com.nempeth.korven.rest.dto;
+
+import lombok.Builder;
+
+import java.math.BigDecimal;
+import java.util.UUID;
+
+@Builder
+public record ProductRankingResponse(
+        UUID productId,
+        String productName,
+        BigDecimal revenue,
+        BigDecimal cost,
+        BigDecimal profit,
+        long units
+) {
+}
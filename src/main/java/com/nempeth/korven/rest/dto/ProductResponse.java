@@ -1,5 +1,6 @@
 package com.nempeth.korven.rest.dto;
 
+import com.nempeth.korven.constants.CategoryType;
 import lombok.Builder;
 
 import java.math.BigDecimal;
@@ -13,4 +14,12 @@ public record ProductResponse(
         BigDecimal price,
         BigDecimal cost,
         CategoryResponse category
-) {}
+) {
+    /** Para consultas JPQL {@code SELECT new ...}, que no admiten constructores anidados. Sin costo. */
+    public ProductResponse(UUID id, String name, String description, BigDecimal price,
+                           UUID categoryId, String categoryName, CategoryType categoryType,
+                           String categoryDisplayName, String categoryIcon) {
+        this(id, name, description, price, null,
+                new CategoryResponse(categoryId, categoryName, categoryType, categoryDisplayName, categoryIcon));
+    }
+}
@@ -0,0 +1,13 @@
+package com.nempeth.korven.rest.dto;
+
+import lombok.Builder;
+
+import java.util.UUID;
+
+@Builder
+public record SaleBatchItemResult(
+        int index,
+        UUID saleId,
+        String error
+) {
+}
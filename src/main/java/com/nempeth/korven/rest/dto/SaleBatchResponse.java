@@ -0,0 +1,15 @@
+package com.nempeth.korven.rest.dto;
+
+import lombok.Builder;
+
+import java.util.List;
+
+@Builder
+public record SaleBatchResponse(
+        int received,
+        int created,
+        int failed,
+        // Solo las ventas que fallaron: las registradas se cuentan en created
+        List<SaleBatchItemResult> failures
+) {
+}
@@ -0,0 +1,12 @@
+package com.nempeth.korven.rest.dto;
+
+import lombok.Builder;
+
+import java.util.List;
+
+@Builder
+public record SalesHeatmapResponse(
+        String timezone,
+        List<HeatmapDayResponse> days
+) {
+}
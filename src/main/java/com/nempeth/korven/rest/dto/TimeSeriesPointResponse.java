@@ -0,0 +1,14 @@
+package com.nempeth.korven.rest.dto;
+
+import lombok.Builder;
+
+import java.math.BigDecimal;
+import java.time.OffsetDateTime;
+
+@Builder
+public record TimeSeriesPointResponse(
+        OffsetDateTime start,
+        BigDecimal revenue,
+        long saleCount
+) {
+}
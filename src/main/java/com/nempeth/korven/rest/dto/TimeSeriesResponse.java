@@ -0,0 +1,14 @@
+package com.nempeth.korven.rest.dto;
+
+import com.nempeth.korven.constants.TimeGranularity;
+import lombok.Builder;
+
+import java.util.List;
+
+@Builder
+public record TimeSeriesResponse(
+        TimeGranularity granularity,
+        String timezone,
+        List<TimeSeriesPointResponse> points
+) {
+}
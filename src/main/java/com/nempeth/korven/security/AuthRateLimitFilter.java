@@ -0,0 +1,149 @@
+package com.nempeth.korven.security;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.nempeth.korven.exception.TooManyRequestsException;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ReadListener;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.ServletInputStream;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletRequestWrapper;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.BufferedReader;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.util.Set;
+
+@Component
+@RequiredArgsConstructor
+public class AuthRateLimitFilter extends OncePerRequestFilter {
+
+    // Endpoints públicos que disparan BCrypt o el envío de mails
+    private static final Set<String> LIMITED_PATHS = Set.of(
+            "/auth/login",
+            "/auth/register",
+            "/auth/register/owner",
+            "/auth/register/employee",
+            "/auth/password/forgot");
+
+    // Los bodies de estos endpoints son unos pocos campos; más que esto no es un pedido legítimo
+    private static final int MAX_BODY_BYTES = 16 * 1024;
+
+    private final AuthRateLimiter rateLimiter;
+    private final ObjectMapper objectMapper;
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return !"POST".equals(request.getMethod()) || !LIMITED_PATHS.contains(request.getRequestURI());
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request,
+                                    HttpServletResponse response,
+                                    FilterChain chain)
+            throws ServletException, IOException {
+        CachedBodyRequest cached;
+        try {
+            rateLimiter.checkIp(request.getRemoteAddr());
+
+            byte[] body = request.getInputStream().readNBytes(MAX_BODY_BYTES + 1);
+            if (body.length > MAX_BODY_BYTES) {
+                writeError(response, HttpStatus.PAYLOAD_TOO_LARGE, "El cuerpo del pedido es demasiado grande");
+                return;
+            }
+            cached = new CachedBodyRequest(request, body);
+            // El límite aplica exista o no la cuenta, así que el 429 tampoco revela nada
+            rateLimiter.checkEmail(email(cached));
+        } catch (TooManyRequestsException e) {
+            response.setHeader(HttpHeaders.RETRY_AFTER, String.valueOf(e.getRetryAfterSeconds()));
+            writeError(response, HttpStatus.TOO_MANY_REQUESTS, e.getMessage());
+            return;
+        }
+        chain.doFilter(cached, response);
+    }
+
+    // Un body que no es JSON o no trae email no se limita por email: lo rechaza la validación del controller
+    private String email(CachedBodyRequest request) {
+        try {
+            JsonNode email = objectMapper.readTree(request.body).get("email");
+            return email != null && email.isTextual() ? email.asText() : null;
+        } catch (IOException e) {
+            return null;
+        }
+    }
+
+    private static void writeError(HttpServletResponse response, HttpStatus status, String message) throws IOException {
+        response.setStatus(status.value());
+        response.setContentType("application/json");
+        response.setCharacterEncoding(StandardCharsets.UTF_8.name());
+        response.getWriter().write("{\"error\": \"" + message + "\"}");
+    }
+
+    // Guarda el body ya leído para que el controller lo vuelva a leer
+    private static final class CachedBodyRequest extends HttpServletRequestWrapper {
+        private final byte[] body;
+
+        CachedBodyRequest(HttpServletRequest request, byte[] body) {
+            super(request);
+            this.body = body;
+        }
+
+        @Override
+        public ServletInputStream getInputStream() {
+            ByteArrayInputStream in = new ByteArrayInputStream(body);
+            return new ServletInputStream() {
+                @Override
+                public int read() {
+                    return in.read();
+                }
+
+                @Override
+                public int read(byte[] b, int off, int len) {
+                    return in.read(b, off, len);
+                }
+
+                @Override
+                public boolean isFinished() {
+                    return in.available() == 0;
+                }
+
+                @Override
+                public boolean isReady() {
+                    return true;
+                }
+
+                @Override
+                public void setReadListener(ReadListener listener) {
+                    throw new UnsupportedOperationException();
+                }
+            };
+        }
+
+        @Override
+        public BufferedReader getReader() {
+            Charset charset = getCharacterEncoding() != null
+                    ? Charset.forName(getCharacterEncoding()) : StandardCharsets.UTF_8;
+            return new BufferedReader(new InputStreamReader(getInputStream(), charset));
+        }
+
+        @Override
+        public int getContentLength() {
+            return body.length;
+        }
+
+        @Override
+        public long getContentLengthLong() {
+            return body.length;
+        }
+    }
+}
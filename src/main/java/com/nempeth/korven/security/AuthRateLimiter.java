@@ -0,0 +1,85 @@
+package com.nempeth.korven.security;
+
+import com.nempeth.korven.exception.TooManyRequestsException;
+import com.nempeth.korven.utils.EmailUtils;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Limita los endpoints públicos de autenticación con un token bucket por IP y otro por el email del
+ * body; los dos los aplica {@link AuthRateLimitFilter}.
+ * Un pedido rechazado termina en 429 con Retry-After antes de llegar a BCrypt o al envío de mails.
+ */
+@Component
+public class AuthRateLimiter {
+
+    private static final String MESSAGE = "Demasiados intentos, intenta de nuevo más tarde";
+
+    private final boolean enabled;
+    private final Limit byIp;
+    private final Limit byEmail;
+
+    public AuthRateLimiter(@Value("${app.security.rate-limit.enabled:true}") boolean enabled,
+                           @Value("${app.security.rate-limit.max-keys:100000}") int maxKeys,
+                           @Value("${app.security.rate-limit.ip.capacity:20}") int ipCapacity,
+                           @Value("${app.security.rate-limit.ip.refill-period:3s}") Duration ipRefillPeriod,
+                           @Value("${app.security.rate-limit.email.capacity:5}") int emailCapacity,
+                           @Value("${app.security.rate-limit.email.refill-period:1m}") Duration emailRefillPeriod,
+                           MeterRegistry meterRegistry) {
+        this.enabled = enabled;
+        this.byIp = new Limit("ip", new TokenBucketLimiter(ipCapacity, ipRefillPeriod.toNanos(), maxKeys), meterRegistry);
+        this.byEmail = new Limit("email", new TokenBucketLimiter(emailCapacity, emailRefillPeriod.toNanos(), maxKeys), meterRegistry);
+    }
+
+    public void checkIp(String ip) {
+        check(byIp, ip);
+    }
+
+    public void checkEmail(String email) {
+        check(byEmail, email == null ? null : EmailUtils.normalize(email));
+    }
+
+    private void check(Limit limit, String key) {
+        // Sin clave no hay a quién limitar; la validación del request se encarga del resto
+        if (!enabled || key == null || key.isEmpty()) {
+            return;
+        }
+        long waitNanos = limit.buckets.tryAcquire(key, System.nanoTime());
+        if (waitNanos == 0) {
+            limit.allowed.increment();
+            return;
+        }
+        limit.rejected.increment();
+        throw new TooManyRequestsException(MESSAGE, Math.max(1, TimeUnit.NANOSECONDS.toSeconds(waitNanos + 999_999_999)));
+    }
+
+    private static final class Limit {
+        final TokenBucketLimiter buckets;
+        final Counter allowed;
+        final Counter rejected;
+
+        Limit(String name, TokenBucketLimiter buckets, MeterRegistry meterRegistry) {
+            this.buckets = buckets;
+            this.allowed = Counter.builder("auth.ratelimit.requests")
+                    .description("Pedidos a los endpoints de autenticación evaluados por el rate limit")
+                    .tag("limiter", name)
+                    .tag("outcome", "allowed")
+                    .register(meterRegistry);
+            this.rejected = Counter.builder("auth.ratelimit.requests")
+                    .description("Pedidos a los endpoints de autenticación evaluados por el rate limit")
+                    .tag("limiter", name)
+                    .tag("outcome", "rejected")
+                    .register(meterRegistry);
+            Gauge.builder("auth.ratelimit.keys", buckets, TokenBucketLimiter::size)
+                    .description("Claves con bucket en memoria")
+                    .tag("limiter", name)
+                    .register(meterRegistry);
+        }
+    }
+}
@@ -0,0 +1,15 @@
+package com.nempeth.korven.security;
+
+import com.nempeth.korven.constants.MembershipRole;
+
+import java.util.UUID;
+
+/**
+ * Membresía activa de un usuario en un negocio, ya validada por {@link BusinessAccessResolver}.
+ */
+public record BusinessAccess(UUID businessId, UUID userId, String email, MembershipRole role) {
+
+    public boolean isOwner() {
+        return role == MembershipRole.OWNER;
+    }
+}
@@ -0,0 +1,59 @@
+package com.nempeth.korven.security;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.core.MethodParameter;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.stereotype.Component;
+import org.springframework.web.bind.support.WebDataBinderFactory;
+import org.springframework.web.context.request.NativeWebRequest;
+import org.springframework.web.context.request.RequestAttributes;
+import org.springframework.web.method.support.HandlerMethodArgumentResolver;
+import org.springframework.web.method.support.ModelAndViewContainer;
+import org.springframework.web.servlet.HandlerMapping;
+
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Resuelve los parámetros {@link BusinessMember} con {@link BusinessAccessResolver}.
+ */
+@Component
+@RequiredArgsConstructor
+public class BusinessAccessArgumentResolver implements HandlerMethodArgumentResolver {
+
+    private static final String BUSINESS_ID_VARIABLE = "businessId";
+
+    private final BusinessAccessResolver accessResolver;
+
+    @Override
+    public boolean supportsParameter(MethodParameter parameter) {
+        return parameter.hasParameterAnnotation(BusinessMember.class)
+                && BusinessAccess.class.equals(parameter.getParameterType());
+    }
+
+    @Override
+    public BusinessAccess resolveArgument(MethodParameter parameter, ModelAndViewContainer mavContainer,
+                                          NativeWebRequest webRequest, WebDataBinderFactory binderFactory) {
+        Authentication auth = SecurityContextHolder.getContext().getAuthentication();
+        if (auth == null || !auth.isAuthenticated()) {
+            throw new IllegalStateException("@BusinessMember requiere un usuario autenticado");
+        }
+        @SuppressWarnings("unchecked")
+        Map<String, String> variables = (Map<String, String>) webRequest.getAttribute(
+                HandlerMapping.URI_TEMPLATE_VARIABLES_ATTRIBUTE, RequestAttributes.SCOPE_REQUEST);
+        String businessId = variables == null ? null : variables.get(BUSINESS_ID_VARIABLE);
+        if (businessId == null) {
+            throw new IllegalStateException("@BusinessMember requiere la variable {businessId} en la ruta");
+        }
+        return accessResolver.resolve(auth.getName(), parseBusinessId(businessId));
+    }
+
+    private static UUID parseBusinessId(String value) {
+        try {
+            return UUID.fromString(value);
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Identificador de negocio inválido");
+        }
+    }
+}
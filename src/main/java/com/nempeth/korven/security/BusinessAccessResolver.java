@@ -0,0 +1,129 @@
+package com.nempeth.korven.security;
+
+import com.nempeth.korven.constants.MembershipRole;
+import com.nempeth.korven.constants.MembershipStatus;
+import com.nempeth.korven.persistence.entity.BusinessMembership;
+import com.nempeth.korven.persistence.entity.User;
+import com.nempeth.korven.persistence.repository.BusinessMembershipRepository;
+import com.nempeth.korven.persistence.repository.UserRepository;
+import com.nempeth.korven.service.UserPrincipalChangedEvent;
+import com.nempeth.korven.utils.EmailUtils;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.web.context.request.RequestAttributes;
+import org.springframework.web.context.request.RequestContextHolder;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.UUID;
+
+/**
+ * Valida que un usuario tenga una membresía activa en un negocio. Las membresías de cada usuario
+ * se cachean por email (todas juntas, así una sola entrada sirve para cualquier negocio) y se
+ * invalidan al confirmar una transacción que publica {@link UserPrincipalChangedEvent}. Dentro de
+ * un request el resultado además queda memorizado, así que validar dos veces el mismo acceso no
+ * vuelve a tocar el caché ni la base.
+ */
+@Component
+public class BusinessAccessResolver {
+
+    public static final String CACHE_NAME = "business-access";
+
+    private static final String MEMO_ATTRIBUTE = BusinessAccessResolver.class.getName() + ".memo";
+
+    private final Cache memberships;
+    private final UserRepository userRepository;
+    private final BusinessMembershipRepository membershipRepository;
+
+    public BusinessAccessResolver(CacheManager cacheManager,
+                                  UserRepository userRepository,
+                                  BusinessMembershipRepository membershipRepository) {
+        this.memberships = Objects.requireNonNull(cacheManager.getCache(CACHE_NAME));
+        this.userRepository = userRepository;
+        this.membershipRepository = membershipRepository;
+    }
+
+    /**
+     * Devuelve la membresía activa de {@code userEmail} en el negocio, o lanza
+     * {@link IllegalArgumentException} con el mismo mensaje que las validaciones de cada servicio.
+     */
+    public BusinessAccess resolve(String userEmail, UUID businessId) {
+        String email = key(userEmail);
+        Map<MemoKey, BusinessAccess> memo = requestMemo();
+        MemoKey memoKey = new MemoKey(email, businessId);
+        if (memo != null) {
+            BusinessAccess memoized = memo.get(memoKey);
+            if (memoized != null) {
+                return memoized;
+            }
+        }
+
+        // get(key, loader) envolvería la IllegalArgumentException del loader: se carga a mano
+        UserMemberships user = memberships.get(email, UserMemberships.class);
+        if (user == null) {
+            user = load(userEmail);
+            memberships.put(email, user);
+        }
+        Grant grant = user.grants().get(businessId);
+        if (grant == null) {
+            throw new IllegalArgumentException("No tienes acceso a este negocio");
+        }
+        if (grant.status() != MembershipStatus.ACTIVE) {
+            throw new IllegalArgumentException("Tu membresía en este negocio no está activa");
+        }
+
+        BusinessAccess access = new BusinessAccess(businessId, user.userId(), user.email(), grant.role());
+        if (memo != null) {
+            memo.put(memoKey, access);
+        }
+        return access;
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onUserPrincipalChanged(UserPrincipalChangedEvent event) {
+        memberships.evict(key(event.email()));
+        Map<MemoKey, BusinessAccess> memo = requestMemo();
+        if (memo != null) {
+            memo.keySet().removeIf(memoKey -> memoKey.email().equals(key(event.email())));
+        }
+    }
+
+    // Solo se cachean usuarios existentes: un email desconocido no ocupa lugar en el caché
+    private UserMemberships load(String userEmail) {
+        User user = userRepository.findByEmailIgnoreCase(userEmail)
+                .orElseThrow(() -> new IllegalArgumentException("Usuario no encontrado"));
+        Map<UUID, Grant> grants = new HashMap<>();
+        for (BusinessMembership membership : membershipRepository.findByUserId(user.getId())) {
+            grants.put(membership.getBusiness().getId(), new Grant(membership.getRole(), membership.getStatus()));
+        }
+        return new UserMemberships(user.getId(), user.getEmail(), Map.copyOf(grants));
+    }
+
+    @SuppressWarnings("unchecked")
+    private static Map<MemoKey, BusinessAccess> requestMemo() {
+        RequestAttributes attributes = RequestContextHolder.getRequestAttributes();
+        if (attributes == null) {
+            return null;
+        }
+        Object memo = attributes.getAttribute(MEMO_ATTRIBUTE, RequestAttributes.SCOPE_REQUEST);
+        if (memo == null) {
+            memo = new HashMap<MemoKey, BusinessAccess>();
+            attributes.setAttribute(MEMO_ATTRIBUTE, memo, RequestAttributes.SCOPE_REQUEST);
+        }
+        return (Map<MemoKey, BusinessAccess>) memo;
+    }
+
+    private static String key(String email) {
+        return EmailUtils.normalize(email);
+    }
+
+    private record MemoKey(String email, UUID businessId) {}
+
+    private record Grant(MembershipRole role, MembershipStatus status) {}
+
+    private record UserMemberships(UUID userId, String email, Map<UUID, Grant> grants) {}
+}
@@ -0,0 +1,18 @@
+package com.nempeth.korven.security;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Marca un parámetro {@link BusinessAccess} de un endpoint bajo {@code /businesses/{businessId}}:
+ * se resuelve con el usuario autenticado y la variable {@code businessId} de la ruta antes de
+ * invocar al controlador, que así nunca corre para alguien sin membresía activa.
+ */
+@Target(ElementType.PARAMETER)
+@Retention(RetentionPolicy.RUNTIME)
+@Documented
+public @interface BusinessMember {
+}
@@ -5,7 +5,8 @@ import io.jsonwebtoken.Claims;
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
 import jakarta.servlet.http.*;
-import lombok.RequiredArgsConstructor;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.security.core.userdetails.*;
@@ -16,11 +17,19 @@ import org.springframework.web.filter.OncePerRequestFilter;
 import java.io.IOException;
 
 @Component
-@RequiredArgsConstructor
 public class JwtAuthFilter extends OncePerRequestFilter {
 
     private final JwtUtils jwtUtils;
-    private final UserDetailsService userDetailsService;
+    private final PrincipalCache principalCache;
+    private final Timer authTimer;
+
+    public JwtAuthFilter(JwtUtils jwtUtils, PrincipalCache principalCache, MeterRegistry meterRegistry) {
+        this.jwtUtils = jwtUtils;
+        this.principalCache = principalCache;
+        this.authTimer = Timer.builder("auth.filter")
+                .description("Validación del token y resolución del principal de cada request")
+                .register(meterRegistry);
+    }
 
     @Override
     protected void doFilterInternal(HttpServletRequest request,
@@ -38,12 +47,13 @@ public class JwtAuthFilter extends OncePerRequestFilter {
         String header = request.getHeader("Authorization");
         if (header != null && header.startsWith("Bearer ")) {
             String token = header.substring(7);
+            Timer.Sample sample = Timer.start();
             try {
                 Claims claims = jwtUtils.parseToken(token).getBody();
                 String email = claims.getSubject();
 
                 if (email != null && SecurityContextHolder.getContext().getAuthentication() == null) {
-                    UserDetails userDetails = userDetailsService.loadUserByUsername(email);
+                    UserDetails userDetails = principalCache.get(email);
                     var authToken = new UsernamePasswordAuthenticationToken(
                             userDetails, null, userDetails.getAuthorities());
                     authToken.setDetails(new WebAuthenticationDetailsSource().buildDetails(request));
@@ -54,6 +64,8 @@ public class JwtAuthFilter extends OncePerRequestFilter {
                 response.setContentType("application/json");
                 response.getWriter().write("{\"error\": \"Token inválido o expirado\"}");
                 return;
+            } finally {
+                sample.stop(authTimer);
             }
 
         }
@@ -0,0 +1,132 @@
+package com.nempeth.korven.security;
+
+import com.nempeth.korven.exception.TooManyRequestsException;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Hashea y verifica contraseñas con BCrypt en un pool propio de pocos hilos y cola acotada, para
+ * que una ráfaga de logins no ocupe la CPU que necesitan el resto de los requests. Si la cola está
+ * llena el pedido se rechaza enseguida con {@link TooManyRequestsException} en lugar de esperar.
+ */
+@Component
+public class PasswordHasher {
+
+    private static final Pattern BCRYPT_COST = Pattern.compile("^\\$2[abxy]?\\$(\\d{2})\\$");
+
+    private final BCryptPasswordEncoder encoder;
+    private final int strength;
+    private final ThreadPoolExecutor executor;
+    private final Duration maxWait;
+    private final long retryAfterSeconds;
+    private final Timer hashTimer;
+    private final Timer verifyTimer;
+    private final Counter rejected;
+
+    public PasswordHasher(@Value("${app.security.bcrypt.strength:10}") int strength,
+                          @Value("${app.security.bcrypt.threads:0}") int threads,
+                          @Value("${app.security.bcrypt.queue-capacity:64}") int queueCapacity,
+                          @Value("${app.security.bcrypt.max-wait:5s}") Duration maxWait,
+                          @Value("${app.security.bcrypt.retry-after:1s}") Duration retryAfter,
+                          MeterRegistry meterRegistry) {
+        this.encoder = new BCryptPasswordEncoder(strength);
+        this.strength = strength;
+        // Por defecto la mitad de los núcleos: el resto queda para los requests comunes
+        int poolSize = threads > 0 ? threads : Math.max(1, Runtime.getRuntime().availableProcessors() / 2);
+        AtomicInteger threadCount = new AtomicInteger();
+        this.executor = new ThreadPoolExecutor(poolSize, poolSize, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity),
+                runnable -> {
+                    Thread thread = new Thread(runnable, "bcrypt-" + threadCount.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                },
+                new ThreadPoolExecutor.AbortPolicy());
+        this.maxWait = maxWait;
+        this.retryAfterSeconds = Math.max(1, retryAfter.toSeconds());
+
+        Gauge.builder("auth.password.queue", executor, pool -> pool.getQueue().size())
+                .description("Hasheos y verificaciones de contraseña esperando un hilo")
+                .register(meterRegistry);
+        Gauge.builder("auth.password.active", executor, ThreadPoolExecutor::getActiveCount)
+                .description("Hilos del pool de BCrypt ocupados")
+                .register(meterRegistry);
+        this.hashTimer = Timer.builder("auth.password.duration")
+                .description("Tiempo de BCrypt, sin contar la espera en la cola")
+                .tag("operation", "hash")
+                .register(meterRegistry);
+        this.verifyTimer = Timer.builder("auth.password.duration")
+                .description("Tiempo de BCrypt, sin contar la espera en la cola")
+                .tag("operation", "verify")
+                .register(meterRegistry);
+        this.rejected = Counter.builder("auth.password.rejected")
+                .description("Pedidos rechazados con 429 por la cola de BCrypt llena o la espera agotada")
+                .register(meterRegistry);
+    }
+
+    public String hash(String rawPassword) {
+        return run(() -> hashTimer.recordCallable(() -> encoder.encode(rawPassword)));
+    }
+
+    public boolean matches(String rawPassword, String hash) {
+        return run(() -> verifyTimer.recordCallable(() -> encoder.matches(rawPassword, hash)));
+    }
+
+    /** Indica si el hash se generó con un costo distinto al configurado y conviene regenerarlo. */
+    public boolean needsRehash(String hash) {
+        Matcher matcher = BCRYPT_COST.matcher(hash);
+        return !matcher.find() || Integer.parseInt(matcher.group(1)) != strength;
+    }
+
+    <T> T run(Callable<T> task) {
+        Future<T> future;
+        try {
+            future = executor.submit(task);
+        } catch (RejectedExecutionException e) {
+            rejected.increment();
+            throw new TooManyRequestsException("Demasiados pedidos de autenticación, intenta de nuevo en unos segundos",
+                    retryAfterSeconds);
+        }
+        try {
+            return future.get(maxWait.toMillis(), TimeUnit.MILLISECONDS);
+        } catch (TimeoutException e) {
+            future.cancel(true);
+            rejected.increment();
+            throw new TooManyRequestsException("Demasiados pedidos de autenticación, intenta de nuevo en unos segundos",
+                    retryAfterSeconds);
+        } catch (InterruptedException e) {
+            future.cancel(true);
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Verificación de contraseña interrumpida", e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException runtime) {
+                throw runtime;
+            }
+            throw new IllegalStateException("Error al procesar la contraseña", e.getCause());
+        }
+    }
+
+    @PreDestroy
+    void shutdown() {
+        executor.shutdownNow();
+    }
+}
@@ -0,0 +1,51 @@
+package com.nempeth.korven.security;
+
+import com.nempeth.korven.service.UserPrincipalChangedEvent;
+import com.nempeth.korven.utils.EmailUtils;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.security.core.userdetails.User;
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.security.core.userdetails.UserDetailsService;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.Objects;
+
+/**
+ * Principales autenticados por email (el subject del JWT), para que los requests con un token
+ * válido no consulten la base. Las entradas vencen por tiempo y se invalidan al confirmar una
+ * transacción que publica {@link UserPrincipalChangedEvent}.
+ */
+@Component
+public class PrincipalCache {
+
+    public static final String NAME = "auth-principals";
+
+    private final Cache principals;
+    private final UserDetailsService userDetailsService;
+
+    public PrincipalCache(CacheManager cacheManager, UserDetailsService userDetailsService) {
+        this.principals = Objects.requireNonNull(cacheManager.getCache(NAME));
+        this.userDetailsService = userDetailsService;
+    }
+
+    public UserDetails get(String email) {
+        return principals.get(key(email), () -> withoutPassword(userDetailsService.loadUserByUsername(email)));
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onUserPrincipalChanged(UserPrincipalChangedEvent event) {
+        principals.evict(key(event.email()));
+    }
+
+    private static String key(String email) {
+        return EmailUtils.normalize(email);
+    }
+
+    // El filtro JWT no usa la contraseña: no se guarda el hash en memoria
+    private static UserDetails withoutPassword(UserDetails details) {
+        return new User(details.getUsername(), "", details.getAuthorities());
+    }
+}
@@ -0,0 +1,96 @@
+package com.nempeth.korven.security;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Token buckets por clave, repartidos en segmentos con su propio lock y acotados en cantidad de
+ * claves (se descarta la usada hace más tiempo). No hay timers: cada bucket se recarga al
+ * consultarlo según el tiempo transcurrido. Descartar un bucket equivale a dejarlo lleno, así que
+ * solo se pierde el estado de las claves inactivas.
+ */
+final class TokenBucketLimiter {
+
+    private static final int STRIPES = 16;
+
+    private final int capacity;
+    private final long nanosPerToken;
+    private final Stripe[] stripes;
+
+    TokenBucketLimiter(int capacity, long nanosPerToken, int maxKeys) {
+        if (capacity < 1 || nanosPerToken < 1) {
+            throw new IllegalArgumentException("La capacidad y el período de recarga deben ser positivos");
+        }
+        this.capacity = capacity;
+        this.nanosPerToken = nanosPerToken;
+        int perStripe = Math.max(1, maxKeys / STRIPES);
+        this.stripes = new Stripe[STRIPES];
+        for (int i = 0; i < STRIPES; i++) {
+            stripes[i] = new Stripe(perStripe);
+        }
+    }
+
+    /**
+     * Consume un token de {@code key}. Devuelve 0 si había uno disponible, o los nanosegundos que
+     * faltan para el próximo.
+     */
+    long tryAcquire(String key, long nowNanos) {
+        Stripe stripe = stripe(key);
+        synchronized (stripe) {
+            Bucket bucket = stripe.get(key);
+            if (bucket == null) {
+                stripe.put(key, new Bucket(capacity - 1, nowNanos));
+                return 0;
+            }
+            long elapsed = nowNanos - bucket.updatedAt;
+            if (elapsed > 0) {
+                bucket.tokens = Math.min(capacity, bucket.tokens + (double) elapsed / nanosPerToken);
+                bucket.updatedAt = nowNanos;
+            }
+            if (bucket.tokens >= 1) {
+                bucket.tokens -= 1;
+                return 0;
+            }
+            return (long) Math.ceil((1 - bucket.tokens) * nanosPerToken);
+        }
+    }
+
+    /** Cantidad de claves con bucket; la lectura sin lock es aproximada, alcanza para una métrica. */
+    int size() {
+        int size = 0;
+        for (Stripe stripe : stripes) {
+            size += stripe.size();
+        }
+        return size;
+    }
+
+    private Stripe stripe(String key) {
+        int h = key.hashCode();
+        return stripes[(h ^ (h >>> 16)) & (STRIPES - 1)];
+    }
+
+    private static final class Bucket {
+        double tokens;
+        long updatedAt;
+
+        Bucket(double tokens, long updatedAt) {
+            this.tokens = tokens;
+            this.updatedAt = updatedAt;
+        }
+    }
+
+    private static final class Stripe extends LinkedHashMap<String, Bucket> {
+
+        private final int capacity;
+
+        Stripe(int capacity) {
+            super(16, 0.75f, true);
+            this.capacity = capacity;
+        }
+
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<String, Bucket> eldest) {
+            return size() > capacity;
+        }
+    }
+}
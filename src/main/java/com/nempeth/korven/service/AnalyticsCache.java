@@ -0,0 +1,80 @@
+package com.nempeth.korven.service;
+
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.util.Objects;
+import java.util.UUID;
+import java.util.function.Supplier;
+
+/**
+ * Resultados de las consultas mensuales de {@link AnalyticsService} por (negocio, año).
+ * Los años cerrados se guardan sin vencimiento; el año en curso vence por tiempo y se invalida
+ * por negocio cuando se confirma una transacción que publica {@link AnalyticsDataChangedEvent}.
+ */
+@Component
+public class AnalyticsCache {
+
+    public static final String CLOSED_YEARS = "analytics-closed-years";
+    public static final String CURRENT_YEAR = "analytics-current-year";
+
+    public enum Query {
+        REVENUE_BY_CATEGORY,
+        PROFIT_BY_CATEGORY,
+        TOTAL_REVENUE,
+        TOTAL_PROFIT,
+        DASHBOARD
+    }
+
+    private final Cache closedYears;
+    private final Cache currentYear;
+    private final ZoneId zone;
+
+    public AnalyticsCache(CacheManager cacheManager, SalesRollupService rollupService) {
+        this.closedYears = Objects.requireNonNull(cacheManager.getCache(CLOSED_YEARS));
+        this.currentYear = Objects.requireNonNull(cacheManager.getCache(CURRENT_YEAR));
+        this.zone = rollupService.getZone();
+    }
+
+    public <T> T get(Query query, UUID businessId, int year, Supplier<T> loader) {
+        Cache cache = year < LocalDate.now(zone).getYear() ? closedYears : currentYear;
+        return cache.get(new Key(query, businessId, year), loader::get);
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onAnalyticsDataChanged(AnalyticsDataChangedEvent event) {
+        switch (event.scope()) {
+            case ALL_YEARS -> {
+                evictBusiness(closedYears, event.businessId());
+                evictBusiness(currentYear, event.businessId());
+            }
+            case CURRENT_YEAR -> evictYear(event.businessId(), LocalDate.now(zone).getYear());
+            case YEAR -> evictYear(event.businessId(), event.year());
+        }
+    }
+
+    private void evictYear(UUID businessId, int year) {
+        // Se limpian ambas cachés: una venta confirmada justo después de fin de año cae en un año ya cerrado
+        for (Query query : Query.values()) {
+            Key key = new Key(query, businessId, year);
+            closedYears.evict(key);
+            currentYear.evict(key);
+        }
+    }
+
+    private static void evictBusiness(Cache cache, UUID businessId) {
+        if (cache.getNativeCache() instanceof com.github.benmanes.caffeine.cache.Cache<?, ?> nativeCache) {
+            nativeCache.asMap().keySet().removeIf(key -> key instanceof Key k && k.businessId().equals(businessId));
+        } else {
+            cache.clear();
+        }
+    }
+
+    private record Key(Query query, UUID businessId, int year) {
+    }
+}
@@ -0,0 +1,28 @@
+package com.nempeth.korven.service;
+
+import java.util.UUID;
+
+/**
+ * Se publica cuando cambian datos que alimentan las analíticas de un negocio, indicando qué años
+ * pueden haber cambiado.
+ */
+public record AnalyticsDataChangedEvent(UUID businessId, Scope scope, int year) {
+
+    public enum Scope {
+        YEAR,
+        CURRENT_YEAR,
+        ALL_YEARS
+    }
+
+    public static AnalyticsDataChangedEvent forYear(UUID businessId, int year) {
+        return new AnalyticsDataChangedEvent(businessId, Scope.YEAR, year);
+    }
+
+    public static AnalyticsDataChangedEvent currentYear(UUID businessId) {
+        return new AnalyticsDataChangedEvent(businessId, Scope.CURRENT_YEAR, 0);
+    }
+
+    public static AnalyticsDataChangedEvent allYears(UUID businessId) {
+        return new AnalyticsDataChangedEvent(businessId, Scope.ALL_YEARS, 0);
+    }
+}
@@ -1,119 +1,355 @@
 package com.nempeth.korven.service;
 
-import com.nempeth.korven.constants.MembershipStatus;
-import com.nempeth.korven.persistence.entity.BusinessMembership;
-import com.nempeth.korven.persistence.entity.User;
-import com.nempeth.korven.persistence.repository.BusinessMembershipRepository;
+import com.nempeth.korven.constants.TimeGranularity;
 import com.nempeth.korven.persistence.repository.SaleRepository;
-import com.nempeth.korven.persistence.repository.UserRepository;
+import com.nempeth.korven.persistence.repository.SalesDailyRollupRepository;
 import com.nempeth.korven.rest.dto.*;
+import com.nempeth.korven.security.BusinessAccessResolver;
+import com.nempeth.korven.utils.Money;
 import lombok.RequiredArgsConstructor;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.math.BigDecimal;
+import java.time.DayOfWeek;
+import java.time.Instant;
+import java.time.LocalDate;
 import java.time.OffsetDateTime;
 import java.time.YearMonth;
+import java.time.ZoneId;
+import java.time.ZonedDateTime;
+import java.time.zone.ZoneRules;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Iterator;
 import java.util.List;
+import java.util.Optional;
 import java.util.UUID;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
 
+/**
+ * Analíticas mensuales por negocio, calculadas sobre los totales diarios de {@code sales_daily_rollup}
+ * y cacheadas por (negocio, año) en {@link AnalyticsCache}, y series temporales y mapas de calor con
+ * zona horaria elegible calculados sobre las ventas. Si {@link ColumnarAnalyticsEngine} está
+ * habilitado, el tablero y las series se calculan en memoria sobre sus columnas.
+ */
 @Service
 @RequiredArgsConstructor
 public class AnalyticsService {
 
+    private static final int MAX_TIME_SERIES_POINTS = 5000;
+    private static final int HEATMAP_CELLS = 7 * 24;
+
+    private final SalesDailyRollupRepository rollupRepository;
     private final SaleRepository saleRepository;
-    private final UserRepository userRepository;
-    private final BusinessMembershipRepository membershipRepository;
+    private final AnalyticsCache analyticsCache;
+    private final ColumnarAnalyticsEngine columnarEngine;
+    private final SalesRollupService rollupService;
+    private final BusinessAccessResolver accessResolver;
 
     @Transactional(readOnly = true)
     public List<MonthlyCategoryRevenueResponse> getMonthlyRevenueByCategory(String userEmail, UUID businessId, 
                                                                            Integer year) {
-        validateUserBusinessAccess(userEmail, businessId);
-        
-        OffsetDateTime startOfYear = OffsetDateTime.of(year, 1, 1, 0, 0, 0, 0, 
-                OffsetDateTime.now().getOffset());
-        OffsetDateTime endOfYear = OffsetDateTime.of(year, 12, 31, 23, 59, 59, 999999999, 
-                OffsetDateTime.now().getOffset());
+        accessResolver.resolve(userEmail, businessId);
         
-        List<Object[]> results = saleRepository.findMonthlyRevenueByCategory(businessId, startOfYear, endOfYear);
+        LocalDate startOfYear = LocalDate.of(year, 1, 1);
+        LocalDate endOfYear = LocalDate.of(year, 12, 31);
         
-        return results.stream()
-                .map(result -> MonthlyCategoryRevenueResponse.builder()
-                        .month(YearMonth.of((Integer) result[0], (Integer) result[1]))
-                        .categoryName((String) result[2])
-                        .revenue((BigDecimal) result[3])
-                        .build())
-                .toList();
+        return analyticsCache.get(AnalyticsCache.Query.REVENUE_BY_CATEGORY, businessId, year, () ->
+                rollupRepository.findMonthlyRevenueByCategory(businessId, startOfYear, endOfYear).stream()
+                        .map(result -> MonthlyCategoryRevenueResponse.builder()
+                                .month(YearMonth.of((Integer) result[0], (Integer) result[1]))
+                                .categoryName((String) result[2])
+                                .revenue((BigDecimal) result[3])
+                                .build())
+                        .toList());
     }
 
     @Transactional(readOnly = true)
     public List<MonthlyCategoryProfitResponse> getMonthlyProfitByCategory(String userEmail, UUID businessId, 
                                                                          Integer year) {
-        validateUserBusinessAccess(userEmail, businessId);
+        accessResolver.resolve(userEmail, businessId);
         
-        OffsetDateTime startOfYear = OffsetDateTime.of(year, 1, 1, 0, 0, 0, 0, 
-                OffsetDateTime.now().getOffset());
-        OffsetDateTime endOfYear = OffsetDateTime.of(year, 12, 31, 23, 59, 59, 999999999, 
-                OffsetDateTime.now().getOffset());
+        LocalDate startOfYear = LocalDate.of(year, 1, 1);
+        LocalDate endOfYear = LocalDate.of(year, 12, 31);
         
-        List<Object[]> results = saleRepository.findMonthlyProfitByCategory(businessId, startOfYear, endOfYear);
-        
-        return results.stream()
-                .map(result -> MonthlyCategoryProfitResponse.builder()
-                        .month(YearMonth.of((Integer) result[0], (Integer) result[1]))
-                        .categoryName((String) result[2])
-                        .profit((BigDecimal) result[3])
-                        .build())
-                .toList();
+        return analyticsCache.get(AnalyticsCache.Query.PROFIT_BY_CATEGORY, businessId, year, () ->
+                rollupRepository.findMonthlyProfitByCategory(businessId, startOfYear, endOfYear).stream()
+                        .map(result -> MonthlyCategoryProfitResponse.builder()
+                                .month(YearMonth.of((Integer) result[0], (Integer) result[1]))
+                                .categoryName((String) result[2])
+                                .profit((BigDecimal) result[3])
+                                .build())
+                        .toList());
     }
 
     @Transactional(readOnly = true)
     public List<MonthlyRevenueResponse> getMonthlyTotalRevenue(String userEmail, UUID businessId, Integer year) {
-        validateUserBusinessAccess(userEmail, businessId);
-        
-        OffsetDateTime startOfYear = OffsetDateTime.of(year, 1, 1, 0, 0, 0, 0, 
-                OffsetDateTime.now().getOffset());
-        OffsetDateTime endOfYear = OffsetDateTime.of(year, 12, 31, 23, 59, 59, 999999999, 
-                OffsetDateTime.now().getOffset());
+        accessResolver.resolve(userEmail, businessId);
         
-        List<Object[]> results = saleRepository.findMonthlyTotalRevenue(businessId, startOfYear, endOfYear);
+        LocalDate startOfYear = LocalDate.of(year, 1, 1);
+        LocalDate endOfYear = LocalDate.of(year, 12, 31);
         
-        return results.stream()
-                .map(result -> MonthlyRevenueResponse.builder()
-                        .month(YearMonth.of((Integer) result[0], (Integer) result[1]))
-                        .revenue((BigDecimal) result[2])
-                        .build())
-                .toList();
+        return analyticsCache.get(AnalyticsCache.Query.TOTAL_REVENUE, businessId, year, () ->
+                rollupRepository.findMonthlyTotalRevenue(businessId, startOfYear, endOfYear).stream()
+                        .map(result -> MonthlyRevenueResponse.builder()
+                                .month(YearMonth.of((Integer) result[0], (Integer) result[1]))
+                                .revenue((BigDecimal) result[2])
+                                .build())
+                        .toList());
     }
 
     @Transactional(readOnly = true)
     public List<MonthlyProfitResponse> getMonthlyTotalProfit(String userEmail, UUID businessId, Integer year) {
-        validateUserBusinessAccess(userEmail, businessId);
-        
-        OffsetDateTime startOfYear = OffsetDateTime.of(year, 1, 1, 0, 0, 0, 0, 
-                OffsetDateTime.now().getOffset());
-        OffsetDateTime endOfYear = OffsetDateTime.of(year, 12, 31, 23, 59, 59, 999999999, 
-                OffsetDateTime.now().getOffset());
+        accessResolver.resolve(userEmail, businessId);
         
-        List<Object[]> results = saleRepository.findMonthlyTotalProfit(businessId, startOfYear, endOfYear);
+        LocalDate startOfYear = LocalDate.of(year, 1, 1);
+        LocalDate endOfYear = LocalDate.of(year, 12, 31);
         
-        return results.stream()
-                .map(result -> MonthlyProfitResponse.builder()
-                        .month(YearMonth.of((Integer) result[0], (Integer) result[1]))
-                        .profit((BigDecimal) result[2])
-                        .build())
+        return analyticsCache.get(AnalyticsCache.Query.TOTAL_PROFIT, businessId, year, () ->
+                rollupRepository.findMonthlyTotalProfit(businessId, startOfYear, endOfYear).stream()
+                        .map(result -> MonthlyProfitResponse.builder()
+                                .month(YearMonth.of((Integer) result[0], (Integer) result[1]))
+                                .profit((BigDecimal) result[2])
+                                .build())
+                        .toList());
+    }
+
+    /**
+     * Todas las métricas mensuales del año en una sola consulta: los valores por categoría salen de
+     * la agregación y los totales del mes se suman en memoria. No hay total mensual de ventas porque
+     * una venta con varias categorías cuenta en cada una de ellas.
+     */
+    @Transactional(readOnly = true)
+    public AnalyticsDashboardResponse getDashboard(String userEmail, UUID businessId, Integer year) {
+        accessResolver.resolve(userEmail, businessId);
+
+        LocalDate startOfYear = LocalDate.of(year, 1, 1);
+        LocalDate endOfYear = LocalDate.of(year, 12, 31);
+
+        return analyticsCache.get(AnalyticsCache.Query.DASHBOARD, businessId, year, () -> {
+            List<DashboardCategoryMonthResponse> byCategory = dashboardRowsFromFacts(businessId, year)
+                    .orElseGet(() -> dashboardRowsFromRollup(businessId, startOfYear, endOfYear));
+
+            // Las filas vienen ordenadas por mes: cada cambio de mes cierra el total anterior
+            List<DashboardMonthResponse> byMonth = new ArrayList<>();
+            DashboardMonthResponse current = null;
+            for (DashboardCategoryMonthResponse row : byCategory) {
+                if (current != null && !current.month().equals(row.month())) {
+                    byMonth.add(current);
+                    current = null;
+                }
+                current = current == null
+                        ? new DashboardMonthResponse(row.month(), row.revenue(), row.cost(), row.profit(), row.units())
+                        : new DashboardMonthResponse(current.month(),
+                                current.revenue().add(row.revenue()),
+                                current.cost().add(row.cost()),
+                                current.profit().add(row.profit()),
+                                current.units() + row.units());
+            }
+            if (current != null) {
+                byMonth.add(current);
+            }
+
+            return AnalyticsDashboardResponse.builder()
+                    .year(year)
+                    .byCategory(byCategory)
+                    .byMonth(List.copyOf(byMonth))
+                    .build();
+        });
+    }
+
+    private List<DashboardCategoryMonthResponse> dashboardRowsFromRollup(UUID businessId, LocalDate startOfYear,
+                                                                         LocalDate endOfYear) {
+        return rollupRepository.findMonthlyTotalsByCategory(businessId, startOfYear, endOfYear).stream()
+                .map(result -> {
+                    BigDecimal revenue = (BigDecimal) result[3];
+                    BigDecimal cost = (BigDecimal) result[4];
+                    return DashboardCategoryMonthResponse.builder()
+                            .month(YearMonth.of((Integer) result[0], (Integer) result[1]))
+                            .categoryName((String) result[2])
+                            .revenue(revenue)
+                            .cost(cost)
+                            .profit(revenue.subtract(cost))
+                            .units(((Number) result[5]).longValue())
+                            .saleCount(((Number) result[6]).longValue())
+                            .build();
+                })
                 .toList();
     }
 
-    private void validateUserBusinessAccess(String userEmail, UUID businessId) {
-        User user = userRepository.findByEmailIgnoreCase(userEmail)
-                .orElseThrow(() -> new IllegalArgumentException("Usuario no encontrado"));
-        
-        BusinessMembership membership = membershipRepository.findByBusinessIdAndUserId(businessId, user.getId())
-                .orElseThrow(() -> new IllegalArgumentException("No tienes acceso a este negocio"));
-        
-        if (membership.getStatus() != MembershipStatus.ACTIVE) {
-            throw new IllegalArgumentException("Tu membresía en este negocio no está activa");
+    // Mismas filas que el rollup (por mes y categoría, ordenadas por nombre), con meses en la zona del rollup
+    private Optional<List<DashboardCategoryMonthResponse>> dashboardRowsFromFacts(UUID businessId, int year) {
+        ZoneId zone = rollupService.getZone();
+        int[] boundaries = new int[13];
+        for (int month = 0; month <= 12; month++) {
+            boundaries[month] = SaleFactStore.epochMinute(
+                    LocalDate.of(year, 1, 1).plusMonths(month).atStartOfDay(zone).toOffsetDateTime());
+        }
+
+        return columnarEngine.aggregate(businessId, boundaries, ColumnarAnalyticsEngine.Dimension.CATEGORY)
+                .map(facts -> {
+                    int[] keysByName = IntStream.range(0, facts.keyCount()).boxed()
+                            .sorted(Comparator.comparing(key -> (String) facts.key(key)))
+                            .mapToInt(Integer::intValue)
+                            .toArray();
+                    List<DashboardCategoryMonthResponse> rows = new ArrayList<>();
+                    for (int month = 0; month < 12; month++) {
+                        for (int key : keysByName) {
+                            if (facts.saleCount(month, key) == 0) {
+                                continue;
+                            }
+                            BigDecimal revenue = facts.revenue(month, key);
+                            BigDecimal cost = facts.cost(month, key);
+                            rows.add(DashboardCategoryMonthResponse.builder()
+                                    .month(YearMonth.of(year, month + 1))
+                                    .categoryName((String) facts.key(key))
+                                    .revenue(revenue)
+                                    .cost(cost)
+                                    .profit(revenue.subtract(cost))
+                                    .units(facts.units(month, key))
+                                    .saleCount(facts.saleCount(month, key))
+                                    .build());
+                        }
+                    }
+                    return List.copyOf(rows);
+                });
+    }
+
+    /**
+     * Serie de ingresos y cantidad de ventas entre dos fechas (inclusive) de la zona {@code zone}.
+     * Los intervalos se calculan en Java y se consulta un único rango semiabierto ordenado por
+     * {@code occurred_at}, que se agrega en una sola pasada. Los intervalos sin ventas se devuelven en cero.
+     */
+    @Transactional(readOnly = true)
+    public TimeSeriesResponse getTimeSeries(String userEmail, UUID businessId, TimeGranularity granularity,
+                                            ZoneId zone, LocalDate startDate, LocalDate endDate) {
+        accessResolver.resolve(userEmail, businessId);
+
+        if (startDate.isAfter(endDate)) {
+            throw new IllegalArgumentException("La fecha de inicio debe ser anterior a la fecha de fin");
+        }
+
+        List<ZonedDateTime> boundaries = bucketBoundaries(granularity, zone, startDate, endDate);
+        int bucketCount = boundaries.size() - 1;
+        long[] revenueCents = new long[bucketCount];
+        long[] saleCount = new long[bucketCount];
+
+        int[] boundaryMinutes = boundaries.stream()
+                .mapToInt(boundary -> SaleFactStore.epochMinute(boundary.toOffsetDateTime()))
+                .toArray();
+        Optional<SaleFactAggregation> facts = columnarEngine.aggregate(
+                businessId, boundaryMinutes, ColumnarAnalyticsEngine.Dimension.CATEGORY);
+        if (facts.isPresent()) {
+            for (int i = 0; i < bucketCount; i++) {
+                revenueCents[i] = facts.get().bucketRevenueCents(i);
+                saleCount[i] = facts.get().bucketSaleCount(i);
+            }
+        } else {
+            OffsetDateTime from = boundaries.get(0).toOffsetDateTime();
+            OffsetDateTime to = boundaries.get(bucketCount).toOffsetDateTime();
+            try (Stream<Object[]> rows = saleRepository.streamAmountsByBusinessAndRange(businessId, from, to)) {
+                Iterator<Object[]> iterator = rows.iterator();
+                int bucket = 0;
+                while (iterator.hasNext()) {
+                    Object[] row = iterator.next();
+                    OffsetDateTime occurredAt = (OffsetDateTime) row[0];
+                    // Las filas llegan ordenadas: solo se avanza hasta el intervalo que la contiene
+                    while (!occurredAt.toInstant().isBefore(boundaries.get(bucket + 1).toInstant())) {
+                        bucket++;
+                    }
+                    revenueCents[bucket] = Math.addExact(revenueCents[bucket], Money.toCents((BigDecimal) row[1]));
+                    saleCount[bucket]++;
+                }
+            }
+        }
+
+        List<TimeSeriesPointResponse> points = new ArrayList<>(bucketCount);
+        for (int i = 0; i < bucketCount; i++) {
+            points.add(TimeSeriesPointResponse.builder()
+                    .start(boundaries.get(i).toOffsetDateTime())
+                    .revenue(Money.toDecimal(revenueCents[i]))
+                    .saleCount(saleCount[i])
+                    .build());
+        }
+
+        return TimeSeriesResponse.builder()
+                .granularity(granularity)
+                .timezone(zone.getId())
+                .points(points)
+                .build();
+    }
+
+    /**
+     * Ingresos y cantidad de ventas por día de la semana (lunes a domingo) y hora del día en la zona
+     * {@code zone}, entre dos fechas inclusive. Las ventas se recorren una sola vez acumulando en
+     * arreglos primitivos de 7×24 celdas.
+     */
+    @Transactional(readOnly = true)
+    public SalesHeatmapResponse getSalesHeatmap(String userEmail, UUID businessId, ZoneId zone,
+                                                LocalDate startDate, LocalDate endDate) {
+        accessResolver.resolve(userEmail, businessId);
+
+        if (startDate.isAfter(endDate)) {
+            throw new IllegalArgumentException("La fecha de inicio debe ser anterior a la fecha de fin");
+        }
+
+        long[] revenueCents = new long[HEATMAP_CELLS];
+        long[] saleCount = new long[HEATMAP_CELLS];
+        ZoneRules rules = zone.getRules();
+        OffsetDateTime from = startDate.atStartOfDay(zone).toOffsetDateTime();
+        OffsetDateTime to = endDate.plusDays(1).atStartOfDay(zone).toOffsetDateTime();
+        try (Stream<Object[]> rows = saleRepository.streamAmountsByBusinessAndRange(businessId, from, to)) {
+            Iterator<Object[]> iterator = rows.iterator();
+            while (iterator.hasNext()) {
+                Object[] row = iterator.next();
+                Instant occurredAt = ((OffsetDateTime) row[0]).toInstant();
+                long localSeconds = occurredAt.getEpochSecond() + rules.getOffset(occurredAt).getTotalSeconds();
+                // El 1/1/1970 fue jueves: se corre en 3 para que el lunes sea el día 0
+                int day = (int) Math.floorMod(Math.floorDiv(localSeconds, 86_400L) + 3, 7L);
+                int hour = (int) (Math.floorMod(localSeconds, 86_400L) / 3_600L);
+                int cell = day * 24 + hour;
+                revenueCents[cell] = Math.addExact(revenueCents[cell], Money.toCents((BigDecimal) row[1]));
+                saleCount[cell]++;
+            }
+        }
+
+        List<HeatmapDayResponse> days = new ArrayList<>(7);
+        for (int day = 0; day < 7; day++) {
+            List<BigDecimal> revenueByHour = new ArrayList<>(24);
+            List<Long> saleCountByHour = new ArrayList<>(24);
+            for (int hour = 0; hour < 24; hour++) {
+                revenueByHour.add(Money.toDecimal(revenueCents[day * 24 + hour]));
+                saleCountByHour.add(saleCount[day * 24 + hour]);
+            }
+            days.add(HeatmapDayResponse.builder()
+                    .dayOfWeek(DayOfWeek.of(day + 1))
+                    .revenueByHour(revenueByHour)
+                    .saleCountByHour(saleCountByHour)
+                    .build());
+        }
+
+        return SalesHeatmapResponse.builder()
+                .timezone(zone.getId())
+                .days(days)
+                .build();
+    }
+
+    // Límites de los intervalos: el primero contiene el inicio de startDate y el último cierra el fin de endDate
+    private static List<ZonedDateTime> bucketBoundaries(TimeGranularity granularity, ZoneId zone,
+                                                        LocalDate startDate, LocalDate endDate) {
+        ZonedDateTime end = endDate.plusDays(1).atStartOfDay(zone);
+        List<ZonedDateTime> boundaries = new ArrayList<>();
+        ZonedDateTime cursor = granularity.truncate(startDate.atStartOfDay(zone));
+        boundaries.add(cursor);
+        while (cursor.isBefore(end)) {
+            if (boundaries.size() > MAX_TIME_SERIES_POINTS) {
+                throw new IllegalArgumentException("El rango pedido tiene demasiados intervalos para esa granularidad");
+            }
+            cursor = granularity.next(cursor);
+            boundaries.add(cursor);
         }
+        return boundaries;
     }
 }
\ No newline at end of file
@@ -15,49 +15,76 @@ import com.nempeth.korven.rest.dto.RegisterEmployeeRequest;
 import com.nempeth.korven.rest.dto.RegisterOwnerRequest;
 import com.nempeth.korven.rest.dto.RegisterRequest;
 import com.nempeth.korven.rest.dto.RegistrationResponse;
-import com.nempeth.korven.utils.PasswordUtils;
+import com.nempeth.korven.security.PasswordHasher;
+import com.nempeth.korven.utils.EmailUtils;
 import com.nempeth.korven.utils.JwtUtils;
-import lombok.RequiredArgsConstructor;
 import org.springframework.stereotype.Service;
-import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
 
 import java.util.Map;
 import java.util.UUID;
 
+/**
+ * Registro y login. BCrypt corre siempre fuera de una transacción: los registros validan, calculan
+ * el hash en el pool de {@link PasswordHasher} y recién después abren la transacción que escribe.
+ */
 @Service
-@RequiredArgsConstructor
 public class AuthService {
 
     private final UserRepository userRepository;
     private final BusinessRepository businessRepository;
     private final BusinessMembershipRepository businessMembershipRepository;
+    private final BusinessStatsService businessStatsService;
     private final JwtUtils jwtUtils;
+    private final PasswordHasher passwordHasher;
+    private final TransactionTemplate transactionTemplate;
+
+    public AuthService(UserRepository userRepository,
+                       BusinessRepository businessRepository,
+                       BusinessMembershipRepository businessMembershipRepository,
+                       BusinessStatsService businessStatsService,
+                       JwtUtils jwtUtils,
+                       PasswordHasher passwordHasher,
+                       PlatformTransactionManager transactionManager) {
+        this.userRepository = userRepository;
+        this.businessRepository = businessRepository;
+        this.businessMembershipRepository = businessMembershipRepository;
+        this.businessStatsService = businessStatsService;
+        this.jwtUtils = jwtUtils;
+        this.passwordHasher = passwordHasher;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+    }
 
-    @Transactional
     public UUID register(RegisterRequest req) {
-        if (userRepository.existsByEmail(req.email())) {
-            throw new IllegalArgumentException("Email ya registrado");
-        }
-        
-        String hash = PasswordUtils.hash(req.password());
-        User user = User.builder()
-                .email(req.email())
-                .name(req.name())
-                .lastName(req.lastName())
-                .passwordHash(hash)
-                .build();
-
-        userRepository.save(user);
-        return user.getId();
+        String email = EmailUtils.normalize(req.email());
+        ensureEmailAvailable(email);
+
+        String hash = passwordHasher.hash(req.password());
+        return transactionTemplate.execute(status -> {
+            ensureEmailAvailable(email);
+            User user = User.builder()
+                    .email(email)
+                    .name(req.name())
+                    .lastName(req.lastName())
+                    .passwordHash(hash)
+                    .build();
+
+            userRepository.save(user);
+            return user.getId();
+        });
     }
 
-    @Transactional(readOnly = true)
+    // Sin transacción: la verificación espera en el pool de BCrypt sin retener una conexión
     public String loginAndIssueToken(LoginRequest req) {
         User user = userRepository.findByEmailIgnoreCase(req.email())
                 .orElseThrow(() -> new AuthenticationException("Credenciales inválidas"));
-        if (!PasswordUtils.matches(req.password(), user.getPasswordHash())) {
+        if (!passwordHasher.matches(req.password(), user.getPasswordHash())) {
             throw new AuthenticationException("Credenciales inválidas");
         }
+        if (passwordHasher.needsRehash(user.getPasswordHash())) {
+            userRepository.replacePasswordHash(user.getId(), user.getPasswordHash(), passwordHasher.hash(req.password()));
+        }
         
         Map<String, Object> claims = Map.of(
                 "userId", user.getId().toString()
@@ -65,17 +92,21 @@ public class AuthService {
         return jwtUtils.generateToken(user.getEmail(), claims);
     }
 
-    @Transactional
     public RegistrationResponse registerOwner(RegisterOwnerRequest request) {
         // Validar que el email no exista
-        if (userRepository.existsByEmail(request.email())) {
-            throw new IllegalArgumentException("Email ya registrado");
-        }
+        String email = EmailUtils.normalize(request.email());
+        ensureEmailAvailable(email);
+
+        String hash = passwordHasher.hash(request.password());
+        return transactionTemplate.execute(status -> persistOwner(request, email, hash));
+    }
+
+    private RegistrationResponse persistOwner(RegisterOwnerRequest request, String email, String hash) {
+        ensureEmailAvailable(email);
 
         // Crear el usuario
-        String hash = PasswordUtils.hash(request.password());
         User user = User.builder()
-                .email(request.email())
+                .email(email)
                 .name(request.name())
                 .lastName(request.lastName())
                 .passwordHash(hash)
@@ -102,6 +133,8 @@ public class AuthService {
                 .build();
 
         businessMembershipRepository.save(membership);
+        businessStatsService.initialize(business);
+        businessStatsService.addActiveMembers(business.getId(), 1);
 
         BusinessResponse businessResponse = BusinessResponse.builder()
                 .id(business.getId())
@@ -117,25 +150,23 @@ public class AuthService {
                 .build();
     }
 
-    @Transactional
     public RegistrationResponse registerEmployee(RegisterEmployeeRequest request) {
-        // Validar que el email no exista
-        if (userRepository.existsByEmail(request.email())) {
-            throw new IllegalArgumentException("Email ya registrado");
-        }
+        // Validar que el email no exista y que el código sea válido antes de pagar el hash
+        String email = EmailUtils.normalize(request.email());
+        ensureEmailAvailable(email);
+        businessAcceptingEmployees(request.businessJoinCode());
 
-        // Buscar el negocio por código de acceso
-        Business business = businessRepository.findByJoinCode(request.businessJoinCode())
-                .orElseThrow(() -> new IllegalArgumentException("Código de negocio inválido"));
+        String hash = passwordHasher.hash(request.password());
+        return transactionTemplate.execute(status -> persistEmployee(request, email, hash));
+    }
 
-        if (!business.getJoinCodeEnabled()) {
-            throw new IllegalArgumentException("El negocio no está aceptando nuevos empleados");
-        }
+    private RegistrationResponse persistEmployee(RegisterEmployeeRequest request, String email, String hash) {
+        ensureEmailAvailable(email);
+        Business business = businessAcceptingEmployees(request.businessJoinCode());
 
         // Crear el usuario
-        String hash = PasswordUtils.hash(request.password());
         User user = User.builder()
-                .email(request.email())
+                .email(email)
                 .name(request.name())
                 .lastName(request.lastName())
                 .passwordHash(hash)
@@ -167,6 +198,24 @@ public class AuthService {
                 .build();
     }
 
+    // Se repite dentro de la transacción porque el hash deja una ventana entre la validación y el alta
+    private void ensureEmailAvailable(String email) {
+        if (userRepository.existsByEmail(email)) {
+            throw new IllegalArgumentException("Email ya registrado");
+        }
+    }
+
+    private Business businessAcceptingEmployees(String joinCode) {
+        // Buscar el negocio por código de acceso
+        Business business = businessRepository.findByJoinCode(joinCode)
+                .orElseThrow(() -> new IllegalArgumentException("Código de negocio inválido"));
+
+        if (!business.getJoinCodeEnabled()) {
+            throw new IllegalArgumentException("El negocio no está aceptando nuevos empleados");
+        }
+        return business;
+    }
+
     private String generateJoinCode() {
         // Generar código alfanumérico de 8 caracteres
         String chars = "ABCDEFGHIJKLMNOPQRSTUVWXYZ0123456789";
@@ -0,0 +1,423 @@
+package com.nempeth.korven.service;
+
+import com.nempeth.korven.persistence.entity.Product;
+import com.nempeth.korven.persistence.entity.Sale;
+import com.nempeth.korven.persistence.entity.SaleItem;
+import com.nempeth.korven.persistence.repository.ProductRepository;
+import com.nempeth.korven.persistence.repository.SaleItemRepository;
+import com.nempeth.korven.rest.dto.ProductAssociationResponse;
+import com.nempeth.korven.security.BusinessAccessResolver;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.time.OffsetDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+
+/**
+ * Análisis de canasta ("se compran juntos"): mantiene en memoria, por negocio, cuántas ventas
+ * incluyen cada par de productos ({@link BasketStats}). Cada venta confirmada suma sus pares en
+ * memoria; los incrementos se acumulan y se persisten periódicamente en {@code product_cooccurrence},
+ * de donde se carga cada negocio en su primera consulta. La reconstrucción desde las ventas reparte
+ * el conteo en un {@link ForkJoinPool}.
+ */
+@Slf4j
+@Service
+public class BasketAnalysisService {
+
+    public static final int MAX_ASSOCIATIONS = 50;
+
+    // Fila con el total de ventas del negocio
+    private static final UUID TOTAL_KEY = new UUID(0, 0);
+    private static final int SALES_PER_TASK = 20_000;
+
+    private static final String UPSERT_SQL = """
+            INSERT INTO product_cooccurrence (business_id, product_a, product_b, sale_count)
+            VALUES (?, ?, ?, ?)
+            ON CONFLICT (business_id, product_a, product_b) DO UPDATE SET
+                sale_count = product_cooccurrence.sale_count + EXCLUDED.sale_count
+            """;
+
+    private static final String LOAD_SQL = """
+            SELECT product_a, product_b, sale_count FROM product_cooccurrence WHERE business_id = ?
+            """;
+
+    private static final String DELETE_BUSINESS_SQL = "DELETE FROM product_cooccurrence WHERE business_id = ?";
+    private static final String INSERT_SQL = """
+            INSERT INTO product_cooccurrence (business_id, product_a, product_b, sale_count) VALUES (?, ?, ?, ?)
+            """;
+
+    private static final String SALE_PRODUCTS_SQL = """
+            SELECT s.id, s.occurred_at, si.product_id
+            FROM sale s
+            JOIN sale_item si ON si.sale_id = s.id
+            WHERE s.business_id = ?
+            ORDER BY s.id
+            """;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final TransactionTemplate readOnlyTransaction;
+    private final ProductRepository productRepository;
+    private final SaleItemRepository saleItemRepository;
+    private final BusinessAccessResolver accessResolver;
+    private final String upsertSql;
+    private final long minPairCount;
+    private final boolean rebuildOnStartup;
+    private final int parallelism;
+    private final int fetchSize;
+    private final Map<UUID, BasketStats> statsByBusiness = new ConcurrentHashMap<>();
+
+    public BasketAnalysisService(JdbcTemplate jdbcTemplate,
+                                 PlatformTransactionManager transactionManager,
+                                 ProductRepository productRepository,
+                                 SaleItemRepository saleItemRepository,
+                                 BusinessAccessResolver accessResolver,
+                                 @Value("${app.analytics.basket.min-pair-count:2}") long minPairCount,
+                                 @Value("${app.analytics.basket.rebuild-on-startup:false}") boolean rebuildOnStartup,
+                                 @Value("${app.analytics.basket.rebuild-parallelism:4}") int parallelism,
+                                 @Value("${app.analytics.basket.fetch-size:5000}") int fetchSize,
+                                 @Value("${app.analytics.basket.upsert-sql:}") String upsertSql) {
+        this.jdbcTemplate = jdbcTemplate;
+        // Transacciones propias también cuando se llaman desde un listener posterior al commit
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.transactionTemplate.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+        this.readOnlyTransaction.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        this.readOnlyTransaction.setReadOnly(true);
+        this.productRepository = productRepository;
+        this.saleItemRepository = saleItemRepository;
+        this.accessResolver = accessResolver;
+        // Solo para bases sin ON CONFLICT ... DO UPDATE; los tests sobre H2 definen un MERGE equivalente
+        this.upsertSql = upsertSql.isBlank() ? UPSERT_SQL : upsertSql;
+        this.minPairCount = minPairCount;
+        this.rebuildOnStartup = rebuildOnStartup;
+        this.parallelism = parallelism;
+        this.fetchSize = fetchSize;
+    }
+
+    /**
+     * Los {@code k} productos que más se venden junto a {@code productId}, ordenados por lift. El
+     * soporte es la proporción de ventas con ambos productos y la confianza, la proporción de las
+     * ventas de {@code productId} que también incluyen al otro.
+     */
+    public List<ProductAssociationResponse> getAssociations(String userEmail, UUID businessId, UUID productId, int k) {
+        accessResolver.resolve(userEmail, businessId);
+        if (k < 1 || k > MAX_ASSOCIATIONS) {
+            throw new IllegalArgumentException("La cantidad de asociaciones debe estar entre 1 y " + MAX_ASSOCIATIONS);
+        }
+
+        List<BasketStats.Association> associations = loadedStats(businessId).topAssociations(productId, k, minPairCount);
+        if (associations.isEmpty()) {
+            return List.of();
+        }
+        Map<UUID, String> names = new HashMap<>();
+        List<UUID> partnerIds = associations.stream().map(BasketStats.Association::productId).toList();
+        for (Product product : productRepository.findAllById(partnerIds)) {
+            names.put(product.getId(), product.getName());
+        }
+        // Los productos borrados conservan sus ventas: se muestran con el nombre con que se vendieron
+        List<UUID> deleted = partnerIds.stream().filter(id -> !names.containsKey(id)).toList();
+        if (!deleted.isEmpty()) {
+            for (Object[] row : saleItemRepository.findNamesAtSale(businessId, deleted)) {
+                names.put((UUID) row[0], (String) row[1]);
+            }
+        }
+        return associations.stream()
+                .map(association -> ProductAssociationResponse.builder()
+                        .productId(association.productId())
+                        .productName(names.get(association.productId()))
+                        .pairCount(association.pairCount())
+                        .support(ratio(association.pairCount(), association.totalBaskets()))
+                        .confidence(ratio(association.pairCount(), association.productCount()))
+                        .lift(BigDecimal.valueOf(association.lift()).setScale(4, RoundingMode.HALF_UP))
+                        .build())
+                .toList();
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onSalesRecorded(SalesRecordedEvent event) {
+        BasketStats stats = stats(event.businessId());
+        for (Sale sale : event.sales()) {
+            List<UUID> productIds = sale.getSaleItems().stream()
+                    .map(SaleItem::getProduct)
+                    .map(Product::getId)
+                    .toList();
+            if (!productIds.isEmpty()) {
+                stats.record(new BasketStats.Basket(sale.getId(), sale.getOccurredAt(), productIds));
+            }
+        }
+    }
+
+    /**
+     * Los conteos solo se incrementan: si se borran ventas, se reconstruyen desde las que quedan los
+     * negocios afectados, en memoria y en la tabla.
+     */
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onSalesRemoved(SalesRemovedEvent event) {
+        for (UUID businessId : event.businessIds()) {
+            try {
+                rebuildBusiness(businessId);
+            } catch (RuntimeException e) {
+                log.error("No se pudieron reconstruir las co-ocurrencias del negocio {}", businessId, e);
+            }
+        }
+    }
+
+    /**
+     * Persiste los incrementos acumulados de cada negocio como sumas sobre las filas existentes, un
+     * negocio por transacción. Si falla, los incrementos quedan para el próximo intento.
+     */
+    @Scheduled(fixedDelayString = "${app.analytics.basket.flush-interval-ms:30000}")
+    public void flushAll() {
+        statsByBusiness.forEach((businessId, stats) -> {
+            try {
+                flush(businessId, stats);
+            } catch (RuntimeException e) {
+                log.warn("No se pudieron persistir las co-ocurrencias del negocio {}", businessId, e);
+            }
+        });
+    }
+
+    @PreDestroy
+    public void flushOnShutdown() {
+        flushAll();
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void rebuildOnStartup() {
+        if (!rebuildOnStartup) {
+            return;
+        }
+        for (UUID businessId : jdbcTemplate.queryForList("SELECT id FROM business", UUID.class)) {
+            try {
+                rebuildBusiness(businessId);
+            } catch (RuntimeException e) {
+                log.error("No se pudieron reconstruir las co-ocurrencias del negocio {}", businessId, e);
+            }
+        }
+    }
+
+    /**
+     * Recalcula desde las ventas los conteos de un negocio y reemplaza los persistidos. Las ventas
+     * confirmadas mientras tanto se aplican al terminar, salvo las que ya haya leído la reconstrucción.
+     * Devuelve la cantidad de filas escritas.
+     */
+    public int rebuildBusiness(UUID businessId) {
+        BasketStats stats = stats(businessId);
+        stats.startRebuild();
+        try {
+            OffsetDateTime recentFrom = OffsetDateTime.now().minusMinutes(BasketStats.REBUILD_OVERLAP_MINUTES);
+            SaleBaskets baskets = readBaskets(businessId, recentFrom);
+
+            ProductPairCounts counts;
+            ForkJoinPool pool = new ForkJoinPool(parallelism);
+            try {
+                counts = pool.invoke(new CountTask(baskets.items, baskets.saleOffsets, 0, baskets.saleCount));
+            } finally {
+                pool.shutdown();
+            }
+
+            List<Object[]> rows = new ArrayList<>(counts.size() + 1);
+            rows.add(new Object[]{businessId, TOTAL_KEY, TOTAL_KEY, (long) baskets.saleCount});
+            counts.forEach((first, second, count) -> rows.add(orderedRow(new Object[]{
+                    businessId, baskets.products.get(first), baskets.products.get(second), count})));
+            transactionTemplate.executeWithoutResult(status -> {
+                jdbcTemplate.update(DELETE_BUSINESS_SQL, businessId);
+                jdbcTemplate.batchUpdate(INSERT_SQL, rows);
+            });
+
+            stats.finishRebuild(baskets.products, counts, baskets.saleCount, baskets.recentSales);
+            log.info("Co-ocurrencias del negocio {} reconstruidas: {} ventas, {} filas",
+                    businessId, baskets.saleCount, rows.size());
+            return rows.size();
+        } catch (RuntimeException e) {
+            stats.abortRebuild();
+            throw e;
+        }
+    }
+
+    private BasketStats stats(UUID businessId) {
+        return statsByBusiness.computeIfAbsent(businessId, id -> new BasketStats());
+    }
+
+    private BasketStats loadedStats(UUID businessId) {
+        BasketStats stats = stats(businessId);
+        // El monitor excluye a flush: lo pendiente está o en la tabla o en memoria, nunca en ambos
+        synchronized (stats) {
+            if (!stats.isLoaded()) {
+                jdbcTemplate.query(LOAD_SQL, (RowCallbackHandler) rs -> {
+                    UUID first = rs.getObject("product_a", UUID.class);
+                    UUID second = rs.getObject("product_b", UUID.class);
+                    long count = rs.getLong("sale_count");
+                    if (TOTAL_KEY.equals(first)) {
+                        stats.addPersistedBaskets(count);
+                    } else {
+                        stats.addPersisted(first, second, count);
+                    }
+                }, businessId);
+                stats.markLoaded();
+            }
+        }
+        return stats;
+    }
+
+    private void flush(UUID businessId, BasketStats stats) {
+        synchronized (stats) {
+            if (stats.isRebuilding() || !stats.hasPending()) {
+                return;
+            }
+            List<Object[]> rows = new ArrayList<>();
+            rows.add(new Object[]{businessId, TOTAL_KEY, TOTAL_KEY, stats.pendingBaskets()});
+            stats.forEachPending((first, second, count) ->
+                    rows.add(orderedRow(new Object[]{businessId, first, second, count})));
+            // Orden estable de claves para que dos instancias no se bloqueen mutuamente
+            rows.subList(1, rows.size()).sort((a, b) -> {
+                int byFirst = ((UUID) a[1]).compareTo((UUID) b[1]);
+                return byFirst != 0 ? byFirst : ((UUID) a[2]).compareTo((UUID) b[2]);
+            });
+            transactionTemplate.executeWithoutResult(status -> jdbcTemplate.batchUpdate(upsertSql, rows));
+            stats.clearPending();
+        }
+    }
+
+    // En la tabla product_a <= product_b según el orden de los UUID, no el de los índices en memoria
+    private static Object[] orderedRow(Object[] row) {
+        UUID first = (UUID) row[1];
+        UUID second = (UUID) row[2];
+        if (first.compareTo(second) > 0) {
+            return new Object[]{row[0], second, first, row[3]};
+        }
+        return row;
+    }
+
+    // Los productos distintos de cada venta, contiguos: la venta s ocupa items[saleOffsets[s]..saleOffsets[s + 1])
+    private record SaleBaskets(List<UUID> products, int[] items, int[] saleOffsets, int saleCount,
+                               Set<UUID> recentSales) {
+    }
+
+    private SaleBaskets readBaskets(UUID businessId, OffsetDateTime recentFrom) {
+        Map<UUID, Integer> productIndex = new HashMap<>();
+        List<UUID> products = new ArrayList<>();
+        Set<UUID> recentSales = new HashSet<>();
+        int[][] buffers = {new int[1024], new int[1024]};
+        int[] sizes = new int[2];
+        UUID[] currentSale = new UUID[1];
+
+        readOnlyTransaction.executeWithoutResult(status -> jdbcTemplate.query(connection -> {
+            PreparedStatement statement = connection.prepareStatement(
+                    SALE_PRODUCTS_SQL, ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY);
+            statement.setFetchSize(fetchSize);
+            statement.setObject(1, businessId);
+            return statement;
+        }, (RowCallbackHandler) rs -> {
+            UUID saleId = rs.getObject("id", UUID.class);
+            if (!saleId.equals(currentSale[0])) {
+                currentSale[0] = saleId;
+                if (sizes[1] == buffers[1].length) {
+                    buffers[1] = Arrays.copyOf(buffers[1], sizes[1] * 2);
+                }
+                buffers[1][sizes[1]++] = sizes[0];
+                if (!rs.getObject("occurred_at", OffsetDateTime.class).isBefore(recentFrom)) {
+                    recentSales.add(saleId);
+                }
+            }
+            UUID productId = rs.getObject("product_id", UUID.class);
+            int product = productIndex.computeIfAbsent(productId, id -> {
+                products.add(id);
+                return products.size() - 1;
+            });
+            if (sizes[0] == buffers[0].length) {
+                buffers[0] = Arrays.copyOf(buffers[0], sizes[0] * 2);
+            }
+            buffers[0][sizes[0]++] = product;
+        }));
+
+        int saleCount = sizes[1];
+        int[] saleOffsets = Arrays.copyOf(buffers[1], saleCount + 1);
+        saleOffsets[saleCount] = sizes[0];
+        int[] items = Arrays.copyOf(buffers[0], sizes[0]);
+        // Cada venta queda con sus productos ordenados y sin repetir
+        int write = 0;
+        for (int sale = 0; sale < saleCount; sale++) {
+            int from = saleOffsets[sale];
+            int to = saleOffsets[sale + 1];
+            Arrays.sort(items, from, to);
+            saleOffsets[sale] = write;
+            for (int i = from; i < to; i++) {
+                if (i == from || items[i] != items[i - 1]) {
+                    items[write++] = items[i];
+                }
+            }
+        }
+        saleOffsets[saleCount] = write;
+        return new SaleBaskets(products, items, saleOffsets, saleCount, recentSales);
+    }
+
+    // Cuenta un rango de ventas; los rangos grandes se parten en dos y se suman los resultados
+    private static final class CountTask extends RecursiveTask<ProductPairCounts> {
+        private final int[] items;
+        private final int[] saleOffsets;
+        private final int fromSale;
+        private final int toSale;
+
+        CountTask(int[] items, int[] saleOffsets, int fromSale, int toSale) {
+            this.items = items;
+            this.saleOffsets = saleOffsets;
+            this.fromSale = fromSale;
+            this.toSale = toSale;
+        }
+
+        @Override
+        protected ProductPairCounts compute() {
+            if (toSale - fromSale <= SALES_PER_TASK) {
+                ProductPairCounts counts = new ProductPairCounts();
+                for (int sale = fromSale; sale < toSale; sale++) {
+                    BasketStats.countBasket(items, saleOffsets[sale], saleOffsets[sale + 1], counts);
+                }
+                return counts;
+            }
+            int middle = (fromSale + toSale) >>> 1;
+            CountTask left = new CountTask(items, saleOffsets, fromSale, middle);
+            left.fork();
+            ProductPairCounts right = new CountTask(items, saleOffsets, middle, toSale).compute();
+            ProductPairCounts leftCounts = left.join();
+            if (leftCounts.size() < right.size()) {
+                right.addAll(leftCounts);
+                return right;
+            }
+            leftCounts.addAll(right);
+            return leftCounts;
+        }
+    }
+
+    private static BigDecimal ratio(long part, long total) {
+        return total == 0 ? BigDecimal.ZERO
+                : BigDecimal.valueOf(part).divide(BigDecimal.valueOf(total), 4, RoundingMode.HALF_UP);
+    }
+}
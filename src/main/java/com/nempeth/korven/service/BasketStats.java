@@ -0,0 +1,235 @@
+package com.nempeth.korven.service;
+
+import java.time.OffsetDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.UUID;
+
+/**
+ * Conteos de co-ocurrencia de productos de un negocio: cuántas ventas incluyen cada producto (la
+ * diagonal), cuántas incluyen cada par y el total de ventas. Los productos se codifican con índices
+ * {@code int} y cada producto conoce a sus pares para responder sin recorrer la tabla completa.
+ * Guarda aparte los incrementos que todavía no se persistieron. Todos los métodos se sincronizan
+ * sobre la instancia, que {@link BasketAnalysisService} también usa para cargar y persistir.
+ */
+final class BasketStats {
+
+    /** Las ventas con más productos distintos solo suman a la diagonal, para acotar los pares. */
+    static final int MAX_BASKET_PRODUCTS = 50;
+
+    // Ventas confirmadas durante una reconstrucción que pueden haber sido leídas por ella
+    static final long REBUILD_OVERLAP_MINUTES = 10;
+
+    private final Map<UUID, Integer> productIndex = new HashMap<>();
+    private final List<UUID> products = new ArrayList<>();
+    private ProductPairCounts counts = new ProductPairCounts();
+    private int[][] partners = new int[16][];
+    private int[] partnerCounts = new int[16];
+    private long totalBaskets;
+    private boolean loaded;
+
+    private ProductPairCounts pending = new ProductPairCounts();
+    private long pendingBaskets;
+
+    private List<Basket> rebuildBuffer;
+    private Set<UUID> recentlyRebuiltSales = Set.of();
+
+    /** Productos distintos de una venta. */
+    record Basket(UUID saleId, OffsetDateTime occurredAt, List<UUID> productIds) {
+    }
+
+    record Association(UUID productId, long pairCount, long productCount, long partnerCount, long totalBaskets) {
+        double lift() {
+            return (double) pairCount * totalBaskets / ((double) productCount * partnerCount);
+        }
+    }
+
+    @FunctionalInterface
+    interface CountConsumer {
+        void accept(UUID first, UUID second, long count);
+    }
+
+    /**
+     * Suma a {@code target} el aporte de una venta cuyos productos distintos son
+     * {@code basket[from..to)}.
+     */
+    static void countBasket(int[] basket, int from, int to, ProductPairCounts target) {
+        boolean pairs = to - from <= MAX_BASKET_PRODUCTS;
+        for (int i = from; i < to; i++) {
+            target.add(basket[i], basket[i], 1);
+            for (int j = i + 1; pairs && j < to; j++) {
+                target.add(basket[i], basket[j], 1);
+            }
+        }
+    }
+
+    synchronized boolean isLoaded() {
+        return loaded;
+    }
+
+    synchronized boolean isRebuilding() {
+        return rebuildBuffer != null;
+    }
+
+    /** Registra una venta confirmada. */
+    synchronized void record(Basket basket) {
+        if (rebuildBuffer != null) {
+            rebuildBuffer.add(basket);
+            return;
+        }
+        if (recentlyRebuiltSales.contains(basket.saleId())) {
+            return;
+        }
+        int[] indices = basket.productIds().stream().mapToInt(this::index).distinct().sorted().toArray();
+        int n = indices.length;
+        ProductPairCounts delta = new ProductPairCounts(n <= MAX_BASKET_PRODUCTS ? n * (n + 1) / 2 : n);
+        countBasket(indices, 0, indices.length, delta);
+
+        pending.addAll(delta);
+        pendingBaskets++;
+        if (loaded) {
+            delta.forEach(this::increment);
+            totalBaskets++;
+        }
+    }
+
+    // Carga desde la tabla persistida: se llama con el monitor tomado, antes de markLoaded
+    synchronized void addPersisted(UUID first, UUID second, long count) {
+        increment(index(first), index(second), count);
+    }
+
+    synchronized void addPersistedBaskets(long count) {
+        totalBaskets += count;
+    }
+
+    /** Suma lo que todavía no se persistió a lo cargado desde la tabla y habilita las lecturas. */
+    synchronized void markLoaded() {
+        pending.forEach(this::increment);
+        totalBaskets += pendingBaskets;
+        loaded = true;
+    }
+
+    synchronized boolean hasPending() {
+        return !pending.isEmpty() || pendingBaskets > 0;
+    }
+
+    synchronized void forEachPending(CountConsumer consumer) {
+        pending.forEach((first, second, count) -> consumer.accept(products.get(first), products.get(second), count));
+    }
+
+    synchronized long pendingBaskets() {
+        return pendingBaskets;
+    }
+
+    synchronized void clearPending() {
+        pending = new ProductPairCounts();
+        pendingBaskets = 0;
+    }
+
+    /** A partir de acá las ventas confirmadas se guardan hasta que termine la reconstrucción. */
+    synchronized void startRebuild() {
+        rebuildBuffer = new ArrayList<>();
+    }
+
+    /**
+     * Reemplaza los conteos por los reconstruidos, que ya incluyen todo lo pendiente, y aplica las
+     * ventas confirmadas durante la reconstrucción que esta no haya leído.
+     */
+    synchronized void finishRebuild(List<UUID> rebuiltProducts, ProductPairCounts rebuiltCounts, long rebuiltBaskets,
+                                    Set<UUID> recentSales) {
+        productIndex.clear();
+        products.clear();
+        rebuiltProducts.forEach(this::index);
+        counts = new ProductPairCounts(rebuiltCounts.size());
+        partners = new int[Math.max(16, products.size())][];
+        partnerCounts = new int[partners.length];
+        rebuiltCounts.forEach(this::increment);
+        totalBaskets = rebuiltBaskets;
+        loaded = true;
+        clearPending();
+
+        List<Basket> buffered = rebuildBuffer;
+        rebuildBuffer = null;
+        recentlyRebuiltSales = Set.copyOf(recentSales);
+        buffered.forEach(this::record);
+    }
+
+    /** Vuelve al modo normal sin tocar los conteos ni lo pendiente. */
+    synchronized void abortRebuild() {
+        List<Basket> buffered = rebuildBuffer;
+        rebuildBuffer = null;
+        if (buffered != null) {
+            buffered.forEach(this::record);
+        }
+    }
+
+    /**
+     * Los {@code k} productos con mayor lift respecto de {@code productId}, entre los pares vistos
+     * en al menos {@code minPairCount} ventas.
+     */
+    synchronized List<Association> topAssociations(UUID productId, int k, long minPairCount) {
+        Integer product = productIndex.get(productId);
+        if (product == null || product >= partnerCounts.length || totalBaskets == 0) {
+            return List.of();
+        }
+        long productCount = counts.get(product, product);
+        Comparator<Association> order = Comparator.comparingDouble(Association::lift)
+                .thenComparingLong(Association::pairCount);
+        PriorityQueue<Association> top = new PriorityQueue<>(k + 1, order);
+        int[] productPartners = partners[product];
+        for (int i = 0; i < partnerCounts[product]; i++) {
+            int partner = productPartners[i];
+            long pairCount = counts.get(product, partner);
+            if (pairCount < minPairCount) {
+                continue;
+            }
+            top.add(new Association(products.get(partner), pairCount, productCount,
+                    counts.get(partner, partner), totalBaskets));
+            if (top.size() > k) {
+                top.poll();
+            }
+        }
+        List<Association> result = new ArrayList<>(top);
+        result.sort(order.reversed());
+        return result;
+    }
+
+    private int index(UUID productId) {
+        Integer index = productIndex.get(productId);
+        if (index == null) {
+            index = products.size();
+            productIndex.put(productId, index);
+            products.add(productId);
+        }
+        return index;
+    }
+
+    private void increment(int first, int second, long delta) {
+        long previous = counts.add(first, second, delta);
+        if (previous == 0 && first != second) {
+            addPartner(first, second);
+            addPartner(second, first);
+        }
+    }
+
+    private void addPartner(int product, int partner) {
+        if (product >= partners.length) {
+            int capacity = Math.max(product + 1, partners.length * 2);
+            partners = Arrays.copyOf(partners, capacity);
+            partnerCounts = Arrays.copyOf(partnerCounts, capacity);
+        }
+        int[] list = partners[product];
+        if (list == null) {
+            list = partners[product] = new int[4];
+        } else if (partnerCounts[product] == list.length) {
+            list = partners[product] = Arrays.copyOf(list, list.length * 2);
+        }
+        list[partnerCounts[product]++] = partner;
+    }
+}
@@ -0,0 +1,27 @@
+package com.nempeth.korven.service;
+
+import com.nempeth.korven.constants.BusinessDetailSection;
+
+import java.util.EnumSet;
+import java.util.Set;
+import java.util.UUID;
+
+/**
+ * Qué secciones del detalle de un negocio cargar y, para las listas, desde dónde. Con {@code limit}
+ * nulo cada lista se devuelve completa; si no, cada una trae a lo sumo {@code limit} elementos
+ * ordenados por id, a partir del id {@code *After} de la página anterior.
+ */
+public record BusinessDetailQuery(Set<BusinessDetailSection> sections,
+                                  Integer limit,
+                                  UUID membersAfter,
+                                  UUID categoriesAfter,
+                                  UUID productsAfter) {
+
+    public static BusinessDetailQuery all() {
+        return new BusinessDetailQuery(EnumSet.allOf(BusinessDetailSection.class), null, null, null, null);
+    }
+
+    public boolean includes(BusinessDetailSection section) {
+        return sections.contains(section);
+    }
+}
@@ -1,5 +1,6 @@
 package com.nempeth.korven.service;
 
+import com.nempeth.korven.constants.BusinessDetailSection;
 import com.nempeth.korven.constants.MembershipRole;
 import com.nempeth.korven.constants.MembershipStatus;
 import com.nempeth.korven.persistence.entity.Business;
@@ -10,7 +11,6 @@ import com.nempeth.korven.persistence.repository.BusinessMembershipRepository;
 import com.nempeth.korven.persistence.repository.UserRepository;
 import com.nempeth.korven.persistence.repository.CategoryRepository;
 import com.nempeth.korven.persistence.repository.ProductRepository;
-import com.nempeth.korven.persistence.repository.SaleRepository;
 import com.nempeth.korven.rest.dto.BusinessResponse;
 import com.nempeth.korven.rest.dto.BusinessDetailResponse;
 import com.nempeth.korven.rest.dto.BusinessMemberDetailResponse;
@@ -19,16 +19,33 @@ import com.nempeth.korven.rest.dto.CategoryResponse;
 import com.nempeth.korven.rest.dto.ProductResponse;
 import com.nempeth.korven.rest.dto.CreateBusinessRequest;
 import com.nempeth.korven.rest.dto.JoinBusinessRequest;
-import lombok.RequiredArgsConstructor;
+import com.nempeth.korven.security.BusinessAccessResolver;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.Limit;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 
+import java.time.Duration;
+import java.util.ArrayList;
 import java.util.UUID;
 import java.util.Random;
 import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Function;
+import java.util.function.Supplier;
 
+@Slf4j
 @Service
-@RequiredArgsConstructor
 public class BusinessService {
 
     private final BusinessRepository businessRepository;
@@ -36,7 +53,35 @@ public class BusinessService {
     private final UserRepository userRepository;
     private final CategoryRepository categoryRepository;
     private final ProductRepository productRepository;
-    private final SaleRepository saleRepository;
+    private final BusinessStatsService businessStatsService;
+    private final BusinessAccessResolver accessResolver;
+    private final ApplicationEventPublisher eventPublisher;
+    private final TransactionTemplate readOnlyTransaction;
+    private final ExecutorService sectionExecutor = Executors.newVirtualThreadPerTaskExecutor();
+    private final Duration sectionTimeout;
+
+    public BusinessService(BusinessRepository businessRepository,
+                           BusinessMembershipRepository membershipRepository,
+                           UserRepository userRepository,
+                           CategoryRepository categoryRepository,
+                           ProductRepository productRepository,
+                           BusinessStatsService businessStatsService,
+                           BusinessAccessResolver accessResolver,
+                           ApplicationEventPublisher eventPublisher,
+                           PlatformTransactionManager transactionManager,
+                           @Value("${app.business-detail.section-timeout:2s}") Duration sectionTimeout) {
+        this.businessRepository = businessRepository;
+        this.membershipRepository = membershipRepository;
+        this.userRepository = userRepository;
+        this.categoryRepository = categoryRepository;
+        this.productRepository = productRepository;
+        this.businessStatsService = businessStatsService;
+        this.accessResolver = accessResolver;
+        this.eventPublisher = eventPublisher;
+        this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+        this.readOnlyTransaction.setReadOnly(true);
+        this.sectionTimeout = sectionTimeout;
+    }
     
     private static final String CHARACTERS = "ABCDEFGHIJKLMNOPQRSTUVWXYZ0123456789";
     private static final int JOIN_CODE_LENGTH = 8;
@@ -66,6 +111,9 @@ public class BusinessService {
                 .build();
         
         membershipRepository.save(membership);
+        businessStatsService.initialize(business);
+        businessStatsService.addActiveMembers(business.getId(), 1);
+        eventPublisher.publishEvent(new UserPrincipalChangedEvent(user.getEmail()));
         
         return BusinessResponse.builder()
                 .id(business.getId())
@@ -101,6 +149,8 @@ public class BusinessService {
                 .build();
         
         membershipRepository.save(membership);
+        businessStatsService.addActiveMembers(business.getId(), 1);
+        eventPublisher.publishEvent(new UserPrincipalChangedEvent(user.getEmail()));
         
         return BusinessResponse.builder()
                 .id(business.getId())
@@ -110,56 +160,112 @@ public class BusinessService {
                 .build();
     }
 
-    @Transactional(readOnly = true)
     public BusinessDetailResponse getBusinessDetail(String userEmail, UUID businessId) {
-        // Validar acceso del usuario al negocio
-        validateUserBusinessAccess(userEmail, businessId);
-        
-        Business business = businessRepository.findById(businessId)
-                .orElseThrow(() -> new IllegalArgumentException("Negocio no encontrado"));
-        
+        return getBusinessDetail(userEmail, businessId, BusinessDetailQuery.all());
+    }
+
+    /**
+     * Arma el detalle de un negocio con las secciones pedidas; las demás no se consultan. Las
+     * secciones se leen en paralelo, cada una en un hilo virtual con su propia transacción de solo
+     * lectura; la que no termina antes de {@code app.business-detail.section-timeout} o falla queda
+     * en {@code null}, se lista en {@code unavailableSections} y la respuesta se marca como parcial.
+     */
+    public BusinessDetailResponse getBusinessDetail(String userEmail, UUID businessId, BusinessDetailQuery query) {
+        Business business = readOnlyTransaction.execute(status -> {
+            // Validar acceso del usuario al negocio
+            accessResolver.resolve(userEmail, businessId);
+            return businessRepository.findById(businessId)
+                    .orElseThrow(() -> new IllegalArgumentException("Negocio no encontrado"));
+        });
+
+        long deadline = System.nanoTime() + sectionTimeout.toNanos();
+        // Un elemento de más indica si hay otra página
+        Limit limit = query.limit() != null ? Limit.of(query.limit() + 1) : Limit.unlimited();
+
         // Obtener miembros del negocio
-        List<BusinessMemberDetailResponse> members = membershipRepository.findByBusinessIdAndStatus(businessId, MembershipStatus.ACTIVE)
-                .stream()
-                .map(this::mapToMemberDetailResponse)
-                .toList();
-        
+        Future<SectionPage<BusinessMemberDetailResponse>> members = !query.includes(BusinessDetailSection.MEMBERS) ? null
+                : section(() -> SectionPage.of(membershipRepository.findMemberDetails(
+                        businessId, MembershipStatus.ACTIVE, after(query.membersAfter()), limit),
+                        query.limit(), BusinessMemberDetailResponse::userId));
+
         // Obtener categorías
-        List<CategoryResponse> categories = categoryRepository.findByBusinessId(businessId)
-                .stream()
-                .map(this::mapToCategoryResponse)
-                .toList();
-        
+        Future<SectionPage<CategoryResponse>> categories = !query.includes(BusinessDetailSection.CATEGORIES) ? null
+                : section(() -> SectionPage.of(categoryRepository.findCategoryDetails(
+                        businessId, after(query.categoriesAfter()), limit),
+                        query.limit(), CategoryResponse::id));
+
         // Obtener productos
-        List<ProductResponse> products = productRepository.findByBusinessId(businessId)
-                .stream()
-                .map(this::mapToProductResponse)
-                .toList();
-        
-        // Calcular estadísticas
-        BusinessStatsResponse stats = calculateBusinessStats(businessId);
-        
+        Future<SectionPage<ProductResponse>> products = !query.includes(BusinessDetailSection.PRODUCTS) ? null
+                : section(() -> SectionPage.of(productRepository.findProductDetails(
+                        businessId, after(query.productsAfter()), limit),
+                        query.limit(), ProductResponse::id));
+
+        // Contadores mantenidos por BusinessStatsService
+        Future<BusinessStatsResponse> stats = !query.includes(BusinessDetailSection.STATS) ? null
+                : section(() -> businessStatsService.getStats(businessId));
+
+        List<String> unavailable = new ArrayList<>();
+        SectionPage<BusinessMemberDetailResponse> membersPage = await("members", members, deadline, businessId, unavailable);
+        SectionPage<CategoryResponse> categoriesPage = await("categories", categories, deadline, businessId, unavailable);
+        SectionPage<ProductResponse> productsPage = await("products", products, deadline, businessId, unavailable);
         return BusinessDetailResponse.builder()
                 .id(business.getId())
                 .name(business.getName())
                 .joinCode(business.getJoinCode())
                 .joinCodeEnabled(business.getJoinCodeEnabled())
-                .members(members)
-                .categories(categories)
-                .products(products)
-                .stats(stats)
+                .members(membersPage != null ? membersPage.items() : null)
+                .membersNextAfter(membersPage != null ? membersPage.nextAfter() : null)
+                .categories(categoriesPage != null ? categoriesPage.items() : null)
+                .categoriesNextAfter(categoriesPage != null ? categoriesPage.nextAfter() : null)
+                .products(productsPage != null ? productsPage.items() : null)
+                .productsNextAfter(productsPage != null ? productsPage.nextAfter() : null)
+                .stats(await("stats", stats, deadline, businessId, unavailable))
+                .partial(!unavailable.isEmpty())
+                .unavailableSections(unavailable)
                 .build();
     }
 
-    private void validateUserBusinessAccess(String userEmail, UUID businessId) {
-        User user = userRepository.findByEmailIgnoreCase(userEmail)
-                .orElseThrow(() -> new IllegalArgumentException("Usuario no encontrado"));
-        
-        BusinessMembership membership = membershipRepository.findByBusinessIdAndUserId(businessId, user.getId())
-                .orElseThrow(() -> new IllegalArgumentException("No tienes acceso a este negocio"));
-        
-        if (membership.getStatus() != MembershipStatus.ACTIVE) {
-            throw new IllegalArgumentException("Tu membresía en este negocio no está activa");
+    @PreDestroy
+    void shutdownSectionExecutor() {
+        sectionExecutor.shutdownNow();
+    }
+
+    private <T> Future<T> section(Supplier<T> loader) {
+        return sectionExecutor.submit(() -> readOnlyTransaction.execute(status -> loader.get()));
+    }
+
+    // Todas las secciones arrancan juntas, así que un plazo común equivale a un timeout por sección
+    private <T> T await(String name, Future<T> section, long deadline, UUID businessId, List<String> unavailable) {
+        if (section == null) {
+            return null;
+        }
+        try {
+            return section.get(Math.max(0, deadline - System.nanoTime()), TimeUnit.NANOSECONDS);
+        } catch (TimeoutException e) {
+            section.cancel(true);
+            log.warn("La sección {} del negocio {} no respondió a tiempo", name, businessId);
+        } catch (ExecutionException e) {
+            log.warn("No se pudo cargar la sección {} del negocio {}", name, businessId, e.getCause());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            section.cancel(true);
+        }
+        unavailable.add(name);
+        return null;
+    }
+
+    // El UUID nulo es el menor en el orden de la base: sin cursor se empieza desde el principio
+    private static UUID after(UUID cursor) {
+        return cursor != null ? cursor : new UUID(0, 0);
+    }
+
+    private record SectionPage<T>(List<T> items, UUID nextAfter) {
+        static <T> SectionPage<T> of(List<T> rows, Integer limit, Function<T, UUID> id) {
+            if (limit == null || rows.size() <= limit) {
+                return new SectionPage<>(rows, null);
+            }
+            List<T> items = rows.subList(0, limit);
+            return new SectionPage<>(items, id.apply(items.get(limit - 1)));
         }
     }
 
@@ -175,61 +281,6 @@ public class BusinessService {
                 .build();
     }
 
-    private CategoryResponse mapToCategoryResponse(com.nempeth.korven.persistence.entity.Category category) {
-        return CategoryResponse.builder()
-                .id(category.getId())
-                .name(category.getName())
-                .type(category.getType())
-                .displayName(category.getDisplayName())
-                .icon(category.getIcon())
-                .build();
-    }
-
-    private ProductResponse mapToProductResponse(com.nempeth.korven.persistence.entity.Product product) {
-        CategoryResponse categoryResponse = mapToCategoryResponse(product.getCategory());
-        
-        return ProductResponse.builder()
-                .id(product.getId())
-                .name(product.getName())
-                .description(product.getDescription())
-                .price(product.getPrice())
-                .category(categoryResponse)
-                .build();
-    }
-
-    private BusinessStatsResponse calculateBusinessStats(UUID businessId) {
-        Long totalMembers = membershipRepository.findByBusinessIdAndStatus(businessId, MembershipStatus.ACTIVE)
-                .stream()
-                .count();
-        
-        Long totalCategories = categoryRepository.findByBusinessId(businessId)
-                .stream()
-                .count();
-        
-        Long totalProducts = productRepository.findByBusinessId(businessId)
-                .stream()
-                .count();
-        
-        // Obtener estadísticas de ventas
-        List<com.nempeth.korven.persistence.entity.Sale> sales = saleRepository.findByBusinessIdOrderByOccurredAtDesc(businessId);
-        
-        java.math.BigDecimal totalRevenue = sales
-                .stream()
-                .map(com.nempeth.korven.persistence.entity.Sale::getTotalAmount)
-                .reduce(java.math.BigDecimal.ZERO, java.math.BigDecimal::add);
-        
-        Long totalSales = (long) sales.size();
-        
-        return BusinessStatsResponse.builder()
-                .totalMembers(totalMembers)
-                .totalCategories(totalCategories)
-                .totalProducts(totalProducts)
-                .totalSales(totalSales)
-                .totalRevenue(totalRevenue)
-                .activeMembers(totalMembers) // Por ahora es lo mismo ya que solo obtenemos miembros activos
-                .build();
-    }
-
     private String generateUniqueJoinCode() {
         String joinCode;
         do {
@@ -253,7 +304,7 @@ public class BusinessService {
     @Transactional(readOnly = true)
     public List<BusinessMemberDetailResponse> getBusinessMembers(String userEmail, UUID businessId) {
         // Validar acceso del usuario al negocio
-        validateUserBusinessAccess(userEmail, businessId);
+        accessResolver.resolve(userEmail, businessId);
         
         // Obtener todos los miembros del negocio (sin filtrar por status)
         return membershipRepository.findByBusinessId(businessId)
@@ -265,7 +316,7 @@ public class BusinessService {
     @Transactional(readOnly = true)
     public List<BusinessMemberDetailResponse> getBusinessEmployees(String userEmail, UUID businessId) {
         // Validar acceso del usuario al negocio
-        validateUserBusinessAccess(userEmail, businessId);
+        accessResolver.resolve(userEmail, businessId);
         
         // Obtener solo los empleados del negocio (sin filtrar por status)
         return membershipRepository.findByBusinessId(businessId)
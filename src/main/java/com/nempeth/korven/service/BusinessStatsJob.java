@@ -0,0 +1,57 @@
+package com.nempeth.korven.service;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Reparación periódica de {@code business_stats} ({@code app.business-stats.repair-cron}): recalcula
+ * los contadores de cada negocio, uno por transacción, y corrige los que se hayan desviado.
+ */
+@Slf4j
+@Component
+public class BusinessStatsJob {
+
+    private final BusinessStatsService statsService;
+    private final JdbcTemplate jdbcTemplate;
+    private final boolean enabled;
+
+    public BusinessStatsJob(BusinessStatsService statsService,
+                            JdbcTemplate jdbcTemplate,
+                            @Value("${app.business-stats.repair-enabled:true}") boolean enabled) {
+        this.statsService = statsService;
+        this.jdbcTemplate = jdbcTemplate;
+        this.enabled = enabled;
+    }
+
+    @Scheduled(cron = "${app.business-stats.repair-cron:0 30 4 * * *}", zone = "${app.analytics.zone:America/Argentina/Buenos_Aires}")
+    public void scheduledRepair() {
+        if (enabled) {
+            repairAll();
+        }
+    }
+
+    /**
+     * Repara los contadores de todos los negocios. Devuelve la cantidad de negocios corregidos.
+     */
+    public int repairAll() {
+        List<UUID> businessIds = jdbcTemplate.queryForList("SELECT id FROM business", UUID.class);
+        int repaired = 0;
+        for (UUID businessId : businessIds) {
+            try {
+                if (statsService.repairBusiness(businessId)) {
+                    repaired++;
+                }
+            } catch (RuntimeException e) {
+                log.error("No se pudieron reparar los contadores del negocio {}", businessId, e);
+            }
+        }
+        log.info("Reparación de contadores terminada: {} de {} negocios corregidos", repaired, businessIds.size());
+        return repaired;
+    }
+}
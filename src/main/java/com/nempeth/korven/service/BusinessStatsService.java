@@ -0,0 +1,175 @@
+package com.nempeth.korven.service;
+
+import com.nempeth.korven.constants.MembershipStatus;
+import com.nempeth.korven.persistence.entity.Business;
+import com.nempeth.korven.persistence.entity.BusinessStats;
+import com.nempeth.korven.persistence.entity.Sale;
+import com.nempeth.korven.persistence.repository.BusinessMembershipRepository;
+import com.nempeth.korven.persistence.repository.BusinessRepository;
+import com.nempeth.korven.persistence.repository.BusinessStatsRepository;
+import com.nempeth.korven.persistence.repository.CategoryRepository;
+import com.nempeth.korven.persistence.repository.ProductRepository;
+import com.nempeth.korven.persistence.repository.SaleRepository;
+import com.nempeth.korven.rest.dto.BusinessStatsResponse;
+import com.nempeth.korven.utils.Money;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.math.BigDecimal;
+import java.util.Collection;
+import java.util.Objects;
+import java.util.UUID;
+
+/**
+ * Mantiene la tabla {@code business_stats}. Cada servicio que agrega o quita miembros activos,
+ * categorías, productos o ventas llama a este servicio dentro de su transacción, y el cambio se
+ * aplica con un UPDATE relativo sobre la fila del negocio. Si el negocio todavía no tiene fila, los
+ * incrementos se descartan y la lectura cae a consultas {@code COUNT}/{@code SUM} hasta que
+ * {@link #repairBusiness(UUID)} la cree.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class BusinessStatsService {
+
+    private final BusinessStatsRepository statsRepository;
+    private final BusinessRepository businessRepository;
+    private final BusinessMembershipRepository membershipRepository;
+    private final CategoryRepository categoryRepository;
+    private final ProductRepository productRepository;
+    private final SaleRepository saleRepository;
+
+    /** Crea los contadores en cero de un negocio nuevo. */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void initialize(Business business) {
+        statsRepository.save(BusinessStats.builder()
+                .business(business)
+                .activeMembers(0L)
+                .categories(0L)
+                .products(0L)
+                .sales(0L)
+                .revenue(BigDecimal.ZERO)
+                .build());
+    }
+
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void addActiveMembers(UUID businessId, long delta) {
+        apply(businessId, delta, 0, 0, 0, BigDecimal.ZERO);
+    }
+
+    /** Ajusta los miembros activos según el cambio de estado de una membresía. */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void membershipStatusChanged(UUID businessId, MembershipStatus previous, MembershipStatus current) {
+        long delta = (current == MembershipStatus.ACTIVE ? 1 : 0) - (previous == MembershipStatus.ACTIVE ? 1 : 0);
+        if (delta != 0) {
+            addActiveMembers(businessId, delta);
+        }
+    }
+
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void addCategories(UUID businessId, long delta) {
+        apply(businessId, 0, delta, 0, 0, BigDecimal.ZERO);
+    }
+
+    /** Una categoría borrada se lleva sus productos en cascada. */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void removeCategory(UUID businessId, long productCount) {
+        apply(businessId, 0, -1, -productCount, 0, BigDecimal.ZERO);
+    }
+
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void addProducts(UUID businessId, long delta) {
+        apply(businessId, 0, 0, delta, 0, BigDecimal.ZERO);
+    }
+
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void applySales(UUID businessId, Collection<Sale> sales) {
+        Money revenue = Money.ZERO;
+        for (Sale sale : sales) {
+            revenue = revenue.plus(Money.of(sale.getTotalAmount()));
+        }
+        apply(businessId, 0, 0, 0, sales.size(), revenue.toBigDecimal());
+    }
+
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void removeSales(UUID businessId, long saleCount, BigDecimal revenue) {
+        apply(businessId, 0, 0, 0, -saleCount, revenue.negate());
+    }
+
+    @Transactional(readOnly = true)
+    public BusinessStatsResponse getStats(UUID businessId) {
+        return statsRepository.findById(businessId)
+                .map(BusinessStatsService::toResponse)
+                .orElseGet(() -> toResponse(compute(businessId)));
+    }
+
+    /**
+     * Recalcula los contadores de un negocio y corrige la fila si difiere. La fila se bloquea antes
+     * de contar: las transacciones que ya la modificaron están confirmadas y se cuentan, y las que
+     * todavía no llegaron a modificarla aplican su incremento después de la corrección.
+     * Devuelve si hubo que corregir algo.
+     */
+    @Transactional
+    public boolean repairBusiness(UUID businessId) {
+        BusinessStats stored = statsRepository.findForUpdate(businessId).orElse(null);
+        BusinessStats expected = compute(businessId);
+        if (stored == null) {
+            expected.setBusiness(businessRepository.getReferenceById(businessId));
+            statsRepository.save(expected);
+            log.info("Contadores del negocio {} creados", businessId);
+            return true;
+        }
+        if (sameCounts(stored, expected)) {
+            return false;
+        }
+        log.warn("Contadores del negocio {} inconsistentes: guardados {}/{}/{}/{}/{}, calculados {}/{}/{}/{}/{}",
+                businessId,
+                stored.getActiveMembers(), stored.getCategories(), stored.getProducts(), stored.getSales(), stored.getRevenue(),
+                expected.getActiveMembers(), expected.getCategories(), expected.getProducts(), expected.getSales(),
+                expected.getRevenue());
+        stored.setActiveMembers(expected.getActiveMembers());
+        stored.setCategories(expected.getCategories());
+        stored.setProducts(expected.getProducts());
+        stored.setSales(expected.getSales());
+        stored.setRevenue(expected.getRevenue());
+        return true;
+    }
+
+    private void apply(UUID businessId, long members, long categories, long products, long sales, BigDecimal revenue) {
+        if (statsRepository.addDeltas(businessId, members, categories, products, sales, revenue) == 0) {
+            log.debug("El negocio {} no tiene contadores, los crea la próxima reparación", businessId);
+        }
+    }
+
+    private BusinessStats compute(UUID businessId) {
+        return BusinessStats.builder()
+                .activeMembers(membershipRepository.countByBusinessIdAndStatus(businessId, MembershipStatus.ACTIVE))
+                .categories(categoryRepository.countByBusinessId(businessId))
+                .products(productRepository.countByBusinessId(businessId))
+                .sales(saleRepository.countByBusinessId(businessId))
+                .revenue(saleRepository.sumTotalAmountByBusinessId(businessId))
+                .build();
+    }
+
+    private static boolean sameCounts(BusinessStats stored, BusinessStats expected) {
+        return Objects.equals(stored.getActiveMembers(), expected.getActiveMembers())
+                && Objects.equals(stored.getCategories(), expected.getCategories())
+                && Objects.equals(stored.getProducts(), expected.getProducts())
+                && Objects.equals(stored.getSales(), expected.getSales())
+                && stored.getRevenue().compareTo(expected.getRevenue()) == 0;
+    }
+
+    private static BusinessStatsResponse toResponse(BusinessStats stats) {
+        return BusinessStatsResponse.builder()
+                .totalMembers(stats.getActiveMembers())
+                .totalCategories(stats.getCategories())
+                .totalProducts(stats.getProducts())
+                .totalSales(stats.getSales())
+                .totalRevenue(stats.getRevenue())
+                .activeMembers(stats.getActiveMembers()) // Por ahora es lo mismo ya que solo se cuentan miembros activos
+                .build();
+    }
+}
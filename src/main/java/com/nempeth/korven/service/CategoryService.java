@@ -1,19 +1,15 @@
 package com.nempeth.korven.service;
 
 import com.nempeth.korven.constants.CategoryType;
-import com.nempeth.korven.constants.MembershipRole;
-import com.nempeth.korven.constants.MembershipStatus;
 import com.nempeth.korven.persistence.entity.Business;
-import com.nempeth.korven.persistence.entity.BusinessMembership;
 import com.nempeth.korven.persistence.entity.Category;
-import com.nempeth.korven.persistence.entity.User;
-import com.nempeth.korven.persistence.repository.BusinessMembershipRepository;
 import com.nempeth.korven.persistence.repository.BusinessRepository;
 import com.nempeth.korven.persistence.repository.CategoryRepository;
-import com.nempeth.korven.persistence.repository.UserRepository;
+import com.nempeth.korven.persistence.repository.ProductRepository;
 import com.nempeth.korven.rest.dto.CategoryResponse;
 import com.nempeth.korven.rest.dto.CreateCategoryRequest;
 import com.nempeth.korven.rest.dto.UpdateCategoryRequest;
+import com.nempeth.korven.security.BusinessAccessResolver;
 import lombok.RequiredArgsConstructor;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
@@ -27,12 +23,13 @@ public class CategoryService {
 
     private final CategoryRepository categoryRepository;
     private final BusinessRepository businessRepository;
-    private final BusinessMembershipRepository membershipRepository;
-    private final UserRepository userRepository;
+    private final BusinessAccessResolver accessResolver;
+    private final ProductRepository productRepository;
+    private final BusinessStatsService businessStatsService;
 
     @Transactional(readOnly = true)
     public List<CategoryResponse> getCategoriesByBusiness(String userEmail, UUID businessId) {
-        validateUserBusinessAccess(userEmail, businessId);
+        accessResolver.resolve(userEmail, businessId);
         
         return categoryRepository.findByBusinessId(businessId).stream()
                 .map(this::mapToResponse)
@@ -41,7 +38,7 @@ public class CategoryService {
 
     @Transactional(readOnly = true)
     public List<CategoryResponse> getCustomCategoriesByBusiness(String userEmail, UUID businessId) {
-        validateUserBusinessAccess(userEmail, businessId);
+        accessResolver.resolve(userEmail, businessId);
         
         return categoryRepository.findByBusinessIdAndType(businessId, CategoryType.CUSTOM).stream()
                 .map(this::mapToResponse)
@@ -50,7 +47,7 @@ public class CategoryService {
 
     @Transactional
     public CategoryResponse createCustomCategory(String userEmail, UUID businessId, CreateCategoryRequest request) {
-        validateUserBusinessAccess(userEmail, businessId);
+        accessResolver.resolve(userEmail, businessId);
         
         Business business = businessRepository.findById(businessId)
                 .orElseThrow(() -> new IllegalArgumentException("Negocio no encontrado"));
@@ -68,13 +65,14 @@ public class CategoryService {
                 .build();
         
         category = categoryRepository.save(category);
+        businessStatsService.addCategories(businessId, 1);
         
         return mapToResponse(category);
     }
 
     @Transactional
     public void deleteCustomCategory(String userEmail, UUID businessId, UUID categoryId) {
-        validateUserBusinessAccess(userEmail, businessId);
+        accessResolver.resolve(userEmail, businessId);
         
         Category category = categoryRepository.findById(categoryId)
                 .orElseThrow(() -> new IllegalArgumentException("Categoría no encontrada"));
@@ -87,12 +85,13 @@ public class CategoryService {
             throw new IllegalArgumentException("No se puede eliminar una categoría estática");
         }
         
+        businessStatsService.removeCategory(businessId, productRepository.countByCategoryId(categoryId));
         categoryRepository.delete(category);
     }
 
     @Transactional
     public CategoryResponse updateCustomCategory(String userEmail, UUID businessId, UUID categoryId, UpdateCategoryRequest request) {
-        validateUserBusinessAccess(userEmail, businessId);
+        accessResolver.resolve(userEmail, businessId);
         
         Category category = categoryRepository.findById(categoryId)
                 .orElseThrow(() -> new IllegalArgumentException("Categoría no encontrada"));
@@ -127,18 +126,6 @@ public class CategoryService {
         return mapToResponse(category);
     }
 
-    private void validateUserBusinessAccess(String userEmail, UUID businessId) {
-        User user = userRepository.findByEmailIgnoreCase(userEmail)
-                .orElseThrow(() -> new IllegalArgumentException("Usuario no encontrado"));
-        
-        BusinessMembership membership = membershipRepository.findByBusinessIdAndUserId(businessId, user.getId())
-                .orElseThrow(() -> new IllegalArgumentException("No tienes acceso a este negocio"));
-        
-        if (membership.getStatus() != MembershipStatus.ACTIVE) {
-            throw new IllegalArgumentException("Tu membresía en este negocio no está activa");
-        }
-    }
-
     private CategoryResponse mapToResponse(Category category) {
         return CategoryResponse.builder()
                 .id(category.getId())
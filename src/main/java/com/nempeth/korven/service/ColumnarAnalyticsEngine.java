@@ -0,0 +1,237 @@
+package com.nempeth.korven.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.nempeth.korven.persistence.entity.Sale;
+import com.nempeth.korven.persistence.entity.SaleItem;
+import com.nempeth.korven.utils.Money;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.time.Duration;
+import java.time.OffsetDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+
+/**
+ * Motor opcional de analíticas en memoria ({@code app.analytics.columnar.enabled}). Mantiene los
+ * hechos de {@code sale_item} de los negocios activos en un {@link SaleFactStore} por negocio,
+ * cargado al inicio o en el primer acceso y actualizado con cada venta confirmada.
+ * Cada fila ocupa {@link SaleFactStore#BYTES_PER_ROW} bytes (unos 40 MB por millón de items, más
+ * hasta un 50% de capacidad libre); las métricas {@code analytics.columnar.rows} y
+ * {@code analytics.columnar.bytes} informan el total.
+ */
+@Slf4j
+@Service
+public class ColumnarAnalyticsEngine {
+
+    public enum Dimension {
+        CATEGORY,
+        PRODUCT,
+        USER
+    }
+
+    private static final String LOAD_SQL = """
+            SELECT s.id, s.occurred_at, s.created_by_user_id,
+                   si.product_id, si.category_name, si.quantity, si.line_total, si.unit_cost
+            FROM sale s
+            JOIN sale_item si ON si.sale_id = s.id
+            WHERE s.business_id = ?
+            ORDER BY s.occurred_at, s.id
+            """;
+
+    private final boolean enabled;
+    private final boolean preloadOnStartup;
+    private final int fetchSize;
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate readOnlyTransaction;
+    private final Cache<UUID, SaleFactStore> stores;
+
+    public ColumnarAnalyticsEngine(JdbcTemplate jdbcTemplate,
+                                   PlatformTransactionManager transactionManager,
+                                   MeterRegistry meterRegistry,
+                                   @Value("${app.analytics.columnar.enabled:false}") boolean enabled,
+                                   @Value("${app.analytics.columnar.preload-on-startup:false}") boolean preloadOnStartup,
+                                   @Value("${app.analytics.columnar.max-businesses:1000}") long maxBusinesses,
+                                   @Value("${app.analytics.columnar.idle-timeout:2h}") Duration idleTimeout,
+                                   @Value("${app.analytics.columnar.fetch-size:5000}") int fetchSize) {
+        this.enabled = enabled;
+        this.preloadOnStartup = preloadOnStartup;
+        this.fetchSize = fetchSize;
+        this.jdbcTemplate = jdbcTemplate;
+        this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+        this.readOnlyTransaction.setReadOnly(true);
+        this.stores = Caffeine.newBuilder()
+                .maximumSize(maxBusinesses)
+                .expireAfterAccess(idleTimeout)
+                .build();
+
+        Gauge.builder("analytics.columnar.rows", this, engine -> engine.total(false))
+                .description("Items de venta cargados en el motor columnar")
+                .register(meterRegistry);
+        Gauge.builder("analytics.columnar.bytes", this, engine -> engine.total(true))
+                .description("Memoria estimada de las columnas del motor columnar")
+                .baseUnit("bytes")
+                .register(meterRegistry);
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Agrega los hechos del negocio por intervalo y dimensión. Devuelve vacío si el motor está
+     * deshabilitado o no pudo cargar el negocio, para que quien llama use la consulta SQL.
+     */
+    public Optional<SaleFactAggregation> aggregate(UUID businessId, int[] boundaryMinutes, Dimension dimension) {
+        if (!enabled) {
+            return Optional.empty();
+        }
+        try {
+            return Optional.of(SaleFactAggregation.aggregate(store(businessId).snapshot(), boundaryMinutes, dimension));
+        } catch (RuntimeException e) {
+            log.warn("No se pudo usar el motor columnar para el negocio {}", businessId, e);
+            return Optional.empty();
+        }
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onSalesRecorded(SalesRecordedEvent event) {
+        if (!enabled) {
+            return;
+        }
+        // Si el negocio no está cargado no hay nada que hacer: la carga leerá estas ventas de la base
+        SaleFactStore store = stores.getIfPresent(event.businessId());
+        if (store == null) {
+            return;
+        }
+        for (Sale sale : event.sales()) {
+            store.append(toFacts(sale));
+        }
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onSalesRemoved(SalesRemovedEvent event) {
+        if (!enabled) {
+            return;
+        }
+        // El store solo sabe agregar ventas: se descarta y el próximo acceso lo vuelve a cargar
+        stores.invalidateAll(event.businessIds());
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void preload() {
+        if (!enabled || !preloadOnStartup) {
+            return;
+        }
+        List<UUID> businessIds = jdbcTemplate.queryForList("SELECT id FROM business", UUID.class);
+        for (UUID businessId : businessIds) {
+            try {
+                store(businessId).snapshot();
+            } catch (RuntimeException e) {
+                log.warn("No se pudo precargar el negocio {} en el motor columnar", businessId, e);
+            }
+        }
+    }
+
+    private SaleFactStore store(UUID businessId) {
+        SaleFactStore store = stores.get(businessId, id -> new SaleFactStore());
+        if (store.startLoading()) {
+            load(businessId, store);
+        }
+        return store;
+    }
+
+    private void load(UUID businessId, SaleFactStore store) {
+        try {
+            SaleRowsReader reader = new SaleRowsReader(store);
+            // En PostgreSQL el fetch size solo abre un cursor dentro de una transacción
+            readOnlyTransaction.executeWithoutResult(status -> jdbcTemplate.query(connection -> {
+                PreparedStatement statement = connection.prepareStatement(
+                        LOAD_SQL, ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY);
+                statement.setFetchSize(fetchSize);
+                statement.setObject(1, businessId);
+                return statement;
+            }, reader::read));
+            reader.flush();
+            store.finishLoading();
+
+            SaleFactStore.Snapshot snapshot = store.snapshot();
+            log.info("Motor columnar: negocio {} cargado con {} items (~{} KB)",
+                    businessId, snapshot.size(), snapshot.estimatedBytes() / 1024);
+        } catch (RuntimeException e) {
+            stores.asMap().remove(businessId, store);
+            store.failLoading(e);
+            throw e;
+        }
+    }
+
+    private double total(boolean bytes) {
+        long total = 0;
+        for (SaleFactStore store : stores.asMap().values()) {
+            SaleFactStore.Snapshot snapshot = store.published();
+            total += bytes ? snapshot.estimatedBytes() : snapshot.size();
+        }
+        return total;
+    }
+
+    private static List<SaleFactStore.SaleFact> toFacts(Sale sale) {
+        UUID userId = sale.getCreatedByUser() != null ? sale.getCreatedByUser().getId() : null;
+        List<SaleFactStore.SaleFact> facts = new ArrayList<>(sale.getSaleItems().size());
+        for (SaleItem item : sale.getSaleItems()) {
+            facts.add(new SaleFactStore.SaleFact(
+                    sale.getId(), sale.getOccurredAt(), userId, item.getProduct().getId(), item.getCategoryName(),
+                    item.getQuantity(), Money.toCents(item.getLineTotal()),
+                    Money.of(item.getUnitCost()).times(item.getQuantity()).cents()));
+        }
+        return facts;
+    }
+
+    // Agrupa las filas consecutivas de una misma venta antes de pasarlas al store
+    private static final class SaleRowsReader {
+        private final SaleFactStore store;
+        private List<SaleFactStore.SaleFact> current = new ArrayList<>();
+
+        SaleRowsReader(SaleFactStore store) {
+            this.store = store;
+        }
+
+        void read(ResultSet rs) throws java.sql.SQLException {
+            UUID saleId = rs.getObject("id", UUID.class);
+            if (!current.isEmpty() && !current.get(0).saleId().equals(saleId)) {
+                flush();
+            }
+            int quantity = rs.getInt("quantity");
+            current.add(new SaleFactStore.SaleFact(
+                    saleId,
+                    rs.getObject("occurred_at", OffsetDateTime.class),
+                    rs.getObject("created_by_user_id", UUID.class),
+                    rs.getObject("product_id", UUID.class),
+                    rs.getString("category_name"),
+                    quantity,
+                    Money.toCents(rs.getBigDecimal("line_total")),
+                    Money.of(rs.getBigDecimal("unit_cost")).times(quantity).cents()));
+        }
+
+        void flush() {
+            if (!current.isEmpty()) {
+                store.loadSale(current);
+                current = new ArrayList<>();
+            }
+        }
+    }
+}
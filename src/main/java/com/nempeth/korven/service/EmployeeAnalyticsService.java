@@ -0,0 +1,111 @@
+package com.nempeth.korven.service;
+
+import com.nempeth.korven.constants.MembershipRole;
+import com.nempeth.korven.constants.MembershipStatus;
+import com.nempeth.korven.persistence.entity.BusinessMembership;
+import com.nempeth.korven.persistence.entity.User;
+import com.nempeth.korven.persistence.repository.BusinessMembershipRepository;
+import com.nempeth.korven.persistence.repository.SaleRepository;
+import com.nempeth.korven.rest.dto.EmployeePerformanceResponse;
+import com.nempeth.korven.security.BusinessAccess;
+import com.nempeth.korven.security.BusinessAccessResolver;
+import lombok.RequiredArgsConstructor;
+import org.springframework.security.access.AccessDeniedException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.LocalDate;
+import java.time.OffsetDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Desempeño de ventas por miembro de un negocio, solo visible para los propietarios. Los totales
+ * se agregan por vendedor en una consulta y los datos de los miembros se resuelven en otra.
+ */
+@Service
+@RequiredArgsConstructor
+public class EmployeeAnalyticsService {
+
+    private final SaleRepository saleRepository;
+    private final SalesRollupService rollupService;
+    private final BusinessAccessResolver accessResolver;
+    private final BusinessMembershipRepository membershipRepository;
+
+    private record SellerTotals(long saleCount, BigDecimal revenue, long units) {
+    }
+
+    /**
+     * Devuelve una fila por miembro activo (con ceros si no vendió en el período) y por cada usuario
+     * que haya vendido aunque ya no esté activo, ordenadas por ingresos. Las ventas sin usuario
+     * se informan en una fila sin {@code userId}.
+     */
+    @Transactional(readOnly = true)
+    public List<EmployeePerformanceResponse> getEmployeePerformance(String userEmail, UUID businessId,
+                                                                    LocalDate from, LocalDate to) {
+        BusinessAccess requester = accessResolver.resolve(userEmail, businessId);
+        if (!requester.isOwner()) {
+            throw new AccessDeniedException("Solo los propietarios pueden ver el desempeño de los empleados");
+        }
+        if (from.isAfter(to)) {
+            throw new IllegalArgumentException("La fecha de inicio debe ser anterior a la fecha de fin");
+        }
+
+        ZoneId zone = rollupService.getZone();
+        Map<UUID, SellerTotals> totalsBySeller = new HashMap<>();
+        for (Object[] row : saleRepository.findTotalsBySellerAndRange(businessId,
+                from.atStartOfDay(zone).toOffsetDateTime(),
+                to.plusDays(1).atStartOfDay(zone).toOffsetDateTime())) {
+            totalsBySeller.put((UUID) row[0], new SellerTotals(
+                    ((Number) row[1]).longValue(), (BigDecimal) row[2], ((Number) row[3]).longValue()));
+        }
+
+        List<EmployeePerformanceResponse> result = new ArrayList<>();
+        for (BusinessMembership membership : membershipRepository.findWithUserByBusinessId(businessId)) {
+            User user = membership.getUser();
+            SellerTotals totals = totalsBySeller.remove(user.getId());
+            if (totals == null && membership.getStatus() != MembershipStatus.ACTIVE) {
+                continue;
+            }
+            result.add(toResponse(user.getId(), user.getName(), user.getLastName(),
+                    membership.getRole(), membership.getStatus(), totals));
+        }
+        // Lo que queda son ventas de usuarios que ya no son miembros o sin usuario
+        totalsBySeller.forEach((userId, totals) ->
+                result.add(toResponse(userId, null, null, null, null, totals)));
+
+        result.sort(Comparator.comparing(EmployeePerformanceResponse::revenue).reversed()
+                .thenComparing(EmployeePerformanceResponse::saleCount, Comparator.reverseOrder()));
+        return result;
+    }
+
+    private static EmployeePerformanceResponse toResponse(UUID userId, String name, String lastName,
+                                                          MembershipRole role, MembershipStatus status,
+                                                          SellerTotals totals) {
+        long saleCount = totals != null ? totals.saleCount() : 0;
+        BigDecimal revenue = totals != null ? totals.revenue() : BigDecimal.ZERO.setScale(2);
+        long units = totals != null ? totals.units() : 0;
+        return EmployeePerformanceResponse.builder()
+                .userId(userId)
+                .userName(name)
+                .userLastName(lastName)
+                .role(role)
+                .status(status)
+                .revenue(revenue)
+                .saleCount(saleCount)
+                .averageTicket(saleCount > 0
+                        ? revenue.divide(BigDecimal.valueOf(saleCount), 2, RoundingMode.HALF_UP)
+                        : BigDecimal.ZERO.setScale(2))
+                .itemsPerSale(saleCount > 0
+                        ? BigDecimal.valueOf(units).divide(BigDecimal.valueOf(saleCount), 2, RoundingMode.HALF_UP)
+                        : BigDecimal.ZERO.setScale(2))
+                .build();
+    }
+}
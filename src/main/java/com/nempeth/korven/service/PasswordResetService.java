@@ -5,9 +5,11 @@ import com.nempeth.korven.persistence.entity.PasswordResetToken;
 import com.nempeth.korven.persistence.entity.User;
 import com.nempeth.korven.persistence.repository.PasswordResetTokenRepository;
 import com.nempeth.korven.persistence.repository.UserRepository;
-import com.nempeth.korven.utils.PasswordUtils;
+import com.nempeth.korven.security.PasswordHasher;
+import com.nempeth.korven.utils.Ids;
 import jakarta.servlet.http.HttpServletRequest;
 import lombok.RequiredArgsConstructor;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
@@ -15,7 +17,6 @@ import java.security.SecureRandom;
 import java.time.OffsetDateTime;
 import java.util.Base64;
 import java.util.Optional;
-import java.util.UUID;
 
 @Service
 @RequiredArgsConstructor
@@ -25,6 +26,8 @@ public class PasswordResetService {
     private final PasswordResetTokenRepository tokenRepository;
     private final EmailService emailService;
     private final AppProperties appProps;
+    private final PasswordHasher passwordHasher;
+    private final ApplicationEventPublisher eventPublisher;
 
     private static final SecureRandom RNG = new SecureRandom();
 
@@ -43,7 +46,7 @@ public class PasswordResetService {
         String token = Base64.getUrlEncoder().withoutPadding().encodeToString(bytes);
 
         PasswordResetToken prt = PasswordResetToken.builder()
-                .id(UUID.randomUUID())
+                .id(Ids.next())
                 .user(user)
                 .token(token)
                 .expiresAt(OffsetDateTime.now().plusMinutes(appProps.getResetTokenTtlMinutes()))
@@ -76,7 +79,8 @@ public class PasswordResetService {
         }
 
         User user = prt.getUser();
-        user.setPasswordHash(PasswordUtils.hash(newPassword));
+        user.setPasswordHash(passwordHasher.hash(newPassword));
         prt.setUsedAt(OffsetDateTime.now());
+        eventPublisher.publishEvent(new UserPrincipalChangedEvent(user.getEmail()));
     }
 }
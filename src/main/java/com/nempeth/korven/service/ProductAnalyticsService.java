@@ -0,0 +1,220 @@
+package com.nempeth.korven.service;
+
+import com.nempeth.korven.constants.AbcClass;
+import com.nempeth.korven.constants.ProductMetric;
+import com.nempeth.korven.persistence.entity.Product;
+import com.nempeth.korven.persistence.repository.ProductRepository;
+import com.nempeth.korven.persistence.repository.SaleItemRepository;
+import com.nempeth.korven.rest.dto.ProductAbcResponse;
+import com.nempeth.korven.rest.dto.ProductRankingResponse;
+import com.nempeth.korven.security.BusinessAccessResolver;
+import com.nempeth.korven.utils.Money;
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.LocalDate;
+import java.time.OffsetDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.UUID;
+import java.util.function.Consumer;
+
+/**
+ * Ranking de productos y análisis de Pareto (ABC) entre dos fechas de la zona de analíticas.
+ * Los totales por producto se recorren en streaming, desde el motor columnar si está habilitado o
+ * desde una agregación SQL, y el ranking se arma con un heap acotado a N sin ordenar el catálogo.
+ */
+@Service
+@RequiredArgsConstructor
+public class ProductAnalyticsService {
+
+    public static final int MAX_TOP_PRODUCTS = 100;
+
+    private static final BigDecimal A_THRESHOLD = new BigDecimal("80");
+    private static final BigDecimal B_THRESHOLD = new BigDecimal("95");
+    private static final int MAX_IN_PARAMETERS = 1000;
+
+    private static final String PRODUCT_TOTALS_SQL = """
+            SELECT si.product_id,
+                   SUM(si.line_total) AS revenue,
+                   SUM(si.unit_cost * si.quantity) AS cost,
+                   SUM(si.quantity) AS units,
+                   MAX(si.product_name_at_sale) AS name_at_sale
+            FROM sale_item si
+            JOIN sale s ON s.id = si.sale_id
+            WHERE s.business_id = ? AND s.occurred_at >= ? AND s.occurred_at < ?
+            GROUP BY si.product_id
+            """;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final ColumnarAnalyticsEngine columnarEngine;
+    private final SalesRollupService rollupService;
+    private final ProductRepository productRepository;
+    private final SaleItemRepository saleItemRepository;
+    private final BusinessAccessResolver accessResolver;
+
+    // nameAtSale solo viene de la agregación SQL; el motor columnar no guarda nombres
+    private record ProductTotals(UUID productId, long revenueCents, long costCents, long units, String nameAtSale) {
+    }
+
+    @Transactional(readOnly = true)
+    public List<ProductRankingResponse> getTopProducts(String userEmail, UUID businessId, ProductMetric metric,
+                                                       int n, LocalDate from, LocalDate to) {
+        accessResolver.resolve(userEmail, businessId);
+        if (n < 1 || n > MAX_TOP_PRODUCTS) {
+            throw new IllegalArgumentException("La cantidad de productos debe estar entre 1 y " + MAX_TOP_PRODUCTS);
+        }
+
+        // Heap de mínimos: la raíz es el peor de los N mejores y se descarta al entrar uno mejor
+        Comparator<ProductTotals> order = Comparator
+                .comparingLong((ProductTotals totals) -> metric.select(totals.revenueCents(), totals.costCents(), totals.units()))
+                .thenComparing(ProductTotals::productId, Comparator.reverseOrder());
+        PriorityQueue<ProductTotals> top = new PriorityQueue<>(n + 1, order);
+        forEachProduct(businessId, from, to, totals -> {
+            if (top.size() < n) {
+                top.add(totals);
+            } else if (order.compare(totals, top.peek()) > 0) {
+                top.poll();
+                top.add(totals);
+            }
+        });
+
+        List<ProductTotals> ranking = new ArrayList<>(top);
+        ranking.sort(order.reversed());
+        Map<UUID, String> names = productNames(businessId, ranking);
+        return ranking.stream()
+                .map(totals -> ProductRankingResponse.builder()
+                        .productId(totals.productId())
+                        .productName(names.get(totals.productId()))
+                        .revenue(Money.toDecimal(totals.revenueCents()))
+                        .cost(Money.toDecimal(totals.costCents()))
+                        .profit(Money.toDecimal(totals.revenueCents() - totals.costCents()))
+                        .units(totals.units())
+                        .build())
+                .toList();
+    }
+
+    /**
+     * Clasifica los productos vendidos por su participación acumulada en los ingresos: un producto
+     * es A si los anteriores suman menos del 80%, B si suman menos del 95% y C en otro caso.
+     */
+    @Transactional(readOnly = true)
+    public List<ProductAbcResponse> getAbcAnalysis(String userEmail, UUID businessId, LocalDate from, LocalDate to) {
+        accessResolver.resolve(userEmail, businessId);
+
+        List<ProductTotals> products = new ArrayList<>();
+        forEachProduct(businessId, from, to, products::add);
+        // La clasificación necesita el orden completo por ingresos
+        products.sort(Comparator.comparingLong(ProductTotals::revenueCents).reversed()
+                .thenComparing(ProductTotals::productId));
+
+        long totalCents = products.stream().mapToLong(ProductTotals::revenueCents).sum();
+        Map<UUID, String> names = productNames(businessId, products);
+        List<ProductAbcResponse> result = new ArrayList<>(products.size());
+        long cumulativeCents = 0;
+        for (ProductTotals totals : products) {
+            BigDecimal previousShare = share(cumulativeCents, totalCents);
+            cumulativeCents += totals.revenueCents();
+            AbcClass abcClass = totals.revenueCents() <= 0 ? AbcClass.C
+                    : previousShare.compareTo(A_THRESHOLD) < 0 ? AbcClass.A
+                    : previousShare.compareTo(B_THRESHOLD) < 0 ? AbcClass.B
+                    : AbcClass.C;
+            result.add(ProductAbcResponse.builder()
+                    .productId(totals.productId())
+                    .productName(names.get(totals.productId()))
+                    .revenue(Money.toDecimal(totals.revenueCents()))
+                    .revenueShare(share(totals.revenueCents(), totalCents))
+                    .cumulativeShare(share(cumulativeCents, totalCents))
+                    .abcClass(abcClass)
+                    .build());
+        }
+        return result;
+    }
+
+    private void forEachProduct(UUID businessId, LocalDate from, LocalDate to, Consumer<ProductTotals> consumer) {
+        if (from.isAfter(to)) {
+            throw new IllegalArgumentException("La fecha de inicio debe ser anterior a la fecha de fin");
+        }
+        ZoneId zone = rollupService.getZone();
+        OffsetDateTime start = from.atStartOfDay(zone).toOffsetDateTime();
+        OffsetDateTime end = to.plusDays(1).atStartOfDay(zone).toOffsetDateTime();
+
+        int[] boundaries = {SaleFactStore.epochMinute(start), SaleFactStore.epochMinute(end)};
+        SaleFactAggregation facts = columnarEngine
+                .aggregate(businessId, boundaries, ColumnarAnalyticsEngine.Dimension.PRODUCT)
+                .orElse(null);
+        if (facts != null) {
+            for (int key = 0; key < facts.keyCount(); key++) {
+                if (facts.saleCount(0, key) > 0) {
+                    consumer.accept(new ProductTotals((UUID) facts.key(key),
+                            facts.revenueCents(0, key), facts.costCents(0, key), facts.units(0, key), null));
+                }
+            }
+            return;
+        }
+
+        jdbcTemplate.query(PRODUCT_TOTALS_SQL, (RowCallbackHandler) rs -> consumer.accept(readTotals(rs)),
+                businessId, start, end);
+    }
+
+    private static ProductTotals readTotals(ResultSet rs) throws SQLException {
+        return new ProductTotals(
+                rs.getObject("product_id", UUID.class),
+                Money.toCents(rs.getBigDecimal("revenue")),
+                Money.toCents(rs.getBigDecimal("cost")),
+                rs.getLong("units"),
+                rs.getString("name_at_sale"));
+    }
+
+    /**
+     * Nombre actual de cada producto. Los productos borrados conservan sus ventas, así que para ellos
+     * se usa el nombre con el que se vendieron.
+     */
+    private Map<UUID, String> productNames(UUID businessId, List<ProductTotals> products) {
+        List<UUID> ids = products.stream().map(ProductTotals::productId).toList();
+        Map<UUID, String> names = new HashMap<>();
+        // Mantiene cada IN por debajo del límite de parámetros del driver
+        for (int from = 0; from < ids.size(); from += MAX_IN_PARAMETERS) {
+            for (Product product : productRepository.findAllById(ids.subList(from, Math.min(from + MAX_IN_PARAMETERS, ids.size())))) {
+                names.put(product.getId(), product.getName());
+            }
+        }
+
+        List<UUID> missing = new ArrayList<>();
+        for (ProductTotals totals : products) {
+            if (!names.containsKey(totals.productId())) {
+                if (totals.nameAtSale() != null) {
+                    names.put(totals.productId(), totals.nameAtSale());
+                } else {
+                    missing.add(totals.productId());
+                }
+            }
+        }
+        for (int from = 0; from < missing.size(); from += MAX_IN_PARAMETERS) {
+            for (Object[] row : saleItemRepository.findNamesAtSale(businessId,
+                    missing.subList(from, Math.min(from + MAX_IN_PARAMETERS, missing.size())))) {
+                names.put((UUID) row[0], (String) row[1]);
+            }
+        }
+        return names;
+    }
+
+    private static BigDecimal share(long partCents, long totalCents) {
+        if (totalCents == 0) {
+            return BigDecimal.ZERO.setScale(2);
+        }
+        return BigDecimal.valueOf(partCents * 100).divide(BigDecimal.valueOf(totalCents), 2, RoundingMode.HALF_UP);
+    }
+}
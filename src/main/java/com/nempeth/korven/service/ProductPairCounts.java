@@ -0,0 +1,115 @@
+package com.nempeth.korven.service;
+
+import java.util.Arrays;
+
+/**
+ * Contadores {@code long} indexados por un par de productos codificado en un {@code long}, en una
+ * tabla hash de direccionamiento abierto sin objetos por entrada. No es thread-safe.
+ */
+final class ProductPairCounts {
+
+    private static final long EMPTY = -1L;
+    private static final int INITIAL_CAPACITY = 64;
+
+    private long[] keys;
+    private long[] values;
+    private int size;
+
+    ProductPairCounts() {
+        this(INITIAL_CAPACITY);
+    }
+
+    ProductPairCounts(int expectedSize) {
+        int capacity = Integer.highestOneBit(Math.max(INITIAL_CAPACITY, expectedSize * 2 - 1)) << 1;
+        keys = new long[capacity];
+        values = new long[capacity];
+        Arrays.fill(keys, EMPTY);
+    }
+
+    @FunctionalInterface
+    interface PairConsumer {
+        void accept(int first, int second, long count);
+    }
+
+    /** Par ordenado: el mismo par de productos siempre produce la misma clave. */
+    static long key(int first, int second) {
+        int low = Math.min(first, second);
+        int high = Math.max(first, second);
+        return ((long) low << 32) | (high & 0xFFFFFFFFL);
+    }
+
+    /** Suma {@code delta} al par y devuelve el valor anterior. */
+    long add(int first, int second, long delta) {
+        long key = key(first, second);
+        int slot = slot(key);
+        while (keys[slot] != EMPTY) {
+            if (keys[slot] == key) {
+                long previous = values[slot];
+                values[slot] = previous + delta;
+                return previous;
+            }
+            slot = (slot + 1) & (keys.length - 1);
+        }
+        keys[slot] = key;
+        values[slot] = delta;
+        if (++size * 4 > keys.length * 3) {
+            resize();
+        }
+        return 0;
+    }
+
+    long get(int first, int second) {
+        long key = key(first, second);
+        int slot = slot(key);
+        while (keys[slot] != EMPTY) {
+            if (keys[slot] == key) {
+                return values[slot];
+            }
+            slot = (slot + 1) & (keys.length - 1);
+        }
+        return 0;
+    }
+
+    void addAll(ProductPairCounts other) {
+        other.forEach((first, second, count) -> add(first, second, count));
+    }
+
+    void forEach(PairConsumer consumer) {
+        for (int slot = 0; slot < keys.length; slot++) {
+            if (keys[slot] != EMPTY) {
+                consumer.accept((int) (keys[slot] >>> 32), (int) keys[slot], values[slot]);
+            }
+        }
+    }
+
+    int size() {
+        return size;
+    }
+
+    boolean isEmpty() {
+        return size == 0;
+    }
+
+    private int slot(long key) {
+        long hash = key * 0x9E3779B97F4A7C15L;
+        return (int) (hash ^ (hash >>> 32)) & (keys.length - 1);
+    }
+
+    private void resize() {
+        long[] oldKeys = keys;
+        long[] oldValues = values;
+        keys = new long[oldKeys.length * 2];
+        values = new long[oldValues.length * 2];
+        Arrays.fill(keys, EMPTY);
+        for (int i = 0; i < oldKeys.length; i++) {
+            if (oldKeys[i] != EMPTY) {
+                int slot = slot(oldKeys[i]);
+                while (keys[slot] != EMPTY) {
+                    slot = (slot + 1) & (keys.length - 1);
+                }
+                keys[slot] = oldKeys[i];
+                values[slot] = oldValues[i];
+            }
+        }
+    }
+}
@@ -1,20 +1,17 @@
 package com.nempeth.korven.service;
 
-import com.nempeth.korven.constants.MembershipStatus;
 import com.nempeth.korven.persistence.entity.Business;
-import com.nempeth.korven.persistence.entity.BusinessMembership;
 import com.nempeth.korven.persistence.entity.Category;
 import com.nempeth.korven.persistence.entity.Product;
-import com.nempeth.korven.persistence.entity.User;
-import com.nempeth.korven.persistence.repository.BusinessMembershipRepository;
 import com.nempeth.korven.persistence.repository.BusinessRepository;
 import com.nempeth.korven.persistence.repository.CategoryRepository;
 import com.nempeth.korven.persistence.repository.ProductRepository;
-import com.nempeth.korven.persistence.repository.UserRepository;
 import com.nempeth.korven.rest.dto.CategoryResponse;
 import com.nempeth.korven.rest.dto.ProductResponse;
 import com.nempeth.korven.rest.dto.ProductUpsertRequest;
+import com.nempeth.korven.security.BusinessAccessResolver;
 import lombok.RequiredArgsConstructor;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
@@ -28,12 +25,13 @@ public class ProductService {
     private final ProductRepository productRepository;
     private final CategoryRepository categoryRepository;
     private final BusinessRepository businessRepository;
-    private final BusinessMembershipRepository membershipRepository;
-    private final UserRepository userRepository;
+    private final BusinessAccessResolver accessResolver;
+    private final BusinessStatsService businessStatsService;
+    private final ApplicationEventPublisher eventPublisher;
 
     @Transactional
     public UUID create(String userEmail, UUID businessId, ProductUpsertRequest req) {
-        validateUserBusinessAccess(userEmail, businessId);
+        accessResolver.resolve(userEmail, businessId);
         
         Business business = businessRepository.findById(businessId)
                 .orElseThrow(() -> new IllegalArgumentException("Negocio no encontrado"));
@@ -59,12 +57,13 @@ public class ProductService {
                 .build();
         
         product = productRepository.save(product);
+        businessStatsService.addProducts(businessId, 1);
         return product.getId();
     }
 
     @Transactional(readOnly = true)
     public List<ProductResponse> listByBusiness(String userEmail, UUID businessId) {
-        validateUserBusinessAccess(userEmail, businessId);
+        accessResolver.resolve(userEmail, businessId);
         
         return productRepository.findByBusinessId(businessId).stream()
                 .map(this::mapToResponse)
@@ -73,7 +72,7 @@ public class ProductService {
 
     @Transactional(readOnly = true)
     public List<ProductResponse> listByBusinessAndCategory(String userEmail, UUID businessId, UUID categoryId) {
-        validateUserBusinessAccess(userEmail, businessId);
+        accessResolver.resolve(userEmail, businessId);
         
         return productRepository.findByBusinessIdAndCategoryId(businessId, categoryId).stream()
                 .map(this::mapToResponse)
@@ -82,7 +81,7 @@ public class ProductService {
 
     @Transactional
     public void update(String userEmail, UUID businessId, UUID productId, ProductUpsertRequest req) {
-        validateUserBusinessAccess(userEmail, businessId);
+        accessResolver.resolve(userEmail, businessId);
         
         Product product = productRepository.findByIdAndBusinessId(productId, businessId)
                 .orElseThrow(() -> new IllegalArgumentException("Producto no encontrado en este negocio"));
@@ -101,28 +100,18 @@ public class ProductService {
         product.setCategory(category);
         
         productRepository.save(product);
+        eventPublisher.publishEvent(AnalyticsDataChangedEvent.currentYear(businessId));
     }
 
     @Transactional
     public void delete(String userEmail, UUID businessId, UUID productId) {
-        validateUserBusinessAccess(userEmail, businessId);
+        accessResolver.resolve(userEmail, businessId);
         
         Product product = productRepository.findByIdAndBusinessId(productId, businessId)
                 .orElseThrow(() -> new IllegalArgumentException("Producto no encontrado en este negocio"));
         
         productRepository.delete(product);
-    }
-
-    private void validateUserBusinessAccess(String userEmail, UUID businessId) {
-        User user = userRepository.findByEmailIgnoreCase(userEmail)
-                .orElseThrow(() -> new IllegalArgumentException("Usuario no encontrado"));
-        
-        BusinessMembership membership = membershipRepository.findByBusinessIdAndUserId(businessId, user.getId())
-                .orElseThrow(() -> new IllegalArgumentException("No tienes acceso a este negocio"));
-        
-        if (membership.getStatus() != MembershipStatus.ACTIVE) {
-            throw new IllegalArgumentException("Tu membresía en este negocio no está activa");
-        }
+        businessStatsService.addProducts(businessId, -1);
     }
 
     private ProductResponse mapToResponse(Product product) {
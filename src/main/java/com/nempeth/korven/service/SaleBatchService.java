@@ -0,0 +1,159 @@
+package com.nempeth.korven.service;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.nempeth.korven.rest.dto.CreateSaleRequest;
+import com.nempeth.korven.rest.dto.SaleBatchItemResult;
+import com.nempeth.korven.rest.dto.SaleBatchResponse;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.stream.Collectors;
+
+/**
+ * Ingesta de lotes de ventas enviados por las terminales POS.
+ * El cuerpo se lee venta por venta con la API de streaming de Jackson y se persiste en bloques
+ * de tamaño configurable, cada uno en su propia transacción. La respuesta lleva los totales y solo
+ * las ventas que fallaron, de modo que la memoria usada no depende de las ventas registradas.
+ * Si un bloque falla entero, se reintenta venta por venta.
+ */
+@Slf4j
+@Service
+public class SaleBatchService {
+
+    private final SaleService saleService;
+    private final ObjectMapper objectMapper;
+    private final Validator validator;
+    private final int chunkSize;
+
+    public SaleBatchService(SaleService saleService,
+                            ObjectMapper objectMapper,
+                            Validator validator,
+                            @Value("${app.sales.batch-chunk-size:200}") int chunkSize) {
+        this.saleService = saleService;
+        this.objectMapper = objectMapper;
+        this.validator = validator;
+        this.chunkSize = chunkSize;
+    }
+
+    public SaleBatchResponse createSalesBatch(String userEmail, UUID businessId, InputStream body) throws IOException {
+        UUID sellerId = saleService.validateSellerAccess(userEmail, businessId);
+
+        Outcome outcome = new Outcome();
+        Map<Integer, CreateSaleRequest> chunk = new LinkedHashMap<>();
+        int index = 0;
+
+        try (JsonParser parser = objectMapper.getFactory().createParser(body)) {
+            if (parser.nextToken() != JsonToken.START_ARRAY) {
+                throw new IllegalArgumentException("Se esperaba un arreglo de ventas");
+            }
+            try {
+                while (parser.nextToken() != JsonToken.END_ARRAY) {
+                    // Solo se materializa una venta a la vez
+                    JsonNode node = parser.readValueAsTree();
+                    String error = null;
+                    CreateSaleRequest request = null;
+                    try {
+                        request = objectMapper.treeToValue(node, CreateSaleRequest.class);
+                        error = validate(request);
+                    } catch (JsonProcessingException e) {
+                        error = "Venta con formato inválido";
+                    }
+
+                    if (error != null) {
+                        outcome.add(SaleBatchItemResult.builder().index(index).error(error).build());
+                    } else {
+                        chunk.put(index, request);
+                        if (chunk.size() >= chunkSize) {
+                            flushChunk(businessId, sellerId, chunk, outcome);
+                        }
+                    }
+                    index++;
+                }
+            } catch (JsonProcessingException e) {
+                // JSON truncado o mal formado: se conserva lo ya leído y se informa dónde se cortó
+                outcome.add(SaleBatchItemResult.builder().index(index).error("JSON inválido, lote interrumpido").build());
+            }
+        }
+
+        if (!chunk.isEmpty()) {
+            flushChunk(businessId, sellerId, chunk, outcome);
+        }
+
+        return SaleBatchResponse.builder()
+                .received(index)
+                .created(outcome.created)
+                .failed(outcome.failures.size())
+                .failures(outcome.failures)
+                .build();
+    }
+
+    private void flushChunk(UUID businessId, UUID sellerId, Map<Integer, CreateSaleRequest> chunk, Outcome outcome) {
+        try {
+            saleService.createSalesChunk(businessId, sellerId, chunk).forEach(outcome::add);
+        } catch (RuntimeException e) {
+            if (chunk.size() == 1) {
+                chunk.forEach((index, request) -> outcome.add(failure(businessId, index, e)));
+                return;
+            }
+            // El bloque se revirtió entero: cada venta se reintenta sola para aislar la que falla
+            log.warn("No se pudo registrar un bloque de {} ventas del negocio {}, se reintenta venta por venta",
+                    chunk.size(), businessId, e);
+            chunk.forEach((index, request) -> {
+                try {
+                    saleService.createSalesChunk(businessId, sellerId, Map.of(index, request)).forEach(outcome::add);
+                } catch (RuntimeException retryError) {
+                    outcome.add(failure(businessId, index, retryError));
+                }
+            });
+        } finally {
+            chunk.clear();
+        }
+    }
+
+    private static SaleBatchItemResult failure(UUID businessId, int index, RuntimeException e) {
+        if (e instanceof IllegalArgumentException) {
+            return SaleBatchItemResult.builder().index(index).error(e.getMessage()).build();
+        }
+        log.warn("No se pudo registrar la venta {} del lote del negocio {}", index, businessId, e);
+        return SaleBatchItemResult.builder().index(index).error("Error al registrar la venta").build();
+    }
+
+    private static final class Outcome {
+        private int created;
+        private final List<SaleBatchItemResult> failures = new ArrayList<>();
+
+        void add(SaleBatchItemResult result) {
+            if (result.saleId() != null) {
+                created++;
+            } else {
+                failures.add(result);
+            }
+        }
+    }
+
+    private String validate(CreateSaleRequest request) {
+        Set<ConstraintViolation<CreateSaleRequest>> violations = validator.validate(request);
+        if (violations.isEmpty()) {
+            return null;
+        }
+        return violations.stream()
+                .map(ConstraintViolation::getMessage)
+                .sorted()
+                .collect(Collectors.joining("; "));
+    }
+}
@@ -0,0 +1,46 @@
+package com.nempeth.korven.service;
+
+import com.nempeth.korven.persistence.entity.Sale;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.util.Base64;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Posición opaca dentro del listado de ventas: la última venta devuelta, identificada por
+ * {@code (occurredAt, id)}. Se serializa en base64 para que los clientes no dependan de su formato.
+ */
+public record SaleCursor(OffsetDateTime occurredAt, UUID id) {
+
+    private static final Base64.Encoder ENCODER = Base64.getUrlEncoder().withoutPadding();
+    private static final Base64.Decoder DECODER = Base64.getUrlDecoder();
+
+    public static SaleCursor of(Sale sale) {
+        return new SaleCursor(sale.getOccurredAt(), sale.getId());
+    }
+
+    public static SaleCursor decode(String cursor) {
+        try {
+            String raw = new String(DECODER.decode(cursor), StandardCharsets.UTF_8);
+            int separator = raw.indexOf('|');
+            Instant occurredAt = Instant.parse(raw.substring(0, separator));
+            UUID id = UUID.fromString(raw.substring(separator + 1));
+            return new SaleCursor(OffsetDateTime.ofInstant(occurredAt, ZoneOffset.UTC), id);
+        } catch (RuntimeException e) {
+            throw new IllegalArgumentException("Cursor inválido");
+        }
+    }
+
+    public String encode() {
+        String raw = occurredAt.toInstant() + "|" + id;
+        return ENCODER.encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    Map<String, Object> keys() {
+        return Map.of("occurredAt", occurredAt, "id", id);
+    }
+}
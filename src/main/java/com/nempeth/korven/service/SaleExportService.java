@@ -0,0 +1,210 @@
+package com.nempeth.korven.service;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.nempeth.korven.constants.ExportFormat;
+import com.nempeth.korven.security.BusinessAccess;
+import com.nempeth.korven.security.BusinessAccessResolver;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.OffsetDateTime;
+import java.util.UUID;
+
+/**
+ * Exportación de ventas por rango de fechas para contabilidad.
+ * Las filas se leen con un cursor JDBC de solo avance (sin pasar por el contexto de persistencia)
+ * y se escriben directamente en la respuesta, por lo que la memoria no depende del volumen exportado.
+ */
+@Service
+public class SaleExportService {
+
+    private static final String EXPORT_SQL = """
+            SELECT s.id, s.occurred_at, u.name, u.last_name,
+                   si.product_name_at_sale, si.category_name, si.quantity,
+                   si.unit_price, si.unit_cost, si.line_total
+            FROM sale s
+            JOIN sale_item si ON si.sale_id = s.id
+            LEFT JOIN users u ON u.id = s.created_by_user_id
+            WHERE s.business_id = ?
+              AND s.occurred_at BETWEEN ? AND ?
+            """;
+    private static final String CREATED_BY_FILTER = "  AND s.created_by_user_id = ?\n";
+    private static final String ORDER_BY = "ORDER BY s.occurred_at, s.id";
+
+    private static final String CSV_HEADER =
+            "sale_id,occurred_at,created_by,product,category,quantity,unit_price,unit_cost,line_total";
+
+    private final BusinessAccessResolver accessResolver;
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate readOnlyTransaction;
+    private final ObjectMapper objectMapper;
+    private final int fetchSize;
+
+    public SaleExportService(BusinessAccessResolver accessResolver,
+                             JdbcTemplate jdbcTemplate,
+                             PlatformTransactionManager transactionManager,
+                             ObjectMapper objectMapper,
+                             @Value("${app.sales.export-fetch-size:1000}") int fetchSize) {
+        this.accessResolver = accessResolver;
+        this.jdbcTemplate = jdbcTemplate;
+        this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+        this.readOnlyTransaction.setReadOnly(true);
+        this.objectMapper = objectMapper;
+        this.fetchSize = fetchSize;
+    }
+
+    /**
+     * Valida el acceso en el hilo del request y devuelve el cuerpo que escribe la exportación.
+     * Los empleados solo exportan sus propias ventas, igual que en el listado.
+     */
+    public StreamingResponseBody export(String userEmail, UUID businessId, ExportFormat format,
+                                        OffsetDateTime startDate, OffsetDateTime endDate) {
+        BusinessAccess access = accessResolver.resolve(userEmail, businessId);
+        UUID createdByFilter = access.isOwner() ? null : access.userId();
+
+        return outputStream -> {
+            ExportWriter writer = format == ExportFormat.CSV
+                    ? new CsvExportWriter(outputStream)
+                    : new NdjsonExportWriter(outputStream, objectMapper);
+
+            // En PostgreSQL el fetch size solo abre un cursor dentro de una transacción
+            readOnlyTransaction.executeWithoutResult(status ->
+                    jdbcTemplate.query(connection -> {
+                        String sql = EXPORT_SQL + (createdByFilter != null ? CREATED_BY_FILTER : "") + ORDER_BY;
+                        PreparedStatement statement = connection.prepareStatement(
+                                sql, ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY);
+                        statement.setFetchSize(fetchSize);
+                        statement.setObject(1, businessId);
+                        statement.setObject(2, startDate);
+                        statement.setObject(3, endDate);
+                        if (createdByFilter != null) {
+                            statement.setObject(4, createdByFilter);
+                        }
+                        return statement;
+                    }, (RowCallbackHandler) writer::write));
+
+            writer.finish();
+        };
+    }
+
+    private static String createdByName(ResultSet rs) throws SQLException {
+        String name = rs.getString("name");
+        String lastName = rs.getString("last_name");
+        if (name == null && lastName == null) {
+            return "Sistema";
+        }
+        return ((name != null ? name : "") + " " + (lastName != null ? lastName : "")).trim();
+    }
+
+    private interface ExportWriter {
+        void write(ResultSet rs) throws SQLException;
+
+        void finish() throws IOException;
+    }
+
+    private static final class CsvExportWriter implements ExportWriter {
+
+        private final Writer out;
+
+        CsvExportWriter(OutputStream outputStream) throws IOException {
+            this.out = new BufferedWriter(new OutputStreamWriter(outputStream, StandardCharsets.UTF_8));
+            out.write(CSV_HEADER);
+            out.write('\n');
+        }
+
+        @Override
+        public void write(ResultSet rs) throws SQLException {
+            try {
+                out.write(rs.getObject("id", UUID.class).toString());
+                out.write(',');
+                out.write(rs.getObject("occurred_at", OffsetDateTime.class).toString());
+                out.write(',');
+                out.write(escape(createdByName(rs)));
+                out.write(',');
+                out.write(escape(rs.getString("product_name_at_sale")));
+                out.write(',');
+                out.write(escape(rs.getString("category_name")));
+                out.write(',');
+                out.write(Integer.toString(rs.getInt("quantity")));
+                out.write(',');
+                out.write(rs.getBigDecimal("unit_price").toPlainString());
+                out.write(',');
+                out.write(rs.getBigDecimal("unit_cost").toPlainString());
+                out.write(',');
+                out.write(rs.getBigDecimal("line_total").toPlainString());
+                out.write('\n');
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+
+        @Override
+        public void finish() throws IOException {
+            out.flush();
+        }
+
+        private static String escape(String value) {
+            if (value == null) {
+                return "";
+            }
+            // Evita que una hoja de cálculo interprete nombres de productos como fórmulas
+            if (!value.isEmpty() && "=+-@".indexOf(value.charAt(0)) >= 0) {
+                value = "'" + value;
+            }
+            if (value.indexOf(',') >= 0 || value.indexOf('"') >= 0 || value.indexOf('\n') >= 0 || value.indexOf('\r') >= 0) {
+                return '"' + value.replace("\"", "\"\"") + '"';
+            }
+            return value;
+        }
+    }
+
+    private static final class NdjsonExportWriter implements ExportWriter {
+
+        private final JsonGenerator generator;
+
+        NdjsonExportWriter(OutputStream outputStream, ObjectMapper objectMapper) throws IOException {
+            this.generator = objectMapper.getFactory().createGenerator(outputStream);
+        }
+
+        @Override
+        public void write(ResultSet rs) throws SQLException {
+            try {
+                generator.writeStartObject();
+                generator.writeStringField("saleId", rs.getObject("id", UUID.class).toString());
+                generator.writeStringField("occurredAt", rs.getObject("occurred_at", OffsetDateTime.class).toString());
+                generator.writeStringField("createdByUserName", createdByName(rs));
+                generator.writeStringField("productName", rs.getString("product_name_at_sale"));
+                generator.writeStringField("categoryName", rs.getString("category_name"));
+                generator.writeNumberField("quantity", rs.getInt("quantity"));
+                generator.writeNumberField("unitPrice", rs.getBigDecimal("unit_price"));
+                generator.writeNumberField("unitCost", rs.getBigDecimal("unit_cost"));
+                generator.writeNumberField("lineTotal", rs.getBigDecimal("line_total"));
+                generator.writeEndObject();
+                generator.writeRaw('\n');
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+
+        @Override
+        public void finish() throws IOException {
+            generator.flush();
+        }
+    }
+}
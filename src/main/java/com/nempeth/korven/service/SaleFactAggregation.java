@@ -0,0 +1,141 @@
+package com.nempeth.korven.service;
+
+import com.nempeth.korven.utils.Money;
+
+import java.math.BigDecimal;
+import java.util.Arrays;
+
+/**
+ * Totales de los hechos de venta por intervalo de tiempo y por valor de una dimensión
+ * (categoría, producto o usuario), calculados por {@link ColumnarAnalyticsEngine}.
+ * Los importes se guardan en centavos; las celdas se indexan como {@code bucket * keyCount() + key}.
+ */
+public final class SaleFactAggregation {
+
+    private final int bucketCount;
+    private final Object[] keys;
+    private final long[] revenueCents;
+    private final long[] costCents;
+    private final long[] units;
+    private final long[] saleCount;
+    private final long[] bucketSaleCount;
+
+    private SaleFactAggregation(int bucketCount, Object[] keys) {
+        this.bucketCount = bucketCount;
+        this.keys = keys;
+        int cells = bucketCount * keys.length;
+        this.revenueCents = new long[cells];
+        this.costCents = new long[cells];
+        this.units = new long[cells];
+        this.saleCount = new long[cells];
+        this.bucketSaleCount = new long[bucketCount];
+    }
+
+    /**
+     * Recorre las filas del snapshot una sola vez, sin reservar memoria por fila. {@code boundaries}
+     * son los límites de los intervalos en minutos epoch, ordenados; las filas fuera de
+     * [primero, último) se ignoran.
+     */
+    static SaleFactAggregation aggregate(SaleFactStore.Snapshot snapshot, int[] boundaries,
+                                         ColumnarAnalyticsEngine.Dimension dimension) {
+        SaleFactStore.DictionaryView dictionary = switch (dimension) {
+            case CATEGORY -> snapshot.categories();
+            case PRODUCT -> snapshot.products();
+            case USER -> snapshot.users();
+        };
+        int[] keyColumn = switch (dimension) {
+            case CATEGORY -> snapshot.categoryIds();
+            case PRODUCT -> snapshot.productIds();
+            case USER -> snapshot.userIds();
+        };
+
+        int keyCount = dictionary.size();
+        SaleFactAggregation result = new SaleFactAggregation(
+                boundaries.length - 1, Arrays.copyOf(dictionary.values(), keyCount));
+
+        int[] minutes = snapshot.minutes();
+        long[] revenue = snapshot.revenueCents();
+        long[] cost = snapshot.costCents();
+        int[] quantities = snapshot.quantities();
+        int[] saleSeqs = snapshot.saleSeqs();
+        int first = boundaries[0];
+        int last = boundaries[boundaries.length - 1];
+
+        // Los items de una venta son contiguos: alcanza con recordar la última venta contada por clave
+        int[] lastSaleByKey = new int[keyCount];
+        int lastSale = 0;
+        for (int i = 0, size = snapshot.size(); i < size; i++) {
+            int minute = minutes[i];
+            if (minute < first || minute >= last) {
+                continue;
+            }
+            int position = Arrays.binarySearch(boundaries, minute);
+            int bucket = position >= 0 ? position : -position - 2;
+            int key = keyColumn[i];
+            int cell = bucket * keyCount + key;
+
+            result.revenueCents[cell] += revenue[i];
+            result.costCents[cell] += cost[i];
+            result.units[cell] += quantities[i];
+
+            int sale = saleSeqs[i];
+            if (lastSaleByKey[key] != sale) {
+                lastSaleByKey[key] = sale;
+                result.saleCount[cell]++;
+            }
+            if (lastSale != sale) {
+                lastSale = sale;
+                result.bucketSaleCount[bucket]++;
+            }
+        }
+        return result;
+    }
+
+    public int bucketCount() {
+        return bucketCount;
+    }
+
+    public int keyCount() {
+        return keys.length;
+    }
+
+    public Object key(int key) {
+        return keys[key];
+    }
+
+    public long units(int bucket, int key) {
+        return units[bucket * keys.length + key];
+    }
+
+    public long saleCount(int bucket, int key) {
+        return saleCount[bucket * keys.length + key];
+    }
+
+    public long bucketSaleCount(int bucket) {
+        return bucketSaleCount[bucket];
+    }
+
+    public long revenueCents(int bucket, int key) {
+        return revenueCents[bucket * keys.length + key];
+    }
+
+    public long costCents(int bucket, int key) {
+        return costCents[bucket * keys.length + key];
+    }
+
+    public BigDecimal revenue(int bucket, int key) {
+        return Money.toDecimal(revenueCents(bucket, key));
+    }
+
+    public BigDecimal cost(int bucket, int key) {
+        return Money.toDecimal(costCents(bucket, key));
+    }
+
+    public long bucketRevenueCents(int bucket) {
+        long total = 0;
+        for (int key = 0; key < keys.length; key++) {
+            total += revenueCents[bucket * keys.length + key];
+        }
+        return total;
+    }
+}
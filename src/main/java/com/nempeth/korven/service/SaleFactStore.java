@@ -0,0 +1,218 @@
+package com.nempeth.korven.service;
+
+import java.time.OffsetDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Hechos de {@code sale_item} de un negocio en columnas primitivas: minuto epoch, importes en
+ * centavos y categoría/producto/usuario codificados con diccionarios. Hay un único escritor a la
+ * vez; los lectores toman un {@link Snapshot} inmutable que ve solo las filas ya publicadas, así que
+ * leen sin bloqueo mientras se agregan ventas.
+ */
+final class SaleFactStore {
+
+    /** Bytes por fila: 6 columnas {@code int} y 2 {@code long}. */
+    static final int BYTES_PER_ROW = 6 * Integer.BYTES + 2 * Long.BYTES;
+
+    private static final int INITIAL_CAPACITY = 1024;
+
+    private final AtomicBoolean loadStarted = new AtomicBoolean();
+    private final CompletableFuture<Void> loaded = new CompletableFuture<>();
+
+    private final Object writeLock = new Object();
+    // Todo lo siguiente solo se modifica con writeLock
+    private List<List<SaleFact>> pending = new ArrayList<>();
+    // Ventas leídas por la carga inicial (msb y lsb intercalados), solo mientras dura la carga: una
+    // venta confirmada durante la carga puede llegar por la consulta y por append, sin importar su fecha
+    private long[] loadedSaleIds = new long[2 * INITIAL_CAPACITY];
+    private int loadedSales;
+    private final Dictionary categories = new Dictionary();
+    private final Dictionary products = new Dictionary();
+    private final Dictionary users = new Dictionary();
+    private int[] minutes = new int[INITIAL_CAPACITY];
+    private long[] revenueCents = new long[INITIAL_CAPACITY];
+    private long[] costCents = new long[INITIAL_CAPACITY];
+    private int[] quantities = new int[INITIAL_CAPACITY];
+    private int[] categoryIds = new int[INITIAL_CAPACITY];
+    private int[] productIds = new int[INITIAL_CAPACITY];
+    private int[] userIds = new int[INITIAL_CAPACITY];
+    private int[] saleSeqs = new int[INITIAL_CAPACITY];
+    private int size;
+    private int saleSeq;
+
+    private volatile Snapshot snapshot = publish();
+
+    /** Un item de una venta, con los importes ya en centavos. */
+    record SaleFact(UUID saleId, OffsetDateTime occurredAt, UUID userId, UUID productId,
+                    String categoryName, int quantity, long revenueCents, long costCents) {
+    }
+
+    /** Devuelve {@code true} solo para el primer llamador, que es quien debe cargar el negocio. */
+    boolean startLoading() {
+        return loadStarted.compareAndSet(false, true);
+    }
+
+    /** Agrega una venta leída por la carga inicial; sus items deben venir juntos. */
+    void loadSale(List<SaleFact> items) {
+        synchronized (writeLock) {
+            UUID saleId = items.get(0).saleId();
+            if (2 * loadedSales == loadedSaleIds.length) {
+                loadedSaleIds = Arrays.copyOf(loadedSaleIds, loadedSaleIds.length * 2);
+            }
+            loadedSaleIds[2 * loadedSales] = saleId.getMostSignificantBits();
+            loadedSaleIds[2 * loadedSales + 1] = saleId.getLeastSignificantBits();
+            loadedSales++;
+            appendLocked(items);
+        }
+    }
+
+    /** Aplica las ventas confirmadas durante la carga y habilita las lecturas. */
+    void finishLoading() {
+        synchronized (writeLock) {
+            if (!pending.isEmpty()) {
+                Set<UUID> pendingIds = new HashSet<>();
+                for (List<SaleFact> items : pending) {
+                    pendingIds.add(items.get(0).saleId());
+                }
+                Set<UUID> alreadyLoaded = new HashSet<>();
+                for (int i = 0; i < loadedSales && alreadyLoaded.size() < pendingIds.size(); i++) {
+                    UUID saleId = new UUID(loadedSaleIds[2 * i], loadedSaleIds[2 * i + 1]);
+                    if (pendingIds.contains(saleId)) {
+                        alreadyLoaded.add(saleId);
+                    }
+                }
+                for (List<SaleFact> items : pending) {
+                    if (alreadyLoaded.add(items.get(0).saleId())) {
+                        appendLocked(items);
+                    }
+                }
+            }
+            pending = null;
+            loadedSaleIds = null;
+            snapshot = publish();
+        }
+        loaded.complete(null);
+    }
+
+    void failLoading(Throwable cause) {
+        loaded.completeExceptionally(cause);
+    }
+
+    /** Agrega una venta confirmada; si el negocio todavía se está cargando, queda pendiente. */
+    void append(List<SaleFact> items) {
+        if (items.isEmpty()) {
+            return;
+        }
+        synchronized (writeLock) {
+            if (pending != null) {
+                pending.add(items);
+                return;
+            }
+            appendLocked(items);
+            snapshot = publish();
+        }
+    }
+
+    /** Espera a que termine la carga y devuelve la vista actual. */
+    Snapshot snapshot() {
+        loaded.join();
+        return snapshot;
+    }
+
+    /** Vista actual sin esperar la carga; durante la carga no tiene filas. */
+    Snapshot published() {
+        return snapshot;
+    }
+
+    private void appendLocked(List<SaleFact> items) {
+        ensureCapacity(size + items.size());
+        saleSeq++;
+        for (SaleFact item : items) {
+            minutes[size] = epochMinute(item.occurredAt());
+            revenueCents[size] = item.revenueCents();
+            costCents[size] = item.costCents();
+            quantities[size] = item.quantity();
+            categoryIds[size] = categories.encode(item.categoryName());
+            productIds[size] = products.encode(item.productId());
+            userIds[size] = users.encode(item.userId());
+            saleSeqs[size] = saleSeq;
+            size++;
+        }
+    }
+
+    private void ensureCapacity(int required) {
+        if (required <= minutes.length) {
+            return;
+        }
+        // Las columnas nuevas se publican recién con el próximo snapshot
+        int capacity = Math.max(required, minutes.length + (minutes.length >> 1));
+        minutes = Arrays.copyOf(minutes, capacity);
+        revenueCents = Arrays.copyOf(revenueCents, capacity);
+        costCents = Arrays.copyOf(costCents, capacity);
+        quantities = Arrays.copyOf(quantities, capacity);
+        categoryIds = Arrays.copyOf(categoryIds, capacity);
+        productIds = Arrays.copyOf(productIds, capacity);
+        userIds = Arrays.copyOf(userIds, capacity);
+        saleSeqs = Arrays.copyOf(saleSeqs, capacity);
+    }
+
+    private Snapshot publish() {
+        return new Snapshot(size, minutes, revenueCents, costCents, quantities, categoryIds, productIds, userIds,
+                saleSeqs, categories.view(), products.view(), users.view());
+    }
+
+    static int epochMinute(OffsetDateTime time) {
+        return Math.toIntExact(Math.floorDiv(time.toEpochSecond(), 60));
+    }
+
+    /**
+     * Vista inmutable de las primeras {@code size} filas. Los arreglos se comparten con el escritor,
+     * que solo escribe posiciones posteriores a {@code size}.
+     */
+    record Snapshot(int size, int[] minutes, long[] revenueCents, long[] costCents, int[] quantities,
+                    int[] categoryIds, int[] productIds, int[] userIds, int[] saleSeqs,
+                    DictionaryView categories, DictionaryView products, DictionaryView users) {
+
+        long estimatedBytes() {
+            return (long) minutes.length * BYTES_PER_ROW;
+        }
+    }
+
+    /** Primeros {@code size} valores de un diccionario; el código de cada valor es su posición. */
+    record DictionaryView(Object[] values, int size) {
+        Object get(int id) {
+            return values[id];
+        }
+    }
+
+    private static final class Dictionary {
+        private final Map<Object, Integer> ids = new HashMap<>();
+        private Object[] values = new Object[16];
+
+        int encode(Object value) {
+            Integer id = ids.get(value);
+            if (id == null) {
+                id = ids.size();
+                if (id == values.length) {
+                    values = Arrays.copyOf(values, id * 2);
+                }
+                values[id] = value;
+                ids.put(value, id);
+            }
+            return id;
+        }
+
+        DictionaryView view() {
+            return new DictionaryView(values, ids.size());
+        }
+    }
+}
@@ -0,0 +1,141 @@
+package com.nempeth.korven.service;
+
+import com.nempeth.korven.persistence.entity.SaleIdempotency;
+import com.nempeth.korven.persistence.repository.BusinessRepository;
+import com.nempeth.korven.persistence.repository.SaleIdempotencyRepository;
+import com.nempeth.korven.persistence.repository.SaleRepository;
+import com.nempeth.korven.rest.dto.CreateSaleRequest;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Deduplica la creación de ventas reintentadas por los clientes POS mediante el header
+ * {@code Idempotency-Key}. Las claves se guardan en la tabla {@code sale_idempotency} junto a la
+ * venta, con un LRU acotado en memoria por delante; los pedidos concurrentes con la misma clave
+ * esperan a una única ejecución en curso en lugar de competir por la restricción única.
+ */
+@Service
+public class SaleIdempotencyService {
+
+    private static final int MAX_KEY_LENGTH = 255;
+
+    private final SaleService saleService;
+    private final SaleIdempotencyRepository idempotencyRepository;
+    private final BusinessRepository businessRepository;
+    private final SaleRepository saleRepository;
+    private final TransactionTemplate transactionTemplate;
+
+    private final Map<IdempotencyKey, RecordedSale> recentKeys;
+    private final Map<IdempotencyKey, CompletableFuture<RecordedSale>> inFlight = new ConcurrentHashMap<>();
+
+    public SaleIdempotencyService(SaleService saleService,
+                                  SaleIdempotencyRepository idempotencyRepository,
+                                  BusinessRepository businessRepository,
+                                  SaleRepository saleRepository,
+                                  TransactionTemplate transactionTemplate,
+                                  @Value("${app.sales.idempotency-cache-size:10000}") int cacheSize) {
+        this.saleService = saleService;
+        this.idempotencyRepository = idempotencyRepository;
+        this.businessRepository = businessRepository;
+        this.saleRepository = saleRepository;
+        this.transactionTemplate = transactionTemplate;
+        this.recentKeys = Collections.synchronizedMap(new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<IdempotencyKey, RecordedSale> eldest) {
+                return size() > cacheSize;
+            }
+        });
+    }
+
+    public UUID createSale(String userEmail, UUID businessId, String idempotencyKey, CreateSaleRequest request) {
+        if (idempotencyKey == null || idempotencyKey.isBlank()) {
+            return saleService.createSale(userEmail, businessId, request);
+        }
+        if (idempotencyKey.length() > MAX_KEY_LENGTH) {
+            throw new IllegalArgumentException("La clave de idempotencia es demasiado larga");
+        }
+
+        IdempotencyKey key = new IdempotencyKey(businessId, idempotencyKey);
+        RecordedSale recent = recentKeys.get(key);
+        if (recent != null) {
+            return recent.saleIdFor(userEmail);
+        }
+
+        CompletableFuture<RecordedSale> execution = new CompletableFuture<>();
+        CompletableFuture<RecordedSale> running = inFlight.putIfAbsent(key, execution);
+        if (running != null) {
+            return await(running).saleIdFor(userEmail);
+        }
+
+        try {
+            RecordedSale recorded = findRecorded(key).orElseGet(() -> createAndRecord(userEmail, key, request));
+            recentKeys.put(key, recorded);
+            execution.complete(recorded);
+            return recorded.saleIdFor(userEmail);
+        } catch (RuntimeException e) {
+            execution.completeExceptionally(e);
+            throw e;
+        } finally {
+            inFlight.remove(key, execution);
+        }
+    }
+
+    private RecordedSale createAndRecord(String userEmail, IdempotencyKey key, CreateSaleRequest request) {
+        try {
+            return transactionTemplate.execute(status -> {
+                UUID saleId = saleService.createSale(userEmail, key.businessId(), request);
+                idempotencyRepository.saveAndFlush(SaleIdempotency.builder()
+                        .business(businessRepository.getReferenceById(key.businessId()))
+                        .idempotencyKey(key.value())
+                        .sale(saleRepository.getReferenceById(saleId))
+                        .build());
+                return new RecordedSale(saleId, userEmail);
+            });
+        } catch (DataIntegrityViolationException e) {
+            // Otra instancia registró la misma clave primero: su venta es la que vale
+            return findRecorded(key).orElseThrow(() -> e);
+        }
+    }
+
+    private Optional<RecordedSale> findRecorded(IdempotencyKey key) {
+        return idempotencyRepository.findByBusinessIdAndIdempotencyKey(key.businessId(), key.value())
+                .map(record -> new RecordedSale(
+                        record.getSale().getId(),
+                        record.getSale().getCreatedByUser() != null ? record.getSale().getCreatedByUser().getEmail() : null));
+    }
+
+    private static RecordedSale await(CompletableFuture<RecordedSale> running) {
+        try {
+            return running.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw e;
+        }
+    }
+
+    private record IdempotencyKey(UUID businessId, String value) {
+    }
+
+    private record RecordedSale(UUID saleId, String userEmail) {
+        UUID saleIdFor(String requesterEmail) {
+            // Una clave solo devuelve la venta a quien la registró
+            if (userEmail == null || !userEmail.equalsIgnoreCase(requesterEmail)) {
+                throw new IllegalArgumentException("La clave de idempotencia ya fue utilizada");
+            }
+            return saleId;
+        }
+    }
+}
@@ -1,111 +1,233 @@
 package com.nempeth.korven.service;
 
-import com.nempeth.korven.constants.MembershipRole;
-import com.nempeth.korven.constants.MembershipStatus;
 import com.nempeth.korven.persistence.entity.*;
 import com.nempeth.korven.persistence.repository.*;
 import com.nempeth.korven.rest.dto.*;
+import com.nempeth.korven.security.BusinessAccess;
+import com.nempeth.korven.security.BusinessAccessResolver;
+import com.nempeth.korven.utils.Money;
+import jakarta.persistence.EntityManager;
 import lombok.RequiredArgsConstructor;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.domain.ScrollPosition;
+import org.springframework.data.domain.Window;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
-import java.math.BigDecimal;
 import java.time.OffsetDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
 import java.util.UUID;
+import java.util.function.Function;
+import java.util.stream.Collectors;
 
 @Service
 @RequiredArgsConstructor
 public class SaleService {
 
+    private static final int MAX_IN_PARAMETERS = 1000;
+    // total_amount y line_total son numeric(12,2)
+    private static final int AMOUNT_PRECISION = 12;
+
     private final SaleRepository saleRepository;
     private final SaleItemRepository saleItemRepository;
     private final ProductRepository productRepository;
     private final BusinessRepository businessRepository;
-    private final BusinessMembershipRepository membershipRepository;
+    private final BusinessAccessResolver accessResolver;
     private final UserRepository userRepository;
+    private final SalesRollupService salesRollupService;
+    private final BusinessStatsService businessStatsService;
+    private final EntityManager entityManager;
+    private final ApplicationEventPublisher eventPublisher;
 
     @Transactional
     public UUID createSale(String userEmail, UUID businessId, CreateSaleRequest request) {
-        User user = validateUserBusinessAccess(userEmail, businessId);
-        
-        Business business = businessRepository.findById(businessId)
-                .orElseThrow(() -> new IllegalArgumentException("Negocio no encontrado"));
+        BusinessAccess access = accessResolver.resolve(userEmail, businessId);
+        User user = userRepository.getReferenceById(access.userId());
 
-        // Crear la venta
-        Sale sale = Sale.builder()
-                .business(business)
-                .createdByUser(user)
-                .occurredAt(OffsetDateTime.now())
-                .totalAmount(BigDecimal.ZERO) // Se calculará después
-                .build();
+        // El acceso ya garantiza que el negocio existe, no hace falta consultarlo
+        Business business = businessRepository.getReferenceById(businessId);
+
+        Map<UUID, Product> products = findProductsForItems(businessId, request.items());
+        if (products.size() != countDistinctProducts(request)) {
+            throw new IllegalArgumentException("Producto no encontrado en este negocio");
+        }
 
-        sale = saleRepository.save(sale);
+        // Los items se insertan por cascada en un único batch JDBC al hacer flush
+        Sale sale = saleRepository.save(buildSale(business, user, request, products));
+        entityManager.flush();
+        salesRollupService.applySales(businessId, List.of(sale));
+        businessStatsService.applySales(businessId, List.of(sale));
+        eventPublisher.publishEvent(new SalesRecordedEvent(businessId, List.of(sale)));
 
-        // Crear los items de venta
-        BigDecimal totalAmount = BigDecimal.ZERO;
+        return sale.getId();
+    }
+
+    /**
+     * Valida una sola vez el acceso de quien carga un lote de ventas y devuelve su id.
+     */
+    @Transactional(readOnly = true)
+    public UUID validateSellerAccess(String userEmail, UUID businessId) {
+        return accessResolver.resolve(userEmail, businessId).userId();
+    }
+
+    /**
+     * Registra un bloque de ventas de un lote en una única transacción: los productos de todo el
+     * bloque se resuelven con una sola consulta y las ventas se insertan en batch. Las ventas con
+     * productos inexistentes se informan como fallidas sin afectar al resto del bloque.
+     */
+    @Transactional
+    public List<SaleBatchItemResult> createSalesChunk(UUID businessId, UUID sellerId,
+                                                      Map<Integer, CreateSaleRequest> chunk) {
+        Business business = businessRepository.getReferenceById(businessId);
+        User seller = userRepository.getReferenceById(sellerId);
+
+        List<CreateSaleItemRequest> allItems = chunk.values().stream()
+                .flatMap(request -> request.items().stream())
+                .toList();
+        Map<UUID, Product> products = findProductsForItems(businessId, allItems);
+
+        Map<Integer, Sale> salesByIndex = new LinkedHashMap<>();
+        for (Map.Entry<Integer, CreateSaleRequest> entry : chunk.entrySet()) {
+            CreateSaleRequest request = entry.getValue();
+            boolean allProductsFound = request.items().stream()
+                    .allMatch(item -> products.containsKey(item.productId()));
+            salesByIndex.put(entry.getKey(), allProductsFound ? buildSale(business, seller, request, products) : null);
+        }
+
+        List<Sale> sales = saleRepository.saveAll(salesByIndex.values().stream().filter(Objects::nonNull).toList());
+        entityManager.flush();
+        salesRollupService.applySales(businessId, sales);
+        businessStatsService.applySales(businessId, sales);
+        eventPublisher.publishEvent(new SalesRecordedEvent(businessId, sales));
+
+        List<SaleBatchItemResult> results = new ArrayList<>(chunk.size());
+        salesByIndex.forEach((index, sale) -> results.add(sale != null
+                ? SaleBatchItemResult.builder().index(index).saleId(sale.getId()).build()
+                : SaleBatchItemResult.builder().index(index).error("Producto no encontrado en este negocio").build()));
+
+        // Con open-in-view el contexto de persistencia vive todo el request: se vacía en cada bloque
+        // para que la memoria no crezca con el tamaño del lote
+        entityManager.clear();
+
+        return results;
+    }
+
+    private Sale buildSale(Business business, User user, CreateSaleRequest request, Map<UUID, Product> products) {
+        // Calcular los items y el total antes de insertar la venta
+        List<SaleItem> saleItems = new ArrayList<>(request.items().size());
+        Money totalAmount = Money.ZERO;
         for (CreateSaleItemRequest itemRequest : request.items()) {
-            Product product = productRepository.findByIdAndBusinessId(itemRequest.productId(), businessId)
-                    .orElseThrow(() -> new IllegalArgumentException("Producto no encontrado en este negocio"));
+            Product product = products.get(itemRequest.productId());
 
-            BigDecimal lineTotal = product.getPrice().multiply(BigDecimal.valueOf(itemRequest.quantity()));
-            totalAmount = totalAmount.add(lineTotal);
+            Money lineTotal;
+            try {
+                lineTotal = Money.of(product.getPrice()).times(itemRequest.quantity()).requireNumeric(AMOUNT_PRECISION);
+                totalAmount = totalAmount.plus(lineTotal).requireNumeric(AMOUNT_PRECISION);
+            } catch (ArithmeticException e) {
+                throw new IllegalArgumentException("El importe de la venta excede el máximo permitido");
+            }
 
-            SaleItem saleItem = SaleItem.builder()
-                    .sale(sale)
+            saleItems.add(SaleItem.builder()
                     .product(product)
                     .productNameAtSale(product.getName())
                     .categoryName(product.getCategory().getName())
                     .unitPrice(product.getPrice())
                     .unitCost(product.getCost())
                     .quantity(itemRequest.quantity())
-                    .lineTotal(lineTotal)
-                    .build();
-
-            saleItemRepository.save(saleItem);
+                    .lineTotal(lineTotal.toBigDecimal())
+                    .build());
         }
 
-        // Actualizar el total de la venta
-        sale.setTotalAmount(totalAmount);
-        saleRepository.save(sale);
+        Sale sale = Sale.builder()
+                .business(business)
+                .createdByUser(user)
+                .occurredAt(OffsetDateTime.now())
+                .totalAmount(totalAmount.toBigDecimal())
+                .saleItems(new HashSet<>(saleItems))
+                .build();
+        saleItems.forEach(item -> item.setSale(sale));
+        return sale;
+    }
 
-        return sale.getId();
+    private long countDistinctProducts(CreateSaleRequest request) {
+        return request.items().stream()
+                .map(CreateSaleItemRequest::productId)
+                .distinct()
+                .count();
+    }
+
+    private Map<UUID, Product> findProductsForItems(UUID businessId, List<CreateSaleItemRequest> items) {
+        Set<UUID> productIds = items.stream()
+                .map(CreateSaleItemRequest::productId)
+                .collect(Collectors.toSet());
+
+        return productRepository.findByBusinessIdAndIdIn(businessId, productIds).stream()
+                .collect(Collectors.toMap(Product::getId, Function.identity()));
     }
 
     @Transactional(readOnly = true)
     public List<SaleResponse> getSalesByBusiness(String userEmail, UUID businessId) {
-        BusinessMembership membership = validateUserBusinessAccessAndGetMembership(userEmail, businessId);
+        BusinessAccess access = accessResolver.resolve(userEmail, businessId);
         
-        if (membership.getRole() == MembershipRole.OWNER) {
-            return saleRepository.findByBusinessIdOrderByOccurredAtDesc(businessId).stream()
-                    .map(this::mapToResponse)
-                    .toList();
+        if (access.isOwner()) {
+            return mapToResponses(saleRepository.findByBusinessIdOrderByOccurredAtDesc(businessId));
         } else {
-            return saleRepository.findByBusinessIdAndCreatedByUserIdOrderByOccurredAtDesc(businessId, membership.getUser().getId()).stream()
-                    .map(this::mapToResponse)
-                    .toList();
+            return mapToResponses(saleRepository.findByBusinessIdAndCreatedByUserIdOrderByOccurredAtDesc(businessId, access.userId()));
         }
     }
 
     @Transactional(readOnly = true)
     public List<SaleResponse> getSalesByBusinessAndDateRange(String userEmail, UUID businessId, 
                                                            OffsetDateTime startDate, OffsetDateTime endDate) {
-        BusinessMembership membership = validateUserBusinessAccessAndGetMembership(userEmail, businessId);
+        BusinessAccess access = accessResolver.resolve(userEmail, businessId);
         
-        if (membership.getRole() == MembershipRole.OWNER) {
-            return saleRepository.findByBusinessIdAndOccurredAtBetweenOrderByOccurredAtDesc(businessId, startDate, endDate).stream()
-                    .map(this::mapToResponse)
-                    .toList();
+        if (access.isOwner()) {
+            return mapToResponses(saleRepository.findByBusinessIdAndOccurredAtBetweenOrderByOccurredAtDesc(businessId, startDate, endDate));
         } else {
-            return saleRepository.findByBusinessIdAndCreatedByUserIdAndOccurredAtBetweenOrderByOccurredAtDesc(businessId, membership.getUser().getId(), startDate, endDate).stream()
-                    .map(this::mapToResponse)
-                    .toList();
+            return mapToResponses(saleRepository.findByBusinessIdAndCreatedByUserIdAndOccurredAtBetweenOrderByOccurredAtDesc(businessId, access.userId(), startDate, endDate));
         }
     }
 
+    @Transactional(readOnly = true)
+    public SalePageResponse getSalesByBusiness(String userEmail, UUID businessId, SaleCursor cursor, int limit) {
+        BusinessAccess access = accessResolver.resolve(userEmail, businessId);
+        ScrollPosition position = scrollPosition(cursor);
+
+        Window<Sale> window = access.isOwner()
+                ? saleRepository.findByBusinessIdOrderByOccurredAtDescIdDesc(businessId, position, Limit.of(limit))
+                : saleRepository.findByBusinessIdAndCreatedByUserIdOrderByOccurredAtDescIdDesc(
+                        businessId, access.userId(), position, Limit.of(limit));
+
+        return toPage(window);
+    }
+
+    @Transactional(readOnly = true)
+    public SalePageResponse getSalesByBusinessAndDateRange(String userEmail, UUID businessId,
+                                                           OffsetDateTime startDate, OffsetDateTime endDate,
+                                                           SaleCursor cursor, int limit) {
+        BusinessAccess access = accessResolver.resolve(userEmail, businessId);
+        ScrollPosition position = scrollPosition(cursor);
+
+        Window<Sale> window = access.isOwner()
+                ? saleRepository.findByBusinessIdAndOccurredAtBetweenOrderByOccurredAtDescIdDesc(
+                        businessId, startDate, endDate, position, Limit.of(limit))
+                : saleRepository.findByBusinessIdAndCreatedByUserIdAndOccurredAtBetweenOrderByOccurredAtDescIdDesc(
+                        businessId, access.userId(), startDate, endDate, position, Limit.of(limit));
+
+        return toPage(window);
+    }
+
     @Transactional(readOnly = true)
     public SaleResponse getSaleById(String userEmail, UUID businessId, UUID saleId) {
-        BusinessMembership membership = validateUserBusinessAccessAndGetMembership(userEmail, businessId);
+        BusinessAccess access = accessResolver.resolve(userEmail, businessId);
         
         Sale sale = saleRepository.findById(saleId)
                 .orElseThrow(() -> new IllegalArgumentException("Venta no encontrada"));
@@ -114,66 +236,96 @@ public class SaleService {
             throw new IllegalArgumentException("La venta no pertenece a este negocio");
         }
         
-        if (membership.getRole() == MembershipRole.EMPLOYEE) {
-            if (!sale.getCreatedByUser().getId().equals(membership.getUser().getId())) {
+        if (!access.isOwner()) {
+            if (!sale.getCreatedByUser().getId().equals(access.userId())) {
                 throw new IllegalArgumentException("No tienes permisos para ver esta venta");
             }
         }
         
-        return mapToResponse(sale);
+        return mapToResponses(List.of(sale)).get(0);
     }
 
-    private User validateUserBusinessAccess(String userEmail, UUID businessId) {
-        User user = userRepository.findByEmailIgnoreCase(userEmail)
-                .orElseThrow(() -> new IllegalArgumentException("Usuario no encontrado"));
-        
-        BusinessMembership membership = membershipRepository.findByBusinessIdAndUserId(businessId, user.getId())
-                .orElseThrow(() -> new IllegalArgumentException("No tienes acceso a este negocio"));
-        
-        if (membership.getStatus() != MembershipStatus.ACTIVE) {
-            throw new IllegalArgumentException("Tu membresía en este negocio no está activa");
-        }
-        
-        return user;
+    private ScrollPosition scrollPosition(SaleCursor cursor) {
+        return cursor == null ? ScrollPosition.keyset() : ScrollPosition.forward(cursor.keys());
     }
 
-    private BusinessMembership validateUserBusinessAccessAndGetMembership(String userEmail, UUID businessId) {
-        User user = userRepository.findByEmailIgnoreCase(userEmail)
-                .orElseThrow(() -> new IllegalArgumentException("Usuario no encontrado"));
-        
-        BusinessMembership membership = membershipRepository.findByBusinessIdAndUserId(businessId, user.getId())
-                .orElseThrow(() -> new IllegalArgumentException("No tienes acceso a este negocio"));
-        
-        if (membership.getStatus() != MembershipStatus.ACTIVE) {
-            throw new IllegalArgumentException("Tu membresía en este negocio no está activa");
+    private SalePageResponse toPage(Window<Sale> window) {
+        List<Sale> sales = window.getContent();
+        String nextCursor = window.hasNext() && !sales.isEmpty()
+                ? SaleCursor.of(sales.get(sales.size() - 1)).encode()
+                : null;
+
+        return SalePageResponse.builder()
+                .items(mapToResponses(sales))
+                .nextCursor(nextCursor)
+                .build();
+    }
+
+    /**
+     * Arma las respuestas de una lista de ventas con una cantidad fija de consultas: todos los items
+     * de esas ventas en un solo IN y todos los usuarios creadores en otro, combinados en memoria.
+     */
+    private List<SaleResponse> mapToResponses(List<Sale> sales) {
+        if (sales.isEmpty()) {
+            return List.of();
         }
-        
-        return membership;
-    }
-
-    private SaleResponse mapToResponse(Sale sale) {
-        List<SaleItemResponse> items = saleItemRepository.findBySaleId(sale.getId()).stream()
-                .map(item -> SaleItemResponse.builder()
-                        .id(item.getId())
-                        .categoryName(item.getCategoryName())
-                        .productName(item.getProductNameAtSale())
-                        .quantity(item.getQuantity())
-                        .unitPrice(item.getUnitPrice())
-                        .unitCost(item.getUnitCost())
-                        .lineTotal(item.getLineTotal())
-                        .build())
-                .toList();
 
-        String createdByUserName = sale.getCreatedByUser() != null 
-                ? (sale.getCreatedByUser().getName() + " " + sale.getCreatedByUser().getLastName()).trim()
-                : "Sistema";
+        List<UUID> saleIds = sales.stream().map(Sale::getId).toList();
+        Map<UUID, List<SaleItemResponse>> itemsBySale = new HashMap<>(saleIds.size() * 2);
+        for (List<UUID> ids : partition(saleIds)) {
+            for (SaleItem item : saleItemRepository.findBySaleIdIn(ids)) {
+                itemsBySale.computeIfAbsent(item.getSale().getId(), id -> new ArrayList<>())
+                        .add(mapToItemResponse(item));
+            }
+        }
 
-        return SaleResponse.builder()
-                .id(sale.getId())
-                .occurredAt(sale.getOccurredAt())
-                .totalAmount(sale.getTotalAmount())
-                .createdByUserName(createdByUserName)
-                .items(items)
+        // El id del proxy LAZY se lee sin inicializarlo
+        Set<UUID> userIds = sales.stream()
+                .map(Sale::getCreatedByUser)
+                .filter(Objects::nonNull)
+                .map(User::getId)
+                .collect(Collectors.toSet());
+        Map<UUID, User> usersById = userIds.isEmpty()
+                ? Map.of()
+                : userRepository.findAllById(userIds).stream()
+                        .collect(Collectors.toMap(User::getId, Function.identity()));
+
+        return sales.stream()
+                .map(sale -> {
+                    User createdBy = sale.getCreatedByUser() != null ? usersById.get(sale.getCreatedByUser().getId()) : null;
+                    String createdByUserName = createdBy != null
+                            ? (createdBy.getName() + " " + createdBy.getLastName()).trim()
+                            : "Sistema";
+
+                    return SaleResponse.builder()
+                            .id(sale.getId())
+                            .occurredAt(sale.getOccurredAt())
+                            .totalAmount(sale.getTotalAmount())
+                            .createdByUserName(createdByUserName)
+                            .items(itemsBySale.getOrDefault(sale.getId(), List.of()))
+                            .build();
+                })
+                .toList();
+    }
+
+    private SaleItemResponse mapToItemResponse(SaleItem item) {
+        return SaleItemResponse.builder()
+                .id(item.getId())
+                .categoryName(item.getCategoryName())
+                .productName(item.getProductNameAtSale())
+                .quantity(item.getQuantity())
+                .unitPrice(item.getUnitPrice())
+                .unitCost(item.getUnitCost())
+                .lineTotal(item.getLineTotal())
                 .build();
     }
+
+    private static List<List<UUID>> partition(List<UUID> ids) {
+        // Mantiene cada IN por debajo del límite de parámetros del driver en los listados completos
+        List<List<UUID>> chunks = new ArrayList<>();
+        for (int from = 0; from < ids.size(); from += MAX_IN_PARAMETERS) {
+            chunks.add(ids.subList(from, Math.min(from + MAX_IN_PARAMETERS, ids.size())));
+        }
+        return chunks;
+    }
 }
\ No newline at end of file
@@ -0,0 +1,12 @@
+package com.nempeth.korven.service;
+
+import com.nempeth.korven.persistence.entity.Sale;
+
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Se publica al registrar ventas de un negocio, con sus items ya persistidos.
+ */
+public record SalesRecordedEvent(UUID businessId, List<Sale> sales) {
+}
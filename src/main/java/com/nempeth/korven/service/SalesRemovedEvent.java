@@ -0,0 +1,11 @@
+package com.nempeth.korven.service;
+
+import java.util.Set;
+import java.util.UUID;
+
+/**
+ * Se publica cuando se borran ventas ya registradas de los negocios indicados, por ejemplo al borrar
+ * al usuario que las creó. Lo que se haya calculado en memoria a partir de esas ventas queda viejo.
+ */
+public record SalesRemovedEvent(Set<UUID> businessIds) {
+}
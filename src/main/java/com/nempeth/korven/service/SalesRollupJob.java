@@ -0,0 +1,104 @@
+package com.nempeth.korven.service;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Tareas de mantenimiento de {@code sales_daily_rollup}, pensadas para correr una sola vez al
+ * desplegar: la reconstrucción inicial (un negocio por transacción, en paralelo) y la verificación
+ * contra las ventas. Se activan con {@code app.analytics.rollup.backfill-on-startup} y
+ * {@code app.analytics.rollup.verify-on-startup}.
+ */
+@Slf4j
+@Component
+public class SalesRollupJob implements ApplicationRunner {
+
+    private final SalesRollupService rollupService;
+    private final JdbcTemplate jdbcTemplate;
+    private final boolean backfillOnStartup;
+    private final boolean verifyOnStartup;
+    private final int threads;
+
+    public SalesRollupJob(SalesRollupService rollupService,
+                          JdbcTemplate jdbcTemplate,
+                          @Value("${app.analytics.rollup.backfill-on-startup:false}") boolean backfillOnStartup,
+                          @Value("${app.analytics.rollup.verify-on-startup:false}") boolean verifyOnStartup,
+                          @Value("${app.analytics.rollup.backfill-threads:4}") int threads) {
+        this.rollupService = rollupService;
+        this.jdbcTemplate = jdbcTemplate;
+        this.backfillOnStartup = backfillOnStartup;
+        this.verifyOnStartup = verifyOnStartup;
+        this.threads = threads;
+    }
+
+    @Override
+    public void run(ApplicationArguments args) {
+        if (backfillOnStartup) {
+            backfillAll();
+        }
+        if (verifyOnStartup) {
+            verifyAll();
+        }
+    }
+
+    /**
+     * Reconstruye los totales de todos los negocios. Devuelve la cantidad de filas escritas.
+     */
+    public long backfillAll() {
+        List<UUID> businessIds = findBusinessIds();
+        log.info("Reconstruyendo totales diarios de {} negocios con {} hilos", businessIds.size(), threads);
+
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        try {
+            List<Future<Integer>> results = new ArrayList<>(businessIds.size());
+            for (UUID businessId : businessIds) {
+                results.add(executor.submit(() -> rollupService.rebuildBusiness(businessId)));
+            }
+
+            long rows = 0;
+            for (int i = 0; i < results.size(); i++) {
+                try {
+                    rows += results.get(i).get();
+                } catch (ExecutionException e) {
+                    log.error("No se pudieron reconstruir los totales del negocio {}", businessIds.get(i), e.getCause());
+                }
+            }
+            log.info("Totales diarios reconstruidos: {} filas", rows);
+            return rows;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Reconstrucción de totales interrumpida", e);
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    /**
+     * Verifica los totales de todos los negocios y registra cada diferencia encontrada.
+     */
+    public List<SalesRollupService.RollupMismatch> verifyAll() {
+        List<SalesRollupService.RollupMismatch> mismatches = new ArrayList<>();
+        for (UUID businessId : findBusinessIds()) {
+            mismatches.addAll(rollupService.verifyBusiness(businessId));
+        }
+        mismatches.forEach(mismatch -> log.warn("Totales diarios inconsistentes: {}", mismatch));
+        log.info("Verificación de totales diarios terminada: {} diferencias", mismatches.size());
+        return mismatches;
+    }
+
+    private List<UUID> findBusinessIds() {
+        return jdbcTemplate.queryForList("SELECT id FROM business", UUID.class);
+    }
+}
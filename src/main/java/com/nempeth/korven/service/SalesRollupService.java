@@ -0,0 +1,268 @@
+package com.nempeth.korven.service;
+
+import com.nempeth.korven.persistence.entity.Sale;
+import com.nempeth.korven.persistence.entity.SaleItem;
+import com.nempeth.korven.utils.Money;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.math.BigDecimal;
+import java.sql.Date;
+import java.time.LocalDate;
+import java.time.OffsetDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.TreeMap;
+import java.util.UUID;
+
+/**
+ * Mantiene la tabla {@code sales_daily_rollup}: totales por negocio, día y categoría.
+ * Las ventas nuevas suman sus importes en la misma transacción que las registra; la
+ * reconstrucción y la verificación recalculan los totales desde {@code sale} y {@code sale_item}.
+ * Los días se calculan en la zona {@code app.analytics.zone}. Cada cambio publica un
+ * {@link AnalyticsDataChangedEvent} para invalidar las analíticas cacheadas al confirmar.
+ */
+@Service
+public class SalesRollupService {
+
+    private static final String UPSERT_SQL = """
+            INSERT INTO sales_daily_rollup (business_id, sale_date, category_name, revenue, cost, units, sale_count)
+            VALUES (?, ?, ?, ?, ?, ?, ?)
+            ON CONFLICT (business_id, sale_date, category_name) DO UPDATE SET
+                revenue = sales_daily_rollup.revenue + EXCLUDED.revenue,
+                cost = sales_daily_rollup.cost + EXCLUDED.cost,
+                units = sales_daily_rollup.units + EXCLUDED.units,
+                sale_count = sales_daily_rollup.sale_count + EXCLUDED.sale_count
+            """;
+
+    private static final String LOCK_BUSINESS_SQL = "SELECT id FROM business WHERE id = ? FOR UPDATE";
+    private static final String DELETE_BUSINESS_SQL = "DELETE FROM sales_daily_rollup WHERE business_id = ?";
+    private static final String INSERT_SQL = """
+            INSERT INTO sales_daily_rollup (business_id, sale_date, category_name, revenue, cost, units, sale_count)
+            VALUES (?, ?, ?, ?, ?, ?, ?)
+            """;
+
+    // Un renglón por venta y categoría: sale_count cuenta ventas, no items
+    private static final String RAW_TOTALS_SQL = """
+            SELECT s.occurred_at, si.category_name,
+                   SUM(si.line_total) AS revenue, SUM(si.unit_cost * si.quantity) AS cost, SUM(si.quantity) AS units
+            FROM sale s
+            JOIN sale_item si ON si.sale_id = s.id
+            WHERE s.business_id = ?
+            GROUP BY s.id, s.occurred_at, si.category_name
+            """;
+
+    // Lo mismo para las ventas de un usuario, en todos sus negocios
+    private static final String CREATOR_TOTALS_SQL = """
+            SELECT s.business_id, s.occurred_at, si.category_name,
+                   SUM(si.line_total) AS revenue, SUM(si.unit_cost * si.quantity) AS cost, SUM(si.quantity) AS units
+            FROM sale s
+            JOIN sale_item si ON si.sale_id = s.id
+            WHERE s.created_by_user_id = ?
+            GROUP BY s.id, s.business_id, s.occurred_at, si.category_name
+            """;
+
+    private static final String DELETE_EMPTY_SQL = "DELETE FROM sales_daily_rollup WHERE business_id = ? AND sale_count <= 0";
+
+    private static final String ROLLUP_TOTALS_SQL = """
+            SELECT sale_date, category_name, revenue, cost, units, sale_count
+            FROM sales_daily_rollup
+            WHERE business_id = ?
+            """;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final ApplicationEventPublisher eventPublisher;
+    private final ZoneId zone;
+    private final String upsertSql;
+
+    public SalesRollupService(JdbcTemplate jdbcTemplate,
+                              ApplicationEventPublisher eventPublisher,
+                              @Value("${app.analytics.zone:America/Argentina/Buenos_Aires}") String zone,
+                              @Value("${app.analytics.rollup.upsert-sql:}") String upsertSql) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.eventPublisher = eventPublisher;
+        this.zone = ZoneId.of(zone);
+        // Solo para bases sin ON CONFLICT ... DO UPDATE; los tests sobre H2 definen un MERGE equivalente
+        this.upsertSql = upsertSql.isBlank() ? UPSERT_SQL : upsertSql;
+    }
+
+    public ZoneId getZone() {
+        return zone;
+    }
+
+    /**
+     * Suma las ventas recién insertadas a los totales diarios. Debe llamarse dentro de la transacción
+     * que registra las ventas y después del flush, para que la clave foránea hacia el negocio ya esté
+     * tomada antes de tocar las filas de totales (ver {@link #rebuildBusiness(UUID)}).
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void applySales(UUID businessId, Collection<Sale> sales) {
+        RollupAccumulator accumulator = new RollupAccumulator();
+        for (Sale sale : sales) {
+            Map<String, RollupTotals> byCategory = new HashMap<>();
+            for (SaleItem item : sale.getSaleItems()) {
+                byCategory.merge(item.getCategoryName(), new RollupTotals(
+                        Money.toCents(item.getLineTotal()),
+                        Money.of(item.getUnitCost()).times(item.getQuantity()).cents(),
+                        item.getQuantity(),
+                        0), RollupTotals::plus);
+            }
+            byCategory.forEach((category, totals) -> accumulator.add(sale.getOccurredAt(), category, totals));
+        }
+
+        // Las filas se actualizan siempre en el mismo orden para evitar deadlocks entre ventas concurrentes
+        List<Object[]> rows = new ArrayList<>();
+        accumulator.totals.forEach((key, totals) -> rows.add(row(businessId, key, totals)));
+        jdbcTemplate.batchUpdate(upsertSql, rows);
+
+        accumulator.totals.keySet().stream()
+                .map(key -> key.day().getYear())
+                .distinct()
+                .forEach(year -> eventPublisher.publishEvent(AnalyticsDataChangedEvent.forYear(businessId, year)));
+    }
+
+    /**
+     * Resta de los totales diarios las ventas registradas por un usuario, antes de que se borren en
+     * cascada con él. Debe llamarse dentro de la transacción que borra al usuario; las filas que
+     * quedan sin ventas se eliminan para que {@link #verifyBusiness(UUID)} no las reporte.
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void removeSalesOfCreator(UUID userId) {
+        Map<UUID, RollupAccumulator> byBusiness = new TreeMap<>();
+        jdbcTemplate.query(CREATOR_TOTALS_SQL, rs -> {
+            byBusiness.computeIfAbsent(rs.getObject("business_id", UUID.class), id -> new RollupAccumulator()).add(
+                    rs.getObject("occurred_at", OffsetDateTime.class),
+                    rs.getString("category_name"),
+                    new RollupTotals(Money.toCents(rs.getBigDecimal("revenue")), Money.toCents(rs.getBigDecimal("cost")),
+                            rs.getLong("units"), 0));
+        }, userId);
+
+        byBusiness.forEach((businessId, accumulator) -> {
+            // Mismo orden de filas que applySales para no cruzar bloqueos con las ventas concurrentes
+            List<Object[]> rows = new ArrayList<>();
+            accumulator.totals.forEach((key, totals) -> rows.add(row(businessId, key, totals.negate())));
+            jdbcTemplate.batchUpdate(upsertSql, rows);
+            jdbcTemplate.update(DELETE_EMPTY_SQL, businessId);
+
+            accumulator.totals.keySet().stream()
+                    .map(key -> key.day().getYear())
+                    .distinct()
+                    .forEach(year -> eventPublisher.publishEvent(AnalyticsDataChangedEvent.forYear(businessId, year)));
+        });
+    }
+
+    /**
+     * Recalcula desde cero los totales de un negocio. El bloqueo del negocio espera a las ventas en
+     * curso (que ya tomaron su clave foránea) y frena las nuevas hasta terminar, de modo que ninguna
+     * venta se cuente dos veces ni se pierda.
+     */
+    @Transactional
+    public int rebuildBusiness(UUID businessId) {
+        jdbcTemplate.queryForList(LOCK_BUSINESS_SQL, UUID.class, businessId);
+        jdbcTemplate.update(DELETE_BUSINESS_SQL, businessId);
+
+        Map<RollupKey, RollupTotals> expected = computeFromSales(businessId);
+        List<Object[]> rows = new ArrayList<>(expected.size());
+        expected.forEach((key, totals) -> rows.add(row(businessId, key, totals)));
+        jdbcTemplate.batchUpdate(INSERT_SQL, rows);
+
+        eventPublisher.publishEvent(AnalyticsDataChangedEvent.allYears(businessId));
+        return rows.size();
+    }
+
+    /**
+     * Compara los totales guardados de un negocio con los calculados desde las ventas.
+     */
+    @Transactional(readOnly = true)
+    public List<RollupMismatch> verifyBusiness(UUID businessId) {
+        Map<RollupKey, RollupTotals> expected = computeFromSales(businessId);
+        Map<RollupKey, RollupTotals> actual = new TreeMap<>();
+        jdbcTemplate.query(ROLLUP_TOTALS_SQL, rs -> {
+            actual.put(
+                    new RollupKey(rs.getObject("sale_date", LocalDate.class), rs.getString("category_name")),
+                    new RollupTotals(Money.toCents(rs.getBigDecimal("revenue")), Money.toCents(rs.getBigDecimal("cost")),
+                            rs.getLong("units"), rs.getLong("sale_count")));
+        }, businessId);
+
+        Map<RollupKey, RollupMismatch> mismatches = new TreeMap<>();
+        expected.forEach((key, totals) -> {
+            RollupTotals stored = actual.get(key);
+            if (!totals.equals(stored)) {
+                mismatches.put(key, new RollupMismatch(businessId, key.day(), key.categoryName(), totals, stored));
+            }
+        });
+        actual.forEach((key, stored) -> {
+            if (!expected.containsKey(key)) {
+                mismatches.put(key, new RollupMismatch(businessId, key.day(), key.categoryName(), null, stored));
+            }
+        });
+        return List.copyOf(mismatches.values());
+    }
+
+    private Map<RollupKey, RollupTotals> computeFromSales(UUID businessId) {
+        RollupAccumulator accumulator = new RollupAccumulator();
+        jdbcTemplate.query(RAW_TOTALS_SQL, rs -> {
+            accumulator.add(
+                    rs.getObject("occurred_at", OffsetDateTime.class),
+                    rs.getString("category_name"),
+                    new RollupTotals(Money.toCents(rs.getBigDecimal("revenue")), Money.toCents(rs.getBigDecimal("cost")),
+                            rs.getLong("units"), 0));
+        }, businessId);
+        return accumulator.totals;
+    }
+
+    private static Object[] row(UUID businessId, RollupKey key, RollupTotals totals) {
+        return new Object[]{businessId, Date.valueOf(key.day()), key.categoryName(),
+                Money.toDecimal(totals.revenueCents()), Money.toDecimal(totals.costCents()),
+                totals.units(), totals.saleCount()};
+    }
+
+    /** Importes en centavos. */
+    public record RollupTotals(long revenueCents, long costCents, long units, long saleCount) {
+        RollupTotals plus(RollupTotals other) {
+            return new RollupTotals(Math.addExact(revenueCents, other.revenueCents),
+                    Math.addExact(costCents, other.costCents), units + other.units, saleCount + other.saleCount);
+        }
+
+        RollupTotals negate() {
+            return new RollupTotals(Math.negateExact(revenueCents), Math.negateExact(costCents), -units, -saleCount);
+        }
+    }
+
+    public record RollupMismatch(UUID businessId, LocalDate day, String categoryName,
+                                 RollupTotals expected, RollupTotals actual) {
+    }
+
+    private record RollupKey(LocalDate day, String categoryName) implements Comparable<RollupKey> {
+        private static final Comparator<RollupKey> ORDER = Comparator
+                .comparing(RollupKey::day)
+                .thenComparing(RollupKey::categoryName);
+
+        @Override
+        public int compareTo(RollupKey other) {
+            return ORDER.compare(this, other);
+        }
+    }
+
+    private final class RollupAccumulator {
+        private final Map<RollupKey, RollupTotals> totals = new TreeMap<>();
+
+        // Cada llamada es el aporte de una venta a una categoría
+        void add(OffsetDateTime occurredAt, String categoryName, RollupTotals saleTotals) {
+            RollupKey key = new RollupKey(occurredAt.atZoneSameInstant(zone).toLocalDate(),
+                    Objects.requireNonNull(categoryName));
+            RollupTotals contribution = new RollupTotals(saleTotals.revenueCents(), saleTotals.costCents(), saleTotals.units(), 1);
+            totals.merge(key, contribution, RollupTotals::plus);
+        }
+    }
+}
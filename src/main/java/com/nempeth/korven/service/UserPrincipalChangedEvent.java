@@ -0,0 +1,8 @@
+package com.nempeth.korven.service;
+
+/**
+ * Se publica cuando cambia algo de un usuario que forma parte de su principal autenticado: email,
+ * contraseña, o el rol o estado de alguna de sus membresías.
+ */
+public record UserPrincipalChangedEvent(String email) {
+}
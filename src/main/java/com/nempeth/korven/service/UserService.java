@@ -5,6 +5,7 @@ import com.nempeth.korven.constants.MembershipStatus;
 import com.nempeth.korven.persistence.entity.BusinessMembership;
 import com.nempeth.korven.persistence.entity.User;
 import com.nempeth.korven.persistence.repository.BusinessMembershipRepository;
+import com.nempeth.korven.persistence.repository.SaleRepository;
 import com.nempeth.korven.persistence.repository.UserRepository;
 import com.nempeth.korven.rest.dto.BusinessMembershipResponse;
 import com.nempeth.korven.rest.dto.UpdateMembershipRoleRequest;
@@ -12,13 +13,18 @@ import com.nempeth.korven.rest.dto.UpdateMembershipStatusRequest;
 import com.nempeth.korven.rest.dto.UpdateUserProfileRequest;
 import com.nempeth.korven.rest.dto.UpdateUserPasswordRequest;
 import com.nempeth.korven.rest.dto.UserResponse;
-import com.nempeth.korven.utils.PasswordUtils;
+import com.nempeth.korven.security.PasswordHasher;
+import com.nempeth.korven.utils.EmailUtils;
 import lombok.RequiredArgsConstructor;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.security.access.AccessDeniedException;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.math.BigDecimal;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Set;
 import java.util.UUID;
 import java.util.regex.Pattern;
 
@@ -28,6 +34,11 @@ public class UserService {
 
     private final UserRepository userRepository;
     private final BusinessMembershipRepository membershipRepository;
+    private final SaleRepository saleRepository;
+    private final BusinessStatsService businessStatsService;
+    private final SalesRollupService rollupService;
+    private final PasswordHasher passwordHasher;
+    private final ApplicationEventPublisher eventPublisher;
 
     private static final Pattern EMAIL_RX =
             Pattern.compile("^[A-Z0-9._%+-]+@[A-Z0-9.-]+\\.[A-Z]{2,}$", Pattern.CASE_INSENSITIVE);
@@ -42,21 +53,22 @@ public class UserService {
             throw new AccessDeniedException("No autorizado para modificar este usuario");
         }
         boolean emailChanged = false;
+        String email = EmailUtils.normalize(req.email());
 
-        if (req.email() != null && !req.email().isBlank()
-                && !req.email().equalsIgnoreCase(target.getEmail())) {
+        if (email != null && !email.isBlank() && !email.equals(target.getEmail())) {
 
-            if (!EMAIL_RX.matcher(req.email()).matches()) {
+            if (!EMAIL_RX.matcher(email).matches()) {
                 throw new IllegalArgumentException("Email con formato inválido");
             }
 
-            userRepository.findByEmailIgnoreCase(req.email()).ifPresent(existing -> {
+            userRepository.findByEmail(email).ifPresent(existing -> {
                 if (!existing.getId().equals(target.getId())) {
                     throw new IllegalArgumentException("Email ya registrado");
                 }
             });
 
-            target.setEmail(req.email());
+            eventPublisher.publishEvent(new UserPrincipalChangedEvent(target.getEmail()));
+            target.setEmail(email);
             emailChanged = true;
         }
 
@@ -77,12 +89,13 @@ public class UserService {
         if (req.currentPassword() == null || req.currentPassword().isBlank()) {
             throw new IllegalArgumentException("La contraseña actual es requerida");
         }
-        if (!PasswordUtils.matches(req.currentPassword(), target.getPasswordHash())) {
+        if (!passwordHasher.matches(req.currentPassword(), target.getPasswordHash())) {
             throw new IllegalArgumentException("La contraseña actual es incorrecta");
         }
         if (req.newPassword() != null && !req.newPassword().isBlank()) {
-            target.setPasswordHash(PasswordUtils.hash(req.newPassword()));
+            target.setPasswordHash(passwordHasher.hash(req.newPassword()));
             userRepository.save(target);
+            eventPublisher.publishEvent(new UserPrincipalChangedEvent(target.getEmail()));
         } else {
             throw new IllegalArgumentException("La nueva contraseña no puede estar vacía");
         }
@@ -95,7 +108,24 @@ public class UserService {
         if (!target.getEmail().equalsIgnoreCase(requesterEmail)) {
             throw new AccessDeniedException("No autorizado para borrar este usuario");
         }
+
+        // Las membresías y las ventas del usuario se borran en cascada
+        for (BusinessMembership membership : membershipRepository.findByUserId(userId)) {
+            if (membership.getStatus() == MembershipStatus.ACTIVE) {
+                businessStatsService.addActiveMembers(membership.getBusiness().getId(), -1);
+            }
+        }
+        Set<UUID> businessesWithSales = new HashSet<>();
+        for (Object[] totals : saleRepository.findTotalsByBusinessForCreator(userId)) {
+            businessStatsService.removeSales((UUID) totals[0], (Long) totals[1], (BigDecimal) totals[2]);
+            businessesWithSales.add((UUID) totals[0]);
+        }
+        rollupService.removeSalesOfCreator(userId);
         userRepository.delete(target);
+        eventPublisher.publishEvent(new UserPrincipalChangedEvent(target.getEmail()));
+        if (!businessesWithSales.isEmpty()) {
+            eventPublisher.publishEvent(new SalesRemovedEvent(businessesWithSales));
+        }
     }
 
     @Transactional(readOnly = true)
@@ -200,8 +230,11 @@ public class UserService {
         }
 
         // Actualizar el status
+        MembershipStatus previousStatus = targetMembership.getStatus();
         targetMembership.setStatus(req.status());
         membershipRepository.save(targetMembership);
+        businessStatsService.membershipStatusChanged(businessId, previousStatus, req.status());
+        eventPublisher.publishEvent(new UserPrincipalChangedEvent(targetMembership.getUser().getEmail()));
     }
 
     @Transactional
@@ -243,5 +276,6 @@ public class UserService {
         // Actualizar el role
         targetMembership.setRole(req.role());
         membershipRepository.save(targetMembership);
+        eventPublisher.publishEvent(new UserPrincipalChangedEvent(targetMembership.getUser().getEmail()));
     }
 }
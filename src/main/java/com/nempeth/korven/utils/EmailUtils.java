@@ -0,0 +1,16 @@
+package com.nempeth.korven.utils;
+
+import java.util.Locale;
+
+/**
+ * Forma canónica de los emails: sin espacios alrededor y en minúsculas. Se aplica al guardar y al
+ * buscar, así la comparación es una igualdad exacta que usa el índice único de {@code users.email}.
+ */
+public final class EmailUtils {
+
+    private EmailUtils(){}
+
+    public static String normalize(String email) {
+        return email == null ? null : email.trim().toLowerCase(Locale.ROOT);
+    }
+}
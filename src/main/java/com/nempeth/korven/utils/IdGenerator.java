@@ -0,0 +1,12 @@
+package com.nempeth.korven.utils;
+
+import java.util.UUID;
+
+/**
+ * Estrategia de generación de identificadores para las entidades.
+ */
+@FunctionalInterface
+public interface IdGenerator {
+
+    UUID next();
+}
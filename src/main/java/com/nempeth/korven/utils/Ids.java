@@ -0,0 +1,22 @@
+package com.nempeth.korven.utils;
+
+import java.util.UUID;
+
+/**
+ * Punto único de generación de ids para los {@code @PrePersist} de las entidades.
+ * La estrategia se configura al arrancar con {@code app.ids.strategy}.
+ */
+public final class Ids {
+
+    private static volatile IdGenerator generator = new UuidV7Generator();
+
+    private Ids(){}
+
+    public static UUID next() {
+        return generator.next();
+    }
+
+    public static void use(IdGenerator idGenerator) {
+        generator = idGenerator;
+    }
+}
@@ -2,11 +2,13 @@ package com.nempeth.korven.utils;
 
 import io.jsonwebtoken.*;
 import io.jsonwebtoken.security.Keys;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Component;
 
 import java.nio.charset.StandardCharsets;
 import java.security.Key;
+import java.time.Clock;
 import java.util.Date;
 import java.util.Map;
 
@@ -15,17 +17,33 @@ public class JwtUtils {
 
     private final Key key;
     private final long expirationMs;
+    private final Clock clock;
+    // El parser es inmutable y thread-safe: se arma una sola vez
+    private final JwtParser parser;
+    private final VerifiedTokenCache verifiedTokens;
 
+    @Autowired
     public JwtUtils(
             @Value("${app.jwt.secret}") String secret,
-            @Value("${app.jwt.expiration-ms}") long expirationMs
+            @Value("${app.jwt.expiration-ms}") long expirationMs,
+            @Value("${app.jwt.verified-cache-size:10000}") int verifiedCacheSize
     ) {
+        this(secret, expirationMs, verifiedCacheSize, Clock.systemUTC());
+    }
+
+    JwtUtils(String secret, long expirationMs, int verifiedCacheSize, Clock clock) {
         this.key = Keys.hmacShaKeyFor(secret.getBytes(StandardCharsets.UTF_8));
         this.expirationMs = expirationMs;
+        this.clock = clock;
+        this.parser = Jwts.parserBuilder()
+                .setSigningKey(key)
+                .setClock(() -> new Date(clock.millis()))
+                .build();
+        this.verifiedTokens = new VerifiedTokenCache(verifiedCacheSize);
     }
 
     public String generateToken(String subject, Map<String, Object> claims) {
-        long now = System.currentTimeMillis();
+        long now = clock.millis();
         return Jwts.builder()
                 .setSubject(subject)
                 .addClaims(claims)
@@ -35,7 +53,25 @@ public class JwtUtils {
                 .compact();
     }
 
+    /**
+     * Verifica la firma y la vigencia del token. Los tokens ya verificados se sirven del caché
+     * hasta su {@code exp}; desde ese instante se rechazan, igual que los que llegan por primera vez.
+     */
     public Jws<Claims> parseToken(String token) {
-        return Jwts.parserBuilder().setSigningKey(key).build().parseClaimsJws(token);
+        long now = clock.millis();
+        Jws<Claims> cached = verifiedTokens.get(token, now);
+        if (cached != null) {
+            return cached;
+        }
+        Jws<Claims> jws = parser.parseClaimsJws(token);
+        Date expiration = jws.getBody().getExpiration();
+        if (expiration != null) {
+            // jjwt todavía acepta el token en el milisegundo exacto de exp; la RFC 7519 no
+            if (now >= expiration.getTime()) {
+                throw new ExpiredJwtException(jws.getHeader(), jws.getBody(), "JWT expirado");
+            }
+            verifiedTokens.put(token, jws, expiration.getTime());
+        }
+        return jws;
     }
 }
@@ -0,0 +1,70 @@
+package com.nempeth.korven.utils;
+
+import java.math.BigDecimal;
+
+/**
+ * Importe exacto en centavos. Las columnas de importes son {@code numeric(p,2)}: la conversión
+ * desde y hacia {@link BigDecimal} se hace solo al leer o escribir la base y al armar las
+ * respuestas, y en el medio se opera con {@code long}. Las operaciones que se desbordan lanzan
+ * {@link ArithmeticException}, igual que {@link Math#addExact}.
+ */
+public record Money(long cents) implements Comparable<Money> {
+
+    public static final Money ZERO = new Money(0);
+
+    public static Money of(BigDecimal amount) {
+        return new Money(toCents(amount));
+    }
+
+    public static Money ofCents(long cents) {
+        return new Money(cents);
+    }
+
+    /** Centavos de un importe con a lo sumo dos decimales; si tiene más, lanza {@link ArithmeticException}. */
+    public static long toCents(BigDecimal amount) {
+        return amount.movePointRight(2).longValueExact();
+    }
+
+    public static BigDecimal toDecimal(long cents) {
+        return BigDecimal.valueOf(cents, 2);
+    }
+
+    public Money plus(Money other) {
+        return new Money(Math.addExact(cents, other.cents));
+    }
+
+    public Money minus(Money other) {
+        return new Money(Math.subtractExact(cents, other.cents));
+    }
+
+    public Money times(long quantity) {
+        return new Money(Math.multiplyExact(cents, quantity));
+    }
+
+    /** Verifica que el importe entre en una columna {@code numeric(precision,2)}. */
+    public Money requireNumeric(int precision) {
+        long max = 1;
+        for (int digit = 0; digit < precision; digit++) {
+            max = Math.multiplyExact(max, 10L);
+        }
+        max--;
+        if (cents > max || cents < -max) {
+            throw new ArithmeticException("El importe " + this + " no entra en numeric(" + precision + ",2)");
+        }
+        return this;
+    }
+
+    public BigDecimal toBigDecimal() {
+        return toDecimal(cents);
+    }
+
+    @Override
+    public int compareTo(Money other) {
+        return Long.compare(cents, other.cents);
+    }
+
+    @Override
+    public String toString() {
+        return toBigDecimal().toPlainString();
+    }
+}
@@ -0,0 +1,48 @@
+package com.nempeth.korven.utils;
+
+import java.util.UUID;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Genera UUIDv7 (RFC 9562): 48 bits de timestamp Unix en milisegundos, seguidos de un contador
+ * de 12 bits y 62 bits aleatorios. Los ids quedan ordenados por tiempo, por lo que las inserciones
+ * caen al final del índice de la clave primaria en lugar de dispersarse por todo el B-tree.
+ * <p>
+ * Cada hilo mantiene su propio último timestamp y contador, sin locks compartidos; dentro de un
+ * mismo hilo los valores son estrictamente crecientes aunque se generen varios por milisegundo.
+ */
+public final class UuidV7Generator implements IdGenerator {
+
+    private static final long VERSION_7 = 0x7000L;
+    private static final long VARIANT_RFC_4122 = 0x8000000000000000L;
+    private static final int MAX_COUNTER = 0xFFF;
+    /** Al cambiar de milisegundo el contador arranca en la mitad inferior, dejando margen para incrementar */
+    private static final int COUNTER_SEED_BOUND = 0x800;
+
+    private final ThreadLocal<State> state = ThreadLocal.withInitial(State::new);
+
+    @Override
+    public UUID next() {
+        State current = state.get();
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+
+        long now = System.currentTimeMillis();
+        if (now > current.lastMillis) {
+            current.lastMillis = now;
+            current.counter = random.nextInt(COUNTER_SEED_BOUND);
+        } else if (++current.counter > MAX_COUNTER) {
+            // Contador agotado (o reloj hacia atrás): se avanza el timestamp para seguir siendo monótono
+            current.lastMillis++;
+            current.counter = 0;
+        }
+
+        long mostSigBits = (current.lastMillis << 16) | VERSION_7 | current.counter;
+        long leastSigBits = (random.nextLong() >>> 2) | VARIANT_RFC_4122;
+        return new UUID(mostSigBits, leastSigBits);
+    }
+
+    private static final class State {
+        private long lastMillis;
+        private int counter;
+    }
+}
@@ -0,0 +1,77 @@
+package com.nempeth.korven.utils;
+
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.Jws;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * LRU de tokens cuya firma ya se verificó, repartido en segmentos con su propio lock para que los
+ * requests concurrentes no compitan por uno solo. El segmento se elige con el hash del token
+ * (que {@link String} calcula una vez) y la búsqueda compara el token completo, así que una
+ * colisión nunca devuelve los claims de otro token. Una entrada deja de valer en cuanto llega su
+ * {@code exp}.
+ */
+final class VerifiedTokenCache {
+
+    private static final int STRIPES = 16;
+
+    private final Stripe[] stripes;
+
+    VerifiedTokenCache(int maxEntries) {
+        int perStripe = Math.max(0, maxEntries / STRIPES);
+        this.stripes = new Stripe[STRIPES];
+        for (int i = 0; i < STRIPES; i++) {
+            stripes[i] = new Stripe(perStripe);
+        }
+    }
+
+    /** Devuelve el token verificado si sigue en el caché y no venció a {@code nowMillis}. */
+    Jws<Claims> get(String token, long nowMillis) {
+        Stripe stripe = stripe(token);
+        synchronized (stripe) {
+            Entry entry = stripe.get(token);
+            if (entry == null) {
+                return null;
+            }
+            if (nowMillis >= entry.expiresAtMillis()) {
+                stripe.remove(token);
+                return null;
+            }
+            return entry.jws();
+        }
+    }
+
+    void put(String token, Jws<Claims> jws, long expiresAtMillis) {
+        Stripe stripe = stripe(token);
+        if (stripe.capacity == 0) {
+            return;
+        }
+        synchronized (stripe) {
+            stripe.put(token, new Entry(jws, expiresAtMillis));
+        }
+    }
+
+    private Stripe stripe(String token) {
+        int h = token.hashCode();
+        return stripes[(h ^ (h >>> 16)) & (STRIPES - 1)];
+    }
+
+    private record Entry(Jws<Claims> jws, long expiresAtMillis) {}
+
+    private static final class Stripe extends LinkedHashMap<String, Entry> {
+
+        private final int capacity;
+
+        Stripe(int capacity) {
+            super(16, 0.75f, true);
+            this.capacity = capacity;
+        }
+
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<String, Entry> eldest) {
+            return size() > capacity;
+        }
+    }
+}
@@ -0,0 +1,69 @@
+package com.nempeth.korven.security;
+
+import com.nempeth.korven.exception.TooManyRequestsException;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class PasswordHasherTest {
+
+    private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+    private final PasswordHasher hasher = new PasswordHasher(4, 1, 1, Duration.ofSeconds(5), Duration.ofSeconds(2), registry);
+
+    @AfterEach
+    void tearDown() {
+        hasher.shutdown();
+    }
+
+    @Test
+    void hashesAndVerifiesOnThePool() {
+        String hash = hasher.hash("secreto");
+
+        assertThat(hasher.matches("secreto", hash)).isTrue();
+        assertThat(hasher.matches("otro", hash)).isFalse();
+        assertThat(registry.get("auth.password.duration").tag("operation", "hash").timer().count()).isEqualTo(1);
+        assertThat(registry.get("auth.password.duration").tag("operation", "verify").timer().count()).isEqualTo(2);
+    }
+
+    @Test
+    void detectsHashesWithAnotherCost() {
+        assertThat(hasher.needsRehash(hasher.hash("secreto"))).isFalse();
+        assertThat(hasher.needsRehash(new BCryptPasswordEncoder(5).encode("secreto"))).isTrue();
+        assertThat(hasher.needsRehash("no-es-bcrypt")).isTrue();
+    }
+
+    @Test
+    void rejectsImmediatelyWhenTheQueueIsFull() throws Exception {
+        CountDownLatch running = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        CompletableFuture<Object> busy = CompletableFuture.supplyAsync(() -> hasher.run(() -> {
+            running.countDown();
+            return release.await(10, TimeUnit.SECONDS);
+        }));
+        assertThat(running.await(5, TimeUnit.SECONDS)).isTrue();
+        CompletableFuture<Object> queued = CompletableFuture.supplyAsync(() -> hasher.run(() -> true));
+        while (registry.get("auth.password.queue").gauge().value() < 1) {
+            Thread.onSpinWait();
+        }
+
+        long start = System.nanoTime();
+        assertThatThrownBy(() -> hasher.hash("secreto"))
+                .isInstanceOf(TooManyRequestsException.class)
+                .extracting("retryAfterSeconds").isEqualTo(2L);
+        assertThat(Duration.ofNanos(System.nanoTime() - start)).isLessThan(Duration.ofMillis(500));
+        assertThat(registry.get("auth.password.rejected").counter().count()).isEqualTo(1);
+
+        release.countDown();
+        assertThat(busy.get(5, TimeUnit.SECONDS)).isEqualTo(true);
+        assertThat(queued.get(5, TimeUnit.SECONDS)).isEqualTo(true);
+    }
+}
@@ -0,0 +1,50 @@
+package com.nempeth.korven.security;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class TokenBucketLimiterTest {
+
+    private static final long SECOND = TimeUnit.SECONDS.toNanos(1);
+
+    @Test
+    void allowsABurstUpToCapacityAndRefillsLazily() {
+        TokenBucketLimiter limiter = new TokenBucketLimiter(3, 10 * SECOND, 100);
+
+        assertThat(limiter.tryAcquire("a", 0)).isZero();
+        assertThat(limiter.tryAcquire("a", 0)).isZero();
+        assertThat(limiter.tryAcquire("a", 0)).isZero();
+        assertThat(limiter.tryAcquire("a", 4 * SECOND)).isEqualTo(6 * SECOND);
+
+        assertThat(limiter.tryAcquire("a", 10 * SECOND)).isZero();
+        assertThat(limiter.tryAcquire("a", 10 * SECOND)).isEqualTo(10 * SECOND);
+        // Tras mucho tiempo el bucket vuelve a la capacidad, no más
+        assertThat(limiter.tryAcquire("a", 1000 * SECOND)).isZero();
+        assertThat(limiter.tryAcquire("a", 1000 * SECOND)).isZero();
+        assertThat(limiter.tryAcquire("a", 1000 * SECOND)).isZero();
+        assertThat(limiter.tryAcquire("a", 1000 * SECOND)).isPositive();
+    }
+
+    @Test
+    void keysAreIndependent() {
+        TokenBucketLimiter limiter = new TokenBucketLimiter(1, SECOND, 100);
+
+        assertThat(limiter.tryAcquire("a", 0)).isZero();
+        assertThat(limiter.tryAcquire("a", 0)).isPositive();
+        assertThat(limiter.tryAcquire("b", 0)).isZero();
+    }
+
+    @Test
+    void boundsTheNumberOfKeys() {
+        TokenBucketLimiter limiter = new TokenBucketLimiter(1, SECOND, 32);
+
+        for (int i = 0; i < 10_000; i++) {
+            limiter.tryAcquire("ip-" + i, 0);
+        }
+
+        assertThat(limiter.size()).isLessThanOrEqualTo(32);
+    }
+}
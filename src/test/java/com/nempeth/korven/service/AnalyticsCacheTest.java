@@ -0,0 +1,148 @@
+package com.nempeth.korven.service;
+
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import com.nempeth.korven.config.TestMailConfiguration;
+import com.nempeth.korven.constants.CategoryType;
+import com.nempeth.korven.constants.MembershipRole;
+import com.nempeth.korven.constants.MembershipStatus;
+import com.nempeth.korven.persistence.entity.*;
+import com.nempeth.korven.persistence.repository.*;
+import com.nempeth.korven.rest.dto.CreateSaleItemRequest;
+import com.nempeth.korven.rest.dto.CreateSaleRequest;
+import com.nempeth.korven.rest.dto.MonthlyCategoryRevenueResponse;
+import com.nempeth.korven.rest.dto.MonthlyRevenueResponse;
+import com.nempeth.korven.rest.dto.UpdateCategoryRequest;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.caffeine.CaffeineCache;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Integration tests for {@link AnalyticsCache}: repeated reads are served from the cache and
+ * a committed sale invalidates the business' current year, while a category rename does not.
+ */
+@SpringBootTest
+@ActiveProfiles("test")
+@Import(TestMailConfiguration.class)
+class AnalyticsCacheTest {
+
+    @Autowired private AnalyticsService analyticsService;
+    @Autowired private SaleService saleService;
+    @Autowired private CategoryService categoryService;
+    @Autowired private SalesRollupService rollupService;
+    @Autowired private CacheManager cacheManager;
+    @Autowired private UserRepository userRepository;
+    @Autowired private BusinessRepository businessRepository;
+    @Autowired private BusinessMembershipRepository membershipRepository;
+    @Autowired private CategoryRepository categoryRepository;
+    @Autowired private ProductRepository productRepository;
+
+    private String userEmail;
+    private UUID businessId;
+    private UUID productId;
+    private UUID categoryId;
+
+    @BeforeEach
+    void setUp() {
+        String suffix = UUID.randomUUID().toString().substring(0, 8);
+        User user = userRepository.save(User.builder()
+                .email("owner-" + suffix + "@korven.test")
+                .passwordHash("hash")
+                .build());
+        Business business = businessRepository.save(Business.builder()
+                .name("Bar " + suffix)
+                .joinCode(suffix.toUpperCase())
+                .build());
+        membershipRepository.save(BusinessMembership.builder()
+                .business(business)
+                .user(user)
+                .role(MembershipRole.OWNER)
+                .status(MembershipStatus.ACTIVE)
+                .build());
+        Category category = categoryRepository.save(Category.builder()
+                .business(business)
+                .name("Tragos")
+                .type(CategoryType.CUSTOM)
+                .build());
+        productId = productRepository.save(Product.builder()
+                .business(business)
+                .category(category)
+                .name("Fernet")
+                .price(new BigDecimal("10.00"))
+                .cost(new BigDecimal("4.00"))
+                .build()).getId();
+
+        categoryId = category.getId();
+        userEmail = user.getEmail();
+        businessId = business.getId();
+    }
+
+    @Test
+    void currentYearIsCachedUntilASaleCommits() {
+        int year = LocalDate.now(rollupService.getZone()).getYear();
+        saleService.createSale(userEmail, businessId, sale(1));
+
+        CacheStats before = stats(AnalyticsCache.CURRENT_YEAR);
+        assertThat(revenue(year)).isEqualByComparingTo("10.00");
+        assertThat(revenue(year)).isEqualByComparingTo("10.00");
+        CacheStats afterReads = stats(AnalyticsCache.CURRENT_YEAR).minus(before);
+        assertThat(afterReads.missCount()).isEqualTo(1);
+        assertThat(afterReads.hitCount()).isEqualTo(1);
+
+        saleService.createSale(userEmail, businessId, sale(2));
+
+        assertThat(revenue(year)).isEqualByComparingTo("30.00");
+    }
+
+    @Test
+    void renamingACategoryKeepsTheCachedBreakdown() {
+        int year = LocalDate.now(rollupService.getZone()).getYear();
+        saleService.createSale(userEmail, businessId, sale(1));
+        analyticsService.getMonthlyRevenueByCategory(userEmail, businessId, year);
+
+        CacheStats before = stats(AnalyticsCache.CURRENT_YEAR);
+        categoryService.updateCustomCategory(userEmail, businessId, categoryId,
+                new UpdateCategoryRequest("Cócteles", null, null));
+
+        // Las ventas conservan el nombre de categoría con que se registraron: el desglose no cambia
+        assertThat(analyticsService.getMonthlyRevenueByCategory(userEmail, businessId, year))
+                .extracting(MonthlyCategoryRevenueResponse::categoryName)
+                .containsOnly("Tragos");
+        assertThat(stats(AnalyticsCache.CURRENT_YEAR).minus(before).missCount()).isZero();
+    }
+
+    @Test
+    void closedYearsUseTheirOwnCache() {
+        int lastYear = LocalDate.now(rollupService.getZone()).getYear() - 1;
+
+        CacheStats before = stats(AnalyticsCache.CLOSED_YEARS);
+        assertThat(analyticsService.getMonthlyTotalProfit(userEmail, businessId, lastYear)).isEmpty();
+        assertThat(analyticsService.getMonthlyTotalProfit(userEmail, businessId, lastYear)).isEmpty();
+
+        assertThat(stats(AnalyticsCache.CLOSED_YEARS).minus(before).hitCount()).isEqualTo(1);
+    }
+
+    private BigDecimal revenue(int year) {
+        List<MonthlyRevenueResponse> months = analyticsService.getMonthlyTotalRevenue(userEmail, businessId, year);
+        return months.stream().map(MonthlyRevenueResponse::revenue).reduce(BigDecimal.ZERO, BigDecimal::add);
+    }
+
+    private CacheStats stats(String cacheName) {
+        return ((CaffeineCache) cacheManager.getCache(cacheName)).getNativeCache().stats();
+    }
+
+    private CreateSaleRequest sale(int quantity) {
+        return new CreateSaleRequest(List.of(new CreateSaleItemRequest(productId, quantity)));
+    }
+}
@@ -0,0 +1,144 @@
+package com.nempeth.korven.service;
+
+import com.nempeth.korven.config.TestMailConfiguration;
+import com.nempeth.korven.constants.MembershipRole;
+import com.nempeth.korven.constants.MembershipStatus;
+import com.nempeth.korven.constants.TimeGranularity;
+import com.nempeth.korven.persistence.entity.*;
+import com.nempeth.korven.persistence.repository.*;
+import com.nempeth.korven.rest.dto.HeatmapDayResponse;
+import com.nempeth.korven.rest.dto.SalesHeatmapResponse;
+import com.nempeth.korven.rest.dto.TimeSeriesPointResponse;
+import com.nempeth.korven.rest.dto.TimeSeriesResponse;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.math.BigDecimal;
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.OffsetDateTime;
+import java.time.ZoneId;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Integration tests for {@link AnalyticsService#getTimeSeries} and {@link AnalyticsService#getSalesHeatmap}:
+ * buckets follow the requested zone, including daylight saving transitions.
+ */
+@SpringBootTest
+@ActiveProfiles("test")
+@Import(TestMailConfiguration.class)
+class AnalyticsTimeSeriesTest {
+
+    private static final ZoneId BUENOS_AIRES = ZoneId.of("America/Argentina/Buenos_Aires");
+
+    @Autowired private AnalyticsService analyticsService;
+    @Autowired private UserRepository userRepository;
+    @Autowired private BusinessRepository businessRepository;
+    @Autowired private BusinessMembershipRepository membershipRepository;
+    @Autowired private SaleRepository saleRepository;
+
+    private String userEmail;
+    private Business business;
+
+    @BeforeEach
+    void setUp() {
+        String suffix = UUID.randomUUID().toString().substring(0, 8);
+        User user = userRepository.save(User.builder()
+                .email("owner-" + suffix + "@korven.test")
+                .passwordHash("hash")
+                .build());
+        business = businessRepository.save(Business.builder()
+                .name("Bar " + suffix)
+                .joinCode(suffix.toUpperCase())
+                .build());
+        membershipRepository.save(BusinessMembership.builder()
+                .business(business)
+                .user(user)
+                .role(MembershipRole.OWNER)
+                .status(MembershipStatus.ACTIVE)
+                .build());
+        userEmail = user.getEmail();
+    }
+
+    @Test
+    void dailyBucketsUseTheRequestedZone() {
+        // 02:00 UTC del 10 es el 9 a las 23:00 en Buenos Aires
+        sale("2025-03-10T02:00:00Z", "10.00");
+        sale("2025-03-10T04:00:00Z", "5.00");
+        sale("2025-03-11T12:00:00Z", "7.50");
+        sale("2025-03-12T03:00:00Z", "100.00");
+
+        TimeSeriesResponse series = analyticsService.getTimeSeries(userEmail, business.getId(),
+                TimeGranularity.DAY, BUENOS_AIRES, LocalDate.of(2025, 3, 9), LocalDate.of(2025, 3, 11));
+
+        assertThat(series.points()).extracting(point -> point.start().toLocalDate())
+                .containsExactly(LocalDate.of(2025, 3, 9), LocalDate.of(2025, 3, 10), LocalDate.of(2025, 3, 11));
+        assertThat(series.points()).extracting(TimeSeriesPointResponse::saleCount)
+                .containsExactly(1L, 1L, 1L);
+        assertThat(series.points()).extracting(TimeSeriesPointResponse::revenue)
+                .usingElementComparator(BigDecimal::compareTo)
+                .containsExactly(new BigDecimal("10.00"), new BigDecimal("5.00"), new BigDecimal("7.50"));
+    }
+
+    @Test
+    void hourlyBucketsFollowDaylightSavingChanges() {
+        ZoneId madrid = ZoneId.of("Europe/Madrid");
+        sale("2025-03-30T00:30:00Z", "1.00");
+        sale("2025-03-30T01:30:00Z", "2.00");
+
+        TimeSeriesResponse series = analyticsService.getTimeSeries(userEmail, business.getId(),
+                TimeGranularity.HOUR, madrid, LocalDate.of(2025, 3, 30), LocalDate.of(2025, 3, 30));
+
+        // El 30 de marzo tiene 23 horas en Madrid: de 02:00 se pasa a 03:00
+        assertThat(series.points()).hasSize(23);
+        assertThat(series.points().get(1).start()).isEqualTo(OffsetDateTime.parse("2025-03-30T01:00:00+01:00"));
+        assertThat(series.points().get(2).start()).isEqualTo(OffsetDateTime.parse("2025-03-30T03:00:00+02:00"));
+        assertThat(series.points().get(1).revenue()).isEqualByComparingTo("1.00");
+        assertThat(series.points().get(2).revenue()).isEqualByComparingTo("2.00");
+    }
+
+    @Test
+    void heatmapGroupsSalesByLocalWeekdayAndHour() {
+        // Domingo 9 a las 23:00 y martes 11 y 18 a las 9 en Buenos Aires
+        sale("2025-03-10T02:00:00Z", "10.00");
+        sale("2025-03-11T12:00:00Z", "7.50");
+        sale("2025-03-18T12:30:00Z", "2.50");
+        sale("2025-04-01T12:00:00Z", "99.00");
+
+        SalesHeatmapResponse heatmap = analyticsService.getSalesHeatmap(userEmail, business.getId(),
+                BUENOS_AIRES, LocalDate.of(2025, 3, 1), LocalDate.of(2025, 3, 31));
+
+        assertThat(heatmap.days()).extracting(HeatmapDayResponse::dayOfWeek)
+                .startsWith(DayOfWeek.MONDAY).endsWith(DayOfWeek.SUNDAY);
+        HeatmapDayResponse tuesday = heatmap.days().get(1);
+        assertThat(tuesday.saleCountByHour().get(9)).isEqualTo(2L);
+        assertThat(tuesday.revenueByHour().get(9)).isEqualByComparingTo("10.00");
+        HeatmapDayResponse sunday = heatmap.days().get(6);
+        assertThat(sunday.saleCountByHour().get(23)).isEqualTo(1L);
+        assertThat(heatmap.days()).flatExtracting(HeatmapDayResponse::saleCountByHour)
+                .hasSize(168)
+                .containsOnly(0L, 1L, 2L);
+    }
+
+    @Test
+    void rejectsRangesWithTooManyBuckets() {
+        assertThatThrownBy(() -> analyticsService.getTimeSeries(userEmail, business.getId(),
+                TimeGranularity.HOUR, BUENOS_AIRES, LocalDate.of(2020, 1, 1), LocalDate.of(2025, 1, 1)))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    private void sale(String occurredAt, String amount) {
+        saleRepository.save(Sale.builder()
+                .business(business)
+                .occurredAt(OffsetDateTime.parse(occurredAt))
+                .totalAmount(new BigDecimal(amount))
+                .build());
+    }
+}
@@ -0,0 +1,80 @@
+package com.nempeth.korven.service;
+
+import com.nempeth.korven.config.TestMailConfiguration;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.ResultActions;
+
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Integration tests for the auth rate limit: per-IP and per-email buckets in the security filter
+ * chain, both answering 429 with Retry-After.
+ */
+@SpringBootTest(properties = {
+        "app.security.rate-limit.ip.capacity=4",
+        "app.security.rate-limit.ip.refill-period=1h",
+        "app.security.rate-limit.email.capacity=2",
+        "app.security.rate-limit.email.refill-period=1h"
+})
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+@Import(TestMailConfiguration.class)
+class AuthRateLimitTest {
+
+    @Autowired private MockMvc mockMvc;
+    @Autowired private MeterRegistry meterRegistry;
+
+    @Test
+    void limitsLoginAttemptsPerIp() throws Exception {
+        String ip = "10.1.0." + (int) (Math.random() * 250);
+        for (int i = 0; i < 4; i++) {
+            login(ip, "someone-" + i + "@korven.test").andExpect(status().isUnauthorized());
+        }
+
+        login(ip, "someone-else@korven.test")
+                .andExpect(status().isTooManyRequests())
+                .andExpect(header().string(HttpHeaders.RETRY_AFTER, "3600"))
+                .andExpect(jsonPath("$.error").exists());
+        login("10.2.0.1", "someone-else@korven.test").andExpect(status().isUnauthorized());
+        assertThat(meterRegistry.get("auth.ratelimit.requests").tag("limiter", "ip").tag("outcome", "rejected")
+                .counter().count()).isPositive();
+    }
+
+    @Test
+    void limitsAttemptsPerEmailAcrossIps() throws Exception {
+        String email = "target-" + UUID.randomUUID().toString().substring(0, 8) + "@korven.test";
+        login("10.3.0.1", email).andExpect(status().isUnauthorized());
+        login("10.3.0.2", email.toUpperCase()).andExpect(status().isUnauthorized());
+
+        login("10.3.0.3", email)
+                .andExpect(status().isTooManyRequests())
+                .andExpect(header().exists(HttpHeaders.RETRY_AFTER));
+        mockMvc.perform(post("/auth/password/forgot")
+                        .with(request -> { request.setRemoteAddr("10.3.0.4"); return request; })
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"email\": \"" + email + "\"}"))
+                .andExpect(status().isTooManyRequests());
+    }
+
+    private ResultActions login(String ip, String email) throws Exception {
+        return mockMvc.perform(post("/auth/login")
+                .with(request -> { request.setRemoteAddr(ip); return request; })
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("{\"email\": \"" + email + "\", \"password\": \"secreto\"}"));
+    }
+}
@@ -0,0 +1,66 @@
+package com.nempeth.korven.service;
+
+import com.nempeth.korven.config.TestMailConfiguration;
+import com.nempeth.korven.exception.AuthenticationException;
+import com.nempeth.korven.persistence.entity.User;
+import com.nempeth.korven.persistence.repository.UserRepository;
+import com.nempeth.korven.rest.dto.LoginRequest;
+import com.nempeth.korven.security.PasswordHasher;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Integration tests for login: verification on the BCrypt pool and the transparent rehash of
+ * passwords stored with a cost other than the configured one.
+ */
+@SpringBootTest(properties = "app.security.bcrypt.strength=5")
+@ActiveProfiles("test")
+@Import(TestMailConfiguration.class)
+class AuthServiceTest {
+
+    @Autowired private AuthService authService;
+    @Autowired private UserRepository userRepository;
+    @Autowired private PasswordHasher passwordHasher;
+
+    @Test
+    void rehashesOutdatedPasswordsOnLogin() {
+        String oldHash = new BCryptPasswordEncoder(4).encode("secreto");
+        User user = user(oldHash);
+
+        assertThat(authService.loginAndIssueToken(new LoginRequest(user.getEmail(), "secreto"))).isNotBlank();
+
+        String newHash = userRepository.findById(user.getId()).orElseThrow().getPasswordHash();
+        assertThat(newHash).isNotEqualTo(oldHash).startsWith("$2a$05$");
+        assertThat(passwordHasher.needsRehash(newHash)).isFalse();
+        assertThat(authService.loginAndIssueToken(new LoginRequest(user.getEmail(), "secreto"))).isNotBlank();
+    }
+
+    @Test
+    void keepsCurrentHashesAndRejectsWrongPasswords() {
+        String hash = passwordHasher.hash("secreto");
+        User user = user(hash);
+
+        assertThatThrownBy(() -> authService.loginAndIssueToken(new LoginRequest(user.getEmail(), "otro")))
+                .isInstanceOf(AuthenticationException.class);
+        authService.loginAndIssueToken(new LoginRequest(user.getEmail(), "secreto"));
+
+        assertThat(userRepository.findById(user.getId()).orElseThrow().getPasswordHash()).isEqualTo(hash);
+    }
+
+    private User user(String passwordHash) {
+        return userRepository.save(User.builder()
+                .email("login-" + UUID.randomUUID().toString().substring(0, 8) + "@korven.test")
+                .name("Login")
+                .passwordHash(passwordHash)
+                .build());
+    }
+}
@@ -0,0 +1,192 @@
+package com.nempeth.korven.service;
+
+import com.nempeth.korven.config.TestMailConfiguration;
+import com.nempeth.korven.constants.CategoryType;
+import com.nempeth.korven.constants.MembershipRole;
+import com.nempeth.korven.constants.MembershipStatus;
+import com.nempeth.korven.persistence.entity.*;
+import com.nempeth.korven.persistence.repository.*;
+import com.nempeth.korven.rest.dto.CreateSaleItemRequest;
+import com.nempeth.korven.rest.dto.CreateSaleRequest;
+import com.nempeth.korven.rest.dto.ProductAssociationResponse;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.math.BigDecimal;
+import java.util.Arrays;
+import java.util.List;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Integration tests for {@link BasketAnalysisService}: incremental pair counts, their persistence
+ * and the rebuild from sales.
+ */
+@SpringBootTest
+@ActiveProfiles("test")
+@Import(TestMailConfiguration.class)
+class BasketAnalysisServiceTest {
+
+    @Autowired private BasketAnalysisService basketAnalysisService;
+    @Autowired private SaleService saleService;
+    @Autowired private UserService userService;
+    @Autowired private JdbcTemplate jdbcTemplate;
+    @Autowired private UserRepository userRepository;
+    @Autowired private BusinessRepository businessRepository;
+    @Autowired private BusinessMembershipRepository membershipRepository;
+    @Autowired private CategoryRepository categoryRepository;
+    @Autowired private ProductRepository productRepository;
+
+    private String userEmail;
+    private UUID businessId;
+    private UUID fernetId;
+    private UUID iceId;
+    private UUID peanutsId;
+
+    @BeforeEach
+    void setUp() {
+        String suffix = UUID.randomUUID().toString().substring(0, 8);
+        User user = userRepository.save(User.builder()
+                .email("owner-" + suffix + "@korven.test")
+                .passwordHash("hash")
+                .build());
+        Business business = businessRepository.save(Business.builder()
+                .name("Bar " + suffix)
+                .joinCode(suffix.toUpperCase())
+                .build());
+        membershipRepository.save(BusinessMembership.builder()
+                .business(business)
+                .user(user)
+                .role(MembershipRole.OWNER)
+                .status(MembershipStatus.ACTIVE)
+                .build());
+        Category category = categoryRepository.save(Category.builder()
+                .business(business)
+                .name("Barra")
+                .type(CategoryType.CUSTOM)
+                .build());
+        fernetId = product(business, category, "Fernet");
+        iceId = product(business, category, "Hielo");
+        peanutsId = product(business, category, "Maní");
+
+        userEmail = user.getEmail();
+        businessId = business.getId();
+
+        for (int i = 0; i < 3; i++) {
+            sell(fernetId, iceId);
+        }
+        sell(fernetId, peanutsId);
+        sell(iceId);
+    }
+
+    @Test
+    void servesAssociationsFromIncrementalCounts() {
+        List<ProductAssociationResponse> associations =
+                basketAnalysisService.getAssociations(userEmail, businessId, fernetId, 5);
+
+        // El maní aparece en una sola venta con fernet, por debajo del mínimo de 2
+        assertThat(associations).singleElement().satisfies(association -> {
+            assertThat(association.productName()).isEqualTo("Hielo");
+            assertThat(association.pairCount()).isEqualTo(3);
+            assertThat(association.support()).isEqualByComparingTo("0.6");
+            assertThat(association.confidence()).isEqualByComparingTo("0.75");
+            assertThat(association.lift()).isEqualByComparingTo("0.9375");
+        });
+    }
+
+    @Test
+    void deletedPartnersKeepTheNameTheyWereSoldWith() {
+        productRepository.deleteById(iceId);
+
+        assertThat(basketAnalysisService.getAssociations(userEmail, businessId, fernetId, 5))
+                .singleElement()
+                .satisfies(association -> {
+                    assertThat(association.productId()).isEqualTo(iceId);
+                    assertThat(association.productName()).isEqualTo("Hielo");
+                });
+    }
+
+    @Test
+    void flushPersistsAndRebuildReplacesCountsWithoutDoubleCounting() {
+        basketAnalysisService.flushAll();
+        assertThat(storedCount(fernetId, iceId)).isEqualTo(3);
+        assertThat(storedCount(new UUID(0, 0), new UUID(0, 0))).isEqualTo(5);
+
+        jdbcTemplate.update("UPDATE product_cooccurrence SET sale_count = 99 WHERE business_id = ?", businessId);
+        // Total, tres productos y dos pares
+        assertThat(basketAnalysisService.rebuildBusiness(businessId)).isEqualTo(6);
+        assertThat(storedCount(fernetId, iceId)).isEqualTo(3);
+
+        sell(fernetId, iceId);
+        basketAnalysisService.flushAll();
+        assertThat(storedCount(fernetId, iceId)).isEqualTo(4);
+        assertThat(storedCount(fernetId, fernetId)).isEqualTo(5);
+        assertThat(basketAnalysisService.getAssociations(userEmail, businessId, iceId, 5))
+                .singleElement()
+                .satisfies(association -> assertThat(association.pairCount()).isEqualTo(4));
+    }
+
+    @Test
+    void deletingAUserRemovesTheirSalesFromTheCounts() {
+        User waiter = userRepository.save(User.builder()
+                .email("waiter-" + UUID.randomUUID().toString().substring(0, 8) + "@korven.test")
+                .passwordHash("hash")
+                .build());
+        membershipRepository.save(BusinessMembership.builder()
+                .business(businessRepository.getReferenceById(businessId))
+                .user(waiter)
+                .role(MembershipRole.EMPLOYEE)
+                .status(MembershipStatus.ACTIVE)
+                .build());
+        for (int i = 0; i < 2; i++) {
+            saleService.createSale(waiter.getEmail(), businessId, new CreateSaleRequest(List.of(
+                    new CreateSaleItemRequest(fernetId, 1),
+                    new CreateSaleItemRequest(peanutsId, 1))));
+        }
+        basketAnalysisService.flushAll();
+        assertThat(storedCount(fernetId, peanutsId)).isEqualTo(3);
+        assertThat(basketAnalysisService.getAssociations(userEmail, businessId, fernetId, 5)).hasSize(2);
+
+        userService.deleteUser(waiter.getId(), waiter.getEmail());
+
+        assertThat(storedCount(fernetId, peanutsId)).isEqualTo(1);
+        assertThat(storedCount(new UUID(0, 0), new UUID(0, 0))).isEqualTo(5);
+        assertThat(basketAnalysisService.getAssociations(userEmail, businessId, fernetId, 5))
+                .singleElement()
+                .satisfies(association -> {
+                    assertThat(association.productId()).isEqualTo(iceId);
+                    assertThat(association.support()).isEqualByComparingTo("0.6");
+                });
+    }
+
+    private long storedCount(UUID first, UUID second) {
+        UUID a = first.compareTo(second) <= 0 ? first : second;
+        UUID b = first.compareTo(second) <= 0 ? second : first;
+        return jdbcTemplate.queryForObject("""
+                SELECT sale_count FROM product_cooccurrence
+                WHERE business_id = ? AND product_a = ? AND product_b = ?
+                """, Long.class, businessId, a, b);
+    }
+
+    private void sell(UUID... productIds) {
+        saleService.createSale(userEmail, businessId, new CreateSaleRequest(Arrays.stream(productIds)
+                .map(productId -> new CreateSaleItemRequest(productId, 1))
+                .toList()));
+    }
+
+    private UUID product(Business business, Category category, String name) {
+        return productRepository.save(Product.builder()
+                .business(business)
+                .category(category)
+                .name(name)
+                .price(new BigDecimal("5.00"))
+                .cost(new BigDecimal("1.00"))
+                .build()).getId();
+    }
+}
@@ -0,0 +1,155 @@
+package com.nempeth.korven.service;
+
+import com.nempeth.korven.config.TestMailConfiguration;
+import com.nempeth.korven.constants.MembershipStatus;
+import com.nempeth.korven.persistence.entity.User;
+import com.nempeth.korven.persistence.repository.UserRepository;
+import com.nempeth.korven.rest.dto.BusinessResponse;
+import com.nempeth.korven.rest.dto.CreateBusinessRequest;
+import com.nempeth.korven.rest.dto.JoinBusinessRequest;
+import com.nempeth.korven.rest.dto.UpdateMembershipStatusRequest;
+import com.nempeth.korven.security.BusinessAccess;
+import com.nempeth.korven.security.BusinessAccessResolver;
+import com.nempeth.korven.utils.JwtUtils;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.http.HttpHeaders;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+
+import java.util.Map;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Integration tests for {@link BusinessAccessResolver}: cached and memoized lookups, invalidation
+ * after membership changes and the {@code @BusinessMember} controller argument.
+ */
+@SpringBootTest
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+@Import(TestMailConfiguration.class)
+class BusinessAccessResolverTest {
+
+    @Autowired private BusinessAccessResolver accessResolver;
+    @Autowired private BusinessService businessService;
+    @Autowired private UserService userService;
+    @Autowired private UserRepository userRepository;
+    @Autowired private JwtUtils jwtUtils;
+    @Autowired private MockMvc mockMvc;
+    @Autowired private EntityManagerFactory entityManagerFactory;
+
+    private Statistics statistics;
+    private String suffix;
+    private User owner;
+    private User waiter;
+    private BusinessResponse business;
+
+    @BeforeEach
+    void setUp() {
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        suffix = UUID.randomUUID().toString().substring(0, 8);
+        owner = user("owner");
+        waiter = user("waiter");
+        business = businessService.createBusiness(owner.getEmail(), new CreateBusinessRequest("Bar " + suffix));
+        businessService.joinBusiness(waiter.getEmail(), new JoinBusinessRequest(business.joinCode()));
+    }
+
+    @AfterEach
+    void tearDown() {
+        RequestContextHolder.resetRequestAttributes();
+    }
+
+    @Test
+    void resolvesFromTheCacheWithoutQueries() {
+        accessResolver.resolve(waiter.getEmail(), business.id());
+        statistics.clear();
+
+        BusinessAccess access = accessResolver.resolve(waiter.getEmail().toUpperCase(), business.id());
+
+        assertThat(statistics.getPrepareStatementCount()).isZero();
+        assertThat(access.userId()).isEqualTo(waiter.getId());
+        assertThat(access.isOwner()).isFalse();
+    }
+
+    @Test
+    void memoizesWithinARequest() {
+        RequestContextHolder.setRequestAttributes(new ServletRequestAttributes(new MockHttpServletRequest()));
+
+        BusinessAccess first = accessResolver.resolve(owner.getEmail(), business.id());
+        BusinessAccess second = accessResolver.resolve(owner.getEmail(), business.id());
+
+        assertThat(second).isSameAs(first);
+        assertThat(second.isOwner()).isTrue();
+    }
+
+    @Test
+    void membershipChangesInvalidateTheCache() {
+        accessResolver.resolve(waiter.getEmail(), business.id());
+
+        userService.updateMembershipStatus(business.id(), waiter.getId(), owner.getEmail(),
+                new UpdateMembershipStatusRequest(MembershipStatus.INACTIVE));
+
+        assertThatThrownBy(() -> accessResolver.resolve(waiter.getEmail(), business.id()))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessage("Tu membresía en este negocio no está activa");
+    }
+
+    @Test
+    void joiningABusinessInvalidatesTheCache() {
+        BusinessResponse other = businessService.createBusiness(owner.getEmail(), new CreateBusinessRequest("Café " + suffix));
+        assertThatThrownBy(() -> accessResolver.resolve(waiter.getEmail(), other.id()))
+                .hasMessage("No tienes acceso a este negocio");
+
+        businessService.joinBusiness(waiter.getEmail(), new JoinBusinessRequest(other.joinCode()));
+
+        assertThat(accessResolver.resolve(waiter.getEmail(), other.id()).businessId()).isEqualTo(other.id());
+    }
+
+    @Test
+    void rejectsUnknownUsers() {
+        assertThatThrownBy(() -> accessResolver.resolve("nadie-" + suffix + "@korven.test", business.id()))
+                .hasMessage("Usuario no encontrado");
+    }
+
+    @Test
+    void resolvesTheBusinessMemberArgument() throws Exception {
+        User stranger = user("stranger");
+
+        mockMvc.perform(get("/businesses/{businessId}/products", business.id())
+                        .header(HttpHeaders.AUTHORIZATION, "Bearer " + token(waiter)))
+                .andExpect(status().isOk());
+        mockMvc.perform(get("/businesses/{businessId}/products", business.id())
+                        .header(HttpHeaders.AUTHORIZATION, "Bearer " + token(stranger)))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.error").value("No tienes acceso a este negocio"));
+    }
+
+    private String token(User user) {
+        return jwtUtils.generateToken(user.getEmail(), Map.of());
+    }
+
+    private User user(String prefix) {
+        return userRepository.save(User.builder()
+                .email(prefix + "-" + suffix + "@korven.test")
+                .name(prefix)
+                .passwordHash("hash")
+                .build());
+    }
+}
@@ -0,0 +1,133 @@
+package com.nempeth.korven.service;
+
+import com.nempeth.korven.config.TestMailConfiguration;
+import com.nempeth.korven.constants.BusinessDetailSection;
+import com.nempeth.korven.persistence.entity.User;
+import com.nempeth.korven.persistence.repository.UserRepository;
+import com.nempeth.korven.rest.dto.BusinessDetailResponse;
+import com.nempeth.korven.rest.dto.BusinessResponse;
+import com.nempeth.korven.rest.dto.CreateBusinessRequest;
+import com.nempeth.korven.rest.dto.CreateCategoryRequest;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.bean.override.mockito.MockitoSpyBean;
+
+import java.util.Set;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.reset;
+
+/**
+ * Integration tests for the business detail: requested sections only, per-section paging, and
+ * concurrent loading where a slow section is left out without delaying the others.
+ */
+@SpringBootTest(properties = "app.business-detail.section-timeout=500ms")
+@ActiveProfiles("test")
+@Import(TestMailConfiguration.class)
+class BusinessServiceTest {
+
+    @Autowired private BusinessService businessService;
+    @Autowired private CategoryService categoryService;
+    @Autowired private UserRepository userRepository;
+    @MockitoSpyBean private BusinessStatsService statsService;
+
+    private String ownerEmail;
+    private BusinessResponse business;
+
+    @BeforeEach
+    void setUp() {
+        reset(statsService);
+        String suffix = UUID.randomUUID().toString().substring(0, 8);
+        User owner = userRepository.save(User.builder()
+                .email("owner-" + suffix + "@korven.test")
+                .name("Dueño")
+                .passwordHash("hash")
+                .build());
+        ownerEmail = owner.getEmail();
+        business = businessService.createBusiness(ownerEmail, new CreateBusinessRequest("Bar " + suffix));
+        categoryService.createCustomCategory(ownerEmail, business.id(), new CreateCategoryRequest("Tragos", null, null));
+    }
+
+    @Test
+    void returnsEverySection() {
+        BusinessDetailResponse detail = businessService.getBusinessDetail(ownerEmail, business.id());
+
+        assertThat(detail.partial()).isFalse();
+        assertThat(detail.unavailableSections()).isEmpty();
+        assertThat(detail.members()).hasSize(1);
+        assertThat(detail.categories()).hasSize(1);
+        assertThat(detail.products()).isEmpty();
+        assertThat(detail.stats().totalCategories()).isEqualTo(1);
+    }
+
+    @Test
+    void leavesOutASlowSection() {
+        doAnswer(invocation -> {
+            Thread.sleep(5_000);
+            return invocation.callRealMethod();
+        }).when(statsService).getStats(any());
+
+        long start = System.nanoTime();
+        BusinessDetailResponse detail = businessService.getBusinessDetail(ownerEmail, business.id());
+        long elapsedMillis = (System.nanoTime() - start) / 1_000_000;
+
+        assertThat(elapsedMillis).isLessThan(3_000);
+        assertThat(detail.partial()).isTrue();
+        assertThat(detail.unavailableSections()).containsExactly("stats");
+        assertThat(detail.stats()).isNull();
+        assertThat(detail.members()).hasSize(1);
+        assertThat(detail.categories()).hasSize(1);
+    }
+
+    @Test
+    void loadsOnlyTheRequestedSections() {
+        BusinessDetailResponse detail = businessService.getBusinessDetail(ownerEmail, business.id(),
+                new BusinessDetailQuery(BusinessDetailSection.parse("stats"), null, null, null, null));
+
+        assertThat(detail.stats()).isNotNull();
+        assertThat(detail.members()).isNull();
+        assertThat(detail.categories()).isNull();
+        assertThat(detail.products()).isNull();
+        assertThat(detail.partial()).isFalse();
+    }
+
+    @Test
+    void pagesEachSectionByIdentifier() {
+        categoryService.createCustomCategory(ownerEmail, business.id(), new CreateCategoryRequest("Comida", null, null));
+        categoryService.createCustomCategory(ownerEmail, business.id(), new CreateCategoryRequest("Postres", null, null));
+        Set<BusinessDetailSection> sections = BusinessDetailSection.parse("categories,members");
+
+        BusinessDetailResponse first = businessService.getBusinessDetail(ownerEmail, business.id(),
+                new BusinessDetailQuery(sections, 2, null, null, null));
+        BusinessDetailResponse second = businessService.getBusinessDetail(ownerEmail, business.id(),
+                new BusinessDetailQuery(sections, 2, null, first.categoriesNextAfter(), null));
+
+        assertThat(first.categories()).hasSize(2);
+        assertThat(first.categoriesNextAfter()).isEqualTo(first.categories().get(1).id());
+        assertThat(first.members()).hasSize(1);
+        assertThat(first.membersNextAfter()).isNull();
+        assertThat(second.categories()).hasSize(1);
+        assertThat(second.categoriesNextAfter()).isNull();
+        assertThat(second.categories().get(0).id()).isNotIn(first.categories().get(0).id(), first.categories().get(1).id());
+    }
+
+    @Test
+    void rejectsUnknownSections() {
+        assertThatThrownBy(() -> BusinessDetailSection.parse("members,ventas"))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    void checksAccessBeforeLoadingSections() {
+        assertThatThrownBy(() -> businessService.getBusinessDetail("nadie@korven.test", business.id()))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+}
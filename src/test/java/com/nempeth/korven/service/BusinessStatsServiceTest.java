@@ -0,0 +1,148 @@
+package com.nempeth.korven.service;
+
+import com.nempeth.korven.config.TestMailConfiguration;
+import com.nempeth.korven.constants.MembershipStatus;
+import com.nempeth.korven.persistence.entity.Business;
+import com.nempeth.korven.persistence.entity.BusinessStats;
+import com.nempeth.korven.persistence.entity.User;
+import com.nempeth.korven.persistence.repository.BusinessRepository;
+import com.nempeth.korven.persistence.repository.BusinessStatsRepository;
+import com.nempeth.korven.persistence.repository.UserRepository;
+import com.nempeth.korven.rest.dto.*;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Integration tests for {@link BusinessStatsService}: counters maintained by each mutating service,
+ * the aggregate fallback for businesses without a row and the repair of drifted counters.
+ */
+@SpringBootTest
+@ActiveProfiles("test")
+@Import(TestMailConfiguration.class)
+class BusinessStatsServiceTest {
+
+    @Autowired private BusinessStatsService statsService;
+    @Autowired private BusinessStatsJob statsJob;
+    @Autowired private BusinessService businessService;
+    @Autowired private CategoryService categoryService;
+    @Autowired private ProductService productService;
+    @Autowired private SaleService saleService;
+    @Autowired private UserService userService;
+    @Autowired private UserRepository userRepository;
+    @Autowired private BusinessRepository businessRepository;
+    @Autowired private BusinessStatsRepository statsRepository;
+    @Autowired private EntityManagerFactory entityManagerFactory;
+
+    private String suffix;
+    private String ownerEmail;
+    private BusinessResponse business;
+
+    @BeforeEach
+    void setUp() {
+        suffix = UUID.randomUUID().toString().substring(0, 8);
+        ownerEmail = user("owner").getEmail();
+        business = businessService.createBusiness(ownerEmail, new CreateBusinessRequest("Bar " + suffix));
+    }
+
+    @Test
+    void countersFollowEveryChange() {
+        User waiter = user("waiter");
+        businessService.joinBusiness(waiter.getEmail(), new JoinBusinessRequest(business.joinCode()));
+        CategoryResponse drinks = categoryService.createCustomCategory(ownerEmail, business.id(),
+                new CreateCategoryRequest("Tragos", null, null));
+        CategoryResponse food = categoryService.createCustomCategory(ownerEmail, business.id(),
+                new CreateCategoryRequest("Comida", null, null));
+        UUID fernet = product("Fernet", "10.00", drinks.id());
+        UUID gin = product("Gin", "12.50", drinks.id());
+        UUID tonic = product("Tónica", "2.00", drinks.id());
+        product("Empanada", "3.00", food.id());
+        sell(fernet, 2);
+        sell(gin, 1);
+
+        assertStats(2, 2, 4, 2, "32.50");
+
+        categoryService.deleteCustomCategory(ownerEmail, business.id(), food.id());
+        productService.delete(ownerEmail, business.id(), tonic);
+        userService.updateMembershipStatus(business.id(), waiter.getId(), ownerEmail,
+                new UpdateMembershipStatusRequest(MembershipStatus.INACTIVE));
+
+        assertStats(1, 1, 2, 2, "32.50");
+        assertThat(statsService.repairBusiness(business.id())).isFalse();
+    }
+
+    @Test
+    void readsTheCountersWithASingleStatement() {
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+
+        statsService.getStats(business.id());
+
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(1);
+    }
+
+    @Test
+    void fallsBackToAggregatesAndRepairCreatesTheRow() {
+        Business legacy = businessRepository.save(Business.builder()
+                .name("Legacy " + suffix)
+                .joinCode(suffix.toUpperCase())
+                .build());
+
+        assertThat(statsService.getStats(legacy.getId()).totalSales()).isZero();
+        assertThat(statsRepository.findById(legacy.getId())).isEmpty();
+
+        assertThat(statsJob.repairAll()).isGreaterThanOrEqualTo(1);
+        assertThat(statsRepository.findById(legacy.getId())).isPresent();
+    }
+
+    @Test
+    void repairFixesDriftedCounters() {
+        BusinessStats stats = statsRepository.findById(business.id()).orElseThrow();
+        stats.setSales(99L);
+        stats.setRevenue(new BigDecimal("1.00"));
+        statsRepository.save(stats);
+
+        assertThat(statsService.repairBusiness(business.id())).isTrue();
+        assertStats(1, 0, 0, 0, "0.00");
+        assertThat(statsService.repairBusiness(business.id())).isFalse();
+    }
+
+    private void assertStats(long members, long categories, long products, long sales, String revenue) {
+        BusinessStatsResponse stats = businessService.getBusinessDetail(ownerEmail, business.id()).stats();
+        assertThat(stats.activeMembers()).isEqualTo(members);
+        assertThat(stats.totalCategories()).isEqualTo(categories);
+        assertThat(stats.totalProducts()).isEqualTo(products);
+        assertThat(stats.totalSales()).isEqualTo(sales);
+        assertThat(stats.totalRevenue()).isEqualByComparingTo(revenue);
+    }
+
+    private UUID product(String name, String price, UUID categoryId) {
+        return productService.create(ownerEmail, business.id(),
+                new ProductUpsertRequest(name, null, new BigDecimal(price), new BigDecimal("1.00"), categoryId));
+    }
+
+    private void sell(UUID productId, int quantity) {
+        saleService.createSale(ownerEmail, business.id(), new CreateSaleRequest(List.of(
+                new CreateSaleItemRequest(productId, quantity))));
+    }
+
+    private User user(String prefix) {
+        return userRepository.save(User.builder()
+                .email(prefix + "-" + suffix + "@korven.test")
+                .name(prefix)
+                .passwordHash("hash")
+                .build());
+    }
+}
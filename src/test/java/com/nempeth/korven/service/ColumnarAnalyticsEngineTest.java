@@ -0,0 +1,187 @@
+package com.nempeth.korven.service;
+
+import com.nempeth.korven.config.TestMailConfiguration;
+import com.nempeth.korven.constants.CategoryType;
+import com.nempeth.korven.constants.MembershipRole;
+import com.nempeth.korven.constants.MembershipStatus;
+import com.nempeth.korven.constants.TimeGranularity;
+import com.nempeth.korven.persistence.entity.*;
+import com.nempeth.korven.persistence.repository.*;
+import com.nempeth.korven.rest.dto.AnalyticsDashboardResponse;
+import com.nempeth.korven.rest.dto.CreateSaleItemRequest;
+import com.nempeth.korven.rest.dto.CreateSaleRequest;
+import com.nempeth.korven.rest.dto.DashboardCategoryMonthResponse;
+import com.nempeth.korven.rest.dto.MonthlyRevenueResponse;
+import com.nempeth.korven.rest.dto.TimeSeriesPointResponse;
+import com.nempeth.korven.rest.dto.TimeSeriesResponse;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.TestPropertySource;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.OffsetDateTime;
+import java.time.ZonedDateTime;
+import java.util.List;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Integration tests for {@link ColumnarAnalyticsEngine}: the in-memory aggregation must match
+ * the rollup-based analytics, including sales recorded after the business was loaded and sales
+ * removed with the user who created them.
+ */
+@SpringBootTest
+@ActiveProfiles("test")
+@Import(TestMailConfiguration.class)
+@TestPropertySource(properties = "app.analytics.columnar.enabled=true")
+class ColumnarAnalyticsEngineTest {
+
+    @Autowired private ColumnarAnalyticsEngine columnarEngine;
+    @Autowired private SalesRollupService rollupService;
+    @Autowired private SaleService saleService;
+    @Autowired private AnalyticsService analyticsService;
+    @Autowired private UserService userService;
+    @Autowired private UserRepository userRepository;
+    @Autowired private BusinessRepository businessRepository;
+    @Autowired private BusinessMembershipRepository membershipRepository;
+    @Autowired private CategoryRepository categoryRepository;
+    @Autowired private ProductRepository productRepository;
+
+    private String userEmail;
+    private UUID businessId;
+    private UUID fernetId;
+    private UUID burgerId;
+
+    @BeforeEach
+    void setUp() {
+        String suffix = UUID.randomUUID().toString().substring(0, 8);
+        User user = userRepository.save(User.builder()
+                .email("owner-" + suffix + "@korven.test")
+                .passwordHash("hash")
+                .build());
+        Business business = businessRepository.save(Business.builder()
+                .name("Bar " + suffix)
+                .joinCode(suffix.toUpperCase())
+                .build());
+        membershipRepository.save(BusinessMembership.builder()
+                .business(business)
+                .user(user)
+                .role(MembershipRole.OWNER)
+                .status(MembershipStatus.ACTIVE)
+                .build());
+        fernetId = product(business, category(business, "Tragos"), "Fernet", "10.00", "4.00");
+        burgerId = product(business, category(business, "Comidas"), "Hamburguesa", "25.00", "12.50");
+
+        userEmail = user.getEmail();
+        businessId = business.getId();
+    }
+
+    @Test
+    void dashboardIncludesSalesRecordedAfterTheBusinessWasLoaded() {
+        saleService.createSale(userEmail, businessId, new CreateSaleRequest(List.of(
+                new CreateSaleItemRequest(fernetId, 2),
+                new CreateSaleItemRequest(burgerId, 1))));
+        int year = LocalDate.now(rollupService.getZone()).getYear();
+        analyticsService.getDashboard(userEmail, businessId, year);
+
+        saleService.createSale(userEmail, businessId, new CreateSaleRequest(List.of(
+                new CreateSaleItemRequest(fernetId, 1))));
+        AnalyticsDashboardResponse dashboard = analyticsService.getDashboard(userEmail, businessId, year);
+
+        assertThat(dashboard.byCategory()).extracting(DashboardCategoryMonthResponse::categoryName)
+                .containsExactly("Comidas", "Tragos");
+        assertThat(dashboard.byCategory().get(1)).satisfies(row -> {
+            assertThat(row.units()).isEqualTo(3);
+            assertThat(row.saleCount()).isEqualTo(2);
+            assertThat(row.revenue()).isEqualByComparingTo("30.00");
+            assertThat(row.profit()).isEqualByComparingTo("18.00");
+        });
+        assertThat(dashboard.byMonth()).singleElement()
+                .satisfies(month -> assertThat(month.revenue()).isEqualByComparingTo("55.00"));
+    }
+
+    @Test
+    void aggregatesByProductAndTimeBuckets() {
+        saleService.createSale(userEmail, businessId, new CreateSaleRequest(List.of(
+                new CreateSaleItemRequest(fernetId, 2),
+                new CreateSaleItemRequest(burgerId, 1))));
+        saleService.createSale(userEmail, businessId, new CreateSaleRequest(List.of(
+                new CreateSaleItemRequest(burgerId, 4))));
+
+        ZonedDateTime today = LocalDate.now(rollupService.getZone()).atStartOfDay(rollupService.getZone());
+        int[] boundaries = {
+                SaleFactStore.epochMinute(today.toOffsetDateTime()),
+                SaleFactStore.epochMinute(today.plusDays(1).toOffsetDateTime())
+        };
+        SaleFactAggregation facts = columnarEngine.aggregate(
+                businessId, boundaries, ColumnarAnalyticsEngine.Dimension.PRODUCT).orElseThrow();
+
+        assertThat(facts.bucketSaleCount(0)).isEqualTo(2);
+        assertThat(facts.bucketRevenueCents(0)).isEqualTo(14500);
+        for (int key = 0; key < facts.keyCount(); key++) {
+            long expectedUnits = facts.key(key).equals(burgerId) ? 5 : 2;
+            assertThat(facts.units(0, key)).isEqualTo(expectedUnits);
+        }
+
+        TimeSeriesResponse series = analyticsService.getTimeSeries(userEmail, businessId, TimeGranularity.DAY,
+                rollupService.getZone(), today.toLocalDate(), today.toLocalDate());
+        assertThat(series.points()).extracting(TimeSeriesPointResponse::saleCount).containsExactly(2L);
+        assertThat(series.points().get(0).revenue()).isEqualByComparingTo(new BigDecimal("145.00"));
+        assertThat(series.points().get(0).start()).isEqualTo(OffsetDateTime.from(today));
+    }
+
+    @Test
+    void dashboardDropsTheSalesOfADeletedUser() {
+        User waiter = userRepository.save(User.builder()
+                .email("waiter-" + UUID.randomUUID().toString().substring(0, 8) + "@korven.test")
+                .passwordHash("hash")
+                .build());
+        membershipRepository.save(BusinessMembership.builder()
+                .business(businessRepository.getReferenceById(businessId))
+                .user(waiter)
+                .role(MembershipRole.EMPLOYEE)
+                .status(MembershipStatus.ACTIVE)
+                .build());
+        saleService.createSale(userEmail, businessId, new CreateSaleRequest(List.of(
+                new CreateSaleItemRequest(fernetId, 1))));
+        saleService.createSale(waiter.getEmail(), businessId, new CreateSaleRequest(List.of(
+                new CreateSaleItemRequest(burgerId, 2))));
+        int year = LocalDate.now(rollupService.getZone()).getYear();
+        assertThat(analyticsService.getDashboard(userEmail, businessId, year).byCategory()).hasSize(2);
+
+        userService.deleteUser(waiter.getId(), waiter.getEmail());
+        AnalyticsDashboardResponse dashboard = analyticsService.getDashboard(userEmail, businessId, year);
+
+        assertThat(dashboard.byCategory()).extracting(DashboardCategoryMonthResponse::categoryName)
+                .containsExactly("Tragos");
+        List<MonthlyRevenueResponse> fromRollup = analyticsService.getMonthlyTotalRevenue(userEmail, businessId, year);
+        assertThat(dashboard.byMonth()).singleElement()
+                .satisfies(month -> assertThat(month.revenue())
+                        .isEqualByComparingTo(fromRollup.get(0).revenue())
+                        .isEqualByComparingTo("10.00"));
+    }
+
+    private Category category(Business business, String name) {
+        return categoryRepository.save(Category.builder()
+                .business(business)
+                .name(name)
+                .type(CategoryType.CUSTOM)
+                .build());
+    }
+
+    private UUID product(Business business, Category category, String name, String price, String cost) {
+        return productRepository.save(Product.builder()
+                .business(business)
+                .category(category)
+                .name(name)
+                .price(new BigDecimal(price))
+                .cost(new BigDecimal(cost))
+                .build()).getId();
+    }
+}
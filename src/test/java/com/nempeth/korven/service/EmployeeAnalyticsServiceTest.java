@@ -0,0 +1,157 @@
+package com.nempeth.korven.service;
+
+import com.nempeth.korven.config.TestMailConfiguration;
+import com.nempeth.korven.constants.CategoryType;
+import com.nempeth.korven.constants.MembershipRole;
+import com.nempeth.korven.constants.MembershipStatus;
+import com.nempeth.korven.persistence.entity.*;
+import com.nempeth.korven.persistence.repository.*;
+import com.nempeth.korven.rest.dto.CreateSaleItemRequest;
+import com.nempeth.korven.rest.dto.CreateSaleRequest;
+import com.nempeth.korven.rest.dto.EmployeePerformanceResponse;
+import com.nempeth.korven.security.BusinessAccessResolver;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.security.access.AccessDeniedException;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Integration tests for {@link EmployeeAnalyticsService}: per-member totals, owner-only access and
+ * a query count that does not grow with the number of members.
+ */
+@SpringBootTest
+@ActiveProfiles("test")
+@Import(TestMailConfiguration.class)
+class EmployeeAnalyticsServiceTest {
+
+    @Autowired private EmployeeAnalyticsService employeeAnalyticsService;
+    @Autowired private SalesRollupService rollupService;
+    @Autowired private SaleService saleService;
+    @Autowired private UserRepository userRepository;
+    @Autowired private BusinessRepository businessRepository;
+    @Autowired private BusinessMembershipRepository membershipRepository;
+    @Autowired private CategoryRepository categoryRepository;
+    @Autowired private ProductRepository productRepository;
+    @Autowired private BusinessAccessResolver accessResolver;
+    @Autowired private EntityManagerFactory entityManagerFactory;
+
+    private Business business;
+    private String ownerEmail;
+    private String waiterEmail;
+    private UUID waiterId;
+    private UUID fernetId;
+    private LocalDate today;
+
+    @BeforeEach
+    void setUp() {
+        String suffix = UUID.randomUUID().toString().substring(0, 8);
+        business = businessRepository.save(Business.builder()
+                .name("Bar " + suffix)
+                .joinCode(suffix.toUpperCase())
+                .build());
+        ownerEmail = member("owner-" + suffix, MembershipRole.OWNER, MembershipStatus.ACTIVE).getEmail();
+        User waiter = member("waiter-" + suffix, MembershipRole.EMPLOYEE, MembershipStatus.ACTIVE);
+        waiterEmail = waiter.getEmail();
+        waiterId = waiter.getId();
+        member("former-" + suffix, MembershipRole.EMPLOYEE, MembershipStatus.INACTIVE);
+
+        Category drinks = categoryRepository.save(Category.builder()
+                .business(business)
+                .name("Tragos")
+                .type(CategoryType.CUSTOM)
+                .build());
+        fernetId = productRepository.save(Product.builder()
+                .business(business)
+                .category(drinks)
+                .name("Fernet")
+                .price(new BigDecimal("10.00"))
+                .cost(new BigDecimal("4.00"))
+                .build()).getId();
+        today = LocalDate.now(rollupService.getZone());
+    }
+
+    @Test
+    void aggregatesSalesPerMember() {
+        sell(waiterEmail, 3);
+        sell(waiterEmail, 2);
+        sell(ownerEmail, 1);
+
+        List<EmployeePerformanceResponse> employees = employeeAnalyticsService.getEmployeePerformance(
+                ownerEmail, business.getId(), today, today);
+
+        // El miembro inactivo sin ventas no aparece
+        assertThat(employees).hasSize(2);
+        assertThat(employees.get(0)).satisfies(waiter -> {
+            assertThat(waiter.userId()).isEqualTo(waiterId);
+            assertThat(waiter.userName()).isEqualTo("Mozo");
+            assertThat(waiter.saleCount()).isEqualTo(2);
+            assertThat(waiter.revenue()).isEqualByComparingTo("50.00");
+            assertThat(waiter.averageTicket()).isEqualByComparingTo("25.00");
+            assertThat(waiter.itemsPerSale()).isEqualByComparingTo("2.50");
+        });
+        assertThat(employees.get(1).revenue()).isEqualByComparingTo("10.00");
+    }
+
+    @Test
+    void resolvesMembersWithAConstantNumberOfQueries() {
+        sell(waiterEmail, 1);
+        long fewMembers = statements();
+
+        for (int i = 0; i < 5; i++) {
+            User extra = member("extra-" + i + "-" + UUID.randomUUID().toString().substring(0, 8),
+                    MembershipRole.EMPLOYEE, MembershipStatus.ACTIVE);
+            sell(extra.getEmail(), 1);
+        }
+
+        assertThat(statements()).isEqualTo(fewMembers);
+    }
+
+    @Test
+    void onlyOwnersCanSeeEmployeePerformance() {
+        assertThatThrownBy(() -> employeeAnalyticsService.getEmployeePerformance(
+                waiterEmail, business.getId(), today, today))
+                .isInstanceOf(AccessDeniedException.class);
+    }
+
+    private long statements() {
+        accessResolver.resolve(ownerEmail, business.getId());
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+        employeeAnalyticsService.getEmployeePerformance(ownerEmail, business.getId(), today, today);
+        return statistics.getPrepareStatementCount();
+    }
+
+    private void sell(String email, int quantity) {
+        saleService.createSale(email, business.getId(), new CreateSaleRequest(List.of(
+                new CreateSaleItemRequest(fernetId, quantity))));
+    }
+
+    private User member(String prefix, MembershipRole role, MembershipStatus status) {
+        User user = userRepository.save(User.builder()
+                .email(prefix + "@korven.test")
+                .name(role == MembershipRole.OWNER ? "Dueño" : "Mozo")
+                .passwordHash("hash")
+                .build());
+        membershipRepository.save(BusinessMembership.builder()
+                .business(business)
+                .user(user)
+                .role(role)
+                .status(status)
+                .build());
+        return user;
+    }
+}
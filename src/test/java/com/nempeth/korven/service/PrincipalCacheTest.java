@@ -0,0 +1,107 @@
+package com.nempeth.korven.service;
+
+import com.nempeth.korven.config.TestMailConfiguration;
+import com.nempeth.korven.constants.MembershipStatus;
+import com.nempeth.korven.persistence.entity.User;
+import com.nempeth.korven.persistence.repository.UserRepository;
+import com.nempeth.korven.rest.dto.BusinessResponse;
+import com.nempeth.korven.rest.dto.CreateBusinessRequest;
+import com.nempeth.korven.rest.dto.JoinBusinessRequest;
+import com.nempeth.korven.rest.dto.UpdateMembershipStatusRequest;
+import com.nempeth.korven.rest.dto.UpdateUserPasswordRequest;
+import com.nempeth.korven.security.PasswordHasher;
+import com.nempeth.korven.security.PrincipalCache;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Integration tests for {@link PrincipalCache}: repeated lookups skip the database and the changes
+ * that alter a principal evict it once their transaction commits.
+ */
+@SpringBootTest
+@ActiveProfiles("test")
+@Import(TestMailConfiguration.class)
+class PrincipalCacheTest {
+
+    @Autowired private PrincipalCache principalCache;
+    @Autowired private BusinessService businessService;
+    @Autowired private UserService userService;
+    @Autowired private UserRepository userRepository;
+    @Autowired private PasswordHasher passwordHasher;
+    @Autowired private EntityManagerFactory entityManagerFactory;
+
+    private Statistics statistics;
+    private String suffix;
+    private User owner;
+    private User waiter;
+    private BusinessResponse business;
+
+    @BeforeEach
+    void setUp() {
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        suffix = UUID.randomUUID().toString().substring(0, 8);
+        owner = user("owner");
+        waiter = user("waiter");
+        business = businessService.createBusiness(owner.getEmail(), new CreateBusinessRequest("Bar " + suffix));
+        businessService.joinBusiness(waiter.getEmail(), new JoinBusinessRequest(business.joinCode()));
+    }
+
+    @Test
+    void servesRepeatedLookupsFromMemory() {
+        principalCache.get(waiter.getEmail());
+        statistics.clear();
+
+        UserDetails cached = principalCache.get(waiter.getEmail().toUpperCase());
+
+        assertThat(statistics.getPrepareStatementCount()).isZero();
+        assertThat(cached.getPassword()).isEmpty();
+        assertThat(authorities(cached)).containsExactly("ROLE_EMPLOYEE");
+    }
+
+    @Test
+    void membershipStatusChangeEvictsThePrincipal() {
+        assertThat(authorities(principalCache.get(waiter.getEmail()))).containsExactly("ROLE_EMPLOYEE");
+
+        userService.updateMembershipStatus(business.id(), waiter.getId(), owner.getEmail(),
+                new UpdateMembershipStatusRequest(MembershipStatus.INACTIVE));
+
+        assertThat(authorities(principalCache.get(waiter.getEmail()))).containsExactly("ROLE_USER");
+    }
+
+    @Test
+    void passwordChangeEvictsThePrincipal() {
+        principalCache.get(waiter.getEmail());
+
+        userService.updateUserPassword(waiter.getId(), waiter.getEmail(),
+                new UpdateUserPasswordRequest("secreto", "nuevo-secreto"));
+        statistics.clear();
+        principalCache.get(waiter.getEmail());
+
+        assertThat(statistics.getPrepareStatementCount()).isPositive();
+    }
+
+    private static String[] authorities(UserDetails details) {
+        return details.getAuthorities().stream().map(GrantedAuthority::getAuthority).toArray(String[]::new);
+    }
+
+    private User user(String prefix) {
+        return userRepository.save(User.builder()
+                .email(prefix + "-" + suffix + "@korven.test")
+                .name(prefix)
+                .passwordHash(passwordHasher.hash("secreto"))
+                .build());
+    }
+}
@@ -0,0 +1,161 @@
+package com.nempeth.korven.service;
+
+import com.nempeth.korven.config.TestMailConfiguration;
+import com.nempeth.korven.constants.AbcClass;
+import com.nempeth.korven.constants.CategoryType;
+import com.nempeth.korven.constants.MembershipRole;
+import com.nempeth.korven.constants.MembershipStatus;
+import com.nempeth.korven.constants.ProductMetric;
+import com.nempeth.korven.persistence.entity.*;
+import com.nempeth.korven.persistence.repository.*;
+import com.nempeth.korven.rest.dto.CreateSaleItemRequest;
+import com.nempeth.korven.rest.dto.CreateSaleRequest;
+import com.nempeth.korven.rest.dto.ProductAbcResponse;
+import com.nempeth.korven.rest.dto.ProductRankingResponse;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Integration tests for {@link ProductAnalyticsService}: top-N ranking by each metric and the
+ * ABC classification by cumulative revenue.
+ */
+@SpringBootTest
+@ActiveProfiles("test")
+@Import(TestMailConfiguration.class)
+class ProductAnalyticsServiceTest {
+
+    @Autowired private ProductAnalyticsService productAnalyticsService;
+    @Autowired private SalesRollupService rollupService;
+    @Autowired private SaleService saleService;
+    @Autowired private UserRepository userRepository;
+    @Autowired private BusinessRepository businessRepository;
+    @Autowired private BusinessMembershipRepository membershipRepository;
+    @Autowired private CategoryRepository categoryRepository;
+    @Autowired private ProductRepository productRepository;
+
+    private String userEmail;
+    private UUID businessId;
+    private UUID steakId;
+    private UUID burgerId;
+    private UUID sodaId;
+    private LocalDate today;
+
+    @BeforeEach
+    void setUp() {
+        String suffix = UUID.randomUUID().toString().substring(0, 8);
+        User user = userRepository.save(User.builder()
+                .email("owner-" + suffix + "@korven.test")
+                .passwordHash("hash")
+                .build());
+        Business business = businessRepository.save(Business.builder()
+                .name("Bar " + suffix)
+                .joinCode(suffix.toUpperCase())
+                .build());
+        membershipRepository.save(BusinessMembership.builder()
+                .business(business)
+                .user(user)
+                .role(MembershipRole.OWNER)
+                .status(MembershipStatus.ACTIVE)
+                .build());
+        Category food = category(business, "Comidas");
+        steakId = product(business, food, "Bife", "100.00", "90.00");
+        burgerId = product(business, food, "Hamburguesa", "20.00", "5.00");
+        sodaId = product(business, category(business, "Bebidas"), "Gaseosa", "2.00", "1.00");
+
+        userEmail = user.getEmail();
+        businessId = business.getId();
+        today = LocalDate.now(rollupService.getZone());
+
+        // Ingresos: bife 800, hamburguesa 180, gaseosa 20 (total 1000)
+        saleService.createSale(userEmail, businessId, new CreateSaleRequest(List.of(
+                new CreateSaleItemRequest(steakId, 8),
+                new CreateSaleItemRequest(sodaId, 4))));
+        saleService.createSale(userEmail, businessId, new CreateSaleRequest(List.of(
+                new CreateSaleItemRequest(burgerId, 9),
+                new CreateSaleItemRequest(sodaId, 6))));
+    }
+
+    @Test
+    void topProductsFollowTheRequestedMetric() {
+        List<ProductRankingResponse> byRevenue = productAnalyticsService.getTopProducts(
+                userEmail, businessId, ProductMetric.REVENUE, 2, today, today);
+        assertThat(byRevenue).extracting(ProductRankingResponse::productName)
+                .containsExactly("Bife", "Hamburguesa");
+        assertThat(byRevenue.get(0).revenue()).isEqualByComparingTo("800.00");
+
+        List<ProductRankingResponse> byUnits = productAnalyticsService.getTopProducts(
+                userEmail, businessId, ProductMetric.UNITS, 1, today, today);
+        assertThat(byUnits).singleElement().satisfies(product -> {
+            assertThat(product.productId()).isEqualTo(sodaId);
+            assertThat(product.units()).isEqualTo(10);
+        });
+
+        List<ProductRankingResponse> byProfit = productAnalyticsService.getTopProducts(
+                userEmail, businessId, ProductMetric.PROFIT, 3, today, today);
+        assertThat(byProfit).extracting(ProductRankingResponse::productId)
+                .containsExactly(burgerId, steakId, sodaId);
+        assertThat(byProfit.get(0).profit()).isEqualByComparingTo("135.00");
+    }
+
+    @Test
+    void abcAnalysisClassifiesByCumulativeRevenueShare() {
+        List<ProductAbcResponse> abc = productAnalyticsService.getAbcAnalysis(userEmail, businessId, today, today);
+
+        assertThat(abc).extracting(ProductAbcResponse::productId).containsExactly(steakId, burgerId, sodaId);
+        assertThat(abc).extracting(ProductAbcResponse::abcClass).containsExactly(AbcClass.A, AbcClass.B, AbcClass.C);
+        assertThat(abc).extracting(ProductAbcResponse::cumulativeShare)
+                .usingElementComparator(BigDecimal::compareTo)
+                .containsExactly(new BigDecimal("80"), new BigDecimal("98"), new BigDecimal("100"));
+    }
+
+    @Test
+    void deletedProductsKeepTheNameTheyWereSoldWith() {
+        productRepository.deleteById(burgerId);
+
+        assertThat(productAnalyticsService.getTopProducts(userEmail, businessId, ProductMetric.REVENUE, 3, today, today))
+                .extracting(ProductRankingResponse::productName)
+                .containsExactly("Bife", "Hamburguesa", "Gaseosa");
+        assertThat(productAnalyticsService.getAbcAnalysis(userEmail, businessId, today, today))
+                .extracting(ProductAbcResponse::productName)
+                .containsExactly("Bife", "Hamburguesa", "Gaseosa");
+    }
+
+    @Test
+    void rejectsOutOfRangeProductCounts() {
+        assertThatThrownBy(() -> productAnalyticsService.getTopProducts(
+                userEmail, businessId, ProductMetric.REVENUE, 0, today, today))
+                .isInstanceOf(IllegalArgumentException.class);
+        assertThat(productAnalyticsService.getTopProducts(
+                userEmail, businessId, ProductMetric.REVENUE, 5, today.minusYears(1), today.minusDays(1))).isEmpty();
+    }
+
+    private Category category(Business business, String name) {
+        return categoryRepository.save(Category.builder()
+                .business(business)
+                .name(name)
+                .type(CategoryType.CUSTOM)
+                .build());
+    }
+
+    private UUID product(Business business, Category category, String name, String price, String cost) {
+        return productRepository.save(Product.builder()
+                .business(business)
+                .category(category)
+                .name(name)
+                .price(new BigDecimal(price))
+                .cost(new BigDecimal(cost))
+                .build()).getId();
+    }
+}
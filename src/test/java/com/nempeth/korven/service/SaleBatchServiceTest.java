@@ -0,0 +1,135 @@
+package com.nempeth.korven.service;
+
+import com.nempeth.korven.config.TestMailConfiguration;
+import com.nempeth.korven.constants.CategoryType;
+import com.nempeth.korven.constants.MembershipRole;
+import com.nempeth.korven.constants.MembershipStatus;
+import com.nempeth.korven.persistence.entity.*;
+import com.nempeth.korven.persistence.repository.*;
+import com.nempeth.korven.rest.dto.SaleBatchItemResult;
+import com.nempeth.korven.rest.dto.SaleBatchResponse;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.TestPropertySource;
+
+import java.io.ByteArrayInputStream;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Integration tests for {@link SaleBatchService}, using a small chunk size so that
+ * a single payload spans several transactions.
+ */
+@SpringBootTest
+@ActiveProfiles("test")
+@Import(TestMailConfiguration.class)
+@TestPropertySource(properties = "app.sales.batch-chunk-size=2")
+class SaleBatchServiceTest {
+
+    @Autowired private SaleBatchService saleBatchService;
+    @Autowired private UserRepository userRepository;
+    @Autowired private BusinessRepository businessRepository;
+    @Autowired private BusinessMembershipRepository membershipRepository;
+    @Autowired private CategoryRepository categoryRepository;
+    @Autowired private ProductRepository productRepository;
+    @Autowired private SaleRepository saleRepository;
+
+    private String userEmail;
+    private UUID businessId;
+    private UUID productId;
+
+    @BeforeEach
+    void setUp() {
+        String suffix = UUID.randomUUID().toString().substring(0, 8);
+        User user = userRepository.save(User.builder()
+                .email("terminal-" + suffix + "@korven.test")
+                .passwordHash("hash")
+                .build());
+        Business business = businessRepository.save(Business.builder()
+                .name("Bar " + suffix)
+                .joinCode(suffix.toUpperCase())
+                .build());
+        membershipRepository.save(BusinessMembership.builder()
+                .business(business)
+                .user(user)
+                .role(MembershipRole.EMPLOYEE)
+                .status(MembershipStatus.ACTIVE)
+                .build());
+        Category category = categoryRepository.save(Category.builder()
+                .business(business)
+                .name("Tragos")
+                .type(CategoryType.CUSTOM)
+                .build());
+        productId = productRepository.save(Product.builder()
+                .business(business)
+                .category(category)
+                .name("Fernet")
+                .price(new BigDecimal("10.00"))
+                .cost(new BigDecimal("4.00"))
+                .build()).getId();
+
+        userEmail = user.getEmail();
+        businessId = business.getId();
+    }
+
+    @Test
+    void createSalesBatchReportsPerSaleOutcome() throws Exception {
+        String body = "["
+                + sale(productId, 1) + ","
+                + sale(UUID.randomUUID(), 1) + ","
+                + sale(productId, 0) + ","
+                + sale(productId, 3) + ","
+                + sale(productId, 2)
+                + "]";
+
+        SaleBatchResponse response = saleBatchService.createSalesBatch(userEmail, businessId, stream(body));
+
+        assertThat(response.received()).isEqualTo(5);
+        assertThat(response.created()).isEqualTo(3);
+        assertThat(response.failed()).isEqualTo(2);
+        assertThat(response.failures())
+                .extracting(SaleBatchItemResult::index)
+                .containsExactlyInAnyOrder(1, 2);
+        assertThat(saleRepository.findByBusinessIdOrderByOccurredAtDesc(businessId)).hasSize(3);
+    }
+
+    @Test
+    void createSalesBatchKeepsCommittedChunksWhenPayloadIsTruncated() throws Exception {
+        String body = "[" + sale(productId, 1) + "," + sale(productId, 1) + "," + "{\"items\": [";
+
+        SaleBatchResponse response = saleBatchService.createSalesBatch(userEmail, businessId, stream(body));
+
+        assertThat(response.created()).isEqualTo(2);
+        assertThat(response.failures()).singleElement().extracting(SaleBatchItemResult::error).isNotNull();
+    }
+
+    @Test
+    void createSalesBatchRetriesAFailedChunkSaleBySale() throws Exception {
+        // La segunda venta excede el importe máximo y revierte su bloque entero
+        String body = "[" + sale(productId, 1) + "," + sale(productId, 2_000_000_000) + "," + sale(productId, 3) + "]";
+
+        SaleBatchResponse response = saleBatchService.createSalesBatch(userEmail, businessId, stream(body));
+
+        assertThat(response.created()).isEqualTo(2);
+        assertThat(response.failures()).singleElement().satisfies(failure -> {
+            assertThat(failure.index()).isEqualTo(1);
+            assertThat(failure.error()).isEqualTo("El importe de la venta excede el máximo permitido");
+        });
+        assertThat(saleRepository.findByBusinessIdOrderByOccurredAtDesc(businessId)).hasSize(2);
+    }
+
+    private static String sale(UUID productId, int quantity) {
+        return "{\"items\": [{\"productId\": \"" + productId + "\", \"quantity\": " + quantity + "}]}";
+    }
+
+    private static ByteArrayInputStream stream(String body) {
+        return new ByteArrayInputStream(body.getBytes(StandardCharsets.UTF_8));
+    }
+}
@@ -0,0 +1,149 @@
+package com.nempeth.korven.service;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.nempeth.korven.config.TestMailConfiguration;
+import com.nempeth.korven.constants.CategoryType;
+import com.nempeth.korven.constants.ExportFormat;
+import com.nempeth.korven.constants.MembershipRole;
+import com.nempeth.korven.constants.MembershipStatus;
+import com.nempeth.korven.persistence.entity.*;
+import com.nempeth.korven.persistence.repository.*;
+import com.nempeth.korven.rest.dto.CreateSaleItemRequest;
+import com.nempeth.korven.rest.dto.CreateSaleRequest;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.TestPropertySource;
+
+import java.io.ByteArrayOutputStream;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.time.OffsetDateTime;
+import java.util.List;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Integration tests for {@link SaleExportService}, with a fetch size smaller than the export
+ * so that rows are pulled from the cursor in several round trips.
+ */
+@SpringBootTest
+@ActiveProfiles("test")
+@Import(TestMailConfiguration.class)
+@TestPropertySource(properties = "app.sales.export-fetch-size=2")
+class SaleExportServiceTest {
+
+    @Autowired private SaleExportService saleExportService;
+    @Autowired private SaleService saleService;
+    @Autowired private ObjectMapper objectMapper;
+    @Autowired private UserRepository userRepository;
+    @Autowired private BusinessRepository businessRepository;
+    @Autowired private BusinessMembershipRepository membershipRepository;
+    @Autowired private CategoryRepository categoryRepository;
+    @Autowired private ProductRepository productRepository;
+
+    private String ownerEmail;
+    private String employeeEmail;
+    private UUID businessId;
+    private UUID fernetId;
+    private UUID quilmesId;
+
+    @BeforeEach
+    void setUp() {
+        String suffix = UUID.randomUUID().toString().substring(0, 8);
+        Business business = businessRepository.save(Business.builder()
+                .name("Bar " + suffix)
+                .joinCode(suffix.toUpperCase())
+                .build());
+        User owner = member(business, "owner-" + suffix, MembershipRole.OWNER);
+        User employee = member(business, "employee-" + suffix, MembershipRole.EMPLOYEE);
+        Category category = categoryRepository.save(Category.builder()
+                .business(business)
+                .name("Tragos, bebidas")
+                .type(CategoryType.CUSTOM)
+                .build());
+        fernetId = product(business, category, "Fernet \"Branca\"", "10.00");
+        quilmesId = product(business, category, "=Quilmes", "5.50");
+
+        ownerEmail = owner.getEmail();
+        employeeEmail = employee.getEmail();
+        businessId = business.getId();
+    }
+
+    @Test
+    void csvExportWritesOneEscapedRowPerSaleItem() throws Exception {
+        saleService.createSale(ownerEmail, businessId, sale(fernetId, 2, quilmesId, 1));
+        saleService.createSale(employeeEmail, businessId, sale(fernetId, 1));
+
+        List<String> lines = export(ownerEmail, ExportFormat.CSV).lines().toList();
+
+        assertThat(lines).hasSize(4);
+        assertThat(lines.get(0)).startsWith("sale_id,occurred_at,");
+        assertThat(lines.subList(1, 4))
+                .anyMatch(line -> line.contains(",\"Fernet \"\"Branca\"\"\",\"Tragos, bebidas\",2,10.00,4.00,20.00"))
+                .anyMatch(line -> line.contains(",'=Quilmes,\"Tragos, bebidas\",1,5.50,4.00,5.50"));
+    }
+
+    @Test
+    void ndjsonExportOnlyIncludesEmployeeOwnSales() throws Exception {
+        saleService.createSale(ownerEmail, businessId, sale(fernetId, 2, quilmesId, 1));
+        UUID employeeSaleId = saleService.createSale(employeeEmail, businessId, sale(fernetId, 3));
+
+        List<String> lines = export(employeeEmail, ExportFormat.NDJSON).lines().toList();
+
+        assertThat(lines).hasSize(1);
+        JsonNode row = objectMapper.readTree(lines.get(0));
+        assertThat(row.get("saleId").asText()).isEqualTo(employeeSaleId.toString());
+        assertThat(row.get("quantity").asInt()).isEqualTo(3);
+        assertThat(row.get("lineTotal").decimalValue()).isEqualByComparingTo("30.00");
+    }
+
+    private String export(String email, ExportFormat format) throws Exception {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        saleExportService.export(email, businessId, format,
+                        OffsetDateTime.now().minusDays(1), OffsetDateTime.now().plusDays(1))
+                .writeTo(out);
+        return out.toString(StandardCharsets.UTF_8);
+    }
+
+    private User member(Business business, String prefix, MembershipRole role) {
+        User user = userRepository.save(User.builder()
+                .email(prefix + "@korven.test")
+                .name("Ana")
+                .lastName("Pérez")
+                .passwordHash("hash")
+                .build());
+        membershipRepository.save(BusinessMembership.builder()
+                .business(business)
+                .user(user)
+                .role(role)
+                .status(MembershipStatus.ACTIVE)
+                .build());
+        return user;
+    }
+
+    private UUID product(Business business, Category category, String name, String price) {
+        return productRepository.save(Product.builder()
+                .business(business)
+                .category(category)
+                .name(name)
+                .price(new BigDecimal(price))
+                .cost(new BigDecimal("4.00"))
+                .build()).getId();
+    }
+
+    private static CreateSaleRequest sale(UUID productId, int quantity) {
+        return new CreateSaleRequest(List.of(new CreateSaleItemRequest(productId, quantity)));
+    }
+
+    private static CreateSaleRequest sale(UUID firstId, int firstQuantity, UUID secondId, int secondQuantity) {
+        return new CreateSaleRequest(List.of(
+                new CreateSaleItemRequest(firstId, firstQuantity),
+                new CreateSaleItemRequest(secondId, secondQuantity)));
+    }
+}
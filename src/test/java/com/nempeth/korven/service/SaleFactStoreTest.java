@@ -0,0 +1,41 @@
+package com.nempeth.korven.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.OffsetDateTime;
+import java.util.List;
+import java.util.UUID;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class SaleFactStoreTest {
+
+    private final SaleFactStore store = new SaleFactStore();
+
+    @Test
+    void salesCommittedDuringTheLoadAreCountedOnceWhateverTheirDate() {
+        // Venta con fecha del cliente de hace un año, confirmada mientras se carga el negocio
+        List<SaleFactStore.SaleFact> backdated = sale(OffsetDateTime.now().minusYears(1), 2);
+        List<SaleFactStore.SaleFact> notYetRead = sale(OffsetDateTime.now().minusDays(3), 1);
+
+        assertThat(store.startLoading()).isTrue();
+        assertThat(store.startLoading()).isFalse();
+        store.loadSale(sale(OffsetDateTime.now().minusMonths(2), 3));
+        store.append(backdated);
+        store.loadSale(backdated);
+        store.append(notYetRead);
+        store.finishLoading();
+
+        assertThat(store.snapshot().size()).isEqualTo(6);
+    }
+
+    private static List<SaleFactStore.SaleFact> sale(OffsetDateTime occurredAt, int items) {
+        UUID saleId = UUID.randomUUID();
+        UUID userId = UUID.randomUUID();
+        return IntStream.range(0, items)
+                .mapToObj(i -> new SaleFactStore.SaleFact(saleId, occurredAt, userId, UUID.randomUUID(),
+                        "Tragos", 1, 1000, 400))
+                .toList();
+    }
+}
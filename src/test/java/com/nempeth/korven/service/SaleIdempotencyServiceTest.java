@@ -0,0 +1,116 @@
+package com.nempeth.korven.service;
+
+import com.nempeth.korven.config.TestMailConfiguration;
+import com.nempeth.korven.constants.CategoryType;
+import com.nempeth.korven.constants.MembershipRole;
+import com.nempeth.korven.constants.MembershipStatus;
+import com.nempeth.korven.persistence.entity.*;
+import com.nempeth.korven.persistence.repository.*;
+import com.nempeth.korven.rest.dto.CreateSaleItemRequest;
+import com.nempeth.korven.rest.dto.CreateSaleRequest;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.*;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Integration tests for {@link SaleIdempotencyService}.
+ */
+@SpringBootTest
+@ActiveProfiles("test")
+@Import(TestMailConfiguration.class)
+class SaleIdempotencyServiceTest {
+
+    @Autowired private SaleIdempotencyService saleIdempotencyService;
+    @Autowired private UserRepository userRepository;
+    @Autowired private BusinessRepository businessRepository;
+    @Autowired private BusinessMembershipRepository membershipRepository;
+    @Autowired private CategoryRepository categoryRepository;
+    @Autowired private ProductRepository productRepository;
+    @Autowired private SaleRepository saleRepository;
+
+    private String userEmail;
+    private UUID businessId;
+    private CreateSaleRequest request;
+
+    @BeforeEach
+    void setUp() {
+        String suffix = UUID.randomUUID().toString().substring(0, 8);
+        User user = userRepository.save(User.builder()
+                .email("mozo-" + suffix + "@korven.test")
+                .passwordHash("hash")
+                .build());
+        Business business = businessRepository.save(Business.builder()
+                .name("Bar " + suffix)
+                .joinCode(suffix.toUpperCase())
+                .build());
+        membershipRepository.save(BusinessMembership.builder()
+                .business(business)
+                .user(user)
+                .role(MembershipRole.EMPLOYEE)
+                .status(MembershipStatus.ACTIVE)
+                .build());
+        Category category = categoryRepository.save(Category.builder()
+                .business(business)
+                .name("Cafetería")
+                .type(CategoryType.CUSTOM)
+                .build());
+        Product product = productRepository.save(Product.builder()
+                .business(business)
+                .category(category)
+                .name("Cortado")
+                .price(new BigDecimal("3.50"))
+                .cost(new BigDecimal("1.00"))
+                .build());
+
+        userEmail = user.getEmail();
+        businessId = business.getId();
+        request = new CreateSaleRequest(List.of(new CreateSaleItemRequest(product.getId(), 1)));
+    }
+
+    @Test
+    void retriedKeyReturnsOriginalSale() {
+        UUID first = saleIdempotencyService.createSale(userEmail, businessId, "ticket-1", request);
+        UUID retry = saleIdempotencyService.createSale(userEmail, businessId, "ticket-1", request);
+
+        assertThat(retry).isEqualTo(first);
+        assertThat(saleRepository.findByBusinessIdOrderByOccurredAtDesc(businessId)).hasSize(1);
+    }
+
+    @Test
+    void concurrentRequestsWithSameKeyCreateOneSale() throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        CountDownLatch start = new CountDownLatch(1);
+        try {
+            List<Future<UUID>> futures = new ArrayList<>();
+            for (int i = 0; i < 8; i++) {
+                futures.add(executor.submit(() -> {
+                    start.await();
+                    return saleIdempotencyService.createSale(userEmail, businessId, "ticket-2", request);
+                }));
+            }
+            start.countDown();
+
+            Set<UUID> saleIds = ConcurrentHashMap.newKeySet();
+            for (Future<UUID> future : futures) {
+                saleIds.add(future.get(30, TimeUnit.SECONDS));
+            }
+
+            assertThat(saleIds).hasSize(1);
+            assertThat(saleRepository.findByBusinessIdOrderByOccurredAtDesc(businessId)).hasSize(1);
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+}
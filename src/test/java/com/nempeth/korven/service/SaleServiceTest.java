@@ -0,0 +1,188 @@
+package com.nempeth.korven.service;
+
+import com.nempeth.korven.config.TestMailConfiguration;
+import com.nempeth.korven.constants.CategoryType;
+import com.nempeth.korven.constants.MembershipRole;
+import com.nempeth.korven.constants.MembershipStatus;
+import com.nempeth.korven.persistence.entity.*;
+import com.nempeth.korven.persistence.repository.*;
+import com.nempeth.korven.rest.dto.CreateSaleItemRequest;
+import com.nempeth.korven.rest.dto.CreateSaleRequest;
+import com.nempeth.korven.rest.dto.SalePageResponse;
+import com.nempeth.korven.security.BusinessAccessResolver;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Integration tests for {@link SaleService}.
+ * Statement counts are measured with Hibernate statistics, enabled in the test profile.
+ */
+@SpringBootTest
+@ActiveProfiles("test")
+@Import(TestMailConfiguration.class)
+class SaleServiceTest {
+
+    @Autowired private SaleService saleService;
+    @Autowired private UserRepository userRepository;
+    @Autowired private BusinessRepository businessRepository;
+    @Autowired private BusinessMembershipRepository membershipRepository;
+    @Autowired private CategoryRepository categoryRepository;
+    @Autowired private ProductRepository productRepository;
+    @Autowired private SaleRepository saleRepository;
+    @Autowired private SaleItemRepository saleItemRepository;
+    @Autowired private BusinessAccessResolver accessResolver;
+    @Autowired private EntityManagerFactory entityManagerFactory;
+
+    private String userEmail;
+    private UUID businessId;
+    private List<UUID> productIds;
+
+    @BeforeEach
+    void setUp() {
+        String suffix = UUID.randomUUID().toString().substring(0, 8);
+        User user = userRepository.save(User.builder()
+                .email("cajero-" + suffix + "@korven.test")
+                .name("Caja")
+                .lastName("Uno")
+                .passwordHash("hash")
+                .build());
+        Business business = businessRepository.save(Business.builder()
+                .name("Bar " + suffix)
+                .joinCode(suffix.toUpperCase())
+                .build());
+        membershipRepository.save(BusinessMembership.builder()
+                .business(business)
+                .user(user)
+                .role(MembershipRole.OWNER)
+                .status(MembershipStatus.ACTIVE)
+                .build());
+        Category category = categoryRepository.save(Category.builder()
+                .business(business)
+                .name("Bebidas")
+                .type(CategoryType.CUSTOM)
+                .build());
+
+        productIds = new ArrayList<>();
+        for (int i = 0; i < 20; i++) {
+            Product product = productRepository.save(Product.builder()
+                    .business(business)
+                    .category(category)
+                    .name("Producto " + i)
+                    .price(new BigDecimal("100.50"))
+                    .cost(new BigDecimal("40.00"))
+                    .build());
+            productIds.add(product.getId());
+        }
+
+        userEmail = user.getEmail();
+        businessId = business.getId();
+    }
+
+    /**
+     * The write path must not issue per-item statements: a one-item ticket and a
+     * fifteen-item ticket have to cost the same number of prepared statements.
+     */
+    @Test
+    void createSaleStatementCountDoesNotDependOnItemCount() {
+        long singleItem = statementsFor(saleRequest(1));
+        long fifteenItems = statementsFor(saleRequest(15));
+
+        assertThat(fifteenItems).isEqualTo(singleItem);
+    }
+
+    @Test
+    void createSaleComputesTotalAndPersistsItems() {
+        UUID saleId = saleService.createSale(userEmail, businessId, saleRequest(3));
+
+        Sale sale = saleRepository.findById(saleId).orElseThrow();
+        assertThat(sale.getTotalAmount()).isEqualByComparingTo("603.00");
+        assertThat(saleItemRepository.findBySaleId(saleId)).hasSize(3);
+    }
+
+    @Test
+    void createSaleRejectsProductsFromOtherBusinesses() {
+        CreateSaleRequest request = new CreateSaleRequest(List.of(
+                new CreateSaleItemRequest(productIds.get(0), 1),
+                new CreateSaleItemRequest(UUID.randomUUID(), 1)));
+
+        assertThatThrownBy(() -> saleService.createSale(userEmail, businessId, request))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessage("Producto no encontrado en este negocio");
+    }
+
+    @Test
+    void salesPagesFollowCursorWithoutGapsOrRepeats() {
+        List<UUID> created = new ArrayList<>();
+        for (int i = 0; i < 5; i++) {
+            created.add(saleService.createSale(userEmail, businessId, saleRequest(1)));
+        }
+
+        List<UUID> listed = new ArrayList<>();
+        SaleCursor cursor = null;
+        do {
+            SalePageResponse page = saleService.getSalesByBusiness(userEmail, businessId, cursor, 2);
+            assertThat(page.items()).hasSizeLessThanOrEqualTo(2);
+            page.items().forEach(sale -> listed.add(sale.id()));
+            cursor = page.nextCursor() != null ? SaleCursor.decode(page.nextCursor()) : null;
+        } while (cursor != null);
+
+        assertThat(listed).containsExactlyInAnyOrderElementsOf(created);
+    }
+
+    /**
+     * Listing sales must cost a fixed number of statements (access check, sales, items, users)
+     * regardless of how many sales are on the page.
+     */
+    @Test
+    void listingSalesStatementCountDoesNotDependOnPageSize() {
+        saleService.createSale(userEmail, businessId, saleRequest(2));
+        long twoSales = listingStatements();
+
+        for (int i = 0; i < 8; i++) {
+            saleService.createSale(userEmail, businessId, saleRequest(3));
+        }
+        long tenSales = listingStatements();
+
+        assertThat(tenSales).isEqualTo(twoSales);
+    }
+
+    private long statementsFor(CreateSaleRequest request) {
+        // Solo se mide la escritura: el acceso ya queda cacheado desde la primera llamada
+        accessResolver.resolve(userEmail, businessId);
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+        saleService.createSale(userEmail, businessId, request);
+        return statistics.getPrepareStatementCount();
+    }
+
+    private long listingStatements() {
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+        SalePageResponse page = saleService.getSalesByBusiness(userEmail, businessId, null, 50);
+        assertThat(page.items()).allSatisfy(sale -> assertThat(sale.items()).isNotEmpty());
+        return statistics.getPrepareStatementCount();
+    }
+
+    private CreateSaleRequest saleRequest(int items) {
+        List<CreateSaleItemRequest> lines = new ArrayList<>();
+        for (int i = 0; i < items; i++) {
+            lines.add(new CreateSaleItemRequest(productIds.get(i), 2));
+        }
+        return new CreateSaleRequest(lines);
+    }
+}
@@ -0,0 +1,198 @@
+package com.nempeth.korven.service;
+
+import com.nempeth.korven.config.TestMailConfiguration;
+import com.nempeth.korven.constants.CategoryType;
+import com.nempeth.korven.constants.MembershipRole;
+import com.nempeth.korven.constants.MembershipStatus;
+import com.nempeth.korven.persistence.entity.*;
+import com.nempeth.korven.persistence.repository.*;
+import com.nempeth.korven.rest.dto.AnalyticsDashboardResponse;
+import com.nempeth.korven.rest.dto.CreateSaleItemRequest;
+import com.nempeth.korven.rest.dto.DashboardMonthResponse;
+import com.nempeth.korven.rest.dto.CreateSaleRequest;
+import com.nempeth.korven.rest.dto.MonthlyCategoryProfitResponse;
+import com.nempeth.korven.rest.dto.MonthlyRevenueResponse;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Integration tests for {@link SalesRollupService}: totals maintained by {@link SaleService},
+ * read by {@link AnalyticsService}, and the rebuild/verify pair.
+ */
+@SpringBootTest
+@ActiveProfiles("test")
+@Import(TestMailConfiguration.class)
+class SalesRollupServiceTest {
+
+    @Autowired private SalesRollupService rollupService;
+    @Autowired private SaleService saleService;
+    @Autowired private AnalyticsService analyticsService;
+    @Autowired private UserService userService;
+    @Autowired private JdbcTemplate jdbcTemplate;
+    @Autowired private UserRepository userRepository;
+    @Autowired private BusinessRepository businessRepository;
+    @Autowired private BusinessMembershipRepository membershipRepository;
+    @Autowired private CategoryRepository categoryRepository;
+    @Autowired private ProductRepository productRepository;
+
+    private String userEmail;
+    private UUID businessId;
+    private Business business;
+    private UUID fernetId;
+    private UUID burgerId;
+
+    @BeforeEach
+    void setUp() {
+        String suffix = UUID.randomUUID().toString().substring(0, 8);
+        User user = userRepository.save(User.builder()
+                .email("owner-" + suffix + "@korven.test")
+                .passwordHash("hash")
+                .build());
+        Business business = businessRepository.save(Business.builder()
+                .name("Bar " + suffix)
+                .joinCode(suffix.toUpperCase())
+                .build());
+        membershipRepository.save(BusinessMembership.builder()
+                .business(business)
+                .user(user)
+                .role(MembershipRole.OWNER)
+                .status(MembershipStatus.ACTIVE)
+                .build());
+        fernetId = product(business, category(business, "Tragos"), "Fernet", "10.00", "4.00");
+        burgerId = product(business, category(business, "Comidas"), "Hamburguesa", "25.00", "12.50");
+
+        userEmail = user.getEmail();
+        businessId = business.getId();
+        this.business = business;
+    }
+
+    @Test
+    void createSaleKeepsDailyTotalsConsistentWithSales() {
+        saleService.createSale(userEmail, businessId, new CreateSaleRequest(List.of(
+                new CreateSaleItemRequest(fernetId, 2),
+                new CreateSaleItemRequest(burgerId, 1))));
+        saleService.createSale(userEmail, businessId, new CreateSaleRequest(List.of(
+                new CreateSaleItemRequest(fernetId, 1))));
+
+        assertThat(rollupService.verifyBusiness(businessId)).isEmpty();
+        assertThat(jdbcTemplate.queryForObject(
+                "SELECT sale_count FROM sales_daily_rollup WHERE business_id = ? AND category_name = 'Tragos'",
+                Long.class, businessId)).isEqualTo(2L);
+
+        int year = LocalDate.now(rollupService.getZone()).getYear();
+        List<MonthlyRevenueResponse> revenue = analyticsService.getMonthlyTotalRevenue(userEmail, businessId, year);
+        assertThat(revenue).singleElement()
+                .satisfies(month -> assertThat(month.revenue()).isEqualByComparingTo("55.00"));
+
+        List<MonthlyCategoryProfitResponse> profit = analyticsService.getMonthlyProfitByCategory(userEmail, businessId, year);
+        assertThat(profit).extracting(MonthlyCategoryProfitResponse::categoryName)
+                .containsExactly("Comidas", "Tragos");
+        assertThat(profit).extracting(MonthlyCategoryProfitResponse::profit)
+                .usingElementComparator(BigDecimal::compareTo)
+                .containsExactly(new BigDecimal("12.50"), new BigDecimal("18.00"));
+    }
+
+    @Test
+    void dashboardCombinesCategoryRowsAndMonthlyTotals() {
+        saleService.createSale(userEmail, businessId, new CreateSaleRequest(List.of(
+                new CreateSaleItemRequest(fernetId, 2),
+                new CreateSaleItemRequest(burgerId, 1))));
+        saleService.createSale(userEmail, businessId, new CreateSaleRequest(List.of(
+                new CreateSaleItemRequest(fernetId, 1))));
+
+        int year = LocalDate.now(rollupService.getZone()).getYear();
+        AnalyticsDashboardResponse dashboard = analyticsService.getDashboard(userEmail, businessId, year);
+
+        assertThat(dashboard.byCategory()).hasSize(2);
+        assertThat(dashboard.byCategory()).filteredOn(row -> row.categoryName().equals("Tragos")).singleElement()
+                .satisfies(row -> {
+                    assertThat(row.units()).isEqualTo(3);
+                    assertThat(row.saleCount()).isEqualTo(2);
+                    assertThat(row.profit()).isEqualByComparingTo("18.00");
+                });
+        DashboardMonthResponse month = dashboard.byMonth().get(0);
+        assertThat(dashboard.byMonth()).hasSize(1);
+        assertThat(month.revenue()).isEqualByComparingTo("55.00");
+        assertThat(month.cost()).isEqualByComparingTo("24.50");
+        assertThat(month.profit()).isEqualByComparingTo("30.50");
+        assertThat(month.units()).isEqualTo(4);
+    }
+
+    @Test
+    void deletingAUserSubtractsTheirSales() {
+        User waiter = userRepository.save(User.builder()
+                .email("waiter-" + UUID.randomUUID().toString().substring(0, 8) + "@korven.test")
+                .passwordHash("hash")
+                .build());
+        membershipRepository.save(BusinessMembership.builder()
+                .business(business)
+                .user(waiter)
+                .role(MembershipRole.EMPLOYEE)
+                .status(MembershipStatus.ACTIVE)
+                .build());
+        saleService.createSale(userEmail, businessId, new CreateSaleRequest(List.of(
+                new CreateSaleItemRequest(fernetId, 1))));
+        saleService.createSale(waiter.getEmail(), businessId, new CreateSaleRequest(List.of(
+                new CreateSaleItemRequest(fernetId, 2),
+                new CreateSaleItemRequest(burgerId, 1))));
+
+        userService.deleteUser(waiter.getId(), waiter.getEmail());
+
+        assertThat(rollupService.verifyBusiness(businessId)).isEmpty();
+        assertThat(jdbcTemplate.queryForList(
+                "SELECT category_name FROM sales_daily_rollup WHERE business_id = ?", String.class, businessId))
+                .containsExactly("Tragos");
+        int year = LocalDate.now(rollupService.getZone()).getYear();
+        assertThat(analyticsService.getMonthlyTotalRevenue(userEmail, businessId, year)).singleElement()
+                .satisfies(month -> assertThat(month.revenue()).isEqualByComparingTo("10.00"));
+    }
+
+    @Test
+    void rebuildRepairsTotalsReportedByVerify() {
+        saleService.createSale(userEmail, businessId, new CreateSaleRequest(List.of(
+                new CreateSaleItemRequest(burgerId, 3))));
+        jdbcTemplate.update("UPDATE sales_daily_rollup SET units = 99 WHERE business_id = ?", businessId);
+        jdbcTemplate.update("DELETE FROM sales_daily_rollup WHERE business_id = ? AND category_name = 'Comidas'", businessId);
+        jdbcTemplate.update("""
+                INSERT INTO sales_daily_rollup (business_id, sale_date, category_name, revenue, cost, units, sale_count)
+                VALUES (?, DATE '2000-01-01', 'Huérfana', 1.00, 0.00, 1, 1)
+                """, businessId);
+
+        assertThat(rollupService.verifyBusiness(businessId))
+                .extracting(SalesRollupService.RollupMismatch::categoryName)
+                .containsExactlyInAnyOrder("Comidas", "Huérfana");
+
+        assertThat(rollupService.rebuildBusiness(businessId)).isEqualTo(1);
+        assertThat(rollupService.verifyBusiness(businessId)).isEmpty();
+    }
+
+    private Category category(Business business, String name) {
+        return categoryRepository.save(Category.builder()
+                .business(business)
+                .name(name)
+                .type(CategoryType.CUSTOM)
+                .build());
+    }
+
+    private UUID product(Business business, Category category, String name, String price, String cost) {
+        return productRepository.save(Product.builder()
+                .business(business)
+                .category(category)
+                .name(name)
+                .price(new BigDecimal(price))
+                .cost(new BigDecimal(cost))
+                .build()).getId();
+    }
+}
@@ -0,0 +1,89 @@
+package com.nempeth.korven.service;
+
+import com.nempeth.korven.config.TestMailConfiguration;
+import com.nempeth.korven.persistence.entity.User;
+import com.nempeth.korven.persistence.repository.UserRepository;
+import com.nempeth.korven.rest.dto.LoginRequest;
+import com.nempeth.korven.rest.dto.RegisterRequest;
+import com.nempeth.korven.rest.dto.UpdateUserProfileRequest;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Integration tests for email normalization: emails are stored in canonical form and looked up
+ * with an equality that the plan resolves through the email index instead of a table scan.
+ */
+@SpringBootTest
+@ActiveProfiles("test")
+@Import(TestMailConfiguration.class)
+class UserEmailLookupTest {
+
+    @Autowired private AuthService authService;
+    @Autowired private UserService userService;
+    @Autowired private UserRepository userRepository;
+    @Autowired private JdbcTemplate jdbcTemplate;
+
+    private String suffix;
+
+    @BeforeEach
+    void setUp() {
+        suffix = UUID.randomUUID().toString().substring(0, 8);
+    }
+
+    @Test
+    void storesNormalizedEmailsAndFindsThemInAnyCase() {
+        UUID userId = authService.register(new RegisterRequest("  Ana-" + suffix + "@Korven.TEST ", "Ana", null, "secreto"));
+
+        User stored = userRepository.findById(userId).orElseThrow();
+        assertThat(stored.getEmail()).isEqualTo("ana-" + suffix + "@korven.test");
+        assertThat(userRepository.findByEmailIgnoreCase("ANA-" + suffix + "@KORVEN.TEST")).isPresent();
+        assertThat(authService.loginAndIssueToken(new LoginRequest("Ana-" + suffix + "@korven.test", "secreto"))).isNotBlank();
+    }
+
+    @Test
+    void rejectsEmailsThatOnlyDifferInCase() {
+        authService.register(new RegisterRequest("beto-" + suffix + "@korven.test", "Beto", null, "secreto"));
+
+        assertThatThrownBy(() -> authService.register(
+                new RegisterRequest("BETO-" + suffix + "@korven.test", "Beto", null, "secreto")))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessage("Email ya registrado");
+    }
+
+    @Test
+    void normalizesProfileEmailChanges() {
+        String email = "caro-" + suffix + "@korven.test";
+        UUID userId = authService.register(new RegisterRequest(email, "Caro", null, "secreto"));
+
+        boolean changed = userService.updateUserProfile(userId, email,
+                new UpdateUserProfileRequest("Carolina-" + suffix + "@Korven.test", null, null));
+
+        assertThat(changed).isTrue();
+        assertThat(userRepository.findById(userId).orElseThrow().getEmail()).isEqualTo("carolina-" + suffix + "@korven.test");
+        assertThat(userService.updateUserProfile(userId, "carolina-" + suffix + "@korven.test",
+                new UpdateUserProfileRequest("CAROLINA-" + suffix + "@korven.test", null, null))).isFalse();
+    }
+
+    @Test
+    void emailLookupUsesTheIndex() {
+        String lookup = plan("SELECT id FROM users WHERE email = 'ana@korven.test'");
+        String lowered = plan("SELECT id FROM users WHERE LOWER(email) = LOWER('ana@korven.test')");
+
+        assertThat(lookup).doesNotContain("tableScan").containsIgnoringCase("email = ");
+        assertThat(lowered).contains("tableScan");
+    }
+
+    private String plan(String sql) {
+        return jdbcTemplate.queryForObject("EXPLAIN " + sql, String.class);
+    }
+}
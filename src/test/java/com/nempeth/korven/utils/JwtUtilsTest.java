@@ -0,0 +1,112 @@
+package com.nempeth.korven.utils;
+
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.ExpiredJwtException;
+import io.jsonwebtoken.Jws;
+import io.jsonwebtoken.security.SignatureException;
+import org.junit.jupiter.api.Test;
+
+import java.time.Clock;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class JwtUtilsTest {
+
+    private static final String SECRET = "test-secret-for-ci-pipeline-256-bits-minimum-length-required-for-jwt";
+    private static final long EXPIRATION_MS = 60_000;
+
+    private final MutableClock clock = new MutableClock(1_700_000_000_000L);
+    private final JwtUtils jwtUtils = new JwtUtils(SECRET, EXPIRATION_MS, 64, clock);
+
+    @Test
+    void servesVerifiedTokensFromTheCache() {
+        String token = jwtUtils.generateToken("ana@korven.test", Map.of());
+
+        Jws<Claims> first = jwtUtils.parseToken(token);
+        Jws<Claims> second = jwtUtils.parseToken(token);
+
+        assertThat(second).isSameAs(first);
+        assertThat(second.getBody().getSubject()).isEqualTo("ana@korven.test");
+    }
+
+    @Test
+    void rejectsCachedTokensFromTheirExpiration() {
+        String token = jwtUtils.generateToken("ana@korven.test", Map.of());
+        long expiration = jwtUtils.parseToken(token).getBody().getExpiration().getTime();
+
+        clock.set(expiration - 1);
+        assertThat(jwtUtils.parseToken(token).getBody().getSubject()).isEqualTo("ana@korven.test");
+
+        clock.set(expiration);
+        assertThatThrownBy(() -> jwtUtils.parseToken(token)).isInstanceOf(ExpiredJwtException.class);
+    }
+
+    @Test
+    void rejectsUncachedTokensAtTheirExpiration() {
+        String token = jwtUtils.generateToken("ana@korven.test", Map.of());
+        JwtUtils fresh = new JwtUtils(SECRET, EXPIRATION_MS, 64, clock);
+
+        clock.set(clock.millis() + EXPIRATION_MS);
+        assertThatThrownBy(() -> fresh.parseToken(token)).isInstanceOf(ExpiredJwtException.class);
+    }
+
+    @Test
+    void doesNotServeTamperedTokensFromTheCache() {
+        String token = jwtUtils.generateToken("ana@korven.test", Map.of());
+        jwtUtils.parseToken(token);
+        String tampered = token.substring(0, token.length() - 2)
+                + (token.endsWith("AA") ? "BB" : "AA");
+
+        assertThatThrownBy(() -> jwtUtils.parseToken(tampered)).isInstanceOf(SignatureException.class);
+    }
+
+    @Test
+    void evictsTheLeastRecentlyUsedTokens() {
+        JwtUtils small = new JwtUtils(SECRET, EXPIRATION_MS, 16, clock);
+        String kept = small.generateToken("kept@korven.test", Map.of());
+        Jws<Claims> keptClaims = small.parseToken(kept);
+        for (int i = 0; i < 200; i++) {
+            small.parseToken(small.generateToken("user" + i + "@korven.test", Map.of()));
+        }
+
+        assertThat(small.parseToken(kept)).isNotSameAs(keptClaims);
+    }
+
+    private static final class MutableClock extends Clock {
+
+        private volatile long millis;
+
+        MutableClock(long millis) {
+            this.millis = millis;
+        }
+
+        void set(long millis) {
+            this.millis = millis;
+        }
+
+        @Override
+        public long millis() {
+            return millis;
+        }
+
+        @Override
+        public Instant instant() {
+            return Instant.ofEpochMilli(millis);
+        }
+
+        @Override
+        public ZoneId getZone() {
+            return ZoneOffset.UTC;
+        }
+
+        @Override
+        public Clock withZone(ZoneId zone) {
+            return this;
+        }
+    }
+}
@@ -0,0 +1,53 @@
+package com.nempeth.korven.utils;
+
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class MoneyTest {
+
+    @Test
+    void convertsExactlyToAndFromNumericScaleTwo() {
+        assertThat(Money.toCents(new BigDecimal("1234.56"))).isEqualTo(123456);
+        assertThat(Money.toCents(new BigDecimal("7"))).isEqualTo(700);
+        assertThat(Money.toDecimal(5)).isEqualTo(new BigDecimal("0.05"));
+        assertThat(Money.of(new BigDecimal("-3.10")).toString()).isEqualTo("-3.10");
+    }
+
+    @Test
+    void rejectsAmountsWithMoreThanTwoDecimals() {
+        assertThatThrownBy(() -> Money.toCents(new BigDecimal("0.001")))
+                .isInstanceOf(ArithmeticException.class);
+    }
+
+    @Test
+    void matchesBigDecimalArithmetic() {
+        BigDecimal price = new BigDecimal("19.99");
+        Money line = Money.of(price).times(3).plus(Money.of(new BigDecimal("0.03")));
+
+        assertThat(line.toBigDecimal()).isEqualTo(price.multiply(BigDecimal.valueOf(3)).add(new BigDecimal("0.03")));
+        assertThat(line.minus(line)).isEqualTo(Money.ZERO);
+    }
+
+    @Test
+    void detectsOverflow() {
+        assertThatThrownBy(() -> Money.ofCents(Long.MAX_VALUE).plus(Money.ofCents(1)))
+                .isInstanceOf(ArithmeticException.class);
+        assertThatThrownBy(() -> Money.ofCents(Long.MAX_VALUE / 2).times(3))
+                .isInstanceOf(ArithmeticException.class);
+    }
+
+    @Test
+    void checksColumnPrecision() {
+        Money max = Money.of(new BigDecimal("9999999999.99"));
+
+        assertThat(max.requireNumeric(12)).isEqualTo(max);
+        assertThatThrownBy(() -> max.plus(Money.ofCents(1)).requireNumeric(12))
+                .isInstanceOf(ArithmeticException.class);
+        assertThatThrownBy(() -> Money.of(new BigDecimal("-10000000000.00")).requireNumeric(12))
+                .isInstanceOf(ArithmeticException.class);
+    }
+}
@@ -0,0 +1,44 @@
+package com.nempeth.korven.utils;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class UuidV7GeneratorTest {
+
+    private final UuidV7Generator generator = new UuidV7Generator();
+
+    @Test
+    void generatesVersion7WithRfcVariant() {
+        UUID id = generator.next();
+
+        assertThat(id.version()).isEqualTo(7);
+        assertThat(id.variant()).isEqualTo(2);
+    }
+
+    @Test
+    void embedsCurrentUnixMillis() {
+        long before = System.currentTimeMillis();
+        UUID id = generator.next();
+        long after = System.currentTimeMillis();
+
+        assertThat(id.getMostSignificantBits() >>> 16).isBetween(before, after + 1);
+    }
+
+    /**
+     * Even when many ids are produced within the same millisecond they must keep increasing,
+     * which is what keeps primary-key inserts at the right edge of the index.
+     */
+    @Test
+    void isStrictlyMonotonicWithinThread() {
+        UUID previous = generator.next();
+        for (int i = 0; i < 100_000; i++) {
+            UUID current = generator.next();
+            assertThat(Long.compareUnsigned(current.getMostSignificantBits(), previous.getMostSignificantBits()))
+                    .isPositive();
+            previous = current;
+        }
+    }
+}